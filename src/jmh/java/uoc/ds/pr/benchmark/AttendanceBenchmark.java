@@ -0,0 +1,69 @@
+package uoc.ds.pr.benchmark;
+
+import edu.uoc.ds.traversal.Iterator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uoc.ds.pr.SportEvents4ClubImpl;
+import uoc.ds.pr.exceptions.DSException;
+import uoc.ds.pr.model.SportEvent;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The most attended event from the live ranking, against a scan of all the events, as
+ * the query was answered before. Some random events get extra attenders on top of those
+ * of ClubData, so the counters differ.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AttendanceBenchmark {
+    private static final int EXTRA_ATTENDERS = 1000;
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private SportEvents4ClubImpl club;
+
+
+    @Setup
+    public void setUp() throws DSException {
+        ClubData data = new ClubData(size);
+        club = data.club;
+        Random random = new Random(size);
+        for (int i = 0; i < EXTRA_ATTENDERS; i++) {
+            club.addAttender("+44" + i, "attender", data.eventIds[random.nextInt(size)]);
+        }
+    }
+
+    @Benchmark
+    public Object ranking() throws DSException {
+        return club.bestSportEventByAttenders();
+    }
+
+    @Benchmark
+    public Object scan() throws DSException {
+        Iterator<SportEvent> it = club.getAllEvents();
+        SportEvent best = it.next();
+        while (it.hasNext()) {
+            SportEvent sportEvent = it.next();
+            if (sportEvent.numAttenders() > best.numAttenders()) {
+                best = sportEvent;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,64 @@
+package uoc.ds.pr.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uoc.ds.pr.SportEvents4Club;
+import uoc.ds.pr.SportEvents4ClubImpl;
+import uoc.ds.pr.exceptions.DSException;
+import uoc.ds.pr.exceptions.LimitExceededException;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Players of the hot event (a full enrollment and its substitutes) that cancel their
+ * signup and sign up again at once: each cancellation of a seat promotes the first
+ * substitute, and the player goes back at the end of the substitutes. The players are
+ * chosen at random, so seats and substitutes are removed from anywhere in the event.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ChurnBenchmark {
+
+    @Param({"1000", "10000"})
+    public int size;
+
+    private ClubData data;
+    private SportEvents4ClubImpl club;
+    private Random random;
+    private int hot;
+
+
+    @Setup
+    public void setUp() throws DSException {
+        data = new ClubData(size);
+        club = data.club;
+        random = new Random(42);
+        hot = Math.min(size, SportEvents4Club.MAX_NUM_ENROLLMENT + ClubData.HOT_SUBSTITUTES);
+    }
+
+    @Benchmark
+    public void cancelAndSignUp() throws DSException {
+        String playerId = data.playerIds[random.nextInt(hot)];
+        club.cancelEnrollment(playerId, data.hotEventId);
+        try {
+            club.signUpEvent(playerId, data.hotEventId);
+        }
+        catch (LimitExceededException e) {
+            // back as a substitute
+        }
+    }
+}
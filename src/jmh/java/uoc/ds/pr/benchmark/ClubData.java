@@ -0,0 +1,152 @@
+package uoc.ds.pr.benchmark;
+
+import uoc.ds.pr.SportEvents4Club;
+import uoc.ds.pr.SportEvents4ClubImpl;
+import uoc.ds.pr.exceptions.DSException;
+import uoc.ds.pr.exceptions.LimitExceededException;
+import uoc.ds.pr.model.FileSpec;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A club populated with a given number of players, sport events and workers, used by all
+ * the benchmarks. The data is deterministic:
+ *
+ * - player i is enrolled in the events i, i+1 and i+2, and rates the event i
+ * - player i follows the players i + k*stride (k = 1..10), so everyone has 10 followers
+ * - worker i has the role i % MAX_ROLES and is assigned to the event i
+ * - every event has 5 attenders, and the organizing entity i % (size / 10)
+ * - a "hot" event has a full enrollment queue and some substitutes
+ * - some files are left pending
+ */
+public class ClubData {
+    public static final int EVENTS_PER_PLAYER = 3;
+    public static final int FOLLOWINGS_PER_PLAYER = 10;
+    public static final int ATTENDERS_PER_EVENT = 5;
+    public static final int HOT_SUBSTITUTES = 20;
+    public static final int PENDING_FILES = 50;
+    public static final LocalDate DATE = LocalDate.of(2022, 11, 22);
+
+    private static final SportEvents4Club.Type[] TYPES = SportEvents4Club.Type.values();
+    private static final SportEvents4Club.Rating[] RATINGS = SportEvents4Club.Rating.values();
+
+    public final int size;
+    public final SportEvents4ClubImpl club;
+    public final String[] playerIds;
+    public final String[] eventIds;
+    public final String[] orgIds;
+    public final String[] roleIds;
+    public final String[] dnis;
+    public final String hotEventId;
+    public final int stride;
+
+
+    public ClubData(int size) throws DSException {
+        this(size, new SportEvents4ClubImpl());
+    }
+
+    public ClubData(int size, SportEvents4ClubImpl club) throws DSException {
+        this.size = size;
+        this.club = club;
+        this.playerIds = ids("P-", size);
+        this.eventIds = ids("EV-", size);
+        this.orgIds = ids("ORG-", Math.max(1, size / 10));
+        this.roleIds = ids("R-", SportEvents4Club.MAX_ROLES);
+        this.dnis = ids("W-", size);
+        this.hotEventId = "EV-HOT";
+        this.stride = Math.max(1, size / (FOLLOWINGS_PER_PLAYER + 1));
+
+        for (String orgId : orgIds) {
+            club.addOrganizingEntity(orgId, orgId, "description " + orgId);
+        }
+        for (String roleId : roleIds) {
+            club.addRole(roleId, "description " + roleId);
+        }
+        for (int i = 0; i < size; i++) {
+            club.addPlayer(playerIds[i], "name", "surname", DATE.minusYears(20 + i % 50));
+        }
+
+        addEvents();
+        enroll();
+        follow();
+        addWorkers();
+        addAttenders();
+
+        for (int i = 0; i < PENDING_FILES; i++) {
+            club.addFile("F-P-" + i, "EV-P-" + i, orgIds[i % orgIds.length], "pending",
+                    TYPES[i % TYPES.length], SportEvents4Club.FLAG_ALL_OPTS,
+                    SportEvents4Club.MAX_NUM_ENROLLMENT, DATE, DATE.plusDays(1));
+        }
+    }
+
+    public String phone(int event, int attender) {
+        return "+34" + (event * ATTENDERS_PER_EVENT + attender);
+    }
+
+    private void addEvents() throws DSException {
+        List<FileSpec> specs = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            specs.add(new FileSpec("F-" + i, eventIds[i], orgIds[i % orgIds.length], "description " + eventIds[i],
+                    TYPES[i % TYPES.length], SportEvents4Club.FLAG_ALL_OPTS,
+                    SportEvents4Club.MAX_NUM_ENROLLMENT, DATE.plusDays(i % 365), DATE.plusDays(i % 365 + 1)));
+        }
+        club.addFiles(specs);
+        club.updateFiles(size, SportEvents4Club.Status.ENABLED, DATE, "OK");
+
+        club.addFile("F-HOT", hotEventId, orgIds[0], "description " + hotEventId, SportEvents4Club.Type.XLARGE,
+                SportEvents4Club.FLAG_ALL_OPTS, SportEvents4Club.MAX_NUM_ENROLLMENT, DATE, DATE.plusDays(1));
+        club.updateFile(SportEvents4Club.Status.ENABLED, DATE, "OK");
+    }
+
+    private void enroll() throws DSException {
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < EVENTS_PER_PLAYER; j++) {
+                club.signUpEvent(playerIds[i], eventIds[(i + j) % size]);
+            }
+            club.addRating(playerIds[i], eventIds[i], RATINGS[i % RATINGS.length], "message");
+        }
+
+        int hot = Math.min(size, SportEvents4Club.MAX_NUM_ENROLLMENT + HOT_SUBSTITUTES);
+        for (int i = 0; i < hot; i++) {
+            try {
+                club.signUpEvent(playerIds[i], hotEventId);
+            }
+            catch (LimitExceededException e) {
+                // added as a substitute
+            }
+        }
+    }
+
+    private void follow() throws DSException {
+        for (int i = 0; i < size; i++) {
+            for (int k = 1; k <= FOLLOWINGS_PER_PLAYER; k++) {
+                club.addFollower(playerIds[(i + k * stride) % size], playerIds[i]);
+            }
+        }
+    }
+
+    private void addWorkers() throws DSException {
+        for (int i = 0; i < size; i++) {
+            club.addWorker(dnis[i], "name", "surname", DATE.minusYears(30), roleIds[i % roleIds.length]);
+            club.assignWorker(dnis[i], eventIds[i]);
+        }
+    }
+
+    private void addAttenders() throws DSException {
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < ATTENDERS_PER_EVENT; j++) {
+                club.addAttender(phone(i, j), "attender", eventIds[i]);
+            }
+        }
+    }
+
+    private static String[] ids(String prefix, int n) {
+        String[] ids = new String[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = prefix + i;
+        }
+        return ids;
+    }
+}
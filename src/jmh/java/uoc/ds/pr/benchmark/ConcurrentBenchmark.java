@@ -0,0 +1,139 @@
+package uoc.ds.pr.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+import uoc.ds.pr.ConcurrentSportEvents4Club;
+import uoc.ds.pr.SportEvents4Club;
+import uoc.ds.pr.SportEvents4ClubImpl;
+import uoc.ds.pr.exceptions.DSException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bursts of updates and reads from several threads: SportEvents4ClubImpl behind one global
+ * lock ("locked") against ConcurrentSportEvents4Club ("striped"). Every player of ClubData
+ * has followers, so each signup and rating also publishes a post to their timelines, and
+ * moves the player and the event in the rankings by activity and by rating. Run it with a
+ * growing number of threads to see how each one scales:
+ *
+ *   mvn -P jmh test-compile exec:exec -Djmh.args="ConcurrentBenchmark -t 1"
+ *   mvn -P jmh test-compile exec:exec -Djmh.args="ConcurrentBenchmark -t 4"
+ *
+ * With "striped" the time of a batch should stay flat as threads (and cores) are added,
+ * since each thread works on its own players and events; addAttender still goes through
+ * the monitor of the rankings by attenders.
+ *
+ * As in InsertBenchmark, each iteration runs a batch of operations per thread on a
+ * freshly built club, because enrollments are bounded.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, batchSize = ConcurrentBenchmark.BATCH)
+@Measurement(iterations = 20, batchSize = ConcurrentBenchmark.BATCH)
+@Fork(1)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class ConcurrentBenchmark {
+    public static final int BATCH = 5_000;
+
+    private static final SportEvents4Club.Rating[] RATINGS = SportEvents4Club.Rating.values();
+
+    @Param({"10000"})
+    public int size;
+
+    @Param({"locked", "striped"})
+    public String impl;
+
+    private ClubData data;
+    private SportEvents4ClubImpl club;
+    private boolean locked;
+
+
+    @State(Scope.Thread)
+    public static class Counter {
+        int thread;
+        int n;
+
+        @Setup(Level.Iteration)
+        public void setUp(ThreadParams params) {
+            thread = params.getThreadIndex();
+            n = 0;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() throws DSException {
+        locked = impl.equals("locked");
+        data = new ClubData(size, locked ? new SportEvents4ClubImpl() : new ConcurrentSportEvents4Club());
+        club = data.club;
+    }
+
+    @Benchmark
+    public void signUpEvent(Counter c) throws DSException {
+        // each thread signs up its own players in the events after the ones they already have
+        int i = c.n++;
+        String playerId = data.playerIds[(c.thread * BATCH + i) % size];
+        String eventId = data.eventIds[(c.thread * BATCH + i + ClubData.EVENTS_PER_PLAYER) % size];
+        if (locked) {
+            synchronized (club) {
+                club.signUpEvent(playerId, eventId);
+            }
+        }
+        else {
+            club.signUpEvent(playerId, eventId);
+        }
+    }
+
+    @Benchmark
+    public void addAttender(Counter c) throws DSException {
+        int i = c.n++;
+        String phone = "+35-" + c.thread + "-" + i;
+        String eventId = data.eventIds[(c.thread * BATCH + i) % size];
+        if (locked) {
+            synchronized (club) {
+                club.addAttender(phone, "attender", eventId);
+            }
+        }
+        else {
+            club.addAttender(phone, "attender", eventId);
+        }
+    }
+
+    @Benchmark
+    public void addRating(Counter c) throws DSException {
+        int i = (c.thread * BATCH + c.n++) % size;
+        SportEvents4Club.Rating rating = RATINGS[i % RATINGS.length];
+        if (locked) {
+            synchronized (club) {
+                club.addRating(data.playerIds[i], data.eventIds[i], rating, "message");
+            }
+        }
+        else {
+            club.addRating(data.playerIds[i], data.eventIds[i], rating, "message");
+        }
+    }
+
+    @Benchmark
+    public Object getPosts(Counter c) throws DSException {
+        // the timelines are read while no one follows anyone else, sharing the social lock
+        String playerId = data.playerIds[(c.thread * BATCH + c.n++) % size];
+        if (locked) {
+            synchronized (club) {
+                return club.getPosts(playerId, null, 10);
+            }
+        }
+        return club.getPosts(playerId, null, 10);
+    }
+}
@@ -0,0 +1,97 @@
+package uoc.ds.pr.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uoc.ds.pr.SportEvents4Club;
+import uoc.ds.pr.SportEvents4ClubImpl;
+import uoc.ds.pr.exceptions.DSException;
+import uoc.ds.pr.model.File;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Operations that add new data to the club. Some containers of the model are bounded
+ * (enrollments, substitutes, attenders up to the maximum of the event), so each
+ * iteration runs a batch of BATCH operations against a freshly built club instead of
+ * running for a fixed time. The score is the time of the whole batch.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, batchSize = InsertBenchmark.BATCH)
+@Measurement(iterations = 20, batchSize = InsertBenchmark.BATCH)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InsertBenchmark {
+    public static final int BATCH = 10_000;
+
+    private static final SportEvents4Club.Rating[] RATINGS = SportEvents4Club.Rating.values();
+
+    @Param({"1000", "10000"})
+    public int size;
+
+    private ClubData data;
+    private SportEvents4ClubImpl club;
+    private int n;
+
+
+    @Setup(Level.Iteration)
+    public void setUp() throws DSException {
+        data = new ClubData(size);
+        club = data.club;
+        n = 0;
+    }
+
+    @Benchmark
+    public void addPlayer() {
+        club.addPlayer("NP-" + n++, "name", "surname", ClubData.DATE.minusYears(20));
+    }
+
+    @Benchmark
+    public void signUpEvent() throws DSException {
+        int i = n++;
+        club.signUpEvent(data.playerIds[i % size], data.eventIds[(i + ClubData.EVENTS_PER_PLAYER + i / size) % size]);
+    }
+
+    @Benchmark
+    public void addRating() throws DSException {
+        int i = n++ % size;
+        club.addRating(data.playerIds[i], data.eventIds[i], RATINGS[n % RATINGS.length], "message");
+    }
+
+    @Benchmark
+    public void addAttender() throws DSException {
+        int i = n++;
+        club.addAttender("+35" + i, "attender", data.eventIds[i % size]);
+    }
+
+    @Benchmark
+    public void addFollower() throws DSException {
+        int i = n++;
+        club.addFollower(data.playerIds[i % size], data.playerIds[(i + 1 + i / size) % size]);
+    }
+
+    @Benchmark
+    public void assignWorker() throws DSException {
+        int i = n++;
+        club.assignWorker(data.dnis[i % size], data.eventIds[(i + 1 + i / size) % size]);
+    }
+
+    @Benchmark
+    public File addAndEnableFile() throws DSException {
+        int i = n++;
+        club.addFile("F-N-" + i, "EV-N-" + i, data.orgIds[i % data.orgIds.length], "new",
+                SportEvents4Club.Type.MEDIUM, SportEvents4Club.FLAG_ALL_OPTS,
+                SportEvents4Club.MAX_NUM_ENROLLMENT, ClubData.DATE, ClubData.DATE.plusDays(1));
+        return club.updateFile(SportEvents4Club.Status.ENABLED, ClubData.DATE, "OK");
+    }
+}
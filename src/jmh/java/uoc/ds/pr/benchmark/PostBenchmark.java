@@ -0,0 +1,96 @@
+package uoc.ds.pr.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uoc.ds.pr.SportEvents4Club;
+import uoc.ds.pr.SportEvents4ClubImpl;
+import uoc.ds.pr.exceptions.DSException;
+import uoc.ds.pr.model.Player;
+import uoc.ds.pr.model.Post;
+import uoc.ds.pr.model.SportEvent;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of creating a post on the signup and rating paths: the message built with
+ * String.format, as the posts were created before, against the typed Post record,
+ * whose message is only rendered when it is read. Every invocation takes a different
+ * player and event of the club.
+ *
+ * "-prof gc" (enabled by default in the jmh profile) gives the allocations per post.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PostBenchmark {
+
+    @Param({"1000"})
+    public int size;
+
+    private Player[] players;
+    private SportEvent[] sportEvents;
+    private int next;
+
+
+    @Setup
+    public void setUp() throws DSException {
+        ClubData data = new ClubData(size);
+        SportEvents4ClubImpl club = data.club;
+        players = new Player[size];
+        sportEvents = new SportEvent[size];
+        for (int i = 0; i < size; i++) {
+            players[i] = club.getPlayer(data.playerIds[i]);
+            sportEvents[i] = club.getSportEvent(data.eventIds[i]);
+        }
+        next = 0;
+    }
+
+    private int next() {
+        next = (next + 1) % size;
+        return next;
+    }
+
+    @Benchmark
+    public Object formatSignup() {
+        int i = next();
+        return String.format("{'player': '%s', 'sportEvent': '%s', 'action': 'signup'}",
+                players[i].getId(), sportEvents[i].getEventId());
+    }
+
+    @Benchmark
+    public Object postSignup() {
+        int i = next();
+        return new Post(players[i], sportEvents[i]);
+    }
+
+    @Benchmark
+    public Object formatRating() {
+        int i = next();
+        return String.format("{'player': '%s', 'sportEvent': '%s', 'rating': '%s', 'action': 'rating'}",
+                players[i].getId(), sportEvents[i].getEventId(), SportEvents4Club.Rating.FIVE.toString());
+    }
+
+    @Benchmark
+    public Object postRating() {
+        int i = next();
+        return new Post(players[i], sportEvents[i], SportEvents4Club.Rating.FIVE);
+    }
+
+    @Benchmark
+    public Object postMessage() {
+        int i = next();
+        return new Post(players[i], sportEvents[i]).message();
+    }
+}
@@ -0,0 +1,276 @@
+package uoc.ds.pr.benchmark;
+
+import edu.uoc.ds.traversal.Iterator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import uoc.ds.pr.SportEvents4Club;
+import uoc.ds.pr.SportEvents4ClubImpl;
+import uoc.ds.pr.exceptions.DSException;
+import uoc.ds.pr.model.Attender;
+import uoc.ds.pr.model.Post;
+import uoc.ds.pr.model.SportEvent;
+import uoc.ds.pr.util.Page;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read only operations of the API. Every invocation asks for a different player,
+ * event, organizing entity or role, and the iterators are fully traversed.
+ *
+ * Throughput mode gives ops/us, sample mode gives the latency percentiles and
+ * "-prof gc" (enabled by default in the jmh profile) the allocations per operation.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueryBenchmark {
+    private static final int TOP = 10;
+    private static final int PAGE = 20;
+
+    @Param({"1000", "10000"})
+    public int size;
+
+    private ClubData data;
+    private SportEvents4ClubImpl club;
+    private int next;
+
+
+    @Setup
+    public void setUp() throws DSException {
+        data = new ClubData(size);
+        club = data.club;
+        next = 0;
+    }
+
+    private int next() {
+        next = (next + 1) % size;
+        return next;
+    }
+
+    private String player() {
+        return data.playerIds[next()];
+    }
+
+    private String event() {
+        return data.eventIds[next()];
+    }
+
+    private String org() {
+        return data.orgIds[next() % data.orgIds.length];
+    }
+
+    private String role() {
+        return data.roleIds[next() % data.roleIds.length];
+    }
+
+    private static <E> void drain(Iterator<E> it, Blackhole bh) {
+        while (it.hasNext()) {
+            bh.consume(it.next());
+        }
+    }
+
+    @Benchmark
+    public double getRejectedFiles() {
+        return club.getRejectedFiles();
+    }
+
+    @Benchmark
+    public void getSportEventsByOrganizingEntity(Blackhole bh) throws DSException {
+        drain(club.getSportEventsByOrganizingEntity(org()), bh);
+    }
+
+    @Benchmark
+    public void getAllEvents(Blackhole bh) throws DSException {
+        drain(club.getAllEvents(), bh);
+    }
+
+    @Benchmark
+    public void getEventsByPlayer(Blackhole bh) throws DSException {
+        drain(club.getEventsByPlayer(player()), bh);
+    }
+
+    @Benchmark
+    public void getRatingsByEvent(Blackhole bh) throws DSException {
+        drain(club.getRatingsByEvent(event()), bh);
+    }
+
+    @Benchmark
+    public Object mostActivePlayer() throws DSException {
+        return club.mostActivePlayer();
+    }
+
+    @Benchmark
+    public Object bestSportEvent() throws DSException {
+        return club.bestSportEvent();
+    }
+
+    @Benchmark
+    public void bestSportEvents(Blackhole bh) throws DSException {
+        drain(club.bestSportEvents(TOP), bh);
+    }
+
+    @Benchmark
+    public int getSportEventRank() throws DSException {
+        return club.getSportEventRank(event());
+    }
+
+    @Benchmark
+    public void getWorkersBySportEvent(Blackhole bh) throws DSException {
+        drain(club.getWorkersBySportEvent(event()), bh);
+    }
+
+    @Benchmark
+    public void getWorkersByRole(Blackhole bh) throws DSException {
+        drain(club.getWorkersByRole(role()), bh);
+    }
+
+    @Benchmark
+    public Object getLevel() throws DSException {
+        return club.getLevel(player());
+    }
+
+    @Benchmark
+    public void getSubstitutes(Blackhole bh) throws DSException {
+        drain(club.getSubstitutes(data.hotEventId), bh);
+    }
+
+    @Benchmark
+    public Object getAttender() throws DSException {
+        int i = next();
+        return club.getAttender(data.phone(i, i % ClubData.ATTENDERS_PER_EVENT), data.eventIds[i]);
+    }
+
+    @Benchmark
+    public void getAttenders(Blackhole bh) throws DSException {
+        drain(club.getAttenders(event()), bh);
+    }
+
+    @Benchmark
+    public void best5OrganizingEntities(Blackhole bh) throws DSException {
+        drain(club.best5OrganizingEntities(), bh);
+    }
+
+    @Benchmark
+    public void bestOrganizingEntities(Blackhole bh) throws DSException {
+        drain(club.bestOrganizingEntities(TOP), bh);
+    }
+
+    @Benchmark
+    public Object bestSportEventByAttenders() throws DSException {
+        return club.bestSportEventByAttenders();
+    }
+
+    @Benchmark
+    public void bestSportEventsByAttenders(Blackhole bh) throws DSException {
+        drain(club.bestSportEventsByAttenders(TOP), bh);
+    }
+
+    @Benchmark
+    public int getAttendersPercentile() throws DSException {
+        return club.getAttendersPercentile(0.9);
+    }
+
+    @Benchmark
+    public void getFollowers(Blackhole bh) throws DSException {
+        drain(club.getFollowers(player()), bh);
+    }
+
+    @Benchmark
+    public void getFollowings(Blackhole bh) throws DSException {
+        drain(club.getFollowings(player()), bh);
+    }
+
+    @Benchmark
+    public void recommendations(Blackhole bh) throws DSException {
+        drain(club.recommendations(player()), bh);
+    }
+
+    @Benchmark
+    public void recommendationsTopK(Blackhole bh) throws DSException {
+        drain(club.recommendations(player(), TOP), bh);
+    }
+
+    @Benchmark
+    public void getPosts(Blackhole bh) throws DSException {
+        drain(club.getPosts(player()), bh);
+    }
+
+    @Benchmark
+    public void getPostsPage(Blackhole bh) throws DSException {
+        Page<Post> page = club.getPosts(player(), null, PAGE);
+        drain(page.values(), bh);
+    }
+
+    @Benchmark
+    public void getAllEventsPage(Blackhole bh) throws DSException {
+        // a page deep in the events: it starts after the event of the cursor
+        Page<SportEvent> page = club.getAllEvents(event(), PAGE);
+        drain(page.values(), bh);
+    }
+
+    @Benchmark
+    public void getAttendersPage(Blackhole bh) throws DSException {
+        Page<Attender> page = club.getAttenders(event(), null, PAGE);
+        drain(page.values(), bh);
+    }
+
+    @Benchmark
+    public void counters(Blackhole bh) {
+        bh.consume(club.numPlayers());
+        bh.consume(club.numOrganizingEntities());
+        bh.consume(club.numFiles());
+        bh.consume(club.numFiles(SportEvents4Club.Type.SMALL));
+        bh.consume(club.numFiles(SportEvents4Club.Status.ENABLED));
+        bh.consume(club.numFiles(SportEvents4Club.Status.ENABLED, SportEvents4Club.Type.SMALL));
+        bh.consume(club.numRejectedFiles());
+        bh.consume(club.numPendingFiles());
+        bh.consume(club.numSportEvents());
+        bh.consume(club.numRoles());
+        bh.consume(club.numWorkers());
+        bh.consume(club.currentFile());
+    }
+
+    @Benchmark
+    public void playerLookups(Blackhole bh) {
+        String playerId = player();
+        bh.consume(club.getPlayer(playerId));
+        bh.consume(club.numSportEventsByPlayer(playerId));
+        bh.consume(club.numRatings(playerId));
+        bh.consume(club.numFollowers(playerId));
+        bh.consume(club.numFollowings(playerId));
+    }
+
+    @Benchmark
+    public void sportEventLookups(Blackhole bh) {
+        String eventId = event();
+        bh.consume(club.getSportEvent(eventId));
+        bh.consume(club.numPlayersBySportEvent(eventId));
+        bh.consume(club.numSubstitutesBySportEvent(eventId));
+        bh.consume(club.numWorkersBySportEvent(eventId));
+        bh.consume(club.numAttenders(eventId));
+    }
+
+    @Benchmark
+    public void organizationLookups(Blackhole bh) {
+        String orgId = org();
+        String roleId = role();
+        bh.consume(club.getOrganizingEntity(orgId));
+        bh.consume(club.numSportEventsByOrganizingEntity(orgId));
+        bh.consume(club.getRole(roleId));
+        bh.consume(club.numWorkersByRole(roleId));
+        bh.consume(club.getWorker(data.dnis[next()]));
+    }
+}
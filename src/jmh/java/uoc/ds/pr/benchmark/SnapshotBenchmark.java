@@ -0,0 +1,84 @@
+package uoc.ds.pr.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import uoc.ds.pr.SportEvents4ClubImpl;
+import uoc.ds.pr.exceptions.DSException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup of a club: replaying the API calls that build it (ClubData) against
+ * loading a snapshot of it. save is measured too, since it runs while the club
+ * is locked.
+ *
+ * Both ways of building the club allocate the whole object graph, so they are run
+ * with a heap large enough to keep full collections out of the score.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class SnapshotBenchmark {
+
+    @Param({"10000", "50000"})
+    public int size;
+
+    private Path path;
+
+
+    /**
+     * The club that is saved, only kept while save is measured
+     */
+    @State(Scope.Benchmark)
+    public static class Saved {
+        SportEvents4ClubImpl club;
+
+        @Setup(Level.Trial)
+        public void setUp(SnapshotBenchmark benchmark) throws DSException {
+            club = new ClubData(benchmark.size).club;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws DSException, IOException {
+        path = Files.createTempFile("club", ".snapshot");
+        new ClubData(size).club.save(path);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    @Benchmark
+    public SportEvents4ClubImpl replay() throws DSException {
+        return new ClubData(size).club;
+    }
+
+    @Benchmark
+    public SportEvents4ClubImpl load() throws IOException {
+        return SportEvents4ClubImpl.load(path);
+    }
+
+    @Benchmark
+    public void save(Saved saved) throws IOException {
+        saved.club.save(path);
+    }
+}
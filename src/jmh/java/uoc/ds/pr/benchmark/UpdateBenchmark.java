@@ -0,0 +1,87 @@
+package uoc.ds.pr.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uoc.ds.pr.SportEvents4Club;
+import uoc.ds.pr.SportEvents4ClubImpl;
+import uoc.ds.pr.exceptions.DSException;
+import uoc.ds.pr.model.File;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Update operations that do not make the club grow, so they can run for as long
+ * as the measurement lasts: updating existing organizing entities, roles and workers,
+ * and adding a file that is reviewed (and rejected) at once.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UpdateBenchmark {
+
+    @Param({"1000", "10000"})
+    public int size;
+
+    private ClubData data;
+    private SportEvents4ClubImpl club;
+    private int next;
+    private int pass;
+
+
+    @Setup
+    public void setUp() throws DSException {
+        data = new ClubData(size);
+        club = data.club;
+        next = 0;
+        pass = 0;
+    }
+
+    private int next() {
+        next = (next + 1) % size;
+        return next;
+    }
+
+    @Benchmark
+    public void addOrganizingEntity() {
+        String orgId = data.orgIds[next() % data.orgIds.length];
+        club.addOrganizingEntity(orgId, orgId, "updated description");
+    }
+
+    @Benchmark
+    public void addRole() {
+        String roleId = data.roleIds[next() % data.roleIds.length];
+        club.addRole(roleId, "updated description");
+    }
+
+    @Benchmark
+    public void addWorker() {
+        int i = next();
+        // the worker moves to another role
+        club.addWorker(data.dnis[i], "name", "surname", ClubData.DATE.minusYears(30),
+                data.roleIds[(i + 1 + pass) % data.roleIds.length]);
+        if (i == size - 1) {
+            pass++;
+        }
+    }
+
+    @Benchmark
+    public File addAndRejectFile() throws DSException {
+        int i = next();
+        club.addFile("F-R-" + i, "EV-R-" + i, data.orgIds[i % data.orgIds.length], "rejected",
+                SportEvents4Club.Type.MEDIUM, SportEvents4Club.FLAG_ALL_OPTS,
+                SportEvents4Club.MAX_NUM_ENROLLMENT, ClubData.DATE, ClubData.DATE.plusDays(1));
+        return club.updateFile(SportEvents4Club.Status.DISABLED, ClubData.DATE, "KO");
+    }
+}
@@ -0,0 +1,1121 @@
+package uoc.ds.pr;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import edu.uoc.ds.traversal.Iterator;
+import uoc.ds.pr.exceptions.*;
+import uoc.ds.pr.model.*;
+import uoc.ds.pr.util.IteratorAdapter;
+import uoc.ds.pr.util.LockStripes;
+import uoc.ds.pr.util.Page;
+
+
+/**
+ * Thread-safe implementation of SportEvents4Club. The locks, in the order they are taken:
+ *
+ * - catalog: read-write lock. Operations that add or update players, organizing entities,
+ *   files, roles or workers take it exclusively; all the other operations share it.
+ * - events: monitors striped by event id, for the data of a sport event (enrollments,
+ *   substitutes, ratings, attenders and workers) and its place in the ranking by rating.
+ * - players: monitors striped by player id, for the data of a player (events, ratings,
+ *   posts) and its place in the ranking by activity.
+ * - social: read-write lock of the follower graph. addFollower takes it exclusively;
+ *   publishing a post and reading the graph or the timelines share it, and each feed of
+ *   the timeline has its own monitor (see Timeline).
+ * - attendance and staff: one monitor for the rankings by attenders and one for the
+ *   worker directory. These two are global: every addAttender and assignWorker goes
+ *   through them.
+ *
+ * So signUpEvent and addRating only share the catalog, the social lock (in read mode) and
+ * the monitors of their stripes and of the feeds they write to. The rankings by rating and
+ * by activity are split by the same stripes (StripedRanking, StripedCounterRanking): an
+ * update holds the stripe it already has, and a query locks the stripes one at a time, so
+ * it must not hold any of them and may see some updates made meanwhile and not others.
+ *
+ * Two player stripes are never held together, and the shared locks are never nested, so
+ * there are no deadlocks. How the operations scale with the number of threads is measured
+ * by ConcurrentBenchmark (-t N).
+ *
+ * Iterators are copied while the lock is held, so they can be traversed while other
+ * threads update the club.
+ */
+public class ConcurrentSportEvents4Club extends SportEvents4ClubImpl {
+    public static final int DEFAULT_STRIPES = 64;
+
+    private final ReadWriteLock catalog;
+    private final LockStripes events;
+    private final LockStripes players;
+    private final ReadWriteLock social;
+    private final Object attendance;
+    private final Object staff;
+
+
+    public ConcurrentSportEvents4Club() {
+        this(DEFAULT_STRIPES);
+    }
+
+    public ConcurrentSportEvents4Club(int stripes) {
+        this(new LockStripes(stripes), new LockStripes(stripes));
+    }
+
+    private ConcurrentSportEvents4Club(LockStripes events, LockStripes players) {
+        super(events, players);
+        this.catalog = new ReentrantReadWriteLock();
+        this.events = events;
+        this.players = players;
+        this.social = new ReentrantReadWriteLock();
+        this.attendance = new Object();
+        this.staff = new Object();
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    // Catalog updates (exclusive)
+    ///////////////////////////////////////////////////////////////////
+
+    @Override
+    public void addPlayer(String id, String name, String surname, LocalDate dateOfBirth) {
+        Lock lock = catalog.writeLock();
+        lock.lock();
+        try {
+            super.addPlayer(id, name, surname, dateOfBirth);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void addOrganizingEntity(String id, String name, String description) {
+        Lock lock = catalog.writeLock();
+        lock.lock();
+        try {
+            super.addOrganizingEntity(id, name, description);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void addFile(String id, String eventId, String orgId, String description, Type type, byte resources, int max, LocalDate startDate, LocalDate endDate) throws OrganizingEntityNotFoundException {
+        Lock lock = catalog.writeLock();
+        lock.lock();
+        try {
+            super.addFile(id, eventId, orgId, description, type, resources, max, startDate, endDate);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void addFiles(Collection<FileSpec> specs) throws OrganizingEntityNotFoundException {
+        Lock lock = catalog.writeLock();
+        lock.lock();
+        try {
+            super.addFiles(specs);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public File updateFile(Status status, LocalDate date, String description) throws NoFilesException {
+        Lock lock = catalog.writeLock();
+        lock.lock();
+        try {
+            return super.updateFile(status, date, description);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Iterator<File> updateFiles(int n, LocalDate date, String description, FileReviewer reviewer) throws NoFilesException {
+        // the whole batch is reviewed with a single acquisition of the lock
+        Lock lock = catalog.writeLock();
+        lock.lock();
+        try {
+            return super.updateFiles(n, date, description, reviewer);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void addRole(String roleId, String description) {
+        Lock lock = catalog.writeLock();
+        lock.lock();
+        try {
+            super.addRole(roleId, description);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void addWorker(String dni, String name, String surname, LocalDate birthDay, String roleId) {
+        Lock lock = catalog.writeLock();
+        lock.lock();
+        try {
+            super.addWorker(dni, name, surname, birthDay, roleId);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    // Updates striped by event and player
+    ///////////////////////////////////////////////////////////////////
+
+    @Override
+    public void signUpEvent(String playerId, String eventId) throws PlayerNotFoundException, SportEventNotFoundException, LimitExceededException {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            synchronized (events.get(eventId)) {
+                synchronized (players.get(playerId)) {
+                    super.signUpEvent(playerId, eventId);
+                }
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void addRating(String playerId, String eventId, SportEvents4Club.Rating rating, String message) throws SportEventNotFoundException, PlayerNotFoundException, PlayerNotInSportEventException {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            List<Enrollment> substitutes = null;
+            synchronized (events.get(eventId)) {
+                synchronized (players.get(playerId)) {
+                    Player player = getPlayer(playerId);
+                    SportEvents4Club.Level level = (player != null ? player.getLevel() : null);
+                    super.addRating(playerId, eventId, rating, message);
+                    if (player.getLevel() != level) {
+                        substitutes = new ArrayList<>();
+                        for (Iterator<Enrollment> it = player.getSubstitutes(); it.hasNext(); ) {
+                            substitutes.add(it.next());
+                        }
+                    }
+                }
+            }
+
+            // the substitutes of the player are moved with the lock of each of their events
+            if (substitutes != null) {
+                for (Enrollment enrollment : substitutes) {
+                    SportEvent sportEvent = enrollment.getSportEvent();
+                    synchronized (events.get(sportEvent.getEventId())) {
+                        sportEvent.updateSubstitute(enrollment);
+                    }
+                }
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void cancelEnrollment(String playerId, String eventId) throws PlayerNotFoundException, SportEventNotFoundException, PlayerNotInSportEventException {
+        // the substitute promoted is only updated in the event, so its player is not locked
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            synchronized (events.get(eventId)) {
+                synchronized (players.get(playerId)) {
+                    super.cancelEnrollment(playerId, eventId);
+                }
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void addAttender(String phone, String name, String eventId) throws AttenderAlreadyExistsException, SportEventNotFoundException, LimitExceededException {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            synchronized (events.get(eventId)) {
+                super.addAttender(phone, name, eventId);
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void assignWorker(String dni, String eventId) throws WorkerNotFoundException, WorkerAlreadyAssignedException, SportEventNotFoundException {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            synchronized (events.get(eventId)) {
+                super.assignWorker(dni, eventId);
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void addFollower(String playerId, String playerFollowerId) throws PlayerNotFoundException {
+        // only the graph and the timeline change, with the social lock
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            super.addFollower(playerId, playerFollowerId);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    // Shared structures
+    ///////////////////////////////////////////////////////////////////
+
+    @Override
+    protected void addPost(Player player, Post post) {
+        // the post goes to the store of the stripe of the player, which is held, and to
+        // the feeds of its followers
+        Lock lock = social.readLock();
+        lock.lock();
+        try {
+            super.addPost(player, post);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    protected void updateSubstitutes(Player player) {
+        // addRating does it once the locks of the rated event and the player are released,
+        // since the substitutes are in other events
+    }
+
+    @Override
+    protected void addAttender(SportEvent sportEvent, Attender attender) {
+        synchronized (attendance) {
+            super.addAttender(sportEvent, attender);
+        }
+    }
+
+    @Override
+    protected boolean assignWorker(Worker worker, SportEvent sportEvent) {
+        synchronized (staff) {
+            return super.assignWorker(worker, sportEvent);
+        }
+    }
+
+    @Override
+    protected void addFollower(Player player, Player follower) {
+        Lock lock = social.writeLock();
+        lock.lock();
+        try {
+            super.addFollower(player, follower);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    protected Iterator<Player> followings(Player player) {
+        Lock lock = social.readLock();
+        lock.lock();
+        try {
+            return snapshot(super.followings(player));
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    protected Iterator<Post> posts(Player player) {
+        // once the social lock is released, since it is taken after the stripes
+        synchronized (players.get(player.getId())) {
+            return snapshot(super.posts(player));
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    // Queries
+    ///////////////////////////////////////////////////////////////////
+
+    @Override
+    public double getRejectedFiles() {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            return super.getRejectedFiles();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Iterator<SportEvent> getSportEventsByOrganizingEntity(String organizationId) throws NoSportEventsException {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            return snapshot(super.getSportEventsByOrganizingEntity(organizationId));
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Iterator<SportEvent> getAllEvents() throws NoSportEventsException {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            return snapshot(super.getAllEvents());
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Page<SportEvent> getAllEvents(String cursor, int limit) throws NoSportEventsException {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            return super.getAllEvents(cursor, limit);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Stream<SportEvent> sportEvents(boolean parallel) {
+        // the stream is consumed once the lock is released, so it goes through a copy
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            List<SportEvent> elems = super.sportEvents(false).collect(Collectors.toList());
+            return (parallel ? elems.parallelStream() : elems.stream());
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Iterator<SportEvent> getEventsByPlayer(String playerId) throws NoSportEventsException {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            synchronized (players.get(playerId)) {
+                return snapshot(super.getEventsByPlayer(playerId));
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Page<SportEvent> getEventsByPlayer(String playerId, String cursor, int limit) throws NoSportEventsException {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            synchronized (players.get(playerId)) {
+                return super.getEventsByPlayer(playerId, cursor, limit);
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Iterator<uoc.ds.pr.model.Rating> getRatingsByEvent(String eventId) throws SportEventNotFoundException, NoRatingsException {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            synchronized (events.get(eventId)) {
+                return snapshot(super.getRatingsByEvent(eventId));
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Page<uoc.ds.pr.model.Rating> getRatingsByEvent(String eventId, String cursor, int limit) throws SportEventNotFoundException, NoRatingsException {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            synchronized (events.get(eventId)) {
+                return super.getRatingsByEvent(eventId, cursor, limit);
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    // mostActivePlayer, bestSportEvent and bestSportEvents lock the stripes of their rankings
+
+    @Override
+    public int getSportEventRank(String eventId) throws SportEventNotFoundException, NoRatingsException {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            return super.getSportEventRank(eventId);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Iterator<Worker> getWorkersBySportEvent(String eventId) throws SportEventNotFoundException, NoWorkersException {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            synchronized (events.get(eventId)) {
+                return snapshot(super.getWorkersBySportEvent(eventId));
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Page<Worker> getWorkersBySportEvent(String eventId, String cursor, int limit) throws SportEventNotFoundException, NoWorkersException {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            synchronized (events.get(eventId)) {
+                return super.getWorkersBySportEvent(eventId, cursor, limit);
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Iterator<Worker> getWorkersByRole(String roleId) throws NoWorkersException {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            return snapshot(super.getWorkersByRole(roleId));
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Level getLevel(String playerId) throws PlayerNotFoundException {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            synchronized (players.get(playerId)) {
+                return super.getLevel(playerId);
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Iterator<Enrollment> getSubstitutes(String eventId) throws SportEventNotFoundException, NoSubstitutesException {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            synchronized (events.get(eventId)) {
+                return snapshot(super.getSubstitutes(eventId));
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Attender getAttender(String phone, String sportEventId) throws SportEventNotFoundException, AttenderNotFoundException {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            synchronized (events.get(sportEventId)) {
+                return super.getAttender(phone, sportEventId);
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Iterator<Attender> getAttenders(String eventId) throws SportEventNotFoundException, NoAttendersException {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            synchronized (events.get(eventId)) {
+                return snapshot(super.getAttenders(eventId));
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Page<Attender> getAttenders(String eventId, String cursor, int limit) throws SportEventNotFoundException, NoAttendersException {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            synchronized (events.get(eventId)) {
+                return super.getAttenders(eventId, cursor, limit);
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Iterator<OrganizingEntity> bestOrganizingEntities(int k) throws NoAttendersException {
+        synchronized (attendance) {
+            return snapshot(super.bestOrganizingEntities(k));
+        }
+    }
+
+    @Override
+    public SportEvent bestSportEventByAttenders() throws NoSportEventsException {
+        synchronized (attendance) {
+            return super.bestSportEventByAttenders();
+        }
+    }
+
+    @Override
+    public Iterator<SportEvent> bestSportEventsByAttenders(int n) throws NoSportEventsException {
+        synchronized (attendance) {
+            return snapshot(super.bestSportEventsByAttenders(n));
+        }
+    }
+
+    @Override
+    public int getAttendersPercentile(double percentile) throws NoSportEventsException {
+        synchronized (attendance) {
+            return super.getAttendersPercentile(percentile);
+        }
+    }
+
+    @Override
+    public Iterator<Player> getFollowers(String playerId) throws PlayerNotFoundException, NoFollowersException {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            Lock graph = social.readLock();
+            graph.lock();
+            try {
+                return snapshot(super.getFollowers(playerId));
+            }
+            finally {
+                graph.unlock();
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Iterator<Player> getFollowings(String playerId) throws PlayerNotFoundException, NoFollowingException {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            Lock graph = social.readLock();
+            graph.lock();
+            try {
+                return snapshot(super.getFollowings(playerId));
+            }
+            finally {
+                graph.unlock();
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Iterator<Player> recommendations(String playerId) throws PlayerNotFoundException, NoFollowersException {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            Lock graph = social.readLock();
+            graph.lock();
+            try {
+                return snapshot(super.recommendations(playerId));
+            }
+            finally {
+                graph.unlock();
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Iterator<Player> recommendations(String playerId, int k) throws PlayerNotFoundException, NoFollowersException {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            Lock graph = social.readLock();
+            graph.lock();
+            try {
+                return snapshot(super.recommendations(playerId, k));
+            }
+            finally {
+                graph.unlock();
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Iterator<Post> getPosts(String playerId) throws PlayerNotFoundException, NoPostsException {
+        // the followings and the posts of each one are copied with their own locks (see
+        // followings and posts), one after the other
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            return super.getPosts(playerId);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Page<Post> getPosts(String playerId, String cursor, int limit) throws PlayerNotFoundException, NoPostsException {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            Lock graph = social.readLock();
+            graph.lock();
+            try {
+                return super.getPosts(playerId, cursor, limit);
+            }
+            finally {
+                graph.unlock();
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    // Snapshots
+    ///////////////////////////////////////////////////////////////////
+
+    @Override
+    public void save(Path path) throws IOException {
+        // every other operation shares the catalog, so the snapshot is consistent
+        Lock lock = catalog.writeLock();
+        lock.lock();
+        try {
+            super.save(path);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Creates a thread-safe club with the state saved in a snapshot
+     */
+    public static ConcurrentSportEvents4Club load(Path path) throws IOException {
+        ConcurrentSportEvents4Club club = new ConcurrentSportEvents4Club();
+        club.restore(path);
+        return club;
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    // Auxiliary operations
+    ///////////////////////////////////////////////////////////////////
+
+    @Override
+    public int numPlayers() {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            return super.numPlayers();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int numOrganizingEntities() {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            return super.numOrganizingEntities();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int numFiles() {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            return super.numFiles();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int numFiles(Type type) {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            return super.numFiles(type);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int numFiles(Status status) {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            return super.numFiles(status);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int numFiles(Status status, Type type) {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            return super.numFiles(status, type);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int numRejectedFiles() {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            return super.numRejectedFiles();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int numPendingFiles() {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            return super.numPendingFiles();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int numSportEvents() {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            return super.numSportEvents();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int numSportEventsByPlayer(String playerId) {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            synchronized (players.get(playerId)) {
+                return super.numSportEventsByPlayer(playerId);
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int numPlayersBySportEvent(String sportEventId) {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            synchronized (events.get(sportEventId)) {
+                return super.numPlayersBySportEvent(sportEventId);
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int numSportEventsByOrganizingEntity(String orgId) {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            return super.numSportEventsByOrganizingEntity(orgId);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int numSubstitutesBySportEvent(String sportEventId) {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            synchronized (events.get(sportEventId)) {
+                return super.numSubstitutesBySportEvent(sportEventId);
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Player getPlayer(String playerId) {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            return super.getPlayer(playerId);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public SportEvent getSportEvent(String eventId) {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            return super.getSportEvent(eventId);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public OrganizingEntity getOrganizingEntity(String id) {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            return super.getOrganizingEntity(id);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public File currentFile() {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            return super.currentFile();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int numRoles() {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            return super.numRoles();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Role getRole(String roleId) {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            return super.getRole(roleId);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int numWorkers() {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            return super.numWorkers();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Worker getWorker(String dni) {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            return super.getWorker(dni);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int numWorkersByRole(String roleId) {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            return super.numWorkersByRole(roleId);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int numWorkersBySportEvent(String sportEventId) {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            synchronized (events.get(sportEventId)) {
+                return super.numWorkersBySportEvent(sportEventId);
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int numRatings(String playerId) {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            synchronized (players.get(playerId)) {
+                return super.numRatings(playerId);
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int numAttenders(String sportEventId) {
+        Lock lock = catalog.readLock();
+        lock.lock();
+        try {
+            synchronized (events.get(sportEventId)) {
+                return super.numAttenders(sportEventId);
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int numFollowers(String playerId) {
+        Lock graph = social.readLock();
+        graph.lock();
+        try {
+            return super.numFollowers(playerId);
+        }
+        finally {
+            graph.unlock();
+        }
+    }
+
+    @Override
+    public int numFollowings(String playerId) {
+        Lock graph = social.readLock();
+        graph.lock();
+        try {
+            return super.numFollowings(playerId);
+        }
+        finally {
+            graph.unlock();
+        }
+    }
+
+    private static <E> Iterator<E> snapshot(Iterator<E> it) {
+        List<E> elems = new ArrayList<>();
+        while (it.hasNext()) {
+            elems.add(it.next());
+        }
+        return new IteratorAdapter<>(elems);
+    }
+}
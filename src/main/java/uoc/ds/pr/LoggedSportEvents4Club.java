@@ -0,0 +1,314 @@
+package uoc.ds.pr;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import edu.uoc.ds.traversal.Iterator;
+import uoc.ds.pr.exceptions.*;
+import uoc.ds.pr.model.File;
+import uoc.ds.pr.model.FileSpec;
+import uoc.ds.pr.util.OperationLog;
+
+
+/**
+ * SportEvents4Club that keeps a write-ahead log of the operations that change the club.
+ * Every operation is recorded in the log before it is applied, whether it succeeds or
+ * not: failed operations can also change the club (a signup beyond the limit adds a
+ * substitute), and replaying them gives the same result.
+ *
+ * open replays the log to rebuild the club and then goes on appending to it. How often
+ * the log is forced to the disk is set by the group of OperationLog: the operations of
+ * the last group may be lost in a crash, but the club is always rebuilt as it was after
+ * one of the operations.
+ *
+ * The only operation that is logged after being applied is updateFiles with a reviewer,
+ * since the reviewer is code: the statuses it returned are logged instead. The operations
+ * that would fail with a runtime exception without changing the club (a worker with an
+ * unknown role, a role beyond MAX_ROLES) are not logged.
+ *
+ * When the log is replayed, an operation can only fail with the DSException it failed
+ * with when it was logged. Any other exception means that the log does not match the
+ * club, and open fails with it instead of rebuilding a different club.
+ *
+ * Like SportEvents4ClubImpl, it is not thread-safe.
+ */
+public class LoggedSportEvents4Club extends SportEvents4ClubImpl implements Closeable {
+    public static final int DEFAULT_GROUP_SIZE = 64;
+    public static final long DEFAULT_GROUP_MILLIS = 10;
+
+    private static final int ADD_PLAYER = 1;
+    private static final int ADD_ORGANIZING_ENTITY = 2;
+    private static final int ADD_FILE = 3;
+    private static final int ADD_FILES = 4;
+    private static final int UPDATE_FILE = 5;
+    private static final int UPDATE_FILES = 6;
+    private static final int SIGN_UP_EVENT = 7;
+    private static final int ADD_RATING = 8;
+    private static final int ADD_ROLE = 9;
+    private static final int ADD_WORKER = 10;
+    private static final int ASSIGN_WORKER = 11;
+    private static final int ADD_ATTENDER = 12;
+    private static final int ADD_FOLLOWER = 13;
+    private static final int CANCEL_ENROLLMENT = 14;
+
+    private static final Type[] TYPES = Type.values();
+    private static final Status[] STATUS = Status.values();
+    private static final Rating[] RATINGS = Rating.values();
+
+    private final OperationLog.Record record;
+    private OperationLog log;
+
+
+    private LoggedSportEvents4Club() {
+        this.record = new OperationLog.Record();
+        this.log = null;
+    }
+
+    public static LoggedSportEvents4Club open(Path path) throws IOException {
+        return open(path, DEFAULT_GROUP_SIZE, DEFAULT_GROUP_MILLIS);
+    }
+
+    /**
+     * Rebuilds the club from its log, that is created if it does not exist
+     * @param groupSize the log is forced to the disk every groupSize operations (1 for every operation)
+     * @param groupMillis and every groupMillis milliseconds, if it is greater than 0
+     */
+    public static LoggedSportEvents4Club open(Path path, int groupSize, long groupMillis) throws IOException {
+        LoggedSportEvents4Club club = new LoggedSportEvents4Club();
+        OperationLog.replay(path, club::apply);
+        club.log = new OperationLog(path, groupSize, groupMillis);
+        return club;
+    }
+
+    /**
+     * Forces the operations logged so far to the disk
+     */
+    public void sync() throws IOException {
+        log.sync();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            log.close();
+        }
+        finally {
+            super.close();
+        }
+    }
+
+    @Override
+    public void addPlayer(String id, String name, String surname, LocalDate dateOfBirth) {
+        log(record.clear().putByte(ADD_PLAYER).putString(id).putString(name).putString(surname)
+                .putDate(dateOfBirth));
+        super.addPlayer(id, name, surname, dateOfBirth);
+    }
+
+    @Override
+    public void addOrganizingEntity(String id, String name, String description) {
+        log(record.clear().putByte(ADD_ORGANIZING_ENTITY).putString(id).putString(name).putString(description));
+        super.addOrganizingEntity(id, name, description);
+    }
+
+    @Override
+    public void addFile(String id, String eventId, String orgId, String description, Type type, byte resources, int max, LocalDate startDate, LocalDate endDate) throws OrganizingEntityNotFoundException {
+        log(record.clear().putByte(ADD_FILE).putString(id).putString(eventId).putString(orgId)
+                .putString(description).putByte(type.ordinal()).putByte(resources).putInt(max)
+                .putDate(startDate).putDate(endDate));
+        super.addFile(id, eventId, orgId, description, type, resources, max, startDate, endDate);
+    }
+
+    @Override
+    public void addFiles(Collection<FileSpec> specs) throws OrganizingEntityNotFoundException {
+        record.clear().putByte(ADD_FILES).putInt(specs.size());
+        for (FileSpec spec : specs) {
+            record.putString(spec.getId()).putString(spec.getEventId()).putString(spec.getOrgId())
+                    .putString(spec.getDescription()).putByte(spec.getType().ordinal())
+                    .putByte(spec.getResources()).putInt(spec.getMax())
+                    .putDate(spec.getStartDate()).putDate(spec.getEndDate());
+        }
+        log(record);
+        super.addFiles(specs);
+    }
+
+    @Override
+    public File updateFile(Status status, LocalDate date, String description) throws NoFilesException {
+        log(record.clear().putByte(UPDATE_FILE).putByte(status.ordinal()).putDate(date).putString(description));
+        return super.updateFile(status, date, description);
+    }
+
+    @Override
+    public Iterator<File> updateFiles(int n, LocalDate date, String description, FileReviewer reviewer) throws NoFilesException {
+        List<Status> statuses = new ArrayList<>();
+        try {
+            return super.updateFiles(n, date, description, file -> {
+                Status status = reviewer.review(file);
+                if (status != null) {
+                    statuses.add(status);
+                }
+                return status;
+            });
+        }
+        finally {
+            // the files reviewed before a failure of the reviewer are logged too. The file
+            // it failed on is still in the queue, so replaying them gives the same club
+            if (!statuses.isEmpty()) {
+                record.clear().putByte(UPDATE_FILES).putDate(date).putString(description).putInt(statuses.size());
+                for (Status status : statuses) {
+                    record.putByte(status.ordinal());
+                }
+                log(record);
+            }
+        }
+    }
+
+    @Override
+    public void signUpEvent(String playerId, String eventId) throws PlayerNotFoundException, SportEventNotFoundException, LimitExceededException {
+        log(record.clear().putByte(SIGN_UP_EVENT).putString(playerId).putString(eventId));
+        super.signUpEvent(playerId, eventId);
+    }
+
+    @Override
+    public void cancelEnrollment(String playerId, String eventId) throws PlayerNotFoundException, SportEventNotFoundException, PlayerNotInSportEventException {
+        log(record.clear().putByte(CANCEL_ENROLLMENT).putString(playerId).putString(eventId));
+        super.cancelEnrollment(playerId, eventId);
+    }
+
+    @Override
+    public void addRating(String playerId, String eventId, Rating rating, String message) throws SportEventNotFoundException, PlayerNotFoundException, PlayerNotInSportEventException {
+        log(record.clear().putByte(ADD_RATING).putString(playerId).putString(eventId).putByte(rating.ordinal())
+                .putString(message));
+        super.addRating(playerId, eventId, rating, message);
+    }
+
+    @Override
+    public void addRole(String roleId, String description) {
+        if (getRole(roleId) != null || numRoles() < MAX_ROLES) {
+            log(record.clear().putByte(ADD_ROLE).putString(roleId).putString(description));
+        }
+        super.addRole(roleId, description);
+    }
+
+    @Override
+    public void addWorker(String dni, String name, String surname, LocalDate birthDay, String roleId) {
+        if (getRole(roleId) != null) {
+            log(record.clear().putByte(ADD_WORKER).putString(dni).putString(name).putString(surname)
+                    .putDate(birthDay).putString(roleId));
+        }
+        super.addWorker(dni, name, surname, birthDay, roleId);
+    }
+
+    @Override
+    public void assignWorker(String dni, String eventId) throws WorkerNotFoundException, WorkerAlreadyAssignedException, SportEventNotFoundException {
+        log(record.clear().putByte(ASSIGN_WORKER).putString(dni).putString(eventId));
+        super.assignWorker(dni, eventId);
+    }
+
+    @Override
+    public void addAttender(String phone, String name, String eventId) throws AttenderAlreadyExistsException, SportEventNotFoundException, LimitExceededException {
+        log(record.clear().putByte(ADD_ATTENDER).putString(phone).putString(name).putString(eventId));
+        super.addAttender(phone, name, eventId);
+    }
+
+    @Override
+    public void addFollower(String playerId, String playerFollowerId) throws PlayerNotFoundException {
+        log(record.clear().putByte(ADD_FOLLOWER).putString(playerId).putString(playerFollowerId));
+        super.addFollower(playerId, playerFollowerId);
+    }
+
+    /**
+     * Appends an operation to the log. Nothing is logged while the log is being replayed
+     */
+    private void log(OperationLog.Record r) {
+        if (log == null) {
+            return;
+        }
+        try {
+            log.append(r);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Applies an operation of the log. It can only fail with the DSException it failed with
+     * when it was logged
+     */
+    private void apply(OperationLog.Record r) {
+        int op = r.getByte();
+        if (op < ADD_PLAYER || op > CANCEL_ENROLLMENT) {
+            throw new IllegalStateException("unknown operation in the log: " + op);
+        }
+
+        try {
+            switch (op) {
+                case ADD_PLAYER:
+                    addPlayer(r.getString(), r.getString(), r.getString(), r.getDate());
+                    break;
+                case ADD_ORGANIZING_ENTITY:
+                    addOrganizingEntity(r.getString(), r.getString(), r.getString());
+                    break;
+                case ADD_FILE:
+                    addFile(r.getString(), r.getString(), r.getString(), r.getString(), TYPES[r.getByte()],
+                            (byte) r.getByte(), r.getInt(), r.getDate(), r.getDate());
+                    break;
+                case ADD_FILES:
+                    int n = r.getInt();
+                    List<FileSpec> specs = new ArrayList<>(n);
+                    for (int i = 0; i < n; i++) {
+                        specs.add(new FileSpec(r.getString(), r.getString(), r.getString(), r.getString(),
+                                TYPES[r.getByte()], (byte) r.getByte(), r.getInt(), r.getDate(), r.getDate()));
+                    }
+                    addFiles(specs);
+                    break;
+                case UPDATE_FILE:
+                    updateFile(STATUS[r.getByte()], r.getDate(), r.getString());
+                    break;
+                case UPDATE_FILES:
+                    LocalDate date = r.getDate();
+                    String description = r.getString();
+                    Status[] statuses = new Status[r.getInt()];
+                    for (int i = 0; i < statuses.length; i++) {
+                        statuses[i] = STATUS[r.getByte()];
+                    }
+                    int[] next = {0};
+                    updateFiles(statuses.length, date, description, file -> statuses[next[0]++]);
+                    break;
+                case SIGN_UP_EVENT:
+                    signUpEvent(r.getString(), r.getString());
+                    break;
+                case ADD_RATING:
+                    addRating(r.getString(), r.getString(), RATINGS[r.getByte()], r.getString());
+                    break;
+                case ADD_ROLE:
+                    addRole(r.getString(), r.getString());
+                    break;
+                case ADD_WORKER:
+                    addWorker(r.getString(), r.getString(), r.getString(), r.getDate(), r.getString());
+                    break;
+                case ASSIGN_WORKER:
+                    assignWorker(r.getString(), r.getString());
+                    break;
+                case ADD_ATTENDER:
+                    addAttender(r.getString(), r.getString(), r.getString());
+                    break;
+                case ADD_FOLLOWER:
+                    addFollower(r.getString(), r.getString());
+                    break;
+                case CANCEL_ENROLLMENT:
+                    cancelEnrollment(r.getString(), r.getString());
+                    break;
+            }
+        }
+        catch (DSException e) {
+            // it failed in the same way when it was logged
+        }
+    }
+}
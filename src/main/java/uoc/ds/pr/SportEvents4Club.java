@@ -3,8 +3,12 @@ package uoc.ds.pr;
 import edu.uoc.ds.traversal.Iterator;
 import uoc.ds.pr.exceptions.*;
 import uoc.ds.pr.model.*;
+import uoc.ds.pr.util.Page;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.Collection;
 
 
 
@@ -25,6 +29,14 @@ public interface SportEvents4Club {
         LARGE,
         XLARGE,
     }
+    /**
+     * Decision on a file during a batch review
+     */
+    @FunctionalInterface
+    interface FileReviewer {
+        Status review(File file);
+    }
+
     //
     // Resources
     //
@@ -88,6 +100,9 @@ public interface SportEvents4Club {
 
     public static final int MAX_ORGANIZING_ENTITIES_WITH_MORE_ATTENDERS = 5;
 
+    public static final int MAX_TIMELINE_POSTS = 500;
+    public static final int MAX_FAN_OUT_FOLLOWERS = 1000;
+
     /**
      * Add a new player to the system. We know of each player his identifier, their name and surnames and their date of birth.
      * If there is already a player with that identifier, we update their data.
@@ -142,6 +157,18 @@ public interface SportEvents4Club {
     public void addFile(String id, String eventId, String orgId, String description,
                         Type type, byte resources, int max, LocalDate startDate, LocalDate endDate) throws OrganizingEntityNotFoundException;
 
+    /**
+     * Adds a group of files at once, for example when they are loaded at startup.
+     * The queue of files is rebuilt in O(n) instead of adding them one by one
+     * @param specs the data of the files
+     *
+     * @pre true.
+     * @post the files will be the same plus the new ones. If the organizing entity of
+     * any of them does not exist, the error will be reported and no file will be added
+     * @throws OrganizingEntityNotFoundException
+     */
+    public void addFiles(Collection<FileSpec> specs) throws OrganizingEntityNotFoundException;
+
     /**
      * Approve a file. In both cases, the date on which it was carried out is recorded
      * @param status
@@ -152,6 +179,38 @@ public interface SportEvents4Club {
      */
     public File updateFile(Status status, LocalDate date, String description) throws NoFilesException;
 
+    /**
+     * Reviews the next n files in one pass, all of them with the same status
+     * @param n the number of files to review
+     * @param status
+     * @param date
+     * @param description
+     * @return the reviewed files, in the order they left the queue
+     *
+     * @pre true.
+     * @post the first n files (or all of them, if there are fewer) have been updated as in updateFile
+     * @throws NoFilesException if there are no files to review
+     */
+    public Iterator<File> updateFiles(int n, Status status, LocalDate date, String description) throws NoFilesException;
+
+    /**
+     * Reviews the next n files in one pass. The reviewer decides the status of each file
+     * @param n the number of files to review
+     * @param date
+     * @param description
+     * @param reviewer the decision for each file. It must not update the club, and the
+     * sport events of the batch are only added to it once the batch ends
+     * @return the reviewed files, in the order they left the queue
+     *
+     * @pre true.
+     * @post the first n files (or all of them, if there are fewer) have been updated as in updateFile.
+     * If the reviewer fails or gives no status, the files reviewed before stay reviewed and the
+     * file it was deciding on stays first in the queue
+     * @throws NoFilesException if there are no files to review
+     * @throws NullPointerException if the reviewer gives no status for a file
+     */
+    public Iterator<File> updateFiles(int n, LocalDate date, String description, FileReviewer reviewer) throws NoFilesException;
+
     /**
      *
      * Enrolment in a sporting event by a player. If the player or
@@ -213,6 +272,21 @@ public interface SportEvents4Club {
      */
     public Iterator<SportEvent> getAllEvents() throws NoSportEventsException;
 
+    /**
+     * Consult a page of the sporting events that are in the system, ordered by their identifiers.
+     *
+     * @pre true.
+     * @post returns, at most, limit events after the cursor (a null cursor
+     * starts from the first one) and the cursor of the next page.
+     * If there are no events, the error will be reported.
+     *
+     * @param cursor the cursor returned with the previous page or null
+     * @param limit the maximum number of events
+     * @return the page
+     * @throws NoSportEventsException if there are no sports event
+     */
+    public Page<SportEvent> getAllEvents(String cursor, int limit) throws NoSportEventsException;
+
     /**
      *
      * Consult the sporting events in which a player has participated.
@@ -229,6 +303,21 @@ public interface SportEvents4Club {
      */
     public Iterator<SportEvent> getEventsByPlayer(String playerId) throws NoSportEventsException ;
 
+    /**
+     * Consult a page of the sporting events in which a player has participated.
+     * @pre the player exists.
+     * @post returns, at most, limit events of the player after the cursor
+     * (a null cursor starts from the first one) and the cursor of the next
+     * page. If there are no events, the error will be reported.
+     *
+     * @param playerId the player
+     * @param cursor the cursor returned with the previous page or null
+     * @param limit the maximum number of events
+     * @return the page
+     * @throws NoSportEventsException If there are no sporting events
+     */
+    public Page<SportEvent> getEventsByPlayer(String playerId, String cursor, int limit) throws NoSportEventsException ;
+
     /**
      *Addition of a rating in numerical format (1-10) and a comment of
      * a sporting event by a player. If the player or event does not exist, an error will be shown. If the player has not participated in the event, an error will be shown.
@@ -259,6 +348,21 @@ public interface SportEvents4Club {
      */
     public Iterator<uoc.ds.pr.model.Rating> getRatingsByEvent(String eventId) throws SportEventNotFoundException, NoRatingsException;
 
+    /**
+     * @pre true.
+     * @post returns, at most, limit ratings of an event after the cursor
+     * (a null cursor starts from the first one) and the cursor of the next page.
+     * If the event does not exist, the error will be reported.
+     * If there are no ratings, the error will be reported.
+     * @param eventId the sport event
+     * @param cursor the cursor returned with the previous page or null
+     * @param limit the maximum number of ratings
+     * @return the page
+     * @throws SportEventNotFoundException if the sport event does not exist
+     * @throws NoRatingsException if there are no ratings
+     */
+    public Page<uoc.ds.pr.model.Rating> getRatingsByEvent(String eventId, String cursor, int limit) throws SportEventNotFoundException, NoRatingsException;
+
     /**
      * Check the most active player. The player who has participated in the most
      * sporting events is returned. If there is a tie, the first who has registered
@@ -282,6 +386,34 @@ public interface SportEvents4Club {
      */
     public SportEvent bestSportEvent()  throws SportEventNotFoundException ;
 
+    /**
+     * Consult the n sporting events best rated by the players. If there
+     * are no rated events, an error will be shown.
+     * @pre true.
+     * @post returns an iterator to go through, at most, the n highest
+     * rated events, from the best to the worst.
+     * If no event has been rated, the error will be reported.
+     *
+     * @param n the number of events
+     * @return the best sport events
+     * @throws SportEventNotFoundException if no event has been rated
+     */
+    public Iterator<SportEvent> bestSportEvents(int n) throws SportEventNotFoundException ;
+
+    /**
+     * Consult the position of a sporting event in the ranking of the best
+     * rated events.
+     * @pre true.
+     * @post returns the position (starting at 1) of the event in the ranking.
+     * If the event does not exist or has no ratings, the error will be reported.
+     *
+     * @param eventId the sport event
+     * @return the position in the ranking
+     * @throws SportEventNotFoundException if the sport event does not exist
+     * @throws NoRatingsException if there are no ratings
+     */
+    public int getSportEventRank(String eventId) throws SportEventNotFoundException, NoRatingsException;
+
 
     ///////////////////////////////////////////////////////////////////
     // PR2
@@ -345,6 +477,24 @@ public interface SportEvents4Club {
      */
     public Iterator<Worker> getWorkersBySportEvent(String eventId) throws SportEventNotFoundException, NoWorkersException;
 
+    /**
+     * Consult a page of the workers assigned to a sporting event
+     *
+     * @pre true.
+     * @post returns, at most, limit workers assigned to a sporting event
+     * after the cursor (a null cursor starts from the first one) and the
+     * cursor of the next page. If there are no workers or the event does
+     * not exist, an error must be indicated
+     *
+     * @param eventId sport event
+     * @param cursor the cursor returned with the previous page or null
+     * @param limit the maximum number of workers
+     * @return the page
+     * @throws SportEventNotFoundException if sport event not found
+     * @throws NoWorkersException if there are not workers
+     */
+    public Page<Worker> getWorkersBySportEvent(String eventId, String cursor, int limit) throws SportEventNotFoundException, NoWorkersException;
+
     /**
      * Retrieves all the workers of the sports club with a certain role
      * @post returns an iterator to loop through all the workers
@@ -383,6 +533,26 @@ public interface SportEvents4Club {
      */
     public Iterator<Enrollment> getSubstitutes(String eventId) throws SportEventNotFoundException, NoSubstitutesException;
 
+    /**
+     * Cancels the signup of a player in a sporting event.
+     * @pre true.
+     * @post the last signup of the player in the event is removed. If it
+     * had a seat in the enrollment, the substitute with the highest level
+     * (the first to arrive among those of the same level) takes it. If the
+     * player or the event does not exist, or the player has not signed up
+     * for the event, an error should be indicated.
+     * The signup is removed from the event and from the player in O(log n);
+     * only if the most active player cancels are the players traversed to
+     * find the new one.
+     *
+     * @param playerId player identifier
+     * @param eventId sport event identifier
+     * @throws PlayerNotFoundException if player not found
+     * @throws SportEventNotFoundException if sport event not found
+     * @throws PlayerNotInSportEventException if the player has not signed up for the event
+     */
+    public void cancelEnrollment(String playerId, String eventId) throws PlayerNotFoundException, SportEventNotFoundException, PlayerNotInSportEventException;
+
     /**
      * Add an attendee to a sporting event.
      *
@@ -433,6 +603,24 @@ public interface SportEvents4Club {
      */
     public Iterator<Attender> getAttenders(String eventId) throws SportEventNotFoundException, NoAttendersException;
 
+    /**
+     * Consult a page of the attendees of a sporting event.
+     *
+     * @pre true.
+     * @post returns, at most, limit attendees of the sporting event after
+     * the cursor (a null cursor starts from the first one) and the cursor of
+     * the next page. In the event that the sporting event does not exist or
+     * there are no attendees, an error will be indicated.
+     *
+     * @param eventId sport event identifier
+     * @param cursor the cursor returned with the previous page or null
+     * @param limit the maximum number of attendees
+     * @return the page
+     * @throws SportEventNotFoundException if sport event not found
+     * @throws NoAttendersException if there are no attendees
+     */
+    public Page<Attender> getAttenders(String eventId, String cursor, int limit) throws SportEventNotFoundException, NoAttendersException;
+
     /**
      * Consult the 5 organizing entities that bring the most attendees to the club
      *
@@ -447,6 +635,21 @@ public interface SportEvents4Club {
      */
     public Iterator<OrganizingEntity> best5OrganizingEntities() throws NoAttendersException;
 
+    /**
+     * Consult the k organizing entities that bring the most attendees to the club
+     *
+     * @pre true.
+     * @post returns an iterator to go through, at most, the k organizing entities
+     * that have brought the most attendees to the sports club. In the
+     * event that there is no organizer or event, or there is no
+     * attendee, an error will be indicated
+     *
+     * @param k the number of entities
+     * @return the entities
+     * @throws NoAttendersException if there are no attendees
+     */
+    public Iterator<OrganizingEntity> bestOrganizingEntities(int k) throws NoAttendersException;
+
     /**
      * Check the event with the most attendees
      *
@@ -460,6 +663,35 @@ public interface SportEvents4Club {
      */
     public SportEvent bestSportEventByAttenders() throws NoSportEventsException;
 
+    /**
+     * Check the n events with the most attendees
+     *
+     * @pre true.
+     * @post returns an iterator to go through, at most, the n sporting
+     * events with the most attendees, in descending order. If there is
+     * no event or there are no attendees, an error will be indicated.
+     *
+     * @param n the number of events
+     * @return the sport events
+     * @throws NoSportEventsException if there are no sport events
+     */
+    public Iterator<SportEvent> bestSportEventsByAttenders(int n) throws NoSportEventsException;
+
+    /**
+     * Check the number of attendees at a percentile of the sporting events
+     *
+     * @pre 0 <= percentile <= 1.
+     * @post returns the smallest number of attendees such that, at least,
+     * the given fraction of the sporting events have that number of attendees
+     * or fewer (nearest-rank method). If there is no event or there are no
+     * attendees, an error will be indicated.
+     *
+     * @param percentile the percentile, between 0 and 1
+     * @return the number of attendees
+     * @throws NoSportEventsException if there are no sport events
+     */
+    public int getAttendersPercentile(double percentile) throws NoSportEventsException;
+
     /**
      * Add a player as a follower of another
      *
@@ -522,6 +754,23 @@ public interface SportEvents4Club {
      */
     public Iterator<Player> recommendations(String playerId) throws PlayerNotFoundException, NoFollowersException;
 
+    /**
+     * Suggest the best players to follow
+     *
+     * @pre true.
+     * @post returns an iterator to loop through, at most, the k suggested
+     * players with more mutual connections with playerId, in descending
+     * order. In the event that the player does not exist or is
+     * not followed by any players , an error will be indicated
+     *
+     * @param playerId the player
+     * @param k the maximum number of players
+     * @return the players
+     * @throws PlayerNotFoundException if player not found
+     * @throws NoFollowersException if there are no followers
+     */
+    public Iterator<Player> recommendations(String playerId, int k) throws PlayerNotFoundException, NoFollowersException;
+
     /**
      * Show the posts made by the players who are followed
      *
@@ -537,6 +786,39 @@ public interface SportEvents4Club {
      */
     public Iterator<Post> getPosts(String playerId) throws PlayerNotFoundException, NoPostsException ;
 
+    /**
+     * Show a page of the timeline of a player: the posts made by the
+     * players who are followed, from the newest to the oldest
+     *
+     * @pre true.
+     * @post returns, at most, limit posts of the timeline of playerId older
+     * than the cursor (a null cursor starts from the newest post) and the cursor
+     * of the next page. If the player does not exist or the player’s followed do
+     * not have publications, an error will be indicated
+     *
+     * @param playerId the player
+     * @param cursor the cursor returned with the previous page or null
+     * @param limit the maximum number of posts
+     * @return the page
+     * @throws PlayerNotFoundException if player not found
+     * @throws NoPostsException if there are no posts
+     */
+    public Page<Post> getPosts(String playerId, String cursor, int limit) throws PlayerNotFoundException, NoPostsException ;
+
+    /**
+     * Saves the whole state of the club to a binary snapshot, that can be
+     * restored with SportEvents4ClubImpl.load
+     *
+     * @pre true.
+     * @post the file contains the players, organizing entities, files, sport events,
+     * roles, workers, followers and posts of the club. If it already existed,
+     * it is replaced only once the new snapshot has been completely written
+     *
+     * @param path the file of the snapshot
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void save(Path path) throws IOException;
+
     ///////////////////////////////////////////////////////////////////
     // AUXILIARY OPERATIONS
     ///////////////////////////////////////////////////////////////////
@@ -544,6 +826,9 @@ public interface SportEvents4Club {
     public int numPlayers();
     public int numOrganizingEntities();
     public int numFiles();
+    public int numFiles(Type type);
+    public int numFiles(Status status);
+    public int numFiles(Status status, Type type);
     public int numRejectedFiles();
     public int numPendingFiles();
     public int numSportEvents();
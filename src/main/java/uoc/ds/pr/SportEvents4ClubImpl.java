@@ -1,53 +1,121 @@
 package uoc.ds.pr;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
 
-import edu.uoc.ds.adt.helpers.Position;
-import edu.uoc.ds.adt.nonlinear.DictionaryAVLImpl;
 import edu.uoc.ds.adt.nonlinear.HashTable;
-import edu.uoc.ds.adt.nonlinear.PriorityQueue;
-import edu.uoc.ds.adt.nonlinear.graphs.DirectedEdge;
-import edu.uoc.ds.adt.nonlinear.graphs.DirectedGraph;
-import edu.uoc.ds.adt.nonlinear.graphs.DirectedGraphImpl;
-import edu.uoc.ds.adt.nonlinear.graphs.Edge;
-import edu.uoc.ds.adt.nonlinear.graphs.Vertex;
-import edu.uoc.ds.adt.sequential.LinkedList;
 import edu.uoc.ds.traversal.Iterator;
-import edu.uoc.ds.traversal.Traversal;
+import edu.uoc.ds.traversal.IteratorArrayImpl;
+import edu.uoc.ds.traversal.MultipleIterator;
 import uoc.ds.pr.exceptions.*;
+import uoc.ds.pr.helper.RecommendationHelper;
 import uoc.ds.pr.model.*;
-import uoc.ds.pr.util.OrderedVector;
-
-public class SportEvents4ClubImpl implements SportEvents4Club {
-    private DictionaryAVLImpl<String, Player> players;
-    private DirectedGraph<Player, Player> followers;
-    private Player mostActivePlayer;
-    private HashTable<String, OrganizingEntity> organizingEntities;
-    private PriorityQueue<File> files;
-    private DictionaryAVLImpl<String, SportEvent> sportEvents;
-    private OrderedVector<SportEvent> bestSportEvent;
-    private OrderedVector<OrganizingEntity> best5OrganizingEntities;
+import uoc.ds.pr.util.BinaryHeap;
+import uoc.ds.pr.util.CounterRanking;
+import uoc.ds.pr.util.FileStatusCounter;
+import uoc.ds.pr.util.FollowerGraph;
+import uoc.ds.pr.util.HeapPostStore;
+import uoc.ds.pr.util.IdTable;
+import uoc.ds.pr.util.LockStripes;
+import uoc.ds.pr.util.MappedPostStore;
+import uoc.ds.pr.util.OrderStatisticTree;
+import uoc.ds.pr.util.Page;
+import uoc.ds.pr.util.PagedHashTable;
+import uoc.ds.pr.util.PostStore;
+import uoc.ds.pr.util.SnapshotReader;
+import uoc.ds.pr.util.SnapshotWriter;
+import uoc.ds.pr.util.Streams;
+import uoc.ds.pr.util.StripedCounterRanking;
+import uoc.ds.pr.util.StripedPostStore;
+import uoc.ds.pr.util.StripedRanking;
+import uoc.ds.pr.util.Timeline;
+import uoc.ds.pr.util.WorkerDirectory;
+
+public class SportEvents4ClubImpl implements SportEvents4Club, Closeable {
+    // from this size the files of addFiles are created in parallel
+    private static final int PARALLEL_FILES = 10_000;
+    private static final int SNAPSHOT_MAGIC = 0x53453443;
+    private static final int SNAPSHOT_VERSION = 5;
+
+    private IdTable<Player> players;
+    private FollowerGraph<Player> followers;
+    private Timeline<Player, Post> timeline;
+    private PostStore postStore;
+    // the players by the number of sport events they have signed up for
+    private StripedCounterRanking<Player> mostActivePlayers;
+    private IdTable<OrganizingEntity> organizingEntities;
+    private BinaryHeap<File> files;
+    private IdTable<SportEvent> sportEvents;
+    // the same sport events in the order of their ids, to traverse them from any of them
+    private OrderStatisticTree<SportEvent> sortedSportEvents;
+    private StripedRanking<SportEvent> bestSportEvents;
+    private CounterRanking<OrganizingEntity> bestOrganizingEntities;
+    private CounterRanking<SportEvent> bestSportEventsByAttenders;
     private Role[] roles;
-    private HashTable<String, Worker> workers;
+    private WorkerDirectory workers;
     private int numRoles;
-    
-    private int totalFiles;
-    private int rejectedFiles;
+    private FileStatusCounter fileCounters;
 
     public SportEvents4ClubImpl() {
-        this.players = new DictionaryAVLImpl<String, Player>();
-        this.followers = new DirectedGraphImpl<Player, Player>();
-        this.mostActivePlayer = null;
-        this.organizingEntities = new HashTable<String, OrganizingEntity>();
-        this.files = new PriorityQueue<>();
-        this.sportEvents = new DictionaryAVLImpl<String, SportEvent>();
-        this.bestSportEvent = new OrderedVector<SportEvent>(MAX_NUM_SPORT_EVENTS, SportEvent.CMP_V);
-        this.best5OrganizingEntities = new OrderedVector<OrganizingEntity>(MAX_ORGANIZING_ENTITIES_WITH_MORE_ATTENDERS, OrganizingEntity.CMP_O);
+        this(new LockStripes(1), new LockStripes(1));
+    }
+
+    /**
+     * A club whose posts and rankings by rating and by activity are split by the stripes of
+     * the sport events and the players, so ConcurrentSportEvents4Club updates the ones of
+     * different stripes at the same time (see StripedRanking, StripedCounterRanking and
+     * StripedPostStore)
+     */
+    protected SportEvents4ClubImpl(LockStripes eventStripes, LockStripes playerStripes) {
+        this.players = new IdTable<Player>(Player::setHandle);
+        this.followers = new FollowerGraph<Player>(Player::getHandle);
+        this.timeline = new Timeline<Player, Post>(followers, MAX_TIMELINE_POSTS, MAX_FAN_OUT_FOLLOWERS);
+        this.postStore = (playerStripes.size() > 1 ? new StripedPostStore(playerStripes, HeapPostStore::new)
+                : new HeapPostStore());
+        this.mostActivePlayers = new StripedCounterRanking<Player>(playerStripes, Player::getId);
+        this.organizingEntities = new IdTable<OrganizingEntity>(OrganizingEntity::setHandle);
+        this.files = new BinaryHeap<File>();
+        this.sportEvents = new IdTable<SportEvent>(SportEvent::setHandle);
+        this.sortedSportEvents = new OrderStatisticTree<SportEvent>(Comparator.naturalOrder());
+        this.bestSportEvents = new StripedRanking<SportEvent>(eventStripes, SportEvent::getEventId, SportEvent::rating);
+        this.bestOrganizingEntities = new CounterRanking<OrganizingEntity>();
+        this.bestSportEventsByAttenders = new CounterRanking<SportEvent>();
         this.roles = new Role[MAX_ROLES];
-        this.workers = new HashTable<String, Worker>();
+        this.workers = new WorkerDirectory(this::getRole);
         this.numRoles = 0;
-        this.totalFiles = 0;
-        this.rejectedFiles = 0;
+        this.fileCounters = new FileStatusCounter();
+    }
+
+    /**
+     * Keeps the posts of the players out of the heap, in memory-mapped segments in
+     * postsDir (see MappedPostStore). They are deleted on close
+     */
+    public SportEvents4ClubImpl(Path postsDir) throws IOException {
+        this();
+        this.postStore = new MappedPostStore(postsDir, players, sportEvents);
+    }
+
+    /**
+     * Releases the posts of the players
+     */
+    @Override
+    public void close() throws IOException {
+        postStore.close();
     }
 
     @Override
@@ -58,13 +126,17 @@ public class SportEvents4ClubImpl implements SportEvents4Club {
 
     @Override
     public void addOrganizingEntity(String id, String name, String description) {
-        OrganizingEntity o = new OrganizingEntity(id, name, description);
-        
-        if (this.organizingEntities.containsKey(id)) {
-            organizingEntities.delete(id);
-        }
+        OrganizingEntity o = getOrganizingEntity(id);
 
-        organizingEntities.put(id, o);     
+        if (o != null) {
+            o.setName(name);
+            o.setDescription(description);
+        }
+        else {
+            o = new OrganizingEntity(id, name, description);
+            organizingEntities.put(id, o);
+            bestOrganizingEntities.add(o);
+        }
     }
 
     @Override
@@ -75,7 +147,36 @@ public class SportEvents4ClubImpl implements SportEvents4Club {
         }
         File f = new File(id, eventId, description, type, startDate, endDate, resources, max, o);
         files.add(f);
-        totalFiles++;
+        fileCounters.add(f);
+    }
+
+    @Override
+    public void addFiles(Collection<FileSpec> specs) throws OrganizingEntityNotFoundException {
+        // each organizing entity is looked up once, and nothing is added if one is missing
+        Map<String, OrganizingEntity> orgs = new HashMap<>();
+        for (FileSpec spec : specs) {
+            if (!orgs.containsKey(spec.getOrgId())) {
+                OrganizingEntity o = getOrganizingEntity(spec.getOrgId());
+                if (o == null) {
+                    throw new OrganizingEntityNotFoundException();
+                }
+                orgs.put(spec.getOrgId(), o);
+            }
+        }
+
+        FileSpec[] input = specs.toArray(new FileSpec[0]);
+        File[] newFiles = new File[input.length];
+        if (input.length >= PARALLEL_FILES) {
+            Arrays.parallelSetAll(newFiles, i -> input[i].newFile(orgs.get(input[i].getOrgId())));
+        }
+        else {
+            Arrays.setAll(newFiles, i -> input[i].newFile(orgs.get(input[i].getOrgId())));
+        }
+
+        files.addAll(newFiles, newFiles.length);
+        for (File f : newFiles) {
+            fileCounters.add(f);
+        }
     }
 
     @Override
@@ -85,15 +186,51 @@ public class SportEvents4ClubImpl implements SportEvents4Club {
             throw new NoFilesException();
         }
 
-        file.update(status, date, description);
-        if (file.isEnabled()) {
-            SportEvent sportEvent = file.newSportEvent();
-            sportEvents.put(sportEvent.getEventId(), sportEvent);
+        review(file, status, date, description);
+        return file;
+    }
+
+    @Override
+    public Iterator<File> updateFiles(int n, Status status, LocalDate date, String description) throws NoFilesException {
+        return updateFiles(n, date, description, file -> status);
+    }
+
+    @Override
+    public Iterator<File> updateFiles(int n, LocalDate date, String description, FileReviewer reviewer) throws NoFilesException {
+        if (files.isEmpty()) {
+            throw new NoFilesException();
         }
-        else {
-            rejectedFiles++;
+
+        int len = Math.min(Math.max(n, 0), files.size());
+        File[] reviewed = new File[len];
+        // the counters and the sport events of the batch are updated once, at the end
+        FileStatusCounter changes = new FileStatusCounter();
+        SportEvent[] enabled = new SportEvent[len];
+        int numEnabled = 0;
+        try {
+            for (int i = 0; i < len; i++) {
+                // the file leaves the queue only once it has a status: if the reviewer fails, it is still the next one
+                File file = files.peek();
+                Status status = reviewer.review(file);
+                if (status == null) {
+                    throw new NullPointerException("no status for the file " + file.getFileId());
+                }
+                files.poll();
+                Status previous = file.getStatus();
+                file.update(status, date, description);
+                changes.update(file, previous);
+                if (file.isEnabled()) {
+                    enabled[numEnabled++] = file.newSportEvent();
+                }
+                reviewed[i] = file;
+            }
         }
-        return file;
+        finally {
+            // the files reviewed before a failure keep their review
+            fileCounters.add(changes);
+            putSportEvents(enabled, numEnabled);
+        }
+        return new IteratorArrayImpl<File>(reviewed, len, 0);
     }
 
     @Override
@@ -108,24 +245,28 @@ public class SportEvents4ClubImpl implements SportEvents4Club {
             throw new SportEventNotFoundException();
         }
 
-        Post p = new Post(String.format("{'player': '%s', 'sportEvent': '%s', 'action': 'signup'}", playerId, eventId));
-        player.addPost(p);
+        addPost(player, new Post(player, sportEvent));
 
         player.addEvent(sportEvent);
-        if (!sportEvent.isFull()) {
-            sportEvent.addEnrollment(player);
+        mostActivePlayers.increment(player);
+        if (sportEvent.reserveEnrollment()) {
+            try {
+                sportEvent.addEnrollment(player);
+            }
+            catch (RuntimeException e) {
+                sportEvent.releaseEnrollment();
+                throw e;
+            }
         }
         else {
             sportEvent.addSubstitute(player);
             throw new LimitExceededException();
         }
-
-        updateMostActivePlayer(player);
     }
 
     @Override
     public double getRejectedFiles() {
-        return (double) rejectedFiles / totalFiles;
+        return (double) rejectedFiles() / fileCounters.total();
     }
 
     @Override
@@ -140,11 +281,32 @@ public class SportEvents4ClubImpl implements SportEvents4Club {
 
     @Override
     public Iterator<SportEvent> getAllEvents() throws NoSportEventsException {
-        Iterator<SportEvent> it = sportEvents.values();
+        Iterator<SportEvent> it = sortedSportEvents.values(sortedSportEvents.size());
         if (!it.hasNext()) throw new NoSportEventsException();
         return it;
     }
 
+    @Override
+    public Page<SportEvent> getAllEvents(String cursor, int limit) throws NoSportEventsException {
+        if (sortedSportEvents.isEmpty()) {
+            throw new NoSportEventsException();
+        }
+        // the cursor is the id of the last event of the previous page
+        SportEvent after = (cursor != null ? getSportEvent(cursor) : null);
+        if (cursor != null && after == null) {
+            return Page.empty();
+        }
+        return sortedSportEvents.page(after, limit, SportEvent::getEventId);
+    }
+
+    /**
+     * All the sport events, ordered by their ids, for reports that go through them with
+     * java.util.stream. A parallel stream splits them by halves of the tree
+     */
+    public Stream<SportEvent> sportEvents(boolean parallel) {
+        return Streams.stream(sortedSportEvents, parallel);
+    }
+
     @Override
     public Iterator<SportEvent> getEventsByPlayer(String playerId) throws NoSportEventsException {
         Player player = getPlayer(playerId);
@@ -155,6 +317,15 @@ public class SportEvents4ClubImpl implements SportEvents4Club {
         return it;
     }
 
+    @Override
+    public Page<SportEvent> getEventsByPlayer(String playerId, String cursor, int limit) throws NoSportEventsException {
+        Player player = getPlayer(playerId);
+        if (player == null || !player.hasEvents()) {
+            throw new NoSportEventsException();
+        }
+        return player.getEvents(cursor, limit);
+    }
+
     @Override
     public void addRating(String playerId, String eventId, Rating rating, String message) throws SportEventNotFoundException, PlayerNotFoundException, PlayerNotInSportEventException {
         SportEvent sportEvent = getSportEvent(eventId);
@@ -167,15 +338,13 @@ public class SportEvents4ClubImpl implements SportEvents4Club {
             throw new PlayerNotFoundException();
         }
 
-        if (!player.isInSportEvent(eventId)) {
+        if (!player.isInSportEvent(sportEvent)) {
             throw new PlayerNotInSportEventException();
         }
 
-        Post p = new Post(String.format("{'player': '%s', 'sportEvent': '%s', 'rating': '%s', 'action': 'rating'}", playerId, eventId, rating.toString()));
-        player.addPost(p);
+        addPost(player, new Post(player, sportEvent, rating));
 
-        sportEvent.addRating(rating, message, player);
-        updateBestSportEvent(sportEvent);
+        rateSportEvent(sportEvent, player, rating, message);
     }
 
     @Override
@@ -192,20 +361,57 @@ public class SportEvents4ClubImpl implements SportEvents4Club {
         return sportEvent.ratings();
     }
 
+    @Override
+    public Page<uoc.ds.pr.model.Rating> getRatingsByEvent(String eventId, String cursor, int limit) throws SportEventNotFoundException, NoRatingsException {
+        SportEvent sportEvent = getSportEvent(eventId);
+        if (sportEvent == null) {
+            throw new SportEventNotFoundException();
+        }
+
+        if (!sportEvent.hasRatings()) {
+            throw new NoRatingsException();
+        }
+        return sportEvent.ratings(cursor, limit);
+    }
+
     @Override
     public Player mostActivePlayer() throws PlayerNotFoundException {
-        if (this.mostActivePlayer == null) {
+        Player player = mostActivePlayers.first();
+        if (player == null) {
         	throw new PlayerNotFoundException();
         }
-        return this.mostActivePlayer;
+        return player;
     }
 
     @Override
     public SportEvent bestSportEvent() throws SportEventNotFoundException {
-        if (bestSportEvent.size() == 0) {
+        SportEvent sportEvent = bestSportEvents.first();
+        if (sportEvent == null) {
         	throw new SportEventNotFoundException();
         }
-        return bestSportEvent.elementAt(0);
+        return sportEvent;
+    }
+
+    @Override
+    public Iterator<SportEvent> bestSportEvents(int n) throws SportEventNotFoundException {
+        if (bestSportEvents.isEmpty()) {
+            throw new SportEventNotFoundException();
+        }
+        return bestSportEvents.values(n);
+    }
+
+    @Override
+    public int getSportEventRank(String eventId) throws SportEventNotFoundException, NoRatingsException {
+        SportEvent sportEvent = getSportEvent(eventId);
+        if (sportEvent == null) {
+            throw new SportEventNotFoundException();
+        }
+
+        int pos = bestSportEvents.position(sportEvent);
+        if (pos < 0) {
+            throw new NoRatingsException();
+        }
+        return pos + 1;
     }
 
     @Override
@@ -221,75 +427,59 @@ public class SportEvents4ClubImpl implements SportEvents4Club {
 
     @Override
     public void addWorker(String dni, String name, String surname, LocalDate birthDay, String roleId) {
-        Role r = getRole(roleId);
-        Worker old_w = getWorker(dni);
-        Worker new_w = new Worker(dni, name, surname, birthDay, roleId);    
-        
-        //addUpdate worker inside role[]
-        if (old_w == null) {
-            r.getWorkers().insertEnd(new_w);
-        }
-        else if (old_w.getRoleId() == new_w.getRoleId()) {
-            r.updateWorker(r, new_w);
-        }
-        else {
-            Role oldRole = getRole(old_w.getRoleId());
-            r.updateWorker(oldRole, new_w);
-        }
-
-        //addUpdate worker inside HashTable
-        if (old_w != null) {
-            this.workers.delete(dni);
-        }
-        this.workers.put(dni, new_w);
+        this.workers.put(new Worker(dni, name, surname, birthDay, roleId));
     }
     
     @Override
     public void assignWorker(String dni, String eventId) throws WorkerNotFoundException, WorkerAlreadyAssignedException, SportEventNotFoundException {
-        if (!sportEvents.containsKey(eventId)){
+        SportEvent s = getSportEvent(eventId);
+        if (s == null){
             throw new SportEventNotFoundException();
         }
 
         Worker w = getWorker(dni);
-
         if (w == null) {
             throw new WorkerNotFoundException();
         }
 
-        SportEvent s = sportEvents.get(eventId);
-
-        if (s.getWorkerByDni(dni) != null){
+        if (!assignWorker(w, s)) {
             throw new WorkerAlreadyAssignedException();
-        } else {
-            s.addWorker(w);
         }
     }
 
     @Override
     public Iterator<Worker> getWorkersBySportEvent(String eventId) throws SportEventNotFoundException, NoWorkersException {
-        if (!sportEvents.containsKey(eventId)){
+        SportEvent s = getSportEvent(eventId);
+        if (s == null){
             throw new SportEventNotFoundException();
         }
 
-        SportEvent s = sportEvents.get(eventId);
+        if (!s.hasWorkers()) {
+            throw new NoWorkersException();
+        }
+        return s.getWorkers();
+    }
+
+    @Override
+    public Page<Worker> getWorkersBySportEvent(String eventId, String cursor, int limit) throws SportEventNotFoundException, NoWorkersException {
+        SportEvent s = getSportEvent(eventId);
+        if (s == null) {
+            throw new SportEventNotFoundException();
+        }
 
-        if (s.getWorkers().isEmpty()) {
+        if (!s.hasWorkers()) {
             throw new NoWorkersException();
-        } else {
-            return s.getWorkers().values();
         }
+        return s.getWorkers(cursor, limit);
     }
 
     @Override
     public Iterator<Worker> getWorkersByRole(String roleId) throws NoWorkersException {
         Role r = getRole(roleId);
-        LinkedList<Worker> workers = r.getWorkers();
-
-        if (workers.isEmpty()){
+        if (r == null || !r.hasWorkers()){
             throw new NoWorkersException();
         }
-        
-        return workers.values();        
+        return r.getWorkers();
     }
 
     @Override
@@ -313,7 +503,26 @@ public class SportEvents4ClubImpl implements SportEvents4Club {
         if (s.hasNoSubstitutes()){
             throw new NoSubstitutesException();
         }
-        return s.getSubstitutes().values();        
+        return s.getSubstitutes();
+    }
+
+    @Override
+    public void cancelEnrollment(String playerId, String eventId) throws PlayerNotFoundException, SportEventNotFoundException, PlayerNotInSportEventException {
+        Player player = getPlayer(playerId);
+        if (player == null) {
+            throw new PlayerNotFoundException();
+        }
+
+        SportEvent sportEvent = getSportEvent(eventId);
+        if (sportEvent == null) {
+            throw new SportEventNotFoundException();
+        }
+
+        if (sportEvent.cancel(player) == null) {
+            throw new PlayerNotInSportEventException();
+        }
+        player.removeEvent(sportEvent);
+        mostActivePlayers.decrement(player);
     }
 
     @Override
@@ -328,11 +537,16 @@ public class SportEvents4ClubImpl implements SportEvents4Club {
             throw new AttenderAlreadyExistsException();
         }
 
-        if (s.numAttenders() + s.numPlayers() < s.getMax()){
-            s.addAttender(a);
-        } else {
+        if (!s.reserveSeat()) {
             throw new LimitExceededException();
         }
+        try {
+            addAttender(s, a);
+        }
+        catch (RuntimeException e) {
+            s.releaseSeat();
+            throw e;
+        }
     }
 
     @Override
@@ -366,37 +580,52 @@ public class SportEvents4ClubImpl implements SportEvents4Club {
         return attenders.values();
     }
 
+    @Override
+    public Page<Attender> getAttenders(String eventId, String cursor, int limit) throws SportEventNotFoundException, NoAttendersException {
+        SportEvent s = getSportEvent(eventId);
+        if (s == null) {
+            throw new SportEventNotFoundException();
+        }
+
+        PagedHashTable<String, Attender> attenders = s.getAttenders();
+        if (attenders.isEmpty()) {
+            throw new NoAttendersException();
+        }
+        return attenders.values(cursor, limit);
+    }
+
     @Override
     public Iterator<OrganizingEntity> best5OrganizingEntities() throws NoAttendersException {
-        Iterator<String> keys = this.organizingEntities.keys();
-        int totalAttenders = 0;
-        while (keys.hasNext()) {
-            OrganizingEntity o = getOrganizingEntity(keys.next());
-            totalAttenders += o.numAttenders();
-            best5OrganizingEntities.update(o);            
-        }
-        if (totalAttenders == 0) {
+        return bestOrganizingEntities(MAX_ORGANIZING_ENTITIES_WITH_MORE_ATTENDERS);
+    }
+
+    @Override
+    public Iterator<OrganizingEntity> bestOrganizingEntities(int k) throws NoAttendersException {
+        if (bestOrganizingEntities.isEmpty() || bestOrganizingEntities.countAt(0) == 0) {
             throw new NoAttendersException();
         }
-        return best5OrganizingEntities.values();
+        return bestOrganizingEntities.values(k);
     }
 
     @Override
     public SportEvent bestSportEventByAttenders() throws NoSportEventsException {
-        Iterator<SportEvent> se_it = sportEvents.values();
-        if (se_it == null){
-            throw new NoSportEventsException();
-        }
+        checkAttenders();
+        return bestSportEventsByAttenders.elementAt(0);
+    }
 
-        SportEvent bestSportEvent = se_it.next();
+    @Override
+    public Iterator<SportEvent> bestSportEventsByAttenders(int n) throws NoSportEventsException {
+        checkAttenders();
+        return bestSportEventsByAttenders.values(n);
+    }
 
-        while (se_it.hasNext()){
-            SportEvent bestSportEvent2 = se_it.next();
-            if (bestSportEvent.compareTo(bestSportEvent2) > 0) {
-                bestSportEvent = bestSportEvent2;
-            }
-        }
-        return bestSportEvent;
+    @Override
+    public int getAttendersPercentile(double percentile) throws NoSportEventsException {
+        checkAttenders();
+        int n = bestSportEventsByAttenders.size();
+        // nearest-rank: the events are in descending order
+        int rank = (int) Math.ceil(Math.min(Math.max(percentile, 0), 1) * n);
+        return bestSportEventsByAttenders.countAt(n - Math.max(rank, 1));
     }
 
     @Override
@@ -407,46 +636,12 @@ public class SportEvents4ClubImpl implements SportEvents4Club {
             throw new PlayerNotFoundException();
         }
 
-        Vertex<Player> v_p = this.followers.getVertex(p);
-        v_p = v_p != null ? v_p : this.followers.newVertex(p);
-        Vertex<Player> v_pf = this.followers.getVertex(pf);
-        v_pf = v_pf != null ? v_pf : this.followers.newVertex(pf);
-
-        DirectedEdge<Player, Player> e_p_pf = this.followers.getEdge(v_p, v_pf);
-        if (e_p_pf == null) {
-            this.followers.newEdge(v_p, v_pf);
-        }
+        addFollower(p, pf);
     }
 
     @Override
     public Iterator<Player> getFollowers(String playerId) throws PlayerNotFoundException, NoFollowersException {
-        Player p = getPlayer(playerId);
-        if (p == null) {
-            throw new PlayerNotFoundException();
-        }
-
-        Vertex<Player> v_p = this.followers.getVertex(p);
-        if (v_p == null) {
-            throw new NoFollowersException();
-        }
-
-        Iterator<Edge<Player, Player>> it_e_p_pf = this.followers.edgesWithSource(v_p);
-        if (!it_e_p_pf.hasNext()) {
-            throw new NoFollowersException();
-        }
-        
-        HashTable<String, Player> hash_pfs = new HashTable<String, Player>();
-        Iterator<Vertex<Player>> it_pfs = this.followers.adjacencyList(v_p);
-
-        while(it_pfs.hasNext()) {
-            Vertex<Player> v_pf = it_pfs.next();
-            if (this.followers.getEdge(v_p, v_pf) != null) {
-                Player pf = v_pf.getValue();
-                hash_pfs.put(pf.getId(), pf);
-            }
-        }        
-        
-        return hash_pfs.values();
+        return this.followers.followers(checkFollowers(playerId).getHandle());
     }
 
     @Override
@@ -456,105 +651,78 @@ public class SportEvents4ClubImpl implements SportEvents4Club {
             throw new PlayerNotFoundException();
         }
 
-        Vertex<Player> v_pf = this.followers.getVertex(pf);
-        if (v_pf == null) {
+        if (this.followers.numFollowings(pf.getHandle()) == 0) {
             throw new NoFollowingException();
         }
+        return this.followers.followings(pf.getHandle());
+    }
 
-        Iterator<Edge<Player, Player>> it_e_p_pf = this.followers.edgedWithDestA(v_pf);
-        if (!it_e_p_pf.hasNext()) {
-            throw new NoFollowingException();
-        }
-        
-        HashTable<String, Player> hash_ps = new HashTable<String, Player>();
-        Iterator<Vertex<Player>> it_ps = this.followers.adjacencyList(v_pf);
+    @Override
+    public Iterator<Player> recommendations(String playerId) throws PlayerNotFoundException, NoFollowersException {
+        return RecommendationHelper.recommendations(this.followers, checkFollowers(playerId).getHandle());
+    }
 
-        while(it_ps.hasNext()) {
-            Vertex<Player> v_p = it_ps.next();
-            if (this.followers.getEdge(v_p, v_pf) != null) {
-                Player p = v_p.getValue();
-                hash_ps.put(p.getId(), p);
-            }
-        }        
-        
-        return hash_ps.values();
+    @Override
+    public Iterator<Player> recommendations(String playerId, int k) throws PlayerNotFoundException, NoFollowersException {
+        return RecommendationHelper.recommendations(this.followers, checkFollowers(playerId).getHandle(), k);
     }
 
     @Override
-    public Iterator<Player> recommendations(String playerId) throws PlayerNotFoundException, NoFollowersException {
-        Iterator<Player> fs_of_p = getFollowers(playerId);
-        LinkedList<Player> fs_of_fs_of_p = new LinkedList<Player>();
-        
-        while(fs_of_p.hasNext()) {
-            Player f_of_p = fs_of_p.next();
-            Iterator<Player> fs_of_f_of_p = null;
+    public Iterator<Post> getPosts(String playerId) throws PlayerNotFoundException, NoPostsException {
+        Player p = getPlayer(playerId);
+        if (p == null) {
+           throw new PlayerNotFoundException();
+        }
 
-            try {
-                fs_of_f_of_p = getFollowers(f_of_p.getId());
-            }
-            catch (NoFollowersException ex) { continue; }
-            
-            while(fs_of_f_of_p.hasNext()) {                
-                Player f_of_f_of_p = fs_of_f_of_p.next();
-                if (f_of_f_of_p.getId() == playerId) { continue; }
-
-                boolean alreadyFollowing = false;
-                Iterator<Player> it_followeds = getFollowers(playerId);
-               
-                while (!alreadyFollowing && it_followeds.hasNext()) {
-                    Player followed = it_followeds.next();
-                    if (followed.getId() == f_of_f_of_p.getId()) { alreadyFollowing = true;}
-                }
-                if (alreadyFollowing) { continue; }
-                
-                boolean alreadyInsert = false;
-                Traversal<Player> pos_fs_of_fs_of_p = fs_of_fs_of_p.positions();            
-                while (!alreadyInsert && pos_fs_of_fs_of_p.hasNext()) {
-                    Position<Player> next_fs_of_fs_of_p = pos_fs_of_fs_of_p.next();
-                    if (next_fs_of_fs_of_p.getElem().getId() == f_of_f_of_p.getId()) {
-                        alreadyInsert = true;                   
-                    }
-                }
+        MultipleIterator<Post> posts = new MultipleIterator<Post>();
+        boolean hasPosts = false;
 
-                if (!alreadyInsert) {
-                    fs_of_fs_of_p.insertEnd(f_of_f_of_p);
-                }
+        Iterator<Player> it_following = followings(p);
+        while(it_following.hasNext()) {
+            Iterator<Post> it_posts = posts(it_following.next());
+            if (it_posts.hasNext()) {
+                posts.addIterator(it_posts);
+                hasPosts = true;
             }
         }
-        
-        return fs_of_fs_of_p.values();        
+
+        if (!hasPosts) {
+            throw new NoPostsException();
+        }
+        return posts;
     }
 
     @Override
-    public Iterator<Post> getPosts(String playerId) throws PlayerNotFoundException, NoPostsException {
+    public Page<Post> getPosts(String playerId, String cursor, int limit) throws PlayerNotFoundException, NoPostsException {
         Player p = getPlayer(playerId);
         if (p == null) {
            throw new PlayerNotFoundException();
         }
-        
-        Iterator<Player> it_following = null;
-        
-        try {
-            it_following = getFollowings(playerId);
-        }
-        catch(NoFollowingException ex) { throw new NoPostsException(); }
 
-        if (!it_following.hasNext()) {
+        Page<Post> page = this.timeline.posts(p.getHandle(), cursor, limit);
+        if (cursor == null && page.isEmpty()) {
             throw new NoPostsException();
         }
+        return page;
+    }
 
-        LinkedList<Post> posts = new LinkedList<Post>();
-        while(it_following.hasNext()) {
-            Player next_followed = it_following.next();
-
-            Iterator<Post> it_posts_by_followed = next_followed.getPosts();
-            while(it_posts_by_followed.hasNext()) {
-                Post next_post = it_posts_by_followed.next();
-                posts.insertEnd(next_post);
-            }
+    @Override
+    public void save(Path path) throws IOException {
+        // the snapshot is written aside and then renamed, so a failure never leaves it half written
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (SnapshotWriter out = new SnapshotWriter(tmp)) {
+            write(out);
         }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
 
-        return posts.values();
+    /**
+     * Creates a club with the state saved in a snapshot
+     */
+    public static SportEvents4ClubImpl load(Path path) throws IOException {
+        SportEvents4ClubImpl club = new SportEvents4ClubImpl();
+        club.restore(path);
+        return club;
     }
 
     @Override
@@ -569,27 +737,41 @@ public class SportEvents4ClubImpl implements SportEvents4Club {
 
     @Override
     public int numFiles() {
-        return totalFiles;
+        return fileCounters.total();
     }
 
     @Override
-    public int numRejectedFiles() {
-        return this.rejectedFiles;
+    public int numFiles(Type type) {
+        return fileCounters.count(type);
     }
 
     @Override
-    public int numPendingFiles() {
-        Iterator<File> file_it = this.files.values();
-        int pendingFilesCount = 0;
+    public int numFiles(Status status) {
+        return fileCounters.count(status);
+    }
 
-        while(file_it.hasNext()) {
-            File f = file_it.next();
-            if (f.isPending()) {
-                pendingFilesCount++;
-            }
-        }
+    @Override
+    public int numFiles(Status status, Type type) {
+        return fileCounters.count(status, type);
+    }
+
+    @Override
+    public int numRejectedFiles() {
+        return rejectedFiles();
+    }
+
+    /**
+     * The files that have been reviewed and not enabled, whatever their status: a file
+     * reviewed as PENDING has left the queue, so it is rejected too
+     */
+    private int rejectedFiles() {
+        return fileCounters.total() - fileCounters.count(Status.ENABLED) - files.size();
+    }
 
-        return pendingFilesCount;
+    @Override
+    public int numPendingFiles() {
+        // the files still to review: a file reviewed as PENDING is counted by numFiles(PENDING), but it has left the queue
+        return files.size();
     }
 
     @Override
@@ -658,21 +840,12 @@ public class SportEvents4ClubImpl implements SportEvents4Club {
 
     @Override
     public int numWorkers() {
-        return this.workers.size();
+        return this.workers.numWorkers();
     }
 
     @Override
     public Worker getWorker(String dni) {
-        Iterator<Worker> it_workers = this.workers.values();
-
-        while (it_workers.hasNext()) {
-            Worker next_worker = it_workers.next();
-            if (next_worker.getDni() == dni) {
-                return next_worker;
-            }
-        }
-
-        return null;
+        return this.workers.getWorker(dni);
     }
 
     @Override
@@ -704,45 +877,517 @@ public class SportEvents4ClubImpl implements SportEvents4Club {
 
     @Override
     public int numFollowers(String playerId) {
-        int followersCount = 0;
-        Player p = getPlayer(playerId);
-        Vertex<Player> v_p = this.followers.getVertex(p);
-        Iterator<Edge<Player, Player>> it_e_p_pf = this.followers.edgesWithSource(v_p);
-        
-        while(it_e_p_pf.hasNext()) {
-            it_e_p_pf.next();
-            followersCount++;
-        }
-
-        return followersCount;
+        return this.followers.numFollowers(players.handle(playerId));
     }
 
     @Override
     public int numFollowings(String playerId) {
-        int followingsCount = 0;
-        Player pf = getPlayer(playerId);
-        Vertex<Player> v_pf = this.followers.getVertex(pf);
-        Iterator<Edge<Player, Player>> it_e_p_pf = this.followers.edgedWithDestA(v_pf);
-        
-        while(it_e_p_pf.hasNext()) {
-            it_e_p_pf.next();
-            followingsCount++;
+        return this.followers.numFollowings(players.handle(playerId));
+    }
+
+    private void checkAttenders() throws NoSportEventsException {
+        if (bestSportEventsByAttenders.isEmpty() || bestSportEventsByAttenders.countAt(0) == 0) {
+            throw new NoSportEventsException();
+        }
+    }
+
+    private Player checkFollowers(String playerId) throws PlayerNotFoundException, NoFollowersException {
+        Player player = getPlayer(playerId);
+        if (player == null) {
+            throw new PlayerNotFoundException();
+        }
+        if (this.followers.numFollowers(player.getHandle()) == 0) {
+            throw new NoFollowersException();
         }
+        return player;
+    }
 
-        return followingsCount;
-    }    
+    private void putSportEvent(SportEvent sportEvent) {
+        SportEvent previous = sportEvents.get(sportEvent.getEventId());
+        if (previous != null) {
+            sortedSportEvents.delete(previous);
+        }
+        sportEvents.put(sportEvent.getEventId(), sportEvent);
+        sortedSportEvents.update(sportEvent);
+    }
 
-    private void updateMostActivePlayer(Player player) {
-        if (mostActivePlayer == null) {
-            mostActivePlayer = player;
+    /**
+     * Adds the first n sport events of the array, replacing the previous ones with their ids.
+     * The tree of ids and the ranking get all of them at once
+     */
+    private void putSportEvents(SportEvent[] newEvents, int n) {
+        for (int i = 0; i < n; i++) {
+            SportEvent previous = sportEvents.get(newEvents[i].getEventId());
+            if (previous != null) {
+                sortedSportEvents.delete(previous);
+            }
+            sportEvents.put(newEvents[i].getEventId(), newEvents[i]);
         }
-        else if (player.numSportEvents() > mostActivePlayer.numSportEvents()) {
-            mostActivePlayer = player;
+
+        // only the last one of the batch with each id stays
+        SportEvent[] sorted = new SportEvent[n];
+        int len = 0;
+        for (int i = 0; i < n; i++) {
+            if (sportEvents.get(newEvents[i].getEventId()) == newEvents[i]) {
+                sorted[len++] = newEvents[i];
+            }
         }
+        sortedSportEvents.addAll(sorted, len);
+        bestSportEventsByAttenders.addAll(newEvents, n);
     }
-    
-    private void updateBestSportEvent(SportEvent sportEvent) {
-        bestSportEvent.delete(sportEvent);
-        bestSportEvent.update(sportEvent);
+
+    private void review(File file, Status status, LocalDate date, String description) {
+        Status previous = file.getStatus();
+        file.update(status, date, description);
+        fileCounters.update(file, previous);
+        if (file.isEnabled()) {
+            SportEvent sportEvent = file.newSportEvent();
+            putSportEvent(sportEvent);
+            bestSportEventsByAttenders.add(sportEvent);
+        }
+    }
+
+    /**
+     * Reads a snapshot into this club, that must be empty
+     */
+    protected void restore(Path path) throws IOException {
+        try (SnapshotReader in = new SnapshotReader(path)) {
+            read(in);
+        }
+    }
+
+    /*
+     * Snapshot format. Every object is written once and then referenced by its index
+     * (its position in the section where it was written), so the objects shared by
+     * several structures are shared again once restored:
+     *
+     *   header           magic, version
+     *   roles            id, description
+     *   entities         id, name, description
+     *   players          id, name, surname, birthday
+     *   sport events     for each entity, its events in the order they were created,
+     *                    written as their file
+     *   dictionary       the sport events by id
+     *   event data       ratings, enrollments, substitutes and attenders
+     *   workers          for each role, its workers; then the workers of each event
+     *   player data      events, ratings and posts
+     *   followers        followers and followings of each player
+     *   timeline         see Timeline.save
+     *   rankings         best events by rating, best entities and events by attenders,
+     *                    players by activity
+     *   pending files    in the order of the heap, and the counters of files
+     *
+     * The derived data (levels, averages, counters of enrollments and seats...) is
+     * recomputed while reading.
+     */
+
+    private void write(SnapshotWriter out) throws IOException {
+        out.writeInt(SNAPSHOT_MAGIC);
+        out.writeInt(SNAPSHOT_VERSION);
+
+        out.writeInt(numRoles);
+        for (int i = 0; i < numRoles; i++) {
+            out.writeString(roles[i].getRoleId());
+            out.writeString(roles[i].getDescription());
+        }
+
+        Map<OrganizingEntity, Integer> orgIndex = new HashMap<>();
+        List<OrganizingEntity> orgs = new ArrayList<>();
+        out.writeInt(organizingEntities.size());
+        for (Iterator<OrganizingEntity> it = organizingEntities.values(); it.hasNext(); ) {
+            OrganizingEntity o = it.next();
+            orgIndex.put(o, orgs.size());
+            orgs.add(o);
+            out.writeString(o.getOrganizationId());
+            out.writeString(o.getName());
+            out.writeString(o.getDescription());
+        }
+
+        Map<Player, Integer> playerIndex = new HashMap<>();
+        List<Player> allPlayers = new ArrayList<>();
+        out.writeInt(players.size());
+        for (Iterator<Player> it = players.values(); it.hasNext(); ) {
+            Player p = it.next();
+            playerIndex.put(p, allPlayers.size());
+            allPlayers.add(p);
+            out.writeString(p.getId());
+            out.writeString(p.getName());
+            out.writeString(p.getSurname());
+            out.writeDate(p.getBirthday());
+        }
+
+        Map<SportEvent, Integer> eventIndex = new HashMap<>();
+        List<SportEvent> events = new ArrayList<>();
+        for (OrganizingEntity o : orgs) {
+            out.writeInt(o.numEvents());
+            for (Iterator<SportEvent> it = o.sportEvents(); it.hasNext(); ) {
+                SportEvent sportEvent = it.next();
+                eventIndex.put(sportEvent, events.size());
+                events.add(sportEvent);
+                writeFile(out, sportEvent.getFile());
+            }
+        }
+
+        // in the order of their ids, so the tree of ids is rebuilt without sorting them again
+        writeRefs(out, sortedSportEvents.size(), sortedSportEvents.values(sortedSportEvents.size()), eventIndex::get);
+
+        Map<uoc.ds.pr.model.Rating, Integer> ratingIndex = new HashMap<>();
+        for (SportEvent sportEvent : events) {
+            out.writeInt(sportEvent.numRatings());
+            for (Iterator<uoc.ds.pr.model.Rating> it = sportEvent.ratings(); it.hasNext(); ) {
+                uoc.ds.pr.model.Rating r = it.next();
+                ratingIndex.put(r, ratingIndex.size());
+                out.writeInt(playerIndex.get(r.getPlayer()));
+                out.writeByte(r.rating().ordinal());
+                out.writeString(r.getMessage());
+            }
+            writeRefs(out, sportEvent.getEnrollments().size(), sportEvent.getEnrollments().values(),
+                    e -> playerIndex.get(e.getPlayer()));
+            writeRefs(out, sportEvent.numSubstitutes(), sportEvent.getSubstitutes(),
+                    e -> playerIndex.get(e.getPlayer()));
+            out.writeInt(sportEvent.numAttenders());
+            for (Iterator<Attender> it = sportEvent.getAttenders().values(); it.hasNext(); ) {
+                Attender a = it.next();
+                out.writeString(a.getPhone());
+                out.writeString(a.getName());
+            }
+        }
+
+        Map<Worker, Integer> workerIndex = new HashMap<>();
+        for (int i = 0; i < numRoles; i++) {
+            out.writeInt(roles[i].numWorkers());
+            for (Iterator<Worker> it = roles[i].getWorkers(); it.hasNext(); ) {
+                Worker w = it.next();
+                workerIndex.put(w, workerIndex.size());
+                out.writeString(w.getDni());
+                out.writeString(w.getName());
+                out.writeString(w.getSurname());
+                out.writeDate(w.getBirthDay());
+            }
+        }
+        for (SportEvent sportEvent : events) {
+            writeRefs(out, sportEvent.numWorkers(), sportEvent.getWorkers(), workerIndex::get);
+        }
+
+        // posts are compared by value: a PostStore may give a new copy of the ones in the timeline
+        // (equal posts, such as two signups in the same event, share the index of the last one)
+        Map<Post, Integer> postIndex = new HashMap<>();
+        int numPosts = 0;
+        for (Player p : allPlayers) {
+            writeRefs(out, p.numEvents(), p.getEvents(), eventIndex::get);
+            writeRefs(out, p.numRatings(), p.getRatings(), ratingIndex::get);
+            out.writeInt(p.numPosts());
+            for (Iterator<Post> it = postStore.posts(p); it.hasNext(); ) {
+                Post post = it.next();
+                postIndex.put(post, numPosts++);
+                out.writeByte(post.getAction().ordinal());
+                out.writeInt(eventIndex.get(post.getSportEvent()));
+                out.writeByte(post.hasRating() ? post.getRating().ordinal() : -1);
+            }
+        }
+
+        for (Player p : allPlayers) {
+            writeRefs(out, followers.numFollowers(p.getHandle()), followers.followers(p.getHandle()), playerIndex::get);
+            writeRefs(out, followers.numFollowings(p.getHandle()), followers.followings(p.getHandle()), playerIndex::get);
+        }
+
+        timeline.save(out, postIndex::get);
+
+        writeRefs(out, bestSportEvents.size(), bestSportEvents.values(bestSportEvents.size()), eventIndex::get);
+        out.writeInt(bestOrganizingEntities.size());
+        for (int i = 0; i < bestOrganizingEntities.size(); i++) {
+            out.writeInt(orgIndex.get(bestOrganizingEntities.elementAt(i)));
+            out.writeInt(bestOrganizingEntities.countAt(i));
+        }
+        out.writeInt(bestSportEventsByAttenders.size());
+        for (int i = 0; i < bestSportEventsByAttenders.size(); i++) {
+            out.writeInt(eventIndex.get(bestSportEventsByAttenders.elementAt(i)));
+            out.writeInt(bestSportEventsByAttenders.countAt(i));
+        }
+        out.writeInt(mostActivePlayers.size());
+        for (Iterator<Player> it = mostActivePlayers.values(); it.hasNext(); ) {
+            Player p = it.next();
+            out.writeInt(playerIndex.get(p));
+            out.writeInt(mostActivePlayers.count(p));
+        }
+
+        out.writeInt(files.size());
+        for (Iterator<File> it = files.values(); it.hasNext(); ) {
+            File f = it.next();
+            out.writeInt(orgIndex.get(f.getOrganizingEntity()));
+            writeFile(out, f);
+        }
+        for (Status status : Status.values()) {
+            for (Type type : Type.values()) {
+                out.writeInt(fileCounters.count(status, type));
+            }
+        }
+    }
+
+    private void read(SnapshotReader in) throws IOException {
+        if (in.readInt() != SNAPSHOT_MAGIC) {
+            throw new IOException("not a snapshot of SportEvents4Club");
+        }
+        int version = in.readInt();
+        if (version != SNAPSHOT_VERSION) {
+            throw new IOException("unsupported snapshot version " + version);
+        }
+
+        int n = in.readInt();
+        for (int i = 0; i < n; i++) {
+            addRole(in.readString(), in.readString());
+        }
+
+        OrganizingEntity[] orgs = new OrganizingEntity[in.readInt()];
+        organizingEntities.ensureCapacity(orgs.length);
+        for (int i = 0; i < orgs.length; i++) {
+            orgs[i] = new OrganizingEntity(in.readString(), in.readString(), in.readString());
+            organizingEntities.put(orgs[i].getOrganizationId(), orgs[i]);
+        }
+
+        Player[] allPlayers = new Player[in.readInt()];
+        players.ensureCapacity(allPlayers.length);
+        for (int i = 0; i < allPlayers.length; i++) {
+            allPlayers[i] = new Player(in.readString(), in.readString(), in.readString(), in.readDate());
+            players.put(allPlayers[i].getId(), allPlayers[i]);
+        }
+
+        List<SportEvent> events = new ArrayList<>();
+        for (OrganizingEntity o : orgs) {
+            n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                events.add(readFile(in, o).newSportEvent());
+            }
+        }
+
+        // the current sport events have different ids and come in their order, so the tree of
+        // ids is built at once
+        SportEvent[] current = readRefs(in, events::get, SportEvent[]::new);
+        sportEvents.ensureCapacity(current.length);
+        for (SportEvent sportEvent : current) {
+            sportEvents.put(sportEvent.getEventId(), sportEvent);
+        }
+        sortedSportEvents.addAll(current, current.length);
+        // the sport events replaced by another one with their id share its handle
+        for (SportEvent sportEvent : events) {
+            if (sportEvent.getHandle() < 0) {
+                sportEvent.setHandle(sportEvents.handle(sportEvent.getEventId()));
+            }
+        }
+
+        Rating[] ratingValues = Rating.values();
+        List<uoc.ds.pr.model.Rating> ratings = new ArrayList<>();
+        for (SportEvent sportEvent : events) {
+            n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                Player p = allPlayers[in.readInt()];
+                uoc.ds.pr.model.Rating r = new uoc.ds.pr.model.Rating(ratingValues[in.readByte()], in.readString(), p);
+                sportEvent.addRating(r);
+                ratings.add(r);
+            }
+            n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                sportEvent.reserveEnrollment();
+                sportEvent.addEnrollment(allPlayers[in.readInt()]);
+            }
+            n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                sportEvent.addSubstitute(allPlayers[in.readInt()]);
+            }
+            n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                sportEvent.reserveSeat();
+                sportEvent.addAttender(new Attender(in.readString(), in.readString()));
+            }
+        }
+
+        List<Worker> allWorkers = new ArrayList<>();
+        for (int i = 0; i < numRoles; i++) {
+            n = in.readInt();
+            for (int j = 0; j < n; j++) {
+                Worker w = new Worker(in.readString(), in.readString(), in.readString(), in.readDate(),
+                        roles[i].getRoleId());
+                workers.put(w);
+                allWorkers.add(w);
+            }
+        }
+        for (SportEvent sportEvent : events) {
+            n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                workers.assign(allWorkers.get(in.readInt()), sportEvent);
+            }
+        }
+
+        Post.Action[] actions = Post.Action.values();
+        List<Post> posts = new ArrayList<>();
+        for (Player p : allPlayers) {
+            n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                p.addEvent(events.get(in.readInt()));
+            }
+            n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                p.addRating(ratings.get(in.readInt()));
+            }
+            n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                Post.Action action = actions[in.readByte()];
+                SportEvent sportEvent = events.get(in.readInt());
+                int rating = in.readByte();
+                Post post = new Post(action, p, sportEvent, rating >= 0 ? ratingValues[rating] : null);
+                p.addPost(postStore.append(post));
+                posts.add(post);
+            }
+        }
+
+        // the substitutes were added before the ratings that give their players their level
+        for (Player p : allPlayers) {
+            for (Iterator<Enrollment> it = p.getSubstitutes(); it.hasNext(); ) {
+                Enrollment enrollment = it.next();
+                enrollment.getSportEvent().updateSubstitute(enrollment);
+            }
+        }
+
+        for (Player p : allPlayers) {
+            Player[] pFollowers = readRefs(in, i -> allPlayers[i], Player[]::new);
+            Player[] pFollowings = readRefs(in, i -> allPlayers[i], Player[]::new);
+            followers.restore(p, pFollowers, pFollowers.length, pFollowings, pFollowings.length);
+        }
+
+        timeline.load(in, posts::get);
+
+        SportEvent[] best = readRefs(in, events::get, SportEvent[]::new);
+        bestSportEvents.addAll(best, best.length);
+        readRanking(in, i -> orgs[i], OrganizingEntity[]::new,
+                (elems, counts) -> bestOrganizingEntities.appendAll(elems, counts, elems.length));
+        readRanking(in, events::get, SportEvent[]::new,
+                (elems, counts) -> bestSportEventsByAttenders.appendAll(elems, counts, elems.length));
+        readRanking(in, i -> allPlayers[i], Player[]::new,
+                (elems, counts) -> mostActivePlayers.appendAll(elems, counts, elems.length));
+
+        File[] pending = new File[in.readInt()];
+        for (int i = 0; i < pending.length; i++) {
+            pending[i] = readFile(in, orgs[in.readInt()]);
+        }
+        files.addAll(pending, pending.length);
+        for (Status status : Status.values()) {
+            for (Type type : Type.values()) {
+                fileCounters.add(status, type, in.readInt());
+            }
+        }
+    }
+
+    private static void writeFile(SnapshotWriter out, File f) throws IOException {
+        out.writeString(f.getFileId());
+        out.writeString(f.getEventId());
+        out.writeString(f.getDescription());
+        out.writeByte(f.getType().ordinal());
+        out.writeDate(f.getStartDate());
+        out.writeDate(f.getEndDate());
+        out.writeByte(f.getResources());
+        out.writeInt(f.getMax());
+        out.writeByte(f.getStatus().ordinal());
+        out.writeDate(f.getDateStatus());
+        out.writeString(f.getDescriptionStatus());
+    }
+
+    private static File readFile(SnapshotReader in, OrganizingEntity o) throws IOException {
+        File f = new File(in.readString(), in.readString(), in.readString(), Type.values()[in.readByte()],
+                in.readDate(), in.readDate(), (byte) in.readByte(), in.readInt(), o);
+        Status status = Status.values()[in.readByte()];
+        f.update(status, in.readDate(), in.readString());
+        return f;
+    }
+
+    private static <T> void writeRefs(SnapshotWriter out, int n, Iterator<T> it, ToIntFunction<T> index) throws IOException {
+        out.writeInt(n);
+        while (it.hasNext()) {
+            out.writeInt(index.applyAsInt(it.next()));
+        }
+    }
+
+    private static <T> T[] readRefs(SnapshotReader in, IntFunction<T> elem, IntFunction<T[]> newArray) throws IOException {
+        T[] elems = newArray.apply(in.readInt());
+        for (int i = 0; i < elems.length; i++) {
+            elems[i] = elem.apply(in.readInt());
+        }
+        return elems;
+    }
+
+    /**
+     * Reads a ranking written as its elements in order, each one followed by its counter,
+     * and gives them to appendAll
+     */
+    private static <T> void readRanking(SnapshotReader in, IntFunction<T> elem, IntFunction<T[]> newArray,
+                                        BiConsumer<T[], int[]> appendAll) throws IOException {
+        T[] elems = newArray.apply(in.readInt());
+        int[] counts = new int[elems.length];
+        for (int i = 0; i < elems.length; i++) {
+            elems[i] = elem.apply(in.readInt());
+            counts[i] = in.readInt();
+        }
+        appendAll.accept(elems, counts);
+    }
+
+    /*
+     * The following operations use the data shared by all the players and sport events
+     * (timeline, follower graph, rankings by attenders and worker directory), or the data
+     * of other players or sport events than the ones of the operation. ConcurrentSportEvents4Club
+     * overrides them to take the locks of these structures. The rankings by rating and by
+     * activity, and the posts, take the locks of their stripes themselves.
+     */
+
+    protected void addPost(Player player, Post post) {
+        player.addPost(postStore.append(post));
+        this.timeline.publish(player, post);
+    }
+
+    /**
+     * The players followed by the player, for getPosts
+     */
+    protected Iterator<Player> followings(Player player) {
+        return this.followers.followings(player.getHandle());
+    }
+
+    /**
+     * The posts of the player, for getPosts
+     */
+    protected Iterator<Post> posts(Player player) {
+        return postStore.posts(player);
+    }
+
+    protected void rateSportEvent(SportEvent sportEvent, Player player, Rating rating, String message) {
+        boolean levelChanged = sportEvent.addRating(rating, message, player);
+        bestSportEvents.update(sportEvent);
+        if (levelChanged) {
+            updateSubstitutes(player);
+        }
+    }
+
+    /**
+     * Moves the player to its place in the substitutes of every sport event, after its
+     * level has changed
+     */
+    protected void updateSubstitutes(Player player) {
+        for (Iterator<Enrollment> it = player.getSubstitutes(); it.hasNext(); ) {
+            Enrollment enrollment = it.next();
+            enrollment.getSportEvent().updateSubstitute(enrollment);
+        }
+    }
+
+    protected void addAttender(SportEvent sportEvent, Attender attender) {
+        sportEvent.addAttender(attender);
+        bestOrganizingEntities.increment(sportEvent.getOrganizingEntity());
+        bestSportEventsByAttenders.increment(sportEvent);
+    }
+
+    protected boolean assignWorker(Worker worker, SportEvent sportEvent) {
+        return this.workers.assign(worker, sportEvent);
+    }
+
+    protected void addFollower(Player player, Player follower) {
+        if (this.followers.addFollower(player, follower)) {
+            this.timeline.follow(player, follower);
+        }
     }
 }
@@ -0,0 +1,112 @@
+package uoc.ds.pr.helper;
+
+import edu.uoc.ds.traversal.Iterator;
+import edu.uoc.ds.traversal.IteratorArrayImpl;
+import uoc.ds.pr.util.FollowerGraph;
+import uoc.ds.pr.util.HandleMap;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Friends-of-friends recommendations over a FollowerGraph. The candidates are
+ * the followers of the followers of a player, excluding the player itself and
+ * its current followers. They are collected in a single pass, indexed by their
+ * handles in the graph, and each one is scored with the number of mutual connections (the number of
+ * followers of the player it was reached through).
+ */
+public class RecommendationHelper {
+
+    private static final Comparator<Candidate<?>> CMP_WORST_FIRST = (c1, c2) -> {
+        int cmp = Integer.compare(c1.score, c2.score);
+        return (cmp != 0 ? cmp : Integer.compare(c2.order, c1.order));
+    };
+
+    /**
+     * All the candidates, in the order they have been discovered
+     */
+    public static <E> Iterator<E> recommendations(FollowerGraph<E> graph, int handle) {
+        List<Candidate<E>> candidates = candidates(graph, handle);
+        Object[] result = new Object[candidates.size()];
+        int i = 0;
+        for (Candidate<E> c : candidates) {
+            result[i++] = c.elem;
+        }
+        return new IteratorArrayImpl<>((E[]) result, i, 0);
+    }
+
+    /**
+     * The k candidates with more mutual connections, in descending order. Ties are
+     * resolved in discovery order. It uses a heap bounded to k elements, so the
+     * ranking costs O(c log k) over the c candidates.
+     */
+    public static <E> Iterator<E> recommendations(FollowerGraph<E> graph, int handle, int k) {
+        if (k <= 0) {
+            return new IteratorArrayImpl<>((E[]) new Object[0], 0, 0);
+        }
+
+        PriorityQueue<Candidate<E>> heap = new PriorityQueue<>(CMP_WORST_FIRST);
+        for (Candidate<E> c : candidates(graph, handle)) {
+            if (heap.size() < k) {
+                heap.add(c);
+            }
+            else if (CMP_WORST_FIRST.compare(heap.peek(), c) < 0) {
+                heap.poll();
+                heap.add(c);
+            }
+        }
+
+        int len = heap.size();
+        Object[] result = new Object[len];
+        for (int i = len - 1; i >= 0; i--) {
+            result[i] = heap.poll().elem;
+        }
+        return new IteratorArrayImpl<>((E[]) result, len, 0);
+    }
+
+    /**
+     * The candidates in the order they have been discovered
+     */
+    private static <E> List<Candidate<E>> candidates(FollowerGraph<E> graph, int handle) {
+        List<Candidate<E>> candidates = new ArrayList<>();
+        HandleMap<Candidate<E>> byHandle = new HandleMap<>();
+
+        Iterator<E> it = graph.followers(handle);
+        while (it.hasNext()) {
+            Iterator<E> it2 = graph.followers(graph.handleOf(it.next()));
+            while (it2.hasNext()) {
+                E elem = it2.next();
+                int elemHandle = graph.handleOf(elem);
+                if (elemHandle == handle || graph.isFollower(handle, elemHandle)) {
+                    continue;
+                }
+
+                Candidate<E> c = byHandle.get(elemHandle);
+                if (c == null) {
+                    c = new Candidate<>(elem, candidates.size());
+                    byHandle.put(elemHandle, c);
+                    candidates.add(c);
+                }
+                else {
+                    c.score++;
+                }
+            }
+        }
+        return candidates;
+    }
+
+
+    private static class Candidate<E> {
+        private final E elem;
+        private final int order;
+        private int score;
+
+        Candidate(E elem, int order) {
+            this.elem = elem;
+            this.order = order;
+            this.score = 1;
+        }
+    }
+}
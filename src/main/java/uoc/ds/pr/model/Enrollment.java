@@ -3,16 +3,36 @@ package uoc.ds.pr.model;
 public class Enrollment implements Comparable<Enrollment> {
     private Player player;
     private boolean isSubtitute;
+    private SportEvent sportEvent;
+    // order of arrival, so substitutes of the same level keep it
+    private long order;
+    // position in the substitutes or in the enrollments of the sport event, -1 once it leaves them
+    private int position;
+    // the previous signup of the same player in the sport event, if it signed up more than once
+    private Enrollment previous;
 
     public Enrollment(Player player, boolean isSubstitute) {
+        this(player, isSubstitute, null, 0);
+    }
+
+    public Enrollment(Player player, boolean isSubstitute, SportEvent sportEvent, long order) {
         this.player = player;
         this.isSubtitute = isSubstitute;
+        this.sportEvent = sportEvent;
+        this.order = order;
+        this.position = -1;
+        this.previous = null;
     }
-    
+
+    /**
+     * The highest level first and, with the same level, the first to arrive.
+     * The level is cached in the player, so comparing is cheap
+     */
     @Override
     public int compareTo(Enrollment enrollment) {
-        return Double.compare(this.player.getLevel().ordinal(),
+        int cmp = Integer.compare(this.player.getLevel().ordinal(),
             enrollment.getPlayer().getLevel().ordinal());
+        return (cmp != 0 ? cmp : Long.compare(this.order, enrollment.order));
     }
 
     public Player getPlayer() {
@@ -22,4 +42,39 @@ public class Enrollment implements Comparable<Enrollment> {
     public boolean getIsSubstitute() {
         return this.isSubtitute;
     }
+
+    /**
+     * The substitute takes a seat in the enrollment
+     */
+    public void promote() {
+        this.isSubtitute = false;
+    }
+
+    /**
+     * Whether it is still among the substitutes of its sport event. Once it leaves them,
+     * because it is promoted or cancelled, it never goes back
+     */
+    public boolean isWaiting() {
+        return this.isSubtitute && this.position >= 0;
+    }
+
+    public SportEvent getSportEvent() {
+        return this.sportEvent;
+    }
+
+    public int getPosition() {
+        return this.position;
+    }
+
+    public void setPosition(int position) {
+        this.position = position;
+    }
+
+    public Enrollment getPrevious() {
+        return this.previous;
+    }
+
+    public void setPrevious(Enrollment previous) {
+        this.previous = previous;
+    }
 }
@@ -74,6 +74,10 @@ public class File implements Comparable<File> {
         return recordId;
     }
 
+    public int getMax() {
+        return num;
+    }
+
     public SportEvents4Club.Type getType() {
         return this.type;
     }
@@ -90,6 +94,10 @@ public class File implements Comparable<File> {
         return startDate;
     }
 
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
     public LocalDate getDateStatus() {
         return dateStatus;
     }
@@ -0,0 +1,73 @@
+package uoc.ds.pr.model;
+
+import uoc.ds.pr.SportEvents4Club;
+
+import java.time.LocalDate;
+
+/**
+ * The data of a file to be added, before its organizing entity is resolved
+ */
+public class FileSpec {
+    private final String id;
+    private final String eventId;
+    private final String orgId;
+    private final String description;
+    private final SportEvents4Club.Type type;
+    private final byte resources;
+    private final int max;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+
+    public FileSpec(String id, String eventId, String orgId, String description, SportEvents4Club.Type type,
+                    byte resources, int max, LocalDate startDate, LocalDate endDate) {
+        this.id = id;
+        this.eventId = eventId;
+        this.orgId = orgId;
+        this.description = description;
+        this.type = type;
+        this.resources = resources;
+        this.max = max;
+        this.startDate = startDate;
+        this.endDate = endDate;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public String getOrgId() {
+        return orgId;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public SportEvents4Club.Type getType() {
+        return type;
+    }
+
+    public byte getResources() {
+        return resources;
+    }
+
+    public int getMax() {
+        return max;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public File newFile(OrganizingEntity organizingEntity) {
+        return new File(id, eventId, description, type, startDate, endDate, resources, max, organizingEntity);
+    }
+}
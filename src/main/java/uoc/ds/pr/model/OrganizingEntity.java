@@ -10,15 +10,20 @@ public class OrganizingEntity implements Comparable<OrganizingEntity> {
     public static final Comparator<OrganizingEntity> CMP_O = (org1, org2)->Integer.compare(org1.numAttenders(), org2.numAttenders());
     
     private String organizationId;
+    // handle of the id in the IdTable of the club, -1 until it is added
+    private int handle;
     private String description;
     private String name;
     private List<SportEvent> events;
+    private int numAttenders;
 
     public OrganizingEntity(String organizationId, String name, String description) {
         this.organizationId = organizationId;
+        this.handle = -1;
         this.name = name;
         this.description = description;
         events = new LinkedList<>();
+        numAttenders = 0;
     }
     
     @Override
@@ -34,6 +39,14 @@ public class OrganizingEntity implements Comparable<OrganizingEntity> {
         return organizationId;
     }
 
+    public int getHandle() {
+        return this.handle;
+    }
+
+    public void setHandle(int handle) {
+        this.handle = handle;
+    }
+
     public String getDescription() {
         return description;
     }
@@ -63,14 +76,11 @@ public class OrganizingEntity implements Comparable<OrganizingEntity> {
     }
 
     public int numAttenders() {
-        int totalAttendants = 0;
-        Iterator<SportEvent> se_it = this.events.values();
-
-        while (se_it.hasNext()) {
-            SportEvent se = se_it.next();
-            totalAttendants += se.numAttenders();
-        }
-        return totalAttendants;
+        return numAttenders;
+    }
+
+    public void incAttenders() {
+        numAttenders++;
     }
 
     public boolean hasActivities() {
@@ -1,31 +1,57 @@
 package uoc.ds.pr.model;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import edu.uoc.ds.adt.sequential.LinkedList;
 import edu.uoc.ds.traversal.Iterator;
 import uoc.ds.pr.SportEvents4Club;
 import uoc.ds.pr.helper.LevelHelper;
+import uoc.ds.pr.util.HandleMap;
+import uoc.ds.pr.util.IteratorAdapter;
+import uoc.ds.pr.util.Page;
+import uoc.ds.pr.util.SequenceList;
 
 public class Player {
+    private static final int MIN_PRUNE = 8;
+
     private String id;
+    // handle of the id in the IdTable of the club, -1 until it is added
+    private int handle;
     private String name;
     private String surname;
-    private LinkedList<SportEvent> events;
+    private SequenceList<SportEvent> events;
+    // handles of the events with the keys in events of the signups of the player, so the
+    // membership check does not traverse them and a signup is removed in O(log n)
+    private HandleMap<long[]> eventKeys;
     private LinkedList<Rating> ratings;
-    private LinkedList<Post> posts;
+    // addresses of the posts in the PostStore of the club
+    private long[] posts;
+    private int numPosts;
+    // the places of the player in the substitutes of the sport events. Those that have
+    // left the substitutes are dropped as new ones are added
+    private List<Enrollment> substitutes;
+    private int pruneAt;
     private LocalDate birthday;
+    // it only changes with a new rating
     private SportEvents4Club.Level level;
 
 	public Player(String idUser, String name, String surname, LocalDate birthday) {
         this.setId(idUser);
+        this.handle = -1;
         this.setName(name);
         this.setSurname(surname);
         this.setBirthday(birthday);
-        this.events = new LinkedList<SportEvent>();
+        this.events = new SequenceList<SportEvent>();
+        this.eventKeys = new HandleMap<long[]>();
         this.ratings = new LinkedList<Rating>();
-        this.posts = new LinkedList<Post>();
-        getLevel();
+        this.posts = new long[4];
+        this.numPosts = 0;
+        this.substitutes = new ArrayList<Enrollment>();
+        this.pruneAt = MIN_PRUNE;
+        this.level = LevelHelper.getLevel(0);
     }
 
     public void setName(String name) {
@@ -48,6 +74,14 @@ public class Player {
         return this.id;
     }
 
+    public int getHandle() {
+        return this.handle;
+    }
+
+    public void setHandle(int handle) {
+        this.handle = handle;
+    }
+
     public String getName() {
         return this.name;
     }
@@ -61,7 +95,6 @@ public class Player {
     }
 
     public SportEvents4Club.Level getLevel() {
-        this.level = LevelHelper.getLevel(this.ratings.size());
         return this.level;
     }
 
@@ -69,37 +102,99 @@ public class Player {
         return id.equals(playerID);
     }
 
-    public void addRating(Rating rating) {
+    /**
+     * @return true if the level of the player has changed
+     */
+    public boolean addRating(Rating rating) {
         ratings.insertEnd(rating);
+        SportEvents4Club.Level previous = this.level;
+        this.level = LevelHelper.getLevel(this.ratings.size());
+        return this.level != previous;
     }
 
-    public void addPost(Post post) {
-        posts.insertEnd(post);
+    public void addSubstitute(Enrollment enrollment) {
+        if (substitutes.size() >= pruneAt) {
+            substitutes.removeIf(e -> !e.isWaiting());
+            pruneAt = Math.max(2 * substitutes.size(), MIN_PRUNE);
+        }
+        substitutes.add(enrollment);
+    }
+
+    public Iterator<Enrollment> getSubstitutes() {
+        return new IteratorAdapter<Enrollment>(substitutes);
     }
 
+    public void addPost(long address) {
+        if (numPosts == posts.length) {
+            posts = Arrays.copyOf(posts, numPosts * 2);
+        }
+        posts[numPosts++] = address;
+    }
+
+    /**
+     * Adds a signup in the sport event, that must be in the club (it must have its handle)
+     */
     public void addEvent(SportEvent sportEvent) {
-        events.insertEnd(sportEvent);
+        long key = events.add(sportEvent);
+        long[] keys = eventKeys.get(sportEvent.getHandle());
+        if (keys == null) {
+            keys = new long[] {key};
+        }
+        else {
+            keys = Arrays.copyOf(keys, keys.length + 1);
+            keys[keys.length - 1] = key;
+        }
+        eventKeys.put(sportEvent.getHandle(), keys);
+    }
+
+    /**
+     * Removes the last signup of the player in the sport event: O(log n)
+     */
+    public void removeEvent(SportEvent sportEvent) {
+        long[] keys = eventKeys.get(sportEvent.getHandle());
+        if (keys == null) {
+            return;
+        }
+        events.remove(keys[keys.length - 1]);
+        if (keys.length > 1) {
+            eventKeys.put(sportEvent.getHandle(), Arrays.copyOf(keys, keys.length - 1));
+        }
+        else {
+            eventKeys.remove(sportEvent.getHandle());
+        }
     }
 
     public int numEvents() {
         return events.size();
     }
 
+    /**
+     * By the handle of the sport event: O(1)
+     */
+    public boolean isInSportEvent(SportEvent sportEvent) {
+        return eventKeys.containsKey(sportEvent.getHandle());
+    }
+
+    /**
+     * By the id of the sport event, traversing the events of the player
+     */
     public boolean isInSportEvent(String eventId) {
-        boolean found = false;
-        SportEvent sportEvent = null;
-        Iterator<SportEvent> it = getEvents();
-        while (it.hasNext() && !found) {
-            sportEvent = it.next();
-            found = sportEvent.is(eventId);
+        for (Iterator<SportEvent> it = events.values(); it.hasNext(); ) {
+            if (it.next().is(eventId)) {
+                return true;
+            }
         }
-        return found;
+        return false;
     }
 
     public int numSportEvents() {
         return events.size();
     }
 
+    public int numPosts() {
+        return numPosts;
+    }
+
     public int numRatings() {
         return ratings.size();
     }
@@ -108,11 +203,26 @@ public class Player {
         return events.values();
     }
 
-    public Iterator<Post> getPosts() {
-        return posts.values();
+    /**
+     * A page of the events, in the order the player signed up. The cursor stays valid
+     * when signups are cancelled
+     */
+    public Page<SportEvent> getEvents(String cursor, int limit) {
+        return events.page(cursor, limit);
+    }
+
+    public Iterator<Rating> getRatings() {
+        return ratings.values();
+    }
+
+    /**
+     * The address of the i-th post of the player
+     */
+    public long getPost(int i) {
+        return posts[i];
     }
 
     public boolean hasEvents() {
-        return this.events.size()>0;
+        return !this.events.isEmpty();
     }
 }
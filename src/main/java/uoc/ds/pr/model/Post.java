@@ -1,13 +1,103 @@
 package uoc.ds.pr.model;
 
+import uoc.ds.pr.SportEvents4Club;
+
+import java.util.Objects;
+
 public class Post {
-    private String msg;
 
-    public Post(String msg) {
-        this.msg = msg;
+    public enum Action {
+        SIGNUP("signup"),
+        RATING("rating");
+
+        private final String name;
+
+        private Action(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    private final Action action;
+    private final Player player;
+    private final SportEvent sportEvent;
+    private final SportEvents4Club.Rating rating;
+
+    public Post(Player player, SportEvent sportEvent) {
+        this(Action.SIGNUP, player, sportEvent, null);
+    }
+
+    public Post(Player player, SportEvent sportEvent, SportEvents4Club.Rating rating) {
+        this(Action.RATING, player, sportEvent, rating);
+    }
+
+    public Post(Action action, Player player, SportEvent sportEvent, SportEvents4Club.Rating rating) {
+        this.action = action;
+        this.player = player;
+        this.sportEvent = sportEvent;
+        this.rating = rating;
+    }
+
+    public Action getAction() {
+        return this.action;
+    }
+
+    public Player getPlayer() {
+        return this.player;
+    }
+
+    public SportEvent getSportEvent() {
+        return this.sportEvent;
+    }
+
+    public SportEvents4Club.Rating getRating() {
+        return this.rating;
+    }
+
+    public boolean hasRating() {
+        return this.rating != null;
+    }
+
+    /**
+     * Posts are values: a post read again from a PostStore equals the one that was stored.
+     * The store gives the sport event that has its handle now, so a sport event replaced
+     * by another one with its id is the same for a post
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Post)) {
+            return false;
+        }
+        Post post = (Post) o;
+        return action == post.action && player == post.player && sameSportEvent(post.sportEvent)
+                && rating == post.rating;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(action, player, sportEvent.getHandle(), rating);
+    }
+
+    private boolean sameSportEvent(SportEvent other) {
+        return sportEvent == other || (sportEvent.getHandle() >= 0 && sportEvent.getHandle() == other.getHandle());
     }
 
+    /**
+     * The text of the post is only rendered when it is requested
+     */
     public String message() {
-        return this.msg;
+        StringBuilder sb = new StringBuilder(96)
+                .append("{'player': '").append(player.getId())
+                .append("', 'sportEvent': '").append(sportEvent.getEventId());
+        if (hasRating()) {
+            sb.append("', 'rating': '").append(rating.name());
+        }
+        return sb.append("', 'action': '").append(action.getName()).append("'}").toString();
     }
 }
@@ -1,19 +1,20 @@
 package uoc.ds.pr.model;
 
-import edu.uoc.ds.adt.helpers.Position;
-import edu.uoc.ds.adt.sequential.LinkedList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import edu.uoc.ds.traversal.Iterator;
-import edu.uoc.ds.traversal.Traversal;
+import uoc.ds.pr.util.IteratorAdapter;
 
 public class Role {
     private String roleId;
     private String description;
-    private LinkedList<Worker> workers;
+    private Map<String, Worker> workers;
 
     public Role(String roleId, String description) {
         this.roleId = roleId;
         this.description = description;
-        this.workers = new LinkedList<Worker>();
+        this.workers = new LinkedHashMap<String, Worker>();
     }
 
     public String getRoleId() {
@@ -28,35 +29,30 @@ public class Role {
         this.description = description;
     }
 
-    public LinkedList<Worker> getWorkers() {
-        return this.workers;
+    public Iterator<Worker> getWorkers() {
+        return new IteratorAdapter<Worker>(this.workers.values());
     }
 
     public int numWorkers() {
         return this.workers.size();
     }
 
+    public boolean hasWorkers() {
+        return !this.workers.isEmpty();
+    }
+
     public Worker getWorkerByDni(String dni) {
-        Iterator<Worker> worker_it = getWorkers().values();
-        
-        while (worker_it.hasNext()) {
-            Worker nextWorker = worker_it.next();
-            if (nextWorker.getDni() == dni) {
-                return nextWorker;
-            }
-        }
-        return null;
-    }
-
-    public void updateWorker(Role oldRole, Worker newWorker) {
-        Traversal<Worker> pos_workers = oldRole.getWorkers().positions();            
-        while (pos_workers.hasNext()) {
-            Position<Worker> next_worker = pos_workers.next();
-            if (next_worker.getElem().getDni() == newWorker.getDni()) {
-                oldRole.getWorkers().delete(next_worker);
-                this.workers.insertEnd(newWorker);
-                break;
-            }
-        }
+        return this.workers.get(dni);
+    }
+
+    /**
+     * Adds a worker at the end or, if it was already in the role, updates it in its position
+     */
+    public void addWorker(Worker worker) {
+        this.workers.put(worker.getDni(), worker);
+    }
+
+    public Worker removeWorker(String dni) {
+        return this.workers.remove(dni);
     }
 }
@@ -1,25 +1,31 @@
 package uoc.ds.pr.model;
 
-import edu.uoc.ds.adt.nonlinear.HashTable;
-import edu.uoc.ds.adt.nonlinear.PriorityQueue;
-import edu.uoc.ds.adt.sequential.LinkedList;
-import edu.uoc.ds.adt.sequential.List;
-import edu.uoc.ds.adt.sequential.Queue;
-import edu.uoc.ds.adt.sequential.QueueArrayImpl;
 import edu.uoc.ds.traversal.Iterator;
 import uoc.ds.pr.SportEvents4Club;
+import uoc.ds.pr.util.BinaryHeap;
+import uoc.ds.pr.util.IndexedQueue;
+import uoc.ds.pr.util.IteratorAdapter;
+import uoc.ds.pr.util.Page;
+import uoc.ds.pr.util.PagedHashTable;
+import uoc.ds.pr.util.RatingHistogram;
+import uoc.ds.pr.util.Streams;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Comparator;
-
-
-import static uoc.ds.pr.SportEvents4Club.MAX_NUM_ENROLLMENT;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 public class SportEvent implements Comparable<SportEvent> {
     public static final Comparator<SportEvent> CMP_V = (se1, se2)->Double.compare(se1.rating(), se2.rating());
     public static final Comparator<String> CMP_K = (k1, k2)-> k1.compareTo(k2);
 
     private String eventId;
+    // handle of the id in the IdTable of the club, -1 until it is added
+    private int handle;
     private String description;
     private SportEvents4Club.Type type;
     private LocalDate startDate;
@@ -29,34 +35,60 @@ public class SportEvent implements Comparable<SportEvent> {
     private File file;
 
     private List<Rating> ratings;
-    private double sumRating;
+    private RatingHistogram histogram;
 
-    private LinkedList<Worker> workers;
-    private Queue<Enrollment> enrollments;
-    private PriorityQueue<Enrollment> substitutues;
-    private HashTable<String, Attender> attenders;
+    // in order of assignment, with the position of each one by dni
+    private List<Worker> workers;
+    private Map<String, Integer> workerPositions;
+    // both indexed by the position kept in each enrollment, so a player can be removed
+    // from the enrollment and a substitute can be moved
+    private IndexedQueue<Enrollment> enrollments;
+    private BinaryHeap<Enrollment> substitutues;
+    private long numArrivals;
+    // the last signup of each player, linked to the previous ones
+    private Map<Player, Enrollment> roster;
+    private PagedHashTable<String, Attender> attenders;
+
+    // seats reserved in the enrollment, and seats taken by players and attenders
+    private final AtomicInteger enrolled;
+    private final AtomicInteger occupied;
 
 
     public SportEvent(String eventId, String description, SportEvents4Club.Type type,
                       LocalDate startDate, LocalDate endDate, int max, File file) {
         setEventId(eventId);
+        this.handle = -1;
         setDescription(description);
         setStartDate(startDate);
         setEndDate(endDate);
         setType(type);
         setMax(max);
         setFile(file);
-        this.enrollments = new QueueArrayImpl<Enrollment>(MAX_NUM_ENROLLMENT);
-        this.substitutues = new PriorityQueue<Enrollment>(MAX_NUM_ENROLLMENT);
-        this.ratings = new LinkedList<Rating>();
-        this.workers = new LinkedList<Worker>();
-        this.attenders = new HashTable<String, Attender>();
+        this.enrollments = new IndexedQueue<Enrollment>(Enrollment::setPosition);
+        this.substitutues = new BinaryHeap<Enrollment>(Comparator.naturalOrder(), Enrollment::setPosition);
+        this.numArrivals = 0;
+        this.roster = new HashMap<Player, Enrollment>();
+        this.ratings = new ArrayList<Rating>();
+        this.histogram = new RatingHistogram();
+        this.workers = new ArrayList<Worker>();
+        this.workerPositions = new HashMap<String, Integer>();
+        this.attenders = new PagedHashTable<String, Attender>();
+        this.enrolled = new AtomicInteger();
+        this.occupied = new AtomicInteger();
     }
 
     public String getEventId() {
         return eventId;
     }
 
+    public int getHandle() {
+        return this.handle;
+    }
+
+    public void setHandle(int handle) {
+        this.handle = handle;
+    }
+
     public void setEventId(String eventId) {
         this.eventId = eventId;
     }
@@ -116,30 +148,147 @@ public class SportEvent implements Comparable<SportEvent> {
 
 
     public double rating() {
-        return (this.ratings.size()>0?(sumRating / this.ratings.size()):0);
+        return histogram.mean();
     }
 
-    public void addRating(SportEvents4Club.Rating rating, String message, Player player) {
+    /**
+     * The statistics of the ratings of the event (mean, median, mode, variance and distribution)
+     */
+    public RatingHistogram getRatingHistogram() {
+        return histogram;
+    }
+
+    /**
+     * @return true if the level of the player has changed
+     */
+    public boolean addRating(SportEvents4Club.Rating rating, String message, Player player) {
         Rating newRating = new Rating(rating, message, player);
-        ratings.insertEnd(newRating);
-        sumRating+=rating.getValue();
-        player.addRating(newRating);
+        addRating(newRating);
+        return player.addRating(newRating);
+    }
+
+    /**
+     * Adds a rating that is already in the ratings of its player
+     */
+    public void addRating(Rating rating) {
+        ratings.add(rating);
+        histogram.add(rating.rating());
     }
 
     public boolean hasRatings() {
         return ratings.size()>0;
     }
 
+    public int numRatings() {
+        return ratings.size();
+    }
+
     public Iterator<Rating> ratings() {
-        return ratings.values();
+        return new IteratorAdapter<Rating>(ratings);
+    }
+
+    public Stream<Rating> ratings(boolean parallel) {
+        return (parallel ? ratings.parallelStream() : ratings.stream());
+    }
+
+    /**
+     * A page of the ratings, in the order they were added
+     */
+    public Page<Rating> ratings(String cursor, int limit) {
+        return Page.of(ratings, cursor, limit);
+    }
+
+    /**
+     * Reserves a seat in the enrollment. It must be done before addEnrollment
+     * and released if the player cannot be added.
+     * @return false if the enrollment is full
+     */
+    public boolean reserveEnrollment() {
+        return reserve(enrolled);
+    }
+
+    public void releaseEnrollment() {
+        enrolled.decrementAndGet();
+    }
+
+    /**
+     * Reserves a seat for an attender, counting the players and the attenders
+     * that already have one. It must be done before addAttender and released
+     * if the attender cannot be added.
+     * @return false if the event is full
+     */
+    public boolean reserveSeat() {
+        return reserve(occupied);
+    }
+
+    public void releaseSeat() {
+        occupied.decrementAndGet();
     }
 
     public void addEnrollment(Player player) {
-        enrollments.add(new Enrollment(player, false));
+        Enrollment enrollment = new Enrollment(player, false, this, numArrivals++);
+        enrollments.add(enrollment);
+        enrollment.setPrevious(roster.put(player, enrollment));
+        occupied.incrementAndGet();
     }
 
     public void addSubstitute(Player player) {
-        substitutues.add(new Enrollment(player, true));
+        Enrollment enrollment = new Enrollment(player, true, this, numArrivals++);
+        substitutues.add(enrollment);
+        enrollment.setPrevious(roster.put(player, enrollment));
+        player.addSubstitute(enrollment);
+        occupied.incrementAndGet();
+    }
+
+    /**
+     * Moves a substitute to its place after the level of its player has changed.
+     * Nothing is done if it is no longer a substitute
+     */
+    public void updateSubstitute(Enrollment enrollment) {
+        if (enrollment.isWaiting()) {
+            substitutues.update(enrollment.getPosition());
+        }
+    }
+
+    /**
+     * Removes the last signup of the player, in O(log n). If it had a seat in the
+     * enrollment, the first substitute takes it.
+     * @return the signup removed, or null if the player has not signed up
+     */
+    public Enrollment cancel(Player player) {
+        Enrollment enrollment = roster.remove(player);
+        if (enrollment == null) {
+            return null;
+        }
+        if (enrollment.getPrevious() != null) {
+            roster.put(player, enrollment.getPrevious());
+            enrollment.setPrevious(null);
+        }
+
+        if (enrollment.getIsSubstitute()) {
+            substitutues.remove(enrollment.getPosition());
+        }
+        else {
+            enrollments.remove(enrollment.getPosition());
+            releaseEnrollment();
+            promoteSubstitute();
+        }
+        occupied.decrementAndGet();
+        return enrollment;
+    }
+
+    /**
+     * The first substitute takes a free seat in the enrollment
+     * @return the substitute promoted, or null if there is none or the enrollment is full
+     */
+    private Enrollment promoteSubstitute() {
+        if (substitutues.isEmpty() || !reserveEnrollment()) {
+            return null;
+        }
+        Enrollment enrollment = substitutues.poll();
+        enrollment.promote();
+        enrollments.add(enrollment);
+        return enrollment;
     }
 
     public boolean is(String eventId) {
@@ -153,7 +302,7 @@ public class SportEvent implements Comparable<SportEvent> {
     }
 
     public boolean isFull() {
-        return (enrollments.size()>=max);
+        return (enrolled.get()>=max);
     }
 
     public boolean hasNoSubstitutes() {
@@ -172,47 +321,85 @@ public class SportEvent implements Comparable<SportEvent> {
         return this.substitutues.size();
     }
 
-    public HashTable<String, Attender> getAttenders() {
+    public PagedHashTable<String, Attender> getAttenders() {
         return this.attenders;
     }
 
+    public Stream<Attender> attenders(boolean parallel) {
+        return Streams.stream(this.attenders, parallel);
+    }
+
     public Attender getAttenderByPhone(String phone) {
         return this.attenders.get(phone);
     }
 
     public void addAttender(Attender attender) {
+        int n = this.attenders.size();
         this.attenders.put(attender.getPhone(), attender);
+        if (this.attenders.size() > n) {
+            getOrganizingEntity().incAttenders();
+        }
     }
     
-    public LinkedList<Worker> getWorkers() {
-        return this.workers;
+    public Iterator<Worker> getWorkers() {
+        return new IteratorAdapter<Worker>(this.workers);
+    }
+
+    /**
+     * A page of the workers, in order of assignment
+     */
+    public Page<Worker> getWorkers(String cursor, int limit) {
+        return Page.of(this.workers, cursor, limit);
     }
 
     public int numWorkers() {
         return this.workers.size();
     }
 
+    public boolean hasWorkers() {
+        return !this.workers.isEmpty();
+    }
+
     public Worker getWorkerByDni(String dni) {
-        Iterator<Worker> worker_it = getWorkers().values();
-        
-        while (worker_it.hasNext()) {
-            Worker nextWorker = worker_it.next();
-            if (nextWorker.getDni() == dni) {
-                return nextWorker;
-            }
-        }
-        return null;
+        Integer i = this.workerPositions.get(dni);
+        return (i != null ? this.workers.get(i) : null);
     }
-    
+
+    /**
+     * Adds a worker at the end or, if it was already assigned, updates it in its position
+     */
     public void addWorker(Worker w) {
-        this.workers.insertEnd(w);
+        Integer i = this.workerPositions.putIfAbsent(w.getDni(), this.workers.size());
+        if (i != null) {
+            this.workers.set(i, w);
+        }
+        else {
+            this.workers.add(w);
+        }
     }
 
-    public Queue<Enrollment> getEnrollments() {
+    public IndexedQueue<Enrollment> getEnrollments() {
         return this.enrollments;
     }
 
-    public Queue<Enrollment> getSubstitutes() {
-        return this.substitutues;
+    /**
+     * The substitutes in priority order
+     */
+    public Iterator<Enrollment> getSubstitutes() {
+        return this.substitutues.sorted();
+    }
+
+    /*
+     * The counter is incremented without checking it first, so a reservation never
+     * waits for another one. If it went past the maximum it is undone: a seat is
+     * never given twice, although a reservation may fail while another one that
+     * will also fail is being undone.
+     */
+    private boolean reserve(AtomicInteger counter) {
+        if (counter.getAndIncrement() < max) {
+            return true;
+        }
+        counter.decrementAndGet();
+        return false;
     }
 }
@@ -0,0 +1,181 @@
+package uoc.ds.pr.util;
+
+import edu.uoc.ds.traversal.Iterator;
+import edu.uoc.ds.traversal.IteratorArrayImpl;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.ObjIntConsumer;
+
+
+/**
+ * Priority queue (the smallest element first) over a growable array, that is not
+ * allocated until the first element is added and then doubles from a few slots.
+ * Besides adding elements one by one in O(log n), a whole group can be added at once:
+ * the heap is rebuilt bottom-up, which is O(n) instead of O(n log n).
+ *
+ * The heap can be indexed: it reports the position of every element each time it moves
+ * (-1 once it leaves the heap), so an element whose priority has changed can be put back
+ * in its place with update in O(log n).
+ */
+public class BinaryHeap<E> {
+    private static final int INITIAL_CAPACITY = 4;
+    private static final Object[] NO_ELEMS = new Object[0];
+
+    private final Comparator<? super E> comparator;
+    private final ObjIntConsumer<? super E> positions;
+    private E[] elems;
+    private int len;
+
+
+    /**
+     * @param positions receives each element with its new position in the heap, or null
+     */
+    public BinaryHeap(Comparator<? super E> comparator, ObjIntConsumer<? super E> positions) {
+        this.comparator = comparator;
+        this.positions = positions;
+        this.elems = (E[]) NO_ELEMS;
+        this.len = 0;
+    }
+
+    public BinaryHeap(Comparator<? super E> comparator) {
+        this(comparator, null);
+    }
+
+    public BinaryHeap() {
+        this((Comparator<? super E>) Comparator.naturalOrder());
+    }
+
+    public void add(E elem) {
+        ensureCapacity(len + 1);
+        elems[len] = elem;
+        siftUp(len++);
+    }
+
+    /**
+     * Adds the first n elements of the array
+     */
+    public void addAll(E[] newElems, int n) {
+        ensureCapacity(len + n);
+        System.arraycopy(newElems, 0, elems, len, n);
+        for (int i = len; i < len + n; i++) {
+            moved(i);
+        }
+        len += n;
+
+        // Floyd: sift down every internal node, from the last one to the root
+        for (int i = (len >>> 1) - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+    }
+
+    public E poll() {
+        return (len > 0 ? remove(0) : null);
+    }
+
+    /**
+     * Removes the element at position i
+     */
+    public E remove(int i) {
+        E elem = elems[i];
+        E last = elems[--len];
+        elems[len] = null;
+        if (i < len) {
+            elems[i] = last;
+            update(i);
+        }
+        if (positions != null) {
+            positions.accept(elem, -1);
+        }
+        return elem;
+    }
+
+    /**
+     * Moves the element at position i to its place, after its priority has changed
+     */
+    public void update(int i) {
+        if (siftUp(i) == i) {
+            siftDown(i);
+        }
+    }
+
+    public E peek() {
+        return (len > 0 ? elems[0] : null);
+    }
+
+    public int size() {
+        return len;
+    }
+
+    public boolean isEmpty() {
+        return len == 0;
+    }
+
+    /**
+     * The elements in the order of the heap, not in priority order
+     */
+    public Iterator<E> values() {
+        return new IteratorArrayImpl<>(elems, len, 0);
+    }
+
+    /**
+     * The elements in priority order. They are sorted in a copy: O(n log n)
+     */
+    public Iterator<E> sorted() {
+        E[] copy = Arrays.copyOf(elems, len);
+        Arrays.sort(copy, comparator);
+        return new IteratorArrayImpl<>(copy, len, 0);
+    }
+
+    /**
+     * @return the final position of the element
+     */
+    private int siftUp(int i) {
+        E elem = elems[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (comparator.compare(elem, elems[parent]) >= 0) {
+                break;
+            }
+            elems[i] = elems[parent];
+            moved(i);
+            i = parent;
+        }
+        elems[i] = elem;
+        moved(i);
+        return i;
+    }
+
+    private void siftDown(int i) {
+        E elem = elems[i];
+        int half = len >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < len && comparator.compare(elems[child + 1], elems[child]) < 0) {
+                child++;
+            }
+            if (comparator.compare(elem, elems[child]) <= 0) {
+                break;
+            }
+            elems[i] = elems[child];
+            moved(i);
+            i = child;
+        }
+        elems[i] = elem;
+        moved(i);
+    }
+
+    private void moved(int i) {
+        if (positions != null) {
+            positions.accept(elems[i], i);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > elems.length) {
+            E[] aux = (E[]) new Object[Math.max(capacity, Math.max(elems.length * 2, INITIAL_CAPACITY))];
+            System.arraycopy(elems, 0, aux, 0, len);
+            elems = aux;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package uoc.ds.pr.util;
+
+import edu.uoc.ds.traversal.Iterator;
+import edu.uoc.ds.traversal.IteratorArrayImpl;
+
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * ADT that keeps a set of elements ordered by a counter that changes one unit at a time
+ * (in descending order). For each counter value it keeps the positions where its block of
+ * elements starts and ends, so incrementing or decrementing the counter of an element moves
+ * it to its new place with a single swap: increment and decrement are O(1), and so are the
+ * position of an element and the element at a position. The first k elements can be
+ * traversed in O(k).
+ *
+ * An element that reaches a counter by an increment goes after the elements that already
+ * had it, and by a decrement before them. The order of the elements it leaves behind is
+ * not kept: the first (or last) one of its old block takes its place. So ties are not in
+ * order of arrival, which would need a shift of the block instead of the swap.
+ */
+public class CounterRanking<E> {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private E[] elems;
+    private int[] counts;
+    private int len;
+    private Map<E, Integer> positions;
+    private Map<Integer, Integer> blocks;
+    private Map<Integer, Integer> lasts;
+
+
+    public CounterRanking() {
+        this.elems = (E[]) new Object[INITIAL_CAPACITY];
+        this.counts = new int[INITIAL_CAPACITY];
+        this.len = 0;
+        this.positions = new HashMap<>();
+        this.blocks = new HashMap<>();
+        this.lasts = new HashMap<>();
+    }
+
+    /**
+     * Adds a new element with its counter at 0. If it already exists nothing changes
+     */
+    public void add(E elem) {
+        if (positions.containsKey(elem)) {
+            return;
+        }
+        ensureCapacity(len + 1);
+        elems[len] = elem;
+        counts[len] = 0;
+        positions.put(elem, len);
+        blocks.putIfAbsent(0, len);
+        lasts.put(0, len);
+        len++;
+    }
+
+    /**
+     * Adds the first n elements of the array with their counters at 0, making room for all
+     * of them at once. The ones that already exist do not change
+     */
+    public void addAll(E[] newElems, int n) {
+        ensureCapacity(len + n);
+        for (int i = 0; i < n; i++) {
+            add(newElems[i]);
+        }
+    }
+
+    /**
+     * Adds a new element at the end with the given counter, that cannot be higher than
+     * the counter of the last element. It is used to restore a ranking in its order.
+     */
+    public void append(E elem, int count) {
+        if (positions.containsKey(elem)) {
+            throw new IllegalArgumentException("the element is already in the ranking");
+        }
+        if (len > 0 && count > counts[len - 1]) {
+            throw new IllegalArgumentException("the counters must be in descending order");
+        }
+        add(elem);
+        counts[len - 1] = count;
+        if (count != 0) {
+            blocks.remove(0, len - 1);
+            lasts.remove(0, len - 1);
+            blocks.putIfAbsent(count, len - 1);
+            lasts.put(count, len - 1);
+        }
+    }
+
+    /**
+     * Appends the first n elements of the array with their counters, as append does one by
+     * one, making room for all of them at once and setting each block once. If an element
+     * already exists or the counters are not in descending order nothing changes
+     */
+    public void appendAll(E[] newElems, int[] newCounts, int n) {
+        for (int i = 0; i < n; i++) {
+            if (positions.containsKey(newElems[i])) {
+                throw new IllegalArgumentException("the element is already in the ranking");
+            }
+            if ((i > 0 ? newCounts[i] > newCounts[i - 1] : len > 0 && newCounts[i] > counts[len - 1])) {
+                throw new IllegalArgumentException("the counters must be in descending order");
+            }
+        }
+        ensureCapacity(len + n);
+        if (positions.isEmpty()) {
+            positions = new HashMap<>(Math.max(INITIAL_CAPACITY, (int) (n / 0.75f) + 1));
+        }
+        for (int i = 0; i < n; i++) {
+            if (positions.put(newElems[i], len + i) != null) {
+                for (int j = 0; j < i; j++) {
+                    positions.remove(newElems[j]);
+                }
+                throw new IllegalArgumentException("the element is already in the ranking");
+            }
+        }
+
+        System.arraycopy(newElems, 0, elems, len, n);
+        System.arraycopy(newCounts, 0, counts, len, n);
+        int start = 0;
+        for (int i = 0; i < n; i++) {
+            // each run of equal counters is a block (or the end of the last one before them)
+            if (i == n - 1 || newCounts[i + 1] != newCounts[i]) {
+                blocks.putIfAbsent(newCounts[i], len + start);
+                lasts.put(newCounts[i], len + i);
+                start = i + 1;
+            }
+        }
+        len += n;
+    }
+
+    /**
+     * Increments the counter of an element, adding it if it does not exist
+     * @return the new counter
+     */
+    public int increment(E elem) {
+        Integer pos = positions.get(elem);
+        if (pos == null) {
+            add(elem);
+            pos = len - 1;
+        }
+
+        int i = pos;
+        int c = counts[i];
+        int first = blocks.get(c);
+
+        // the element goes to the first position of its block
+        E aux = elems[first];
+        elems[first] = elem;
+        elems[i] = aux;
+        positions.put(aux, i);
+        positions.put(elem, first);
+
+        counts[first] = c + 1;
+        if (first + 1 < len && counts[first + 1] == c) {
+            blocks.put(c, first + 1);
+        }
+        else {
+            blocks.remove(c);
+            lasts.remove(c);
+        }
+        blocks.putIfAbsent(c + 1, first);
+        lasts.put(c + 1, first);
+
+        return c + 1;
+    }
+
+    /**
+     * Decrements the counter of an element, that must exist and have a counter higher than 0
+     * @return the new counter
+     */
+    public int decrement(E elem) {
+        Integer pos = positions.get(elem);
+        if (pos == null) {
+            throw new IllegalArgumentException("the element is not in the ranking");
+        }
+
+        int i = pos;
+        int c = counts[i];
+        if (c == 0) {
+            throw new IllegalArgumentException("the counter is already 0");
+        }
+        int last = lasts.get(c);
+
+        // the element goes to the last position of its block
+        E aux = elems[last];
+        elems[last] = elem;
+        elems[i] = aux;
+        positions.put(aux, i);
+        positions.put(elem, last);
+
+        counts[last] = c - 1;
+        if (last > 0 && counts[last - 1] == c) {
+            lasts.put(c, last - 1);
+        }
+        else {
+            blocks.remove(c);
+            lasts.remove(c);
+        }
+        blocks.put(c - 1, last);
+        lasts.putIfAbsent(c - 1, last);
+
+        return c - 1;
+    }
+
+    public boolean contains(E elem) {
+        return positions.containsKey(elem);
+    }
+
+    /**
+     * @return the counter of the element or -1 if it does not exist
+     */
+    public int count(E elem) {
+        Integer pos = positions.get(elem);
+        return (pos != null ? counts[pos] : -1);
+    }
+
+    /**
+     * @return the position (starting at 0) of the element or -1 if it does not exist
+     */
+    public int position(E elem) {
+        Integer pos = positions.get(elem);
+        return (pos != null ? pos : -1);
+    }
+
+    public E elementAt(int i) {
+        return elems[i];
+    }
+
+    public int countAt(int i) {
+        return counts[i];
+    }
+
+    /**
+     * The first k elements, from the highest counter to the lowest
+     */
+    public Iterator<E> values(int k) {
+        return new IteratorArrayImpl<>(elems, Math.min(Math.max(k, 0), len), 0);
+    }
+
+    public Iterator<E> values() {
+        return values(len);
+    }
+
+    public int size() {
+        return len;
+    }
+
+    public boolean isEmpty() {
+        return len == 0;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > elems.length) {
+            capacity = Math.max(capacity, elems.length * 2);
+            E[] aux = (E[]) new Object[capacity];
+            int[] auxCounts = new int[capacity];
+            System.arraycopy(elems, 0, aux, 0, len);
+            System.arraycopy(counts, 0, auxCounts, 0, len);
+            elems = aux;
+            counts = auxCounts;
+        }
+    }
+}
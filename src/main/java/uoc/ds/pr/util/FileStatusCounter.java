@@ -0,0 +1,89 @@
+package uoc.ds.pr.util;
+
+import uoc.ds.pr.SportEvents4Club;
+import uoc.ds.pr.model.File;
+
+
+/**
+ * Counters of files by status and by type. They are updated when a file is added
+ * and every time its status changes, so all the queries are O(1) and do not need
+ * to traverse the files.
+ */
+public class FileStatusCounter {
+    private static final int NUM_STATUS = SportEvents4Club.Status.values().length;
+    private static final int NUM_TYPES = SportEvents4Club.Type.values().length;
+
+    private final int[][] counts;
+    private final int[] countsByStatus;
+    private final int[] countsByType;
+    private int total;
+
+
+    public FileStatusCounter() {
+        this.counts = new int[NUM_STATUS][NUM_TYPES];
+        this.countsByStatus = new int[NUM_STATUS];
+        this.countsByType = new int[NUM_TYPES];
+        this.total = 0;
+    }
+
+    /**
+     * Counts a new file with its current status
+     */
+    public void add(File file) {
+        add(file.getStatus(), file.getType(), 1);
+    }
+
+    /**
+     * Counts n files with the same status and type
+     */
+    public void add(SportEvents4Club.Status status, SportEvents4Club.Type type, int n) {
+        inc(status, type, n);
+        countsByType[type.ordinal()] += n;
+        total += n;
+    }
+
+    /**
+     * Adds the counters of another one, such as the changes of a batch of files
+     */
+    public void add(FileStatusCounter other) {
+        for (int s = 0; s < NUM_STATUS; s++) {
+            for (int t = 0; t < NUM_TYPES; t++) {
+                counts[s][t] += other.counts[s][t];
+            }
+            countsByStatus[s] += other.countsByStatus[s];
+        }
+        for (int t = 0; t < NUM_TYPES; t++) {
+            countsByType[t] += other.countsByType[t];
+        }
+        total += other.total;
+    }
+
+    /**
+     * Moves a file from its previous status to the current one
+     */
+    public void update(File file, SportEvents4Club.Status previous) {
+        inc(previous, file.getType(), -1);
+        inc(file.getStatus(), file.getType(), 1);
+    }
+
+    public int count(SportEvents4Club.Status status) {
+        return countsByStatus[status.ordinal()];
+    }
+
+    public int count(SportEvents4Club.Status status, SportEvents4Club.Type type) {
+        return counts[status.ordinal()][type.ordinal()];
+    }
+
+    public int count(SportEvents4Club.Type type) {
+        return countsByType[type.ordinal()];
+    }
+
+    public int total() {
+        return total;
+    }
+
+    private void inc(SportEvents4Club.Status status, SportEvents4Club.Type type, int delta) {
+        counts[status.ordinal()][type.ordinal()] += delta;
+        countsByStatus[status.ordinal()] += delta;
+    }
+}
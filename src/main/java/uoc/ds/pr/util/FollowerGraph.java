@@ -0,0 +1,203 @@
+package uoc.ds.pr.util;
+
+import edu.uoc.ds.traversal.Iterator;
+import edu.uoc.ds.traversal.IteratorArrayImpl;
+
+import java.util.Arrays;
+import java.util.function.ToIntFunction;
+
+
+/**
+ * ADT that stores the "follows" relation between elements, that are identified by their
+ * handles in an IdTable. The vertices are kept in an array indexed by handle, and each one
+ * keeps a hashed set of the handles of its followers and of its followings, so checking an
+ * edge is O(1) without hashing any identifier, and the degrees are available without
+ * traversing anything.
+ * The neighbours are also kept in insertion order so they can be traversed
+ * directly, without copying them into a new container.
+ */
+public class FollowerGraph<E> {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final ToIntFunction<E> handleOf;
+    private Node<E>[] nodes;
+    private int numVertices;
+    private int numEdges;
+
+
+    public FollowerGraph(ToIntFunction<E> handleOf) {
+        this.handleOf = handleOf;
+        this.nodes = new Node[INITIAL_CAPACITY];
+        this.numVertices = 0;
+        this.numEdges = 0;
+    }
+
+    /**
+     * Adds follower as a follower of elem. If the edge already exists nothing changes.
+     * @return true if the edge is new
+     */
+    public boolean addFollower(E elem, E follower) {
+        Node<E> nElem = getOrCreate(elem);
+        Node<E> nFollower = getOrCreate(follower);
+
+        if (!nElem.followers.add(handleOf.applyAsInt(follower), follower)) {
+            return false;
+        }
+        nFollower.followings.add(handleOf.applyAsInt(elem), elem);
+        numEdges++;
+        return true;
+    }
+
+    /**
+     * Sets the neighbours of elem to the first numFollowers and numFollowings elements of
+     * the arrays, in their order, without adding the opposite edges. It is used to restore
+     * a graph: once the neighbours of all its elements have been set, the graph is the same
+     * as the one they were taken from. The sets of neighbours are sized for them at once.
+     */
+    public void restore(E elem, E[] followers, int numFollowers, E[] followings, int numFollowings) {
+        Node<E> node = getOrCreate(elem);
+        numEdges += node.followers.addAll(followers, numFollowers, handleOf);
+        node.followings.addAll(followings, numFollowings, handleOf);
+    }
+
+    public boolean isFollower(int handle, int followerHandle) {
+        Node<E> node = node(handle);
+        return node != null && node.followers.contains(followerHandle);
+    }
+
+    public Iterator<E> followers(int handle) {
+        Node<E> node = node(handle);
+        return (node != null ? node.followers.values() : Adjacency.<E>empty());
+    }
+
+    public Iterator<E> followings(int handle) {
+        Node<E> node = node(handle);
+        return (node != null ? node.followings.values() : Adjacency.<E>empty());
+    }
+
+    public int numFollowers(int handle) {
+        Node<E> node = node(handle);
+        return (node != null ? node.followers.size() : 0);
+    }
+
+    public int numFollowings(int handle) {
+        Node<E> node = node(handle);
+        return (node != null ? node.followings.size() : 0);
+    }
+
+    public int handleOf(E elem) {
+        return handleOf.applyAsInt(elem);
+    }
+
+    public int numVertices() {
+        return numVertices;
+    }
+
+    public int numEdges() {
+        return numEdges;
+    }
+
+    /**
+     * The vertex of the handle, or null if it has no edges (or the handle is -1)
+     */
+    private Node<E> node(int handle) {
+        return (handle >= 0 && handle < nodes.length ? nodes[handle] : null);
+    }
+
+    private Node<E> getOrCreate(E elem) {
+        int handle = handleOf.applyAsInt(elem);
+        if (handle >= nodes.length) {
+            nodes = Arrays.copyOf(nodes, Math.max(handle + 1, nodes.length * 2));
+        }
+        if (nodes[handle] == null) {
+            nodes[handle] = new Node<>();
+            numVertices++;
+        }
+        return nodes[handle];
+    }
+
+
+    private static class Node<E> {
+        private final Adjacency<E> followers = new Adjacency<>();
+        private final Adjacency<E> followings = new Adjacency<>();
+    }
+
+
+    /**
+     * Neighbours of a vertex: a growable array that keeps the insertion order
+     * plus a hashed set of handles for the membership test, created with the
+     * first neighbour.
+     */
+    private static class Adjacency<E> {
+        private static final int INITIAL_CAPACITY = 4;
+        private static final Object[] EMPTY = new Object[0];
+
+        private E[] elems;
+        private int len;
+        private HandleMap<E> handles;
+
+        Adjacency() {
+            this.elems = (E[]) EMPTY;
+            this.len = 0;
+            this.handles = null;
+        }
+
+        static <E> Iterator<E> empty() {
+            return new IteratorArrayImpl<>((E[]) EMPTY, 0, 0);
+        }
+
+        boolean add(int handle, E elem) {
+            if (handles == null) {
+                handles = new HandleMap<>();
+            }
+            else if (handles.containsKey(handle)) {
+                return false;
+            }
+            handles.put(handle, elem);
+            if (len == elems.length) {
+                Object[] aux = new Object[Math.max(INITIAL_CAPACITY, len * 2)];
+                System.arraycopy(elems, 0, aux, 0, len);
+                elems = (E[]) aux;
+            }
+            elems[len++] = elem;
+            return true;
+        }
+
+        /**
+         * Adds the first n elements of the array, growing the set once for all of them
+         * @return the number of elements that were not neighbours yet
+         */
+        int addAll(E[] newElems, int n, ToIntFunction<E> handleOf) {
+            if (n == 0) {
+                return 0;
+            }
+            if (len + n > elems.length) {
+                elems = Arrays.copyOf(elems, len + n);
+            }
+            if (handles == null) {
+                handles = new HandleMap<>(n);
+            }
+            int added = 0;
+            for (int i = 0; i < n; i++) {
+                int handle = handleOf.applyAsInt(newElems[i]);
+                if (handles.put(handle, newElems[i]) == null) {
+                    elems[len++] = newElems[i];
+                    added++;
+                }
+            }
+            return added;
+        }
+
+        boolean contains(int handle) {
+            return handles != null && handles.containsKey(handle);
+        }
+
+        int size() {
+            return len;
+        }
+
+        Iterator<E> values() {
+            return new IteratorArrayImpl<>(elems, len, 0);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package uoc.ds.pr.util;
+
+import java.util.Arrays;
+
+
+/**
+ * Map from the handles of an IdTable (ints from 0) to elements. It is an open addressing
+ * table (linear probing) over an int array, so the keys are neither boxed nor hashed as
+ * objects. A removed key moves back the keys that follow it in its run, so there are no
+ * tombstones and the probes stay short.
+ */
+public class HandleMap<V> {
+    private static final int INITIAL_CAPACITY = 4;
+    private static final int EMPTY = -1;
+
+    private int[] keys;
+    private V[] values;
+    private int len;
+
+
+    public HandleMap() {
+        this(0);
+    }
+
+    /**
+     * A map that holds the given number of handles without growing
+     */
+    public HandleMap(int expected) {
+        int capacity = INITIAL_CAPACITY;
+        while (expected * 2 > capacity) {
+            capacity *= 2;
+        }
+        this.keys = newKeys(capacity);
+        this.values = (V[]) new Object[capacity];
+        this.len = 0;
+    }
+
+    /**
+     * @return the previous value of the handle, or null if it had none
+     */
+    public V put(int handle, V value) {
+        checkHandle(handle);
+        int i = slot(handle);
+        if (keys[i] == handle) {
+            V previous = values[i];
+            values[i] = value;
+            return previous;
+        }
+
+        keys[i] = handle;
+        values[i] = value;
+        // at most half of the slots are used
+        if (++len * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        return null;
+    }
+
+    public V get(int handle) {
+        if (handle < 0) {
+            return null;
+        }
+        int i = slot(handle);
+        return (keys[i] == handle ? values[i] : null);
+    }
+
+    public boolean containsKey(int handle) {
+        return handle >= 0 && keys[slot(handle)] == handle;
+    }
+
+    /**
+     * @return the value of the handle, or null if it had none
+     */
+    public V remove(int handle) {
+        if (handle < 0) {
+            return null;
+        }
+        int i = slot(handle);
+        if (keys[i] != handle) {
+            return null;
+        }
+        V previous = values[i];
+        len--;
+
+        // the keys of the run that would not be found with the slot empty are moved into it
+        int mask = keys.length - 1;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (keys[j] == EMPTY) {
+                break;
+            }
+            int home = hash(keys[j]) & mask;
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                i = j;
+            }
+        }
+        keys[i] = EMPTY;
+        values[i] = null;
+        return previous;
+    }
+
+    public int size() {
+        return len;
+    }
+
+    public boolean isEmpty() {
+        return len == 0;
+    }
+
+    /**
+     * The slot of the handle, or the empty one where it would go
+     */
+    private int slot(int handle) {
+        int mask = keys.length - 1;
+        int i = hash(handle) & mask;
+        while (keys[i] != EMPTY && keys[i] != handle) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        V[] oldValues = values;
+        keys = newKeys(capacity);
+        values = (V[]) new Object[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int j = slot(oldKeys[i]);
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    private static int[] newKeys(int capacity) {
+        int[] keys = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        return keys;
+    }
+
+    private static void checkHandle(int handle) {
+        if (handle < 0) {
+            throw new IllegalArgumentException("a handle cannot be negative");
+        }
+    }
+
+    private static int hash(int handle) {
+        // consecutive handles are spread over the table
+        int h = handle * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,35 @@
+package uoc.ds.pr.util;
+
+import uoc.ds.pr.model.Post;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * PostStore that keeps the posts in the heap. The address of a post is its position
+ */
+public class HeapPostStore implements PostStore {
+    private final List<Post> posts;
+
+
+    public HeapPostStore() {
+        this.posts = new ArrayList<>();
+    }
+
+    @Override
+    public long append(Post post) {
+        posts.add(post);
+        return posts.size() - 1;
+    }
+
+    @Override
+    public Post get(long address) {
+        return posts.get((int) address);
+    }
+
+    @Override
+    public void close() {
+        posts.clear();
+    }
+}
@@ -0,0 +1,174 @@
+package uoc.ds.pr.util;
+
+import edu.uoc.ds.traversal.Iterator;
+import edu.uoc.ds.traversal.IteratorArrayImpl;
+
+import java.util.Arrays;
+import java.util.function.ObjIntConsumer;
+
+
+/**
+ * Interning of identifiers: each identifier gets a dense int handle (0, 1, 2...) the
+ * first time it is added, and keeps it. The elements are kept in arrays indexed by
+ * handle, so once the handle of an identifier is known, its element and its identifier
+ * are reached without hashing or comparing strings.
+ *
+ * The handles are found with an open addressing table (linear probing) that keeps the
+ * hash of each identifier, so the identifiers are only compared when their hashes match.
+ * Identifiers are never removed.
+ *
+ * The table can give each element the handle of its identifier when it is put, so the
+ * element carries it and the handle is reached without looking up the identifier.
+ */
+public class IdTable<E> {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int NONE = -1;
+
+    // handle + 1 of the identifier in each slot, 0 if it is empty
+    private int[] slots;
+    private int[] hashes;
+    private String[] ids;
+    private E[] elems;
+    private int len;
+    // it receives each element put (but null) with its handle, if it is not null
+    private final ObjIntConsumer<? super E> handles;
+
+
+    public IdTable(ObjIntConsumer<? super E> handles) {
+        this.handles = handles;
+        this.slots = new int[INITIAL_CAPACITY * 2];
+        this.hashes = new int[INITIAL_CAPACITY];
+        this.ids = new String[INITIAL_CAPACITY];
+        this.elems = (E[]) new Object[INITIAL_CAPACITY];
+        this.len = 0;
+    }
+
+    public IdTable() {
+        this(null);
+    }
+
+    /**
+     * Adds an element, or replaces the element of its identifier if it was already added
+     * @return the handle of the identifier
+     */
+    public int put(String id, E elem) {
+        int h = hash(id);
+        int mask = slots.length - 1;
+        int i = h & mask;
+        while (slots[i] != 0) {
+            int handle = slots[i] - 1;
+            if (hashes[handle] == h && ids[handle].equals(id)) {
+                elems[handle] = elem;
+                assigned(elem, handle);
+                return handle;
+            }
+            i = (i + 1) & mask;
+        }
+
+        if (len == ids.length) {
+            int capacity = len * 2;
+            hashes = Arrays.copyOf(hashes, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+            elems = Arrays.copyOf(elems, capacity);
+        }
+        hashes[len] = h;
+        ids[len] = id;
+        elems[len] = elem;
+        slots[i] = ++len;
+        assigned(elem, len - 1);
+
+        // at most half of the slots are used, so the probes are short
+        if (len * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+        return len - 1;
+    }
+
+    /**
+     * Makes room for capacity identifiers, so adding up to that many does not grow the table
+     * again. It is used before adding a number of identifiers known in advance
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > ids.length) {
+            hashes = Arrays.copyOf(hashes, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+            elems = Arrays.copyOf(elems, capacity);
+        }
+        int numSlots = slots.length;
+        while (capacity * 2 > numSlots) {
+            numSlots *= 2;
+        }
+        if (numSlots > slots.length) {
+            rehash(numSlots);
+        }
+    }
+
+    /**
+     * @return the handle of the identifier, -1 if it has not been added
+     */
+    public int handle(String id) {
+        int h = hash(id);
+        int mask = slots.length - 1;
+        int i = h & mask;
+        while (slots[i] != 0) {
+            int handle = slots[i] - 1;
+            if (hashes[handle] == h && ids[handle].equals(id)) {
+                return handle;
+            }
+            i = (i + 1) & mask;
+        }
+        return NONE;
+    }
+
+    public E get(int handle) {
+        return elems[handle];
+    }
+
+    public E get(String id) {
+        int handle = handle(id);
+        return (handle != NONE ? elems[handle] : null);
+    }
+
+    public String id(int handle) {
+        return ids[handle];
+    }
+
+    public boolean containsKey(String id) {
+        return handle(id) != NONE;
+    }
+
+    public int size() {
+        return len;
+    }
+
+    /**
+     * The elements in the order of their handles
+     */
+    public Iterator<E> values() {
+        return new IteratorArrayImpl<>(elems, len, 0);
+    }
+
+    private void assigned(E elem, int handle) {
+        if (handles != null && elem != null) {
+            handles.accept(elem, handle);
+        }
+    }
+
+    private void rehash(int numSlots) {
+        slots = new int[numSlots];
+        int mask = slots.length - 1;
+        for (int handle = 0; handle < len; handle++) {
+            int i = hashes[handle] & mask;
+            while (slots[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            slots[i] = handle + 1;
+        }
+    }
+
+    private static int hash(String id) {
+        // the hash of a String is cached; it is mixed so consecutive ids spread over the table
+        int h = id.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
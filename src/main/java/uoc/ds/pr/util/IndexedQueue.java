@@ -0,0 +1,192 @@
+package uoc.ds.pr.util;
+
+import edu.uoc.ds.exceptions.InvalidPositionException;
+import edu.uoc.ds.traversal.Iterator;
+
+import java.util.function.ObjIntConsumer;
+
+
+/**
+ * Sequence of elements in order of arrival that reports the position of every element
+ * each time it moves (-1 once it leaves the sequence), so any element can be removed
+ * in O(1).
+ *
+ * The elements are kept in chunks of CHUNK_SIZE slots, in a ring of chunks that starts
+ * empty and doubles when it is full: growing never copies the elements, and an empty
+ * sequence takes no chunks at all. Positions are absolute, so they do not change when
+ * the chunks at the front are released as they are emptied.
+ *
+ * The slot of a removed element is left empty. Empty slots at the front are dropped at
+ * once; the sequence is compacted, and the new positions are reported, when more than
+ * half of the slots in between are empty. So add and remove are O(1) amortized and the
+ * traversal is O(size).
+ */
+public class IndexedQueue<E> {
+    private static final int CHUNK_BITS = 4;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final Object[][] NO_CHUNKS = new Object[0][];
+
+    private final ObjIntConsumer<? super E> positions;
+    // ring of chunks: the first one is chunks[head] and holds the positions from base
+    private E[][] chunks;
+    private int head;
+    private int numChunks;
+    private int base;
+    // positions of the first slot that may be in use and of the next one to be used
+    private int first;
+    private int end;
+    private int len;
+    // the last chunk released, to be reused instead of allocating a new one
+    private E[] spare;
+
+
+    public IndexedQueue(ObjIntConsumer<? super E> positions) {
+        this.positions = positions;
+        clear();
+    }
+
+    public void add(E elem) {
+        if (end == Integer.MAX_VALUE) {
+            // the positions start again from 0
+            compact();
+        }
+        if (end - base == numChunks << CHUNK_BITS) {
+            addChunk();
+        }
+        chunk(end)[end & CHUNK_MASK] = elem;
+        positions.accept(elem, end++);
+        len++;
+    }
+
+    /**
+     * Removes the element at position i
+     */
+    public E remove(int i) {
+        E[] chunk = chunk(i);
+        E elem = chunk[i & CHUNK_MASK];
+        chunk[i & CHUNK_MASK] = null;
+        len--;
+        positions.accept(elem, -1);
+
+        if (len == 0) {
+            // all the slots are empty: one of the chunks is kept as spare
+            spare = chunks[head];
+            clear();
+        }
+        else {
+            skipFront();
+            if (len * 2 < end - first && end - first > CHUNK_SIZE) {
+                compact();
+            }
+        }
+        return elem;
+    }
+
+    public int size() {
+        return len;
+    }
+
+    public boolean isEmpty() {
+        return len == 0;
+    }
+
+    /**
+     * The elements in order of arrival
+     */
+    public Iterator<E> values() {
+        return new Iterator<E>() {
+            private static final long serialVersionUID = 1L;
+
+            private int i = skip(first);
+
+            @Override
+            public boolean hasNext() {
+                return i < end;
+            }
+
+            @Override
+            public E next() throws InvalidPositionException {
+                if (i >= end) {
+                    throw new InvalidPositionException();
+                }
+                E elem = get(i);
+                i = skip(i + 1);
+                return elem;
+            }
+        };
+    }
+
+    private E get(int i) {
+        return chunk(i)[i & CHUNK_MASK];
+    }
+
+    private E[] chunk(int i) {
+        return chunks[(head + ((i - base) >>> CHUNK_BITS)) & (chunks.length - 1)];
+    }
+
+    private int skip(int i) {
+        while (i < end && get(i) == null) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Drops the empty slots at the front, and the chunks they leave empty
+     */
+    private void skipFront() {
+        first = skip(first);
+        while (first - base >= CHUNK_SIZE) {
+            spare = chunks[head];
+            chunks[head] = null;
+            head = (head + 1) & (chunks.length - 1);
+            numChunks--;
+            base += CHUNK_SIZE;
+        }
+    }
+
+    private void addChunk() {
+        if (numChunks == chunks.length) {
+            // the ring is unrolled in the new one
+            E[][] aux = (E[][]) new Object[Math.max(1, chunks.length * 2)][];
+            for (int i = 0; i < numChunks; i++) {
+                aux[i] = chunks[(head + i) & (chunks.length - 1)];
+            }
+            chunks = aux;
+            head = 0;
+        }
+        E[] chunk = (spare != null ? spare : (E[]) new Object[CHUNK_SIZE]);
+        spare = null;
+        chunks[(head + numChunks++) & (chunks.length - 1)] = chunk;
+    }
+
+    /**
+     * Moves the elements, in order, to new chunks from position 0
+     */
+    private void compact() {
+        E[][] oldChunks = chunks;
+        int oldHead = head;
+        int oldBase = base;
+        int oldFirst = first;
+        int oldEnd = end;
+        clear();
+
+        for (int i = oldFirst; i < oldEnd; i++) {
+            E elem = oldChunks[(oldHead + ((i - oldBase) >>> CHUNK_BITS)) & (oldChunks.length - 1)][i & CHUNK_MASK];
+            if (elem != null) {
+                add(elem);
+            }
+        }
+    }
+
+    private void clear() {
+        this.chunks = (E[][]) NO_CHUNKS;
+        this.head = 0;
+        this.numChunks = 0;
+        this.base = 0;
+        this.first = 0;
+        this.end = 0;
+        this.len = 0;
+    }
+}
@@ -0,0 +1,36 @@
+package uoc.ds.pr.util;
+
+import edu.uoc.ds.exceptions.InvalidPositionException;
+import edu.uoc.ds.traversal.Iterator;
+
+
+/**
+ * Adapter to traverse a java.util container with a DSLib iterator
+ */
+public class IteratorAdapter<E> implements Iterator<E> {
+    private static final long serialVersionUID = 4520834116207623171L;
+
+    private final transient java.util.Iterator<E> it;
+
+
+    public IteratorAdapter(java.util.Iterator<E> it) {
+        this.it = it;
+    }
+
+    public IteratorAdapter(Iterable<E> iterable) {
+        this(iterable.iterator());
+    }
+
+    @Override
+    public boolean hasNext() {
+        return it.hasNext();
+    }
+
+    @Override
+    public E next() throws InvalidPositionException {
+        if (!it.hasNext()) {
+            throw new InvalidPositionException();
+        }
+        return it.next();
+    }
+}
@@ -0,0 +1,43 @@
+package uoc.ds.pr.util;
+
+
+/**
+ * Fixed set of monitors shared by the keys whose hash falls in the same stripe.
+ * It allows locking by key (an event id, a player id) without having one lock
+ * for each key. When two keys have to be locked at the same time they must be
+ * taken in the order given by indexOf, to avoid deadlocks.
+ */
+public class LockStripes {
+    private final Object[] locks;
+    private final int mask;
+
+
+    /**
+     * @param stripes rounded up to a power of 2
+     */
+    public LockStripes(int stripes) {
+        int n = (stripes > 1 ? Integer.highestOneBit(stripes - 1) << 1 : 1);
+        this.locks = new Object[n];
+        for (int i = 0; i < n; i++) {
+            locks[i] = new Object();
+        }
+        this.mask = n - 1;
+    }
+
+    public Object get(String key) {
+        return locks[indexOf(key)];
+    }
+
+    public Object get(int index) {
+        return locks[index];
+    }
+
+    public int indexOf(String key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    public int size() {
+        return locks.length;
+    }
+}
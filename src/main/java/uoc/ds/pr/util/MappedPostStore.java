@@ -0,0 +1,120 @@
+package uoc.ds.pr.util;
+
+import uoc.ds.pr.model.Player;
+import uoc.ds.pr.model.Post;
+import uoc.ds.pr.model.SportEvent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+
+/**
+ * PostStore over memory-mapped segment files, so the posts are kept out of the heap.
+ * Posts are appended, encoded with PostEncoder, to the last segment; when it is full
+ * a new one is mapped and the previous ones are only read from then on. The address of
+ * a post is the index of its segment (high 32 bits) and its offset in it (low 32 bits).
+ *
+ * Posts are decoded from the mapped segments when they are read. The player and the
+ * sport event are encoded by their handles in the IdTables of the club, so reading a
+ * post does not copy anything out of the segment: it only allocates the Post.
+ *
+ * The segments are only an extension of the memory of the club, not a copy that
+ * survives it (snapshots and the operation log are): they are created empty and
+ * deleted on close. It is not thread-safe.
+ */
+public class MappedPostStore implements PostStore {
+    public static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    private final Path dir;
+    private final int segmentSize;
+    private final IdTable<Player> players;
+    private final IdTable<SportEvent> sportEvents;
+    private final List<MappedByteBuffer> segments;
+    private final List<Path> paths;
+    private MappedByteBuffer last;
+
+
+    public MappedPostStore(Path dir, IdTable<Player> players, IdTable<SportEvent> sportEvents) throws IOException {
+        this(dir, DEFAULT_SEGMENT_SIZE, players, sportEvents);
+    }
+
+    public MappedPostStore(Path dir, int segmentSize, IdTable<Player> players,
+                           IdTable<SportEvent> sportEvents) throws IOException {
+        if (segmentSize < PostEncoder.ENCODED_SIZE) {
+            throw new IllegalArgumentException("segment smaller than a post: " + segmentSize);
+        }
+        this.dir = Files.createDirectories(dir);
+        this.segmentSize = segmentSize;
+        this.players = players;
+        this.sportEvents = sportEvents;
+        this.segments = new ArrayList<>();
+        this.paths = new ArrayList<>();
+        roll();
+    }
+
+    @Override
+    public long append(Post post) {
+        if (last.remaining() < PostEncoder.ENCODED_SIZE) {
+            try {
+                roll();
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        long address = ((long) (segments.size() - 1) << 32) | last.position();
+        PostEncoder.encode(post, last, players, sportEvents);
+        return address;
+    }
+
+    @Override
+    public Post get(long address) {
+        MappedByteBuffer segment = segments.get((int) (address >>> 32));
+        return PostEncoder.decode(segment, (int) address, players, sportEvents);
+    }
+
+    public int numSegments() {
+        return segments.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        segments.clear();
+        last = null;
+        IOException error = null;
+        for (Path path : paths) {
+            try {
+                Files.deleteIfExists(path);
+            }
+            catch (IOException e) {
+                error = e;
+            }
+        }
+        paths.clear();
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private void roll() throws IOException {
+        Path path = dir.resolve(String.format("posts-%06d.seg", segments.size()));
+        try (FileChannel channel = FileChannel.open(path, CREATE, READ, WRITE, TRUNCATE_EXISTING)) {
+            // the mapping stays valid once the channel is closed
+            last = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        segments.add(last);
+        paths.add(path);
+    }
+}
@@ -0,0 +1,315 @@
+package uoc.ds.pr.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+
+/**
+ * Append-only log of records, for write-ahead logging. Each record is framed as
+ *
+ *   int  length of the payload, that is never 0
+ *   int  CRC32C of the length and the payload
+ *   the payload
+ *
+ * Records are buffered and forced to the disk in groups (group commit): once groupSize
+ * records are pending, or every groupMillis if it is greater than 0. With a groupSize of 1
+ * every record is on the disk when append returns; a bigger group trades the last records
+ * in case of a crash for throughput.
+ *
+ * When a log is opened, a record that was being written when the process crashed (it is
+ * incomplete or its checksum does not match) is discarded, with everything after it. So
+ * is a tail of zeros, that a file system can leave after a crash: a length of 0 ends the
+ * log, and the checksum covers the length, so a zero header never matches it.
+ */
+public class OperationLog implements Closeable {
+    private static final int HEADER_SIZE = 8;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final int groupSize;
+    private final ScheduledExecutorService syncer;
+    private final CRC32C crc;
+    private ByteBuffer buffer;
+    private int pending;
+    private boolean unsynced;
+
+
+    public OperationLog(Path path, int groupSize, long groupMillis) throws IOException {
+        this.channel = FileChannel.open(path, CREATE, READ, WRITE);
+        this.groupSize = Math.max(groupSize, 1);
+        this.crc = new CRC32C();
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.pending = 0;
+        this.unsynced = false;
+
+        // the log goes on after its last complete record
+        long end = scan(channel, null);
+        channel.truncate(end);
+        channel.position(end);
+
+        if (groupMillis > 0) {
+            this.syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "operation-log-sync");
+                t.setDaemon(true);
+                return t;
+            });
+            this.syncer.scheduleWithFixedDelay(this::syncQuietly, groupMillis, groupMillis, TimeUnit.MILLISECONDS);
+        }
+        else {
+            this.syncer = null;
+        }
+    }
+
+    /**
+     * Appends a record. It is forced to the disk with the rest of its group
+     */
+    public synchronized void append(Record record) throws IOException {
+        ByteBuffer payload = record.payload();
+        int len = payload.remaining();
+        if (len == 0) {
+            throw new IllegalArgumentException("empty record");
+        }
+        if (buffer.remaining() < HEADER_SIZE + len) {
+            write();
+            if (buffer.capacity() < HEADER_SIZE + len) {
+                buffer = ByteBuffer.allocateDirect(HEADER_SIZE + len);
+            }
+        }
+
+        buffer.putInt(len);
+        buffer.putInt(checksum(crc, len, payload));
+        buffer.put(payload);
+        unsynced = true;
+
+        if (++pending >= groupSize) {
+            sync();
+        }
+    }
+
+    /**
+     * Forces all the records appended so far to the disk
+     */
+    public synchronized void sync() throws IOException {
+        write();
+        if (unsynced) {
+            channel.force(false);
+            unsynced = false;
+        }
+        pending = 0;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (syncer != null) {
+            syncer.shutdown();
+        }
+        try {
+            sync();
+        }
+        finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Reads the complete records of a log, in order
+     * @return the number of records
+     */
+    public static int replay(Path path, Consumer<Record> consumer) throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        int[] n = {0};
+        try (FileChannel in = FileChannel.open(path, READ)) {
+            scan(in, record -> {
+                consumer.accept(record);
+                n[0]++;
+            });
+        }
+        return n[0];
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        }
+        catch (IOException e) {
+            // it is retried with the next group
+        }
+    }
+
+    private void write() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Goes through the records from the beginning of the channel
+     * @return the position after the last complete record
+     */
+    private static long scan(FileChannel in, Consumer<Record> consumer) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        CRC32C crc = new CRC32C();
+        long pos = 0;
+
+        while (true) {
+            header.clear();
+            if (readFully(in, header, pos) < HEADER_SIZE) {
+                return pos;
+            }
+            header.flip();
+            int len = header.getInt();
+            int checksum = header.getInt();
+            if (len <= 0 || pos + HEADER_SIZE + len > in.size()) {
+                return pos;
+            }
+
+            ByteBuffer payload = ByteBuffer.allocate(len);
+            readFully(in, payload, pos + HEADER_SIZE);
+            payload.flip();
+            if (checksum(crc, len, payload) != checksum) {
+                return pos;
+            }
+
+            if (consumer != null) {
+                consumer.accept(new Record(payload));
+            }
+            pos += HEADER_SIZE + len;
+        }
+    }
+
+    private static int checksum(CRC32C crc, int len, ByteBuffer payload) {
+        crc.reset();
+        crc.update(len >>> 24);
+        crc.update(len >>> 16);
+        crc.update(len >>> 8);
+        crc.update(len);
+        crc.update(payload.duplicate());
+        return (int) crc.getValue();
+    }
+
+    private static int readFully(FileChannel in, ByteBuffer dst, long pos) throws IOException {
+        int n = 0;
+        while (dst.hasRemaining()) {
+            int r = in.read(dst, pos + n);
+            if (r < 0) {
+                break;
+            }
+            n += r;
+        }
+        return n;
+    }
+
+
+    /**
+     * Payload of a record: a sequence of values written and read in the same order.
+     * Strings and dates are encoded as in SnapshotWriter.
+     */
+    public static class Record {
+        private static final int INITIAL_CAPACITY = 128;
+
+        private ByteBuffer data;
+
+
+        public Record() {
+            this.data = ByteBuffer.allocate(INITIAL_CAPACITY);
+        }
+
+        Record(ByteBuffer payload) {
+            this.data = payload;
+        }
+
+        /**
+         * Empties the record, so it can be reused
+         */
+        public Record clear() {
+            data.clear();
+            return this;
+        }
+
+        public Record putByte(int b) {
+            ensure(1);
+            data.put((byte) b);
+            return this;
+        }
+
+        public Record putInt(int i) {
+            ensure(4);
+            data.putInt(i);
+            return this;
+        }
+
+        public Record putString(String s) {
+            if (s == null) {
+                return putInt(-1);
+            }
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            ensure(bytes.length);
+            data.put(bytes);
+            return this;
+        }
+
+        public Record putDate(LocalDate date) {
+            ensure(8);
+            data.putLong(date != null ? date.toEpochDay() : SnapshotWriter.NO_DATE);
+            return this;
+        }
+
+        public int getByte() {
+            return data.get();
+        }
+
+        public int getInt() {
+            return data.getInt();
+        }
+
+        public String getString() {
+            int len = data.getInt();
+            if (len < 0) {
+                return null;
+            }
+            String s = new String(data.array(), data.arrayOffset() + data.position(), len, StandardCharsets.UTF_8);
+            data.position(data.position() + len);
+            return s;
+        }
+
+        public LocalDate getDate() {
+            long epochDay = data.getLong();
+            return (epochDay != SnapshotWriter.NO_DATE ? LocalDate.ofEpochDay(epochDay) : null);
+        }
+
+        ByteBuffer payload() {
+            ByteBuffer payload = data.duplicate();
+            payload.flip();
+            return payload;
+        }
+
+        private void ensure(int n) {
+            if (data.remaining() < n) {
+                ByteBuffer aux = ByteBuffer.allocate(Math.max(data.capacity() * 2, data.position() + n));
+                data.flip();
+                aux.put(data);
+                data = aux;
+            }
+        }
+    }
+}
@@ -0,0 +1,499 @@
+package uoc.ds.pr.util;
+
+import edu.uoc.ds.traversal.Iterator;
+import edu.uoc.ds.traversal.IteratorArrayImpl;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+
+/**
+ * ADT that keeps a set of elements ordered by a comparator whose key can change
+ * over time. It is a randomized binary search tree (treap) where every node knows
+ * the size of its subtree, so besides inserting, deleting and updating the position
+ * of an element in O(log n), it can answer the position of an element and the
+ * element at a position in O(log n). Elements are indexed by a hash table, so
+ * they do not need to be located by their key.
+ *
+ * Elements that compare equal are kept in the order they reached that key.
+ */
+public class OrderStatisticTree<E> {
+
+    private final Comparator<E> comparator;
+    private final Map<E, Node<E>> nodes;
+    private Node<E> root;
+    private int seed;
+
+
+    public OrderStatisticTree(Comparator<E> comparator) {
+        this.comparator = comparator;
+        this.nodes = new HashMap<>();
+        this.root = null;
+        this.seed = 0x2545F491;
+    }
+
+    /**
+     * Inserts the element or, if it already exists, moves it to the position of its current key
+     */
+    public void update(E elem) {
+        Node<E> node = nodes.get(elem);
+        if (node != null) {
+            detach(node);
+            node.reset();
+        }
+        else {
+            node = new Node<>(elem);
+            nodes.put(elem, node);
+        }
+        node.priority = nextPriority();
+        attach(node);
+    }
+
+    /**
+     * Inserts the first n elements of the array, that must be new and different. They are
+     * sorted and built into a treap in O(k log k), which is joined to the tree by splitting
+     * it at the keys of the new nodes: O(k log(n/k + 1)) instead of k separate inserts.
+     * The new elements go after the elements that already have the same key, and elements
+     * with the same key keep their order in the array.
+     */
+    public void addAll(E[] newElems, int n) {
+        for (int i = 0; i < n; i++) {
+            if (nodes.containsKey(newElems[i])) {
+                throw new IllegalArgumentException("the element is already in the tree");
+            }
+        }
+        E[] sorted = Arrays.copyOf(newElems, n);
+        Arrays.sort(sorted, comparator);
+
+        root = union(root, build(sorted));
+        if (root != null) {
+            root.parent = null;
+        }
+    }
+
+    public boolean delete(E elem) {
+        Node<E> node = nodes.remove(elem);
+        if (node == null) {
+            return false;
+        }
+        detach(node);
+        return true;
+    }
+
+    public boolean contains(E elem) {
+        return nodes.containsKey(elem);
+    }
+
+    /**
+     * @return the position (starting at 0) of the element or -1 if it does not exist
+     */
+    public int position(E elem) {
+        Node<E> node = nodes.get(elem);
+        if (node == null) {
+            return -1;
+        }
+
+        int pos = size(node.left);
+        for (Node<E> x = node; x.parent != null; x = x.parent) {
+            if (x == x.parent.right) {
+                pos += size(x.parent.left) + 1;
+            }
+        }
+        return pos;
+    }
+
+    /**
+     * The number of elements, from the first one, that satisfy the predicate, which must
+     * hold for a prefix of the order (like "goes before a given key"): O(log n)
+     */
+    public int countWhile(Predicate<? super E> predicate) {
+        int count = 0;
+        Node<E> node = root;
+        while (node != null) {
+            if (predicate.test(node.elem)) {
+                count += size(node.left) + 1;
+                node = node.right;
+            }
+            else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    public E elementAt(int i) {
+        Node<E> node = nodeAt(i);
+        return (node != null ? node.elem : null);
+    }
+
+    public E first() {
+        return elementAt(0);
+    }
+
+    /**
+     * The first n elements, in order
+     */
+    public Iterator<E> values(int n) {
+        int len = Math.min(Math.max(n, 0), size());
+        Object[] elems = new Object[len];
+
+        Node<E> node = nodeAt(0);
+        for (int i = 0; i < len; i++) {
+            elems[i] = node.elem;
+            node = successor(node);
+        }
+        return new IteratorArrayImpl<>((E[]) elems, len, 0);
+    }
+
+    /**
+     * At most limit elements, in order, that follow an element (from the first one if it is null):
+     * O(log n + limit). The cursor of the next page is the one of its last element
+     * @param cursor gives the cursor of an element
+     */
+    public Page<E> page(E after, int limit, Function<? super E, String> cursor) {
+        Node<E> node;
+        if (after == null) {
+            node = nodeAt(0);
+        }
+        else {
+            node = nodes.get(after);
+            node = (node != null ? successor(node) : null);
+        }
+
+        Object[] elems = new Object[Math.max(0, Math.min(limit, size()))];
+        int len = 0;
+        while (node != null && len < elems.length) {
+            elems[len++] = node.elem;
+            node = successor(node);
+        }
+        String next = (node != null && len > 0 ? cursor.apply((E) elems[len - 1]) : null);
+        return new Page<>((E[]) elems, len, next);
+    }
+
+    /**
+     * The elements in order. It is split by halves of the positions: each part finds its
+     * first node in O(log n) and goes on through the successors
+     */
+    public Spliterator<E> spliterator() {
+        return new TreeSpliterator(0, size());
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    private Node<E> nodeAt(int i) {
+        if (i < 0 || i >= size()) {
+            return null;
+        }
+
+        Node<E> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (i < leftSize) {
+                node = node.left;
+            }
+            else if (i > leftSize) {
+                i -= leftSize + 1;
+                node = node.right;
+            }
+            else {
+                return node;
+            }
+        }
+    }
+
+    private Node<E> successor(Node<E> node) {
+        if (node.right != null) {
+            node = node.right;
+            while (node.left != null) {
+                node = node.left;
+            }
+            return node;
+        }
+        while (node.parent != null && node == node.parent.right) {
+            node = node.parent;
+        }
+        return node.parent;
+    }
+
+    private void attach(Node<E> node) {
+        if (root == null) {
+            root = node;
+            return;
+        }
+
+        // equal keys go to the right, after the elements that already had it
+        Node<E> parent = root;
+        while (true) {
+            parent.size++;
+            if (comparator.compare(node.elem, parent.elem) < 0) {
+                if (parent.left == null) {
+                    parent.left = node;
+                    break;
+                }
+                parent = parent.left;
+            }
+            else {
+                if (parent.right == null) {
+                    parent.right = node;
+                    break;
+                }
+                parent = parent.right;
+            }
+        }
+        node.parent = parent;
+
+        while (node.parent != null && node.priority > node.parent.priority) {
+            rotateUp(node);
+        }
+    }
+
+    /**
+     * Builds the treap of the sorted elements in O(n): the right spine of the nodes built so far
+     * is kept in a stack, and each new node takes as left child the nodes of the spine with a
+     * lower priority
+     */
+    private Node<E> build(E[] sorted) {
+        Node<E>[] spine = new Node[sorted.length];
+        int top = 0;
+        for (E elem : sorted) {
+            Node<E> node = new Node<>(elem);
+            node.priority = nextPriority();
+            nodes.put(elem, node);
+
+            Node<E> left = null;
+            while (top > 0 && spine[top - 1].priority < node.priority) {
+                left = spine[--top];
+                left.size = 1 + size(left.left) + size(left.right);
+            }
+            node.left = left;
+            if (left != null) {
+                left.parent = node;
+            }
+            if (top > 0) {
+                spine[top - 1].right = node;
+                node.parent = spine[top - 1];
+            }
+            spine[top++] = node;
+        }
+        for (int i = top - 1; i >= 0; i--) {
+            spine[i].size = 1 + size(spine[i].left) + size(spine[i].right);
+        }
+        return (top > 0 ? spine[0] : null);
+    }
+
+    /**
+     * Joins the treaps of the tree and of the new nodes. The new nodes go after the nodes
+     * of the tree with the same key
+     */
+    private Node<E> union(Node<E> tree, Node<E> added) {
+        if (tree == null || added == null) {
+            return (tree != null ? tree : added);
+        }
+
+        Node<E> top;
+        Node<E> left;
+        Node<E> right;
+        if (tree.priority >= added.priority) {
+            Node<E>[] parts = split(added, tree.elem, false);
+            top = tree;
+            left = union(tree.left, parts[0]);
+            right = union(tree.right, parts[1]);
+        }
+        else {
+            Node<E>[] parts = split(tree, added.elem, true);
+            top = added;
+            left = union(parts[0], added.left);
+            right = union(parts[1], added.right);
+        }
+        link(top, left, right);
+        return top;
+    }
+
+    /**
+     * Splits a treap into the nodes lower than the key (or also equal, if equalsLeft) and the rest
+     */
+    private Node<E>[] split(Node<E> node, E key, boolean equalsLeft) {
+        Node<E>[] parts = new Node[2];
+        if (node == null) {
+            return parts;
+        }
+
+        int cmp = comparator.compare(node.elem, key);
+        if (cmp < 0 || (cmp == 0 && equalsLeft)) {
+            Node<E>[] rest = split(node.right, key, equalsLeft);
+            link(node, node.left, rest[0]);
+            parts[0] = node;
+            parts[1] = rest[1];
+        }
+        else {
+            Node<E>[] rest = split(node.left, key, equalsLeft);
+            link(node, rest[1], node.right);
+            parts[0] = rest[0];
+            parts[1] = node;
+        }
+        return parts;
+    }
+
+    private void link(Node<E> node, Node<E> left, Node<E> right) {
+        node.left = left;
+        node.right = right;
+        if (left != null) {
+            left.parent = node;
+        }
+        if (right != null) {
+            right.parent = node;
+        }
+        node.size = 1 + size(left) + size(right);
+    }
+
+    private void detach(Node<E> node) {
+        // the node goes down until it has, at most, one child
+        while (node.left != null && node.right != null) {
+            rotateUp(node.left.priority > node.right.priority ? node.left : node.right);
+        }
+
+        Node<E> child = (node.left != null ? node.left : node.right);
+        Node<E> parent = node.parent;
+        replace(parent, node, child);
+
+        for (Node<E> x = parent; x != null; x = x.parent) {
+            x.size--;
+        }
+    }
+
+    private void rotateUp(Node<E> x) {
+        Node<E> p = x.parent;
+        if (x == p.left) {
+            p.left = x.right;
+            if (x.right != null) {
+                x.right.parent = p;
+            }
+            x.right = p;
+        }
+        else {
+            p.right = x.left;
+            if (x.left != null) {
+                x.left.parent = p;
+            }
+            x.left = p;
+        }
+        replace(p.parent, p, x);
+        p.parent = x;
+
+        p.size = 1 + size(p.left) + size(p.right);
+        x.size = 1 + size(x.left) + size(x.right);
+    }
+
+    private void replace(Node<E> parent, Node<E> oldChild, Node<E> newChild) {
+        if (parent == null) {
+            root = newChild;
+        }
+        else if (parent.left == oldChild) {
+            parent.left = newChild;
+        }
+        else {
+            parent.right = newChild;
+        }
+        if (newChild != null) {
+            newChild.parent = parent;
+        }
+    }
+
+    private int nextPriority() {
+        // xorshift
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return seed;
+    }
+
+    private static int size(Node<?> node) {
+        return (node != null ? node.size : 0);
+    }
+
+
+    private class TreeSpliterator implements Spliterator<E> {
+        private int lo;
+        private final int hi;
+        // the node at lo, once the traversal has started
+        private Node<E> next;
+
+        TreeSpliterator(int lo, int hi) {
+            this.lo = lo;
+            this.hi = hi;
+            this.next = null;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action) {
+            if (lo >= hi) {
+                return false;
+            }
+            if (next == null) {
+                next = nodeAt(lo);
+            }
+            E elem = next.elem;
+            next = successor(next);
+            lo++;
+            action.accept(elem);
+            return true;
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            int mid = (lo + hi) >>> 1;
+            if (mid <= lo) {
+                return null;
+            }
+            TreeSpliterator prefix = new TreeSpliterator(lo, mid);
+            prefix.next = next;
+            lo = mid;
+            next = null;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return hi - lo;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL;
+        }
+    }
+
+
+    private static class Node<E> {
+        private final E elem;
+        private int priority;
+        private int size;
+        private Node<E> left;
+        private Node<E> right;
+        private Node<E> parent;
+
+        Node(E elem) {
+            this.elem = elem;
+            reset();
+        }
+
+        void reset() {
+            this.size = 1;
+            this.left = null;
+            this.right = null;
+            this.parent = null;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package uoc.ds.pr.util;
+
+import edu.uoc.ds.traversal.Iterator;
+import edu.uoc.ds.traversal.IteratorArrayImpl;
+
+import java.util.List;
+
+
+/**
+ * A page of a paginated query. Besides the elements, it keeps the cursor that
+ * must be used to ask for the next page (null if there are no more elements)
+ */
+public class Page<T> {
+
+    private final T[] elems;
+    private final int len;
+    private final String nextCursor;
+
+
+    public Page(T[] elems, int len, String nextCursor) {
+        this.elems = elems;
+        this.len = len;
+        this.nextCursor = nextCursor;
+    }
+
+    public static <T> Page<T> empty() {
+        return new Page<>((T[]) new Object[0], 0, null);
+    }
+
+    /**
+     * A page of a list whose elements are only added at the end. The cursor of a page
+     * is the position of the element that follows it, so it is found in O(1). A cursor
+     * that is not a position of the list gives an empty page.
+     */
+    public static <T> Page<T> of(List<T> list, String cursor, int limit) {
+        int from = 0;
+        if (cursor != null) {
+            long n = parseCursor(cursor, list.size());
+            if (n < 0) {
+                return empty();
+            }
+            from = (int) n;
+        }
+        int len = Math.max(0, Math.min(limit, list.size() - from));
+        T[] elems = (T[]) new Object[len];
+        for (int i = 0; i < len; i++) {
+            elems[i] = list.get(from + i);
+        }
+        int next = from + len;
+        return new Page<>(elems, len, (next < list.size() ? String.valueOf(next) : null));
+    }
+
+    /**
+     * The number of a cursor that was given by a query
+     * @return the number, or -1 if the cursor is not a number between 0 and max
+     */
+    public static long parseCursor(String cursor, long max) {
+        try {
+            long n = Long.parseLong(cursor);
+            return (n >= 0 && n <= max ? n : -1);
+        }
+        catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    public Iterator<T> values() {
+        return new IteratorArrayImpl<>(elems, len, 0);
+    }
+
+    public T elementAt(int i) {
+        return elems[i];
+    }
+
+    public int size() {
+        return len;
+    }
+
+    public boolean isEmpty() {
+        return len == 0;
+    }
+
+    public boolean hasNextPage() {
+        return nextCursor != null;
+    }
+
+    public String nextCursor() {
+        return nextCursor;
+    }
+}
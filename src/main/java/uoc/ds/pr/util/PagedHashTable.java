@@ -0,0 +1,135 @@
+package uoc.ds.pr.util;
+
+import edu.uoc.ds.adt.helpers.KeyValue;
+import edu.uoc.ds.adt.nonlinear.HashTable;
+import edu.uoc.ds.adt.sequential.LinkedList;
+import edu.uoc.ds.traversal.Iterator;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+
+/**
+ * HashTable whose values can also be read by pages, in the same order as values():
+ * bucket by bucket. The cursor of a page is the bucket where the next page starts
+ * and the number of elements of that bucket that are still to be read, counted from
+ * the end of the bucket: new keys are inserted at the beginning of their bucket, so
+ * the cursor stays valid while the table grows (the keys inserted in the buckets
+ * already read are not returned). Paging costs O(limit) plus the empty buckets
+ * skipped.
+ *
+ * The values can also be streamed in parallel: the spliterator is split by halves of
+ * the buckets.
+ */
+public class PagedHashTable<K, V> extends HashTable<K, V> {
+    private static final long serialVersionUID = 1L;
+
+    public PagedHashTable() {
+        super();
+    }
+
+    public PagedHashTable(int capacity) {
+        super(capacity);
+    }
+
+    /**
+     * A cursor that was not given by this table gives an empty page
+     */
+    public Page<V> values(String cursor, int limit) {
+        int bucket = 0;
+        int remaining = -1;
+        if (cursor != null) {
+            int sep = cursor.indexOf(':');
+            if (sep < 0) {
+                return Page.empty();
+            }
+            bucket = (int) Page.parseCursor(cursor.substring(0, sep), table.length - 1);
+            remaining = (int) Page.parseCursor(cursor.substring(sep + 1), Integer.MAX_VALUE);
+            if (bucket < 0 || remaining < 0) {
+                return Page.empty();
+            }
+        }
+
+        V[] elems = (V[]) new Object[Math.max(0, Math.min(limit, size()))];
+        int len = 0;
+        for (; bucket < table.length; bucket++, remaining = -1) {
+            LinkedList<KeyValue<K, V>> synonyms = table[bucket];
+            if (synonyms == null) {
+                continue;
+            }
+
+            int size = synonyms.size();
+            int skip = (remaining >= 0 ? Math.max(0, size - remaining) : 0);
+            Iterator<KeyValue<K, V>> it = synonyms.values();
+            for (int i = 0; i < skip; i++) {
+                it.next();
+            }
+            for (int i = skip; i < size; i++) {
+                if (len == elems.length) {
+                    return new Page<>(elems, len, bucket + ":" + (size - i));
+                }
+                elems[len++] = it.next().getValue();
+            }
+        }
+        return new Page<>(elems, len, null);
+    }
+
+    public Spliterator<V> spliterator() {
+        return new BucketSpliterator(0, table.length, size());
+    }
+
+
+    private class BucketSpliterator implements Spliterator<V> {
+        private int lo;
+        private final int hi;
+        private long estimate;
+        // the bucket being traversed, once the traversal has started
+        private Iterator<KeyValue<K, V>> it;
+
+        BucketSpliterator(int lo, int hi, long estimate) {
+            this.lo = lo;
+            this.hi = hi;
+            this.estimate = estimate;
+            this.it = null;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super V> action) {
+            while (it == null || !it.hasNext()) {
+                if (lo >= hi) {
+                    return false;
+                }
+                LinkedList<KeyValue<K, V>> synonyms = table[lo++];
+                it = (synonyms != null ? synonyms.values() : null);
+            }
+            action.accept(it.next().getValue());
+            return true;
+        }
+
+        @Override
+        public Spliterator<V> trySplit() {
+            if (it != null) {
+                return null;
+            }
+            int mid = (lo + hi) >>> 1;
+            if (mid <= lo) {
+                return null;
+            }
+            // the keys are spread evenly among the buckets
+            estimate >>>= 1;
+            BucketSpliterator prefix = new BucketSpliterator(lo, mid, estimate);
+            lo = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return estimate;
+        }
+
+        @Override
+        public int characteristics() {
+            return NONNULL;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package uoc.ds.pr.util;
+
+import uoc.ds.pr.SportEvents4Club;
+import uoc.ds.pr.model.Player;
+import uoc.ds.pr.model.Post;
+import uoc.ds.pr.model.SportEvent;
+
+import java.nio.ByteBuffer;
+
+
+/**
+ * Binary encoding of a post, of a fixed size:
+ *
+ *   byte   action (ordinal)
+ *   byte   rating (value, 0 if the post has no rating)
+ *   int    handle of the player in the IdTable of the players
+ *   int    handle of the sport event in the IdTable of the sport events
+ *
+ * The handles never change and the player and the sport event carry theirs, so a post
+ * is encoded and decoded with array reads, without building or hashing the identifiers:
+ * decoding only allocates the Post.
+ */
+public class PostEncoder {
+    public static final int ENCODED_SIZE = 10;
+
+    private static final SportEvents4Club.Rating[] RATINGS = SportEvents4Club.Rating.values();
+    private static final Post.Action[] ACTIONS = Post.Action.values();
+
+    /**
+     * Writes a post at the position of the buffer, that is moved after it
+     * @throws IllegalArgumentException if the player or the sport event are not in their tables
+     */
+    public static void encode(Post post, ByteBuffer buffer, IdTable<Player> players, IdTable<SportEvent> sportEvents) {
+        int player = post.getPlayer().getHandle();
+        int sportEvent = post.getSportEvent().getHandle();
+        if (!isIn(players, player) || !isIn(sportEvents, sportEvent)) {
+            throw new IllegalArgumentException("the player and the sport event of a post must be in the club");
+        }
+
+        buffer.put((byte) post.getAction().ordinal());
+        buffer.put((byte) (post.hasRating() ? post.getRating().getValue() : 0));
+        buffer.putInt(player);
+        buffer.putInt(sportEvent);
+    }
+
+    private static boolean isIn(IdTable<?> table, int handle) {
+        return handle >= 0 && handle < table.size();
+    }
+
+    /**
+     * Reads the post at an offset of the buffer, without moving its position
+     */
+    public static Post decode(ByteBuffer buffer, int offset, IdTable<Player> players, IdTable<SportEvent> sportEvents) {
+        Post.Action action = ACTIONS[buffer.get(offset)];
+        int rating = buffer.get(offset + 1);
+        Player player = players.get(buffer.getInt(offset + 2));
+        SportEvent sportEvent = sportEvents.get(buffer.getInt(offset + 6));
+
+        return new Post(action, player, sportEvent, (rating > 0 ? RATINGS[rating - 1] : null));
+    }
+}
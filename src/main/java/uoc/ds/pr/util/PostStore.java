@@ -0,0 +1,46 @@
+package uoc.ds.pr.util;
+
+import edu.uoc.ds.traversal.Iterator;
+import uoc.ds.pr.model.Player;
+import uoc.ds.pr.model.Post;
+
+import java.io.Closeable;
+import java.util.NoSuchElementException;
+
+
+/**
+ * Where the posts of the players are kept. A post is appended once and then read by the
+ * address it was given; the players only keep the addresses of their posts.
+ */
+public interface PostStore extends Closeable {
+
+    /**
+     * @return the address of the post in the store
+     */
+    long append(Post post);
+
+    Post get(long address);
+
+    /**
+     * The posts of a player, in the order they were added. They are read from the store
+     * while they are traversed
+     */
+    default Iterator<Post> posts(Player player) {
+        return new IteratorAdapter<>(new java.util.Iterator<Post>() {
+            private int i = 0;
+
+            @Override
+            public boolean hasNext() {
+                return i < player.numPosts();
+            }
+
+            @Override
+            public Post next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return get(player.getPost(i++));
+            }
+        });
+    }
+}
@@ -0,0 +1,107 @@
+package uoc.ds.pr.util;
+
+import uoc.ds.pr.SportEvents4Club;
+
+
+/**
+ * Number of ratings of each value. It is updated with every new rating, so the
+ * statistics are computed from the five counters (and their sums) without
+ * traversing the ratings.
+ */
+public class RatingHistogram {
+    private static final SportEvents4Club.Rating[] RATINGS = SportEvents4Club.Rating.values();
+
+    private final int[] counts;
+    private int total;
+    private long sum;
+    private long sumSquares;
+
+
+    public RatingHistogram() {
+        this.counts = new int[RATINGS.length];
+        this.total = 0;
+        this.sum = 0;
+        this.sumSquares = 0;
+    }
+
+    public void add(SportEvents4Club.Rating rating) {
+        int value = rating.getValue();
+        counts[rating.ordinal()]++;
+        total++;
+        sum += value;
+        sumSquares += value * value;
+    }
+
+    public int count(SportEvents4Club.Rating rating) {
+        return counts[rating.ordinal()];
+    }
+
+    public int total() {
+        return total;
+    }
+
+    /**
+     * @return the mean of the ratings, 0 if there are none
+     */
+    public double mean() {
+        return (total > 0 ? (double) sum / total : 0);
+    }
+
+    /**
+     * @return the population variance of the ratings, 0 if there are none
+     */
+    public double variance() {
+        if (total == 0) {
+            return 0;
+        }
+        double mean = mean();
+        return Math.max((double) sumSquares / total - mean * mean, 0);
+    }
+
+    /**
+     * @return the median of the ratings (the mean of the two middle ones if there is an
+     * even number of them), 0 if there are none
+     */
+    public double median() {
+        if (total == 0) {
+            return 0;
+        }
+        return (valueAt((total - 1) / 2) + valueAt(total / 2)) / 2.0;
+    }
+
+    /**
+     * @return the most frequent rating (the highest one if there is a tie), null if
+     * there are none
+     */
+    public SportEvents4Club.Rating mode() {
+        SportEvents4Club.Rating mode = null;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0 && (mode == null || counts[i] >= counts[mode.ordinal()])) {
+                mode = RATINGS[i];
+            }
+        }
+        return mode;
+    }
+
+    /**
+     * @return the fraction of the ratings of each value, indexed by the ordinal of the rating
+     */
+    public double[] distribution() {
+        double[] distribution = new double[counts.length];
+        for (int i = 0; i < counts.length && total > 0; i++) {
+            distribution[i] = (double) counts[i] / total;
+        }
+        return distribution;
+    }
+
+    /**
+     * The value of the k-th rating (from 0) in ascending order
+     */
+    private int valueAt(int k) {
+        int i = 0;
+        while (k >= counts[i]) {
+            k -= counts[i++];
+        }
+        return RATINGS[i].getValue();
+    }
+}
@@ -0,0 +1,157 @@
+package uoc.ds.pr.util;
+
+import edu.uoc.ds.exceptions.InvalidPositionException;
+import edu.uoc.ds.traversal.Iterator;
+
+import java.util.Arrays;
+
+
+/**
+ * Sequence of elements in order of arrival where each element gets a key, its number
+ * of arrival, that never changes. The keys grow with the positions, so an element is
+ * found by its key with a binary search in O(log n) and removed by leaving its slot
+ * empty; the sequence is compacted when more than half of the slots are empty, so
+ * remove is O(log n) amortized.
+ *
+ * The cursor of a page is the key of the element that follows it. It stays valid
+ * while elements are added and removed: if that element is removed, the next page
+ * starts with the one after it, so no element is skipped.
+ */
+public class SequenceList<E> {
+    private static final int INITIAL_CAPACITY = 4;
+    private static final Object[] NO_ELEMS = new Object[0];
+    private static final long[] NO_KEYS = new long[0];
+
+    // the slots in use are [0, end): a removed element leaves a null slot
+    private E[] elems;
+    private long[] keys;
+    private int end;
+    private int len;
+    private long nextKey;
+
+
+    public SequenceList() {
+        this.elems = (E[]) NO_ELEMS;
+        this.keys = NO_KEYS;
+        this.end = 0;
+        this.len = 0;
+        this.nextKey = 0;
+    }
+
+    /**
+     * @return the key of the element
+     */
+    public long add(E elem) {
+        if (end == elems.length) {
+            int capacity = Math.max(elems.length * 2, INITIAL_CAPACITY);
+            elems = Arrays.copyOf(elems, capacity);
+            keys = Arrays.copyOf(keys, capacity);
+        }
+        elems[end] = elem;
+        keys[end++] = nextKey;
+        len++;
+        return nextKey++;
+    }
+
+    /**
+     * Removes the element with the key
+     * @return the element, or null if there is no element with the key
+     */
+    public E remove(long key) {
+        int i = Arrays.binarySearch(keys, 0, end, key);
+        if (i < 0 || elems[i] == null) {
+            return null;
+        }
+        E elem = elems[i];
+        elems[i] = null;
+        len--;
+
+        while (end > 0 && elems[end - 1] == null) {
+            end--;
+        }
+        if (len * 2 < end && end > INITIAL_CAPACITY) {
+            compact();
+        }
+        return elem;
+    }
+
+    public int size() {
+        return len;
+    }
+
+    public boolean isEmpty() {
+        return len == 0;
+    }
+
+    /**
+     * The elements in order of arrival
+     */
+    public Iterator<E> values() {
+        return new Iterator<E>() {
+            private static final long serialVersionUID = 1L;
+
+            private int i = skip(0);
+
+            @Override
+            public boolean hasNext() {
+                return i < end;
+            }
+
+            @Override
+            public E next() throws InvalidPositionException {
+                if (i >= end) {
+                    throw new InvalidPositionException();
+                }
+                E elem = elems[i];
+                i = skip(i + 1);
+                return elem;
+            }
+        };
+    }
+
+    /**
+     * At most limit elements, in order of arrival, from the one with the key of the cursor
+     * (or the one after it, if it has been removed): O(log n + limit). A cursor that is
+     * not a key gives an empty page
+     */
+    public Page<E> page(String cursor, int limit) {
+        int i = 0;
+        if (cursor != null) {
+            long key = Page.parseCursor(cursor, nextKey);
+            if (key < 0) {
+                return Page.empty();
+            }
+            i = Arrays.binarySearch(keys, 0, end, key);
+            i = (i >= 0 ? i : -i - 1);
+        }
+
+        E[] page = (E[]) new Object[Math.max(0, Math.min(limit, len))];
+        int n = 0;
+        for (i = skip(i); i < end && n < page.length; i = skip(i + 1)) {
+            page[n++] = elems[i];
+        }
+        return new Page<>(page, n, (i < end ? String.valueOf(keys[i]) : null));
+    }
+
+    private int skip(int i) {
+        while (i < end && elems[i] == null) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Moves the elements, with their keys, to the first slots
+     */
+    private void compact() {
+        int n = 0;
+        for (int i = 0; i < end; i++) {
+            if (elems[i] != null) {
+                elems[n] = elems[i];
+                keys[n++] = keys[i];
+            }
+        }
+        Arrays.fill(elems, n, end, null);
+        end = n;
+    }
+}
@@ -0,0 +1,101 @@
+package uoc.ds.pr.util;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static java.nio.file.StandardOpenOption.READ;
+
+
+/**
+ * Binary input for the data written by a SnapshotWriter. The file is mapped into memory
+ * in windows of WINDOW_SIZE bytes, so the values are read in place, without copying the
+ * file into a buffer; a value that crosses the end of a window is read from the next one,
+ * that starts at it.
+ */
+public class SnapshotReader implements Closeable {
+    static final long WINDOW_SIZE = 1L << 28;
+
+    private final FileChannel channel;
+    private final long size;
+    private final long windowSize;
+    private ByteBuffer buffer;
+    // position in the file of the start of the window
+    private long offset;
+
+
+    public SnapshotReader(Path path) throws IOException {
+        this(path, WINDOW_SIZE);
+    }
+
+    SnapshotReader(Path path, long windowSize) throws IOException {
+        this.channel = FileChannel.open(path, READ);
+        this.size = channel.size();
+        this.windowSize = windowSize;
+        this.buffer = ByteBuffer.allocate(0);
+        this.offset = 0;
+    }
+
+    public int readByte() throws IOException {
+        ensure(1);
+        return buffer.get();
+    }
+
+    public boolean readBoolean() throws IOException {
+        return readByte() != 0;
+    }
+
+    public int readInt() throws IOException {
+        ensure(4);
+        return buffer.getInt();
+    }
+
+    public long readLong() throws IOException {
+        ensure(8);
+        return buffer.getLong();
+    }
+
+    public String readString() throws IOException {
+        int len = readInt();
+        if (len < 0) {
+            return null;
+        }
+
+        byte[] bytes = new byte[len];
+        int off = 0;
+        while (off < len) {
+            ensure(1);
+            int n = Math.min(buffer.remaining(), len - off);
+            buffer.get(bytes, off, n);
+            off += n;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public LocalDate readDate() throws IOException {
+        long epochDay = readLong();
+        return (epochDay != SnapshotWriter.NO_DATE ? LocalDate.ofEpochDay(epochDay) : null);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void ensure(int n) throws IOException {
+        if (buffer.remaining() >= n) {
+            return;
+        }
+        long position = offset + buffer.position();
+        if (position + n > size) {
+            throw new EOFException();
+        }
+        offset = position;
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(windowSize, size - position));
+    }
+}
@@ -0,0 +1,101 @@
+package uoc.ds.pr.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+
+/**
+ * Buffered binary output over a FileChannel. Values are written in big-endian order:
+ *
+ *   strings  int length (-1 if null), followed by its UTF-8 bytes
+ *   dates    long epoch day (Long.MIN_VALUE if null)
+ *
+ * The data is forced to the disk when the writer is closed.
+ */
+public class SnapshotWriter implements Closeable {
+    static final int BUFFER_SIZE = 64 * 1024;
+    static final long NO_DATE = Long.MIN_VALUE;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+
+
+    public SnapshotWriter(Path path) throws IOException {
+        this.channel = FileChannel.open(path, CREATE, WRITE, TRUNCATE_EXISTING);
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+
+    public void writeByte(int b) throws IOException {
+        ensure(1);
+        buffer.put((byte) b);
+    }
+
+    public void writeBoolean(boolean b) throws IOException {
+        writeByte(b ? 1 : 0);
+    }
+
+    public void writeInt(int i) throws IOException {
+        ensure(4);
+        buffer.putInt(i);
+    }
+
+    public void writeLong(long l) throws IOException {
+        ensure(8);
+        buffer.putLong(l);
+    }
+
+    public void writeString(String s) throws IOException {
+        if (s == null) {
+            writeInt(-1);
+            return;
+        }
+
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeInt(bytes.length);
+        int off = 0;
+        while (off < bytes.length) {
+            ensure(1);
+            int n = Math.min(buffer.remaining(), bytes.length - off);
+            buffer.put(bytes, off, n);
+            off += n;
+        }
+    }
+
+    public void writeDate(LocalDate date) throws IOException {
+        writeLong(date != null ? date.toEpochDay() : NO_DATE);
+    }
+
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+            channel.force(false);
+        }
+        finally {
+            channel.close();
+        }
+    }
+
+    private void ensure(int n) throws IOException {
+        if (buffer.remaining() < n) {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package uoc.ds.pr.util;
+
+import edu.uoc.ds.traversal.Iterator;
+
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+
+/**
+ * Bridges from the DSLib iterators and the ADTs of the club to java.util.stream.
+ *
+ * A plain iterator can only be split by copying batches of its elements, so the ADTs
+ * that know where their elements are give spliterators that split without copying:
+ * an OrderedVector (or any indexed sequence) and an OrderStatisticTree by halves of
+ * their positions, and a PagedHashTable by halves of its buckets.
+ *
+ * The streams read the ADT as they go, so it must not change until they are consumed.
+ */
+public final class Streams {
+
+    private Streams() {
+    }
+
+    /**
+     * The elements of an iterator whose size is not known
+     */
+    public static <E> Stream<E> stream(Iterator<E> it) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(adapt(it), Spliterator.ORDERED), false);
+    }
+
+    /**
+     * The remaining size elements of an iterator. Parallel streams split it in batches
+     */
+    public static <E> Stream<E> stream(Iterator<E> it, int size, boolean parallel) {
+        return StreamSupport.stream(Spliterators.spliterator(adapt(it), size, Spliterator.ORDERED), parallel);
+    }
+
+    public static <E> Stream<E> stream(OrderedVector<E> vector, boolean parallel) {
+        return StreamSupport.stream(spliterator(vector::elementAt, vector.size()), parallel);
+    }
+
+    public static <E> Stream<E> stream(OrderStatisticTree<E> tree, boolean parallel) {
+        return StreamSupport.stream(tree.spliterator(), parallel);
+    }
+
+    public static <V> Stream<V> stream(PagedHashTable<?, V> table, boolean parallel) {
+        return StreamSupport.stream(table.spliterator(), parallel);
+    }
+
+    /**
+     * The elements at the positions from 0 to size - 1 of an indexed sequence, that is
+     * split by halves
+     */
+    public static <E> Spliterator<E> spliterator(IntFunction<E> elementAt, int size) {
+        return new RangeSpliterator<>(elementAt, 0, size);
+    }
+
+    private static <E> java.util.Iterator<E> adapt(Iterator<E> it) {
+        return new java.util.Iterator<E>() {
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public E next() {
+                return it.next();
+            }
+        };
+    }
+
+
+    private static class RangeSpliterator<E> implements Spliterator<E> {
+        private final IntFunction<E> elementAt;
+        private int lo;
+        private final int hi;
+
+        RangeSpliterator(IntFunction<E> elementAt, int lo, int hi) {
+            this.elementAt = elementAt;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action) {
+            if (lo >= hi) {
+                return false;
+            }
+            action.accept(elementAt.apply(lo++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super E> action) {
+            for (; lo < hi; lo++) {
+                action.accept(elementAt.apply(lo));
+            }
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            int mid = (lo + hi) >>> 1;
+            if (mid <= lo) {
+                return null;
+            }
+            Spliterator<E> prefix = new RangeSpliterator<>(elementAt, lo, mid);
+            lo = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return hi - lo;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED;
+        }
+    }
+}
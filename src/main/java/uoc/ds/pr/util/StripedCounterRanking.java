@@ -0,0 +1,353 @@
+package uoc.ds.pr.util;
+
+import edu.uoc.ds.traversal.Iterator;
+import edu.uoc.ds.traversal.IteratorArrayImpl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+
+/**
+ * Counters of elements, ordered from the highest counter to the lowest, that change one
+ * unit at a time. It is split in stripes by the ids of the elements, each one guarded by
+ * the monitor of its stripe in a LockStripes, so the counters of elements of different
+ * stripes are updated at the same time.
+ *
+ * An element that reaches a counter by an increment goes after the elements that already
+ * had it, and by a decrement before them, in any stripe: every update takes a number from
+ * a clock shared by all the stripes (negative for a decrement), and the elements with the
+ * same counter are ordered by it. Unlike CounterRanking, the order of the elements left
+ * behind is kept.
+ *
+ * In each stripe the elements with the same counter are a block of a linked list, so an
+ * update moves the element to the end of the block above or to the start of the block
+ * below in O(1). first looks at the first element of each stripe, locking them one at a
+ * time, so it must be called without holding any of them.
+ */
+public class StripedCounterRanking<E> {
+    private final LockStripes stripes;
+    private final Function<? super E, String> id;
+    private final Stripe<E>[] parts;
+    private final AtomicLong clock;
+
+
+    public StripedCounterRanking(LockStripes stripes, Function<? super E, String> id) {
+        this.stripes = stripes;
+        this.id = id;
+        this.parts = new Stripe[stripes.size()];
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = new Stripe<>();
+        }
+        this.clock = new AtomicLong();
+    }
+
+    /**
+     * Increments the counter of an element, adding it if it does not exist
+     * @return the new counter
+     */
+    public int increment(E elem) {
+        int i = stripeOf(elem);
+        synchronized (stripes.get(i)) {
+            return parts[i].increment(elem, clock.incrementAndGet());
+        }
+    }
+
+    /**
+     * Decrements the counter of an element, that must exist and have a counter higher than 0
+     * @return the new counter
+     */
+    public int decrement(E elem) {
+        int i = stripeOf(elem);
+        synchronized (stripes.get(i)) {
+            return parts[i].decrement(elem, -clock.incrementAndGet());
+        }
+    }
+
+    /**
+     * Appends the first n elements of the array with their counters, which must be new
+     * elements given in the order of the ranking, after the ones already in it. It is used
+     * to restore a ranking.
+     */
+    public void appendAll(E[] newElems, int[] newCounts, int n) {
+        for (int i = 0; i < n; i++) {
+            int s = stripeOf(newElems[i]);
+            synchronized (stripes.get(s)) {
+                parts[s].append(newElems[i], newCounts[i], clock.incrementAndGet());
+            }
+        }
+    }
+
+    /**
+     * @return the counter of the element or -1 if it does not exist
+     */
+    public int count(E elem) {
+        int i = stripeOf(elem);
+        synchronized (stripes.get(i)) {
+            Node<E> node = parts[i].nodes.get(elem);
+            return (node != null ? node.block.count : -1);
+        }
+    }
+
+    /**
+     * The element with the highest counter, or null if no counter is above 0
+     */
+    public E first() {
+        Node<E> best = null;
+        int bestCount = 0;
+        long bestTick = 0;
+        for (int s = 0; s < parts.length; s++) {
+            synchronized (stripes.get(s)) {
+                Block<E> top = parts[s].top;
+                if (top.count > 0 && (top.count > bestCount || (top.count == bestCount && top.first.tick < bestTick))) {
+                    best = top.first;
+                    bestCount = top.count;
+                    bestTick = top.first.tick;
+                }
+            }
+        }
+        return (best != null ? best.elem : null);
+    }
+
+    /**
+     * All the elements, from the highest counter to the lowest
+     */
+    public Iterator<E> values() {
+        List<Entry<E>> entries = new ArrayList<>();
+        for (int s = 0; s < parts.length; s++) {
+            synchronized (stripes.get(s)) {
+                for (Block<E> b = parts[s].top; b != null; b = b.lower) {
+                    for (Node<E> node = b.first; node != null; node = node.next) {
+                        entries.add(new Entry<>(node.elem, b.count, node.tick));
+                    }
+                }
+            }
+        }
+        entries.sort(null);
+
+        Object[] elems = new Object[entries.size()];
+        for (int i = 0; i < elems.length; i++) {
+            elems[i] = entries.get(i).elem;
+        }
+        return new IteratorArrayImpl<>((E[]) elems, elems.length, 0);
+    }
+
+    public int size() {
+        int size = 0;
+        for (int s = 0; s < parts.length; s++) {
+            synchronized (stripes.get(s)) {
+                size += parts[s].nodes.size();
+            }
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    private int stripeOf(E elem) {
+        return stripes.indexOf(id.apply(elem));
+    }
+
+
+    /**
+     * The blocks of a stripe, from top to the block of the counter 0, which is always there
+     */
+    private static class Stripe<E> {
+        private final Map<E, Node<E>> nodes;
+        private final Block<E> zero;
+        private Block<E> top;
+
+        Stripe() {
+            this.nodes = new HashMap<>();
+            this.zero = new Block<>(0);
+            this.top = zero;
+        }
+
+        int increment(E elem, long tick) {
+            Node<E> node = nodes.get(elem);
+            if (node == null) {
+                node = new Node<>(elem);
+                nodes.put(elem, node);
+                zero.addLast(node);
+            }
+
+            Block<E> from = node.block;
+            Block<E> to = from.higher;
+            if (to == null || to.count != from.count + 1) {
+                to = insertAbove(from, from.count + 1);
+            }
+            move(node, to, false);
+            node.tick = tick;
+            return to.count;
+        }
+
+        int decrement(E elem, long tick) {
+            Node<E> node = nodes.get(elem);
+            if (node == null) {
+                throw new IllegalArgumentException("the element is not in the ranking");
+            }
+            Block<E> from = node.block;
+            if (from.count == 0) {
+                throw new IllegalArgumentException("the counter is already 0");
+            }
+
+            Block<E> to = from.lower;
+            if (to.count != from.count - 1) {
+                to = insertAbove(to, from.count - 1);
+            }
+            move(node, to, true);
+            node.tick = tick;
+            return to.count;
+        }
+
+        void append(E elem, int count, long tick) {
+            if (nodes.containsKey(elem)) {
+                throw new IllegalArgumentException("the element is already in the ranking");
+            }
+            // the lowest block above zero has the lowest counter appended so far
+            Block<E> to = zero;
+            if (count > 0) {
+                to = zero.higher;
+                if (to == null || to.count != count) {
+                    if (to != null && to.count < count) {
+                        throw new IllegalArgumentException("the counters are not in descending order");
+                    }
+                    to = insertAbove(zero, count);
+                }
+            }
+            Node<E> node = new Node<>(elem);
+            node.tick = tick;
+            nodes.put(elem, node);
+            to.addLast(node);
+        }
+
+        private void move(Node<E> node, Block<E> to, boolean first) {
+            Block<E> from = node.block;
+            from.remove(node);
+            if (first) {
+                to.addFirst(node);
+            }
+            else {
+                to.addLast(node);
+            }
+            if (from.first == null && from != zero) {
+                from.lower.higher = from.higher;
+                if (from.higher != null) {
+                    from.higher.lower = from.lower;
+                }
+                if (top == from) {
+                    top = from.lower;
+                }
+            }
+        }
+
+        private Block<E> insertAbove(Block<E> below, int count) {
+            Block<E> block = new Block<>(count);
+            block.lower = below;
+            block.higher = below.higher;
+            if (below.higher != null) {
+                below.higher.lower = block;
+            }
+            below.higher = block;
+            if (top == below) {
+                top = block;
+            }
+            return block;
+        }
+    }
+
+
+    private static class Block<E> {
+        private final int count;
+        private Block<E> higher;
+        private Block<E> lower;
+        private Node<E> first;
+        private Node<E> last;
+
+        Block(int count) {
+            this.count = count;
+        }
+
+        void addFirst(Node<E> node) {
+            node.block = this;
+            node.prev = null;
+            node.next = first;
+            if (first != null) {
+                first.prev = node;
+            }
+            else {
+                last = node;
+            }
+            first = node;
+        }
+
+        void addLast(Node<E> node) {
+            node.block = this;
+            node.next = null;
+            node.prev = last;
+            if (last != null) {
+                last.next = node;
+            }
+            else {
+                first = node;
+            }
+            last = node;
+        }
+
+        void remove(Node<E> node) {
+            if (node.prev != null) {
+                node.prev.next = node.next;
+            }
+            else {
+                first = node.next;
+            }
+            if (node.next != null) {
+                node.next.prev = node.prev;
+            }
+            else {
+                last = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+        }
+    }
+
+
+    private static class Node<E> {
+        private final E elem;
+        private long tick;
+        private Block<E> block;
+        private Node<E> prev;
+        private Node<E> next;
+
+        Node(E elem) {
+            this.elem = elem;
+        }
+    }
+
+
+    /**
+     * An element with its counter and its number, to sort it out of its stripe
+     */
+    private static class Entry<E> implements Comparable<Entry<E>> {
+        private final E elem;
+        private final int count;
+        private final long tick;
+
+        Entry(E elem, int count, long tick) {
+            this.elem = elem;
+            this.count = count;
+            this.tick = tick;
+        }
+
+        @Override
+        public int compareTo(Entry<E> other) {
+            return (count != other.count ? Integer.compare(other.count, count) : Long.compare(tick, other.tick));
+        }
+    }
+}
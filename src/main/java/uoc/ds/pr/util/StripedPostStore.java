@@ -0,0 +1,62 @@
+package uoc.ds.pr.util;
+
+import uoc.ds.pr.model.Post;
+
+import java.io.IOException;
+import java.util.function.Supplier;
+
+
+/**
+ * PostStore split in stripes by the id of the author of each post, with a store of its own
+ * for each stripe of a LockStripes. The posts of the players of a stripe must be appended
+ * and read by one thread at a time, holding the monitor of the stripe, so the players of
+ * different stripes append their posts at the same time. The address of a post is its
+ * address in the store of its stripe followed by the bits of the stripe.
+ */
+public class StripedPostStore implements PostStore {
+    private final LockStripes stripes;
+    private final PostStore[] stores;
+    private final int bits;
+
+
+    public StripedPostStore(LockStripes stripes, Supplier<PostStore> store) {
+        this.stripes = stripes;
+        this.stores = new PostStore[stripes.size()];
+        for (int i = 0; i < stores.length; i++) {
+            stores[i] = store.get();
+        }
+        this.bits = Integer.numberOfTrailingZeros(stores.length);
+    }
+
+    @Override
+    public long append(Post post) {
+        int i = stripes.indexOf(post.getPlayer().getId());
+        return (stores[i].append(post) << bits) | i;
+    }
+
+    @Override
+    public Post get(long address) {
+        return stores[(int) (address & (stores.length - 1))].get(address >>> bits);
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (PostStore store : stores) {
+            try {
+                store.close();
+            }
+            catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+                else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package uoc.ds.pr.util;
+
+import edu.uoc.ds.traversal.Iterator;
+import edu.uoc.ds.traversal.IteratorArrayImpl;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+
+/**
+ * Ranking of elements by a key that can change, from the highest key to the lowest. It
+ * is split in stripes by the ids of the elements, each one an OrderStatisticTree guarded
+ * by the monitor of its stripe in a LockStripes, so the elements of different stripes are
+ * updated at the same time. The key of an element must only change while the monitor of
+ * its stripe is held, and update must be called before releasing it.
+ *
+ * Elements with the same key are in the order they reached it, as in a single tree: every
+ * update takes a number from a clock shared by all the stripes, and the stripes are merged
+ * by key and then by that number. The operations over the whole ranking (first, values,
+ * position) lock the stripes one at a time, so they must be called without holding any of
+ * them, and they may see the updates made meanwhile in some stripes and not in others.
+ */
+public class StripedRanking<E> {
+    private final LockStripes stripes;
+    private final Function<? super E, String> id;
+    private final ToDoubleFunction<? super E> key;
+    private final OrderStatisticTree<E>[] trees;
+    private final Map<E, Long>[] ticks;
+    private final AtomicLong clock;
+
+
+    public StripedRanking(LockStripes stripes, Function<? super E, String> id, ToDoubleFunction<? super E> key) {
+        this.stripes = stripes;
+        this.id = id;
+        this.key = key;
+        Comparator<E> byKey = Comparator.comparingDouble(key);
+        this.trees = new OrderStatisticTree[stripes.size()];
+        this.ticks = new Map[stripes.size()];
+        for (int i = 0; i < trees.length; i++) {
+            trees[i] = new OrderStatisticTree<>(byKey.reversed());
+            ticks[i] = new HashMap<>();
+        }
+        this.clock = new AtomicLong();
+    }
+
+    /**
+     * Inserts the element or, if it already exists, moves it to the position of its current
+     * key, after the elements that already had it: O(log n)
+     */
+    public void update(E elem) {
+        int i = stripeOf(elem);
+        synchronized (stripes.get(i)) {
+            trees[i].update(elem);
+            ticks[i].put(elem, clock.incrementAndGet());
+        }
+    }
+
+    /**
+     * Inserts the first n elements of the array, that must be new and different. The ones
+     * with the same key go after the elements that already have it, in the order of the array
+     */
+    public void addAll(E[] newElems, int n) {
+        List<E>[] parts = new List[trees.length];
+        for (int i = 0; i < n; i++) {
+            int s = stripeOf(newElems[i]);
+            if (parts[s] == null) {
+                parts[s] = new ArrayList<>();
+            }
+            parts[s].add(newElems[i]);
+        }
+
+        // the elements are numbered in the order of the array
+        long first = clock.getAndAdd(n) + 1;
+        Map<E, Long> numbers = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            numbers.put(newElems[i], first + i);
+        }
+        for (int s = 0; s < trees.length; s++) {
+            if (parts[s] != null) {
+                synchronized (stripes.get(s)) {
+                    trees[s].addAll((E[]) parts[s].toArray(), parts[s].size());
+                    for (E elem : parts[s]) {
+                        ticks[s].put(elem, numbers.get(elem));
+                    }
+                }
+            }
+        }
+    }
+
+    public E first() {
+        Entry<E> best = null;
+        for (int s = 0; s < trees.length; s++) {
+            synchronized (stripes.get(s)) {
+                if (!trees[s].isEmpty()) {
+                    Entry<E> entry = entry(s, trees[s].first());
+                    if (best == null || entry.compareTo(best) < 0) {
+                        best = entry;
+                    }
+                }
+            }
+        }
+        return (best != null ? best.elem : null);
+    }
+
+    /**
+     * The first n elements, in order: the first n of each stripe are merged
+     */
+    public Iterator<E> values(int n) {
+        List<Entry<E>> entries = new ArrayList<>();
+        for (int s = 0; s < trees.length; s++) {
+            synchronized (stripes.get(s)) {
+                for (Iterator<E> it = trees[s].values(n); it.hasNext(); ) {
+                    entries.add(entry(s, it.next()));
+                }
+            }
+        }
+        entries.sort(null);
+
+        int len = Math.min(Math.max(n, 0), entries.size());
+        Object[] elems = new Object[len];
+        for (int i = 0; i < len; i++) {
+            elems[i] = entries.get(i).elem;
+        }
+        return new IteratorArrayImpl<>((E[]) elems, len, 0);
+    }
+
+    /**
+     * @return the position (starting at 0) of the element or -1 if it does not exist. It is
+     * its position in its stripe plus the elements of the other ones that go before it
+     */
+    public int position(E elem) {
+        int i = stripeOf(elem);
+        Entry<E> entry;
+        int pos;
+        synchronized (stripes.get(i)) {
+            pos = trees[i].position(elem);
+            if (pos < 0) {
+                return -1;
+            }
+            entry = entry(i, elem);
+        }
+
+        for (int s = 0; s < trees.length; s++) {
+            if (s != i) {
+                synchronized (stripes.get(s)) {
+                    int stripe = s;
+                    pos += trees[s].countWhile(x -> entry(stripe, x).compareTo(entry) < 0);
+                }
+            }
+        }
+        return pos;
+    }
+
+    public boolean contains(E elem) {
+        int i = stripeOf(elem);
+        synchronized (stripes.get(i)) {
+            return trees[i].contains(elem);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (int s = 0; s < trees.length; s++) {
+            synchronized (stripes.get(s)) {
+                size += trees[s].size();
+            }
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    private int stripeOf(E elem) {
+        return stripes.indexOf(id.apply(elem));
+    }
+
+    /**
+     * The key and the number of the element, read while its stripe is locked
+     */
+    private Entry<E> entry(int stripe, E elem) {
+        return new Entry<>(elem, key.applyAsDouble(elem), ticks[stripe].get(elem));
+    }
+
+
+    private static class Entry<E> implements Comparable<Entry<E>> {
+        private final E elem;
+        private final double key;
+        private final long tick;
+
+        Entry(E elem, double key, long tick) {
+            this.elem = elem;
+            this.key = key;
+            this.tick = tick;
+        }
+
+        @Override
+        public int compareTo(Entry<E> other) {
+            int c = Double.compare(other.key, key);
+            return (c != 0 ? c : Long.compare(tick, other.tick));
+        }
+    }
+}
@@ -0,0 +1,436 @@
+package uoc.ds.pr.util;
+
+import edu.uoc.ds.traversal.Iterator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+
+/**
+ * Fan-out-on-write timeline over a FollowerGraph. When an element publishes a post,
+ * a reference to it is pushed into a bounded inbox of each one of its followers, so
+ * reading a timeline is a walk over an already ordered buffer.
+ *
+ * Elements with more than maxFanOut followers stop pushing their posts: from that
+ * moment their followers merge them while reading (fan-out-on-read).
+ *
+ * Posts are numbered in publication order and the timelines are read from the
+ * newest to the oldest. The cursor of a page is the number of its last post.
+ *
+ * The feeds are kept in an array indexed by the handles of the elements in the graph.
+ *
+ * publish and posts may be called from several threads at the same time, while the graph
+ * does not change: each feed is guarded by its own monitor, which is held while a post is
+ * added to it or its posts are copied, and never together with another one. Two posts
+ * published at the same time may reach a feed out of order, so a post is inserted at the
+ * place of its number. follow, save and load need exclusive access, as the graph does.
+ */
+public class Timeline<E, P> {
+    private static final long NO_LIMIT = Long.MAX_VALUE;
+    private static final int INITIAL_CAPACITY = 8;
+    private static final int NONE = -2;
+    private static final int INBOX = -1;
+    private static final int[] NO_HEADS = new int[0];
+    private static final Object[] NO_POSTS = new Object[0];
+    private static final long[] NO_SEQS = new long[0];
+
+    private final FollowerGraph<E> graph;
+    private final int capacity;
+    private final int maxFanOut;
+    private volatile Feed<P>[] feeds;
+    private int numFeeds;
+    private final AtomicLong seq;
+
+
+    public Timeline(FollowerGraph<E> graph, int capacity, int maxFanOut) {
+        this.graph = graph;
+        this.capacity = capacity;
+        this.maxFanOut = maxFanOut;
+        this.feeds = new Feed[INITIAL_CAPACITY];
+        this.numFeeds = 0;
+        this.seq = new AtomicLong();
+    }
+
+    public void publish(E author, P post) {
+        int handle = graph.handleOf(author);
+        Feed<P> feed = feed(handle);
+        long s = seq.getAndIncrement();
+
+        synchronized (feed) {
+            feed.outbox.add(post, s);
+        }
+        if (s < feed.fanOutUntil) {
+            Iterator<E> it = graph.followers(handle);
+            while (it.hasNext()) {
+                Feed<P> follower = feed(graph.handleOf(it.next()));
+                synchronized (follower) {
+                    follower.inbox.add(post, s);
+                }
+            }
+        }
+    }
+
+    /**
+     * Must be called once follower has been added as a new follower of elem: the
+     * recent posts of elem are merged into the inbox of the follower.
+     */
+    public void follow(E elem, E follower) {
+        int handle = graph.handleOf(elem);
+        Feed<P> fElem = feed(handle);
+        Feed<P> fFollower = feed(graph.handleOf(follower));
+
+        fFollower.inbox.merge(fElem.outbox, fElem.fanOutUntil);
+
+        if (fElem.fanOutUntil != NO_LIMIT) {
+            fFollower.pulled.add(fElem);
+        }
+        else if (graph.numFollowers(handle) > maxFanOut) {
+            fElem.fanOutUntil = seq.get();
+            Iterator<E> it = graph.followers(handle);
+            while (it.hasNext()) {
+                feed(graph.handleOf(it.next())).pulled.add(fElem);
+            }
+        }
+    }
+
+    /**
+     * Returns, at most, limit posts of the timeline of the element with the handle older
+     * than the cursor, from the newest to the oldest. A null cursor starts from the newest
+     * post, and one that is not a sequence number gives an empty page.
+     */
+    public Page<P> posts(int handle, String cursor, int limit) {
+        Feed<P>[] fs = feeds;
+        Feed<P> feed = (handle >= 0 && handle < fs.length ? fs[handle] : null);
+        long max = (cursor != null ? Page.parseCursor(cursor, Long.MAX_VALUE) : NO_LIMIT);
+        if (feed == null || limit <= 0 || max < 0) {
+            return Page.empty();
+        }
+
+        // the newest posts of each source (one more than the page, to know if there is a next
+        // one) are copied with the lock of its feed, and merged once it is released
+        int copied = (int) Math.min((long) limit + 1, Integer.MAX_VALUE);
+        Ring<P> inbox;
+        synchronized (feed) {
+            inbox = feed.inbox.newest(max, copied);
+        }
+        int head = inbox.size() - 1;
+        int available = head + 1;
+
+        int numPulled = feed.pulled.size();
+        int[] heads = (numPulled == 0 ? NO_HEADS : new int[numPulled]);
+        Ring<P>[] outboxes = new Ring[numPulled];
+        long[] untils = new long[numPulled];
+        for (int c = 0; c < numPulled; c++) {
+            Feed<P> pulled = feed.pulled.get(c);
+            synchronized (pulled) {
+                outboxes[c] = pulled.outbox.newest(max, copied);
+            }
+            untils[c] = pulled.fanOutUntil;
+            heads[c] = outboxes[c].size() - 1;
+            available += heads[c] + 1;
+        }
+
+        Object[] page = new Object[Math.min(limit, available)];
+        int len = 0;
+        long last = 0;
+        int next = pick(inbox, head, outboxes, untils, heads);
+
+        while (next != NONE && len < page.length) {
+            if (next == INBOX) {
+                last = inbox.seq(head);
+                page[len++] = inbox.post(head--);
+            }
+            else {
+                Ring<P> outbox = outboxes[next];
+                last = outbox.seq(heads[next]);
+                page[len++] = outbox.post(heads[next]--);
+            }
+            next = pick(inbox, head, outboxes, untils, heads);
+        }
+
+        return new Page<>((P[]) page, len, (next != NONE ? String.valueOf(last) : null));
+    }
+
+    /**
+     * Writes all the feeds, each post as the index given by postIndex
+     */
+    public void save(SnapshotWriter out, ToIntFunction<P> postIndex) throws IOException {
+        out.writeLong(seq.get());
+        out.writeInt(numFeeds);
+        for (Feed<P> feed : feeds) {
+            if (feed != null) {
+                out.writeInt(feed.handle);
+                out.writeLong(feed.fanOutUntil);
+                feed.inbox.save(out, postIndex);
+                feed.outbox.save(out, postIndex);
+            }
+        }
+
+        // the pulled feeds go by their handle, once all the feeds have been written
+        for (Feed<P> feed : feeds) {
+            if (feed != null) {
+                out.writeInt(feed.pulled.size());
+                for (Feed<P> pulled : feed.pulled) {
+                    out.writeInt(pulled.handle);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the feeds written by save into an empty timeline, whose elements must have
+     * the same handles. The post with each index is given by post.
+     */
+    public void load(SnapshotReader in, IntFunction<P> post) throws IOException {
+        seq.set(in.readLong());
+        int n = in.readInt();
+        List<Feed<P>> loaded = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Feed<P> feed = feed(in.readInt());
+            feed.fanOutUntil = in.readLong();
+            feed.inbox.load(in, post);
+            feed.outbox.load(in, post);
+            loaded.add(feed);
+        }
+
+        for (Feed<P> feed : loaded) {
+            int m = in.readInt();
+            for (int i = 0; i < m; i++) {
+                feed.pulled.add(feeds[in.readInt()]);
+            }
+        }
+    }
+
+    /**
+     * Selects the source of the newest pending post: the inbox, the index of one
+     * of the pulled feeds or NONE.
+     */
+    private int pick(Ring<P> inbox, int head, Ring<P>[] outboxes, long[] untils, int[] heads) {
+        int best = NONE;
+        long bestSeq = -1;
+
+        if (head >= 0) {
+            best = INBOX;
+            bestSeq = inbox.seq(head);
+        }
+        for (int c = 0; c < heads.length; c++) {
+            if (heads[c] >= 0) {
+                long s = outboxes[c].seq(heads[c]);
+                if (s >= untils[c] && s > bestSeq) {
+                    best = c;
+                    bestSeq = s;
+                }
+            }
+        }
+        return best;
+    }
+
+    private Feed<P> feed(int handle) {
+        Feed<P>[] fs = feeds;
+        Feed<P> feed = (handle < fs.length ? fs[handle] : null);
+        return (feed != null ? feed : newFeed(handle));
+    }
+
+    /**
+     * Creates the feed of the handle unless another thread has just created it. A thread
+     * that does not see it yet comes here too; the array is written again once the feed is
+     * in it, so the threads that read it afterwards see the feed
+     */
+    private synchronized Feed<P> newFeed(int handle) {
+        Feed<P>[] fs = feeds;
+        if (handle < fs.length && fs[handle] != null) {
+            return fs[handle];
+        }
+        if (handle >= fs.length) {
+            fs = Arrays.copyOf(fs, Math.max(handle + 1, fs.length * 2));
+        }
+        Feed<P> feed = new Feed<>(handle, capacity);
+        fs[handle] = feed;
+        numFeeds++;
+        feeds = fs;
+        return feed;
+    }
+
+
+    private static class Feed<P> {
+        private final int handle;
+        private final Ring<P> inbox;
+        private final Ring<P> outbox;
+        private final List<Feed<P>> pulled;
+        private volatile long fanOutUntil;
+
+        Feed(int handle, int capacity) {
+            this.handle = handle;
+            this.inbox = new Ring<>(capacity);
+            this.outbox = new Ring<>(capacity);
+            this.pulled = new ArrayList<>(0);
+            this.fanOutUntil = NO_LIMIT;
+        }
+    }
+
+
+    /**
+     * Bounded circular buffer of posts ordered by their number. It starts empty, without
+     * arrays, and grows up to its capacity; once full, adding a post discards the oldest one.
+     */
+    private static class Ring<P> {
+        private final int capacity;
+        private Object[] posts;
+        private long[] seqs;
+        private int first;
+        private int n;
+
+        Ring(int capacity) {
+            this.capacity = capacity;
+            this.posts = NO_POSTS;
+            this.seqs = NO_SEQS;
+            this.first = 0;
+            this.n = 0;
+        }
+
+        int size() {
+            return n;
+        }
+
+        P post(int i) {
+            return (P) posts[(first + i) % posts.length];
+        }
+
+        long seq(int i) {
+            return seqs[(first + i) % seqs.length];
+        }
+
+        /**
+         * adds the post at the place of its number, which is the end unless it has been
+         * published at the same time as a newer one
+         */
+        void add(P post, long s) {
+            int k = (n > 0 && seq(n - 1) > s ? countBefore(s) : n);
+            if (n == posts.length) {
+                if (n < capacity) {
+                    resize(Math.min(capacity, Math.max(INITIAL_CAPACITY, n * 2)));
+                }
+                else if (k == 0) {
+                    // older than all the posts kept
+                    return;
+                }
+                else {
+                    first = (first + 1) % posts.length;
+                    n--;
+                    k--;
+                }
+            }
+            for (int i = n; i > k; i--) {
+                set(i, post(i - 1), seq(i - 1));
+            }
+            set(k, post, s);
+            n++;
+        }
+
+        /**
+         * a copy of the newest posts with a number lower than max, at most limit
+         */
+        Ring<P> newest(long max, int limit) {
+            int end = countBefore(max);
+            int m = Math.min(end, limit);
+            Ring<P> copy = new Ring<>(m);
+            copy.resize(m);
+            for (int i = end - m; i < end; i++) {
+                copy.set(copy.n++, post(i), seq(i));
+            }
+            return copy;
+        }
+
+        private void set(int i, P post, long s) {
+            int pos = (first + i) % posts.length;
+            posts[pos] = post;
+            seqs[pos] = s;
+        }
+
+        /**
+         * number of posts with a number lower than max
+         */
+        int countBefore(long max) {
+            int lo = 0;
+            int hi = n;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (seq(mid) < max) {
+                    lo = mid + 1;
+                }
+                else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        /**
+         * merges the posts of other with a number lower than max, keeping the newest ones
+         */
+        void merge(Ring<P> other, long max) {
+            int m = other.countBefore(max);
+            if (m == 0) {
+                return;
+            }
+
+            int keep = Math.min(n + m, capacity);
+            Object[] newPosts = new Object[Math.max(keep, posts.length)];
+            long[] newSeqs = new long[newPosts.length];
+
+            int i = n - 1;
+            int j = m - 1;
+            for (int k = keep - 1; k >= 0; k--) {
+                if (j < 0 || (i >= 0 && seq(i) > other.seq(j))) {
+                    newPosts[k] = post(i);
+                    newSeqs[k] = seq(i--);
+                }
+                else {
+                    newPosts[k] = other.post(j);
+                    newSeqs[k] = other.seq(j--);
+                }
+            }
+
+            posts = newPosts;
+            seqs = newSeqs;
+            first = 0;
+            n = keep;
+        }
+
+        void save(SnapshotWriter out, ToIntFunction<P> postIndex) throws IOException {
+            out.writeInt(n);
+            for (int i = 0; i < n; i++) {
+                out.writeInt(postIndex.applyAsInt(post(i)));
+                out.writeLong(seq(i));
+            }
+        }
+
+        void load(SnapshotReader in, IntFunction<P> post) throws IOException {
+            int m = in.readInt();
+            if (m > posts.length) {
+                resize(Math.min(capacity, m));
+            }
+            for (int i = 0; i < m; i++) {
+                P p = post.apply(in.readInt());
+                add(p, in.readLong());
+            }
+        }
+
+        private void resize(int len) {
+            Object[] newPosts = new Object[len];
+            long[] newSeqs = new long[len];
+            for (int i = 0; i < n; i++) {
+                newPosts[i] = post(i);
+                newSeqs[i] = seq(i);
+            }
+            posts = newPosts;
+            seqs = newSeqs;
+            first = 0;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package uoc.ds.pr.util;
+
+import edu.uoc.ds.traversal.Iterator;
+import uoc.ds.pr.model.Role;
+import uoc.ds.pr.model.SportEvent;
+import uoc.ds.pr.model.Worker;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+
+/**
+ * Directory of the workers of the club. Workers are interned by DNI, each role and each
+ * sport event keep a hashed index of their workers, and there is a reverse index with
+ * the sport events assigned to each worker, indexed by the handle of the worker. All
+ * the operations are O(1), except updating a worker that is already assigned, that is
+ * O(number of events of the worker).
+ */
+public class WorkerDirectory {
+
+    private final Function<String, Role> roles;
+    private final IdTable<Worker> workers;
+    // sport events of each worker, by handle (null while it has none)
+    private final List<Set<SportEvent>> assignments;
+
+
+    public WorkerDirectory(Function<String, Role> roles) {
+        this.roles = roles;
+        this.workers = new IdTable<>();
+        this.assignments = new ArrayList<>();
+    }
+
+    public Worker getWorker(String dni) {
+        return workers.get(dni);
+    }
+
+    public int numWorkers() {
+        return workers.size();
+    }
+
+    /**
+     * Adds a worker or replaces the one with the same DNI, moving it between
+     * roles if its role has changed.
+     * @return the replaced worker or null if it is new
+     * @throws IllegalArgumentException if the role of the worker does not exist. Nothing changes
+     */
+    public Worker put(Worker worker) {
+        // the role is resolved before any index is touched
+        Role role = roles.apply(worker.getRoleId());
+        if (role == null) {
+            throw new IllegalArgumentException("unknown role: " + worker.getRoleId());
+        }
+
+        String dni = worker.getDni();
+        Worker old = workers.get(dni);
+        int handle = workers.put(dni, worker);
+        if (handle == assignments.size()) {
+            assignments.add(null);
+        }
+
+        if (old != null && !old.getRoleId().equals(worker.getRoleId())) {
+            Role oldRole = roles.apply(old.getRoleId());
+            if (oldRole != null) {
+                oldRole.removeWorker(dni);
+            }
+        }
+        role.addWorker(worker);
+
+        Set<SportEvent> events = assignments.get(handle);
+        if (events != null) {
+            for (SportEvent sportEvent : events) {
+                sportEvent.addWorker(worker);
+            }
+        }
+        return old;
+    }
+
+    /**
+     * Assigns an existing worker to a sport event.
+     * @return false if the worker was already assigned to the event
+     */
+    public boolean assign(Worker worker, SportEvent sportEvent) {
+        if (sportEvent.getWorkerByDni(worker.getDni()) != null) {
+            return false;
+        }
+        sportEvent.addWorker(worker);
+        int handle = workers.handle(worker.getDni());
+        if (assignments.get(handle) == null) {
+            assignments.set(handle, new LinkedHashSet<>());
+        }
+        assignments.get(handle).add(sportEvent);
+        return true;
+    }
+
+    public Iterator<SportEvent> sportEventsByWorker(String dni) {
+        Set<SportEvent> events = assignmentsOf(dni);
+        return new IteratorAdapter<SportEvent>(events != null ? events : Set.<SportEvent>of());
+    }
+
+    public int numSportEventsByWorker(String dni) {
+        Set<SportEvent> events = assignmentsOf(dni);
+        return (events != null ? events.size() : 0);
+    }
+
+    private Set<SportEvent> assignmentsOf(String dni) {
+        int handle = workers.handle(dni);
+        return (handle >= 0 ? assignments.get(handle) : null);
+    }
+}
@@ -0,0 +1,374 @@
+package uoc.ds.pr;
+
+import edu.uoc.ds.traversal.Iterator;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import uoc.ds.pr.exceptions.DSException;
+import uoc.ds.pr.exceptions.LimitExceededException;
+import uoc.ds.pr.exceptions.NoPostsException;
+import uoc.ds.pr.model.OrganizingEntity;
+import uoc.ds.pr.model.Post;
+import uoc.ds.pr.model.SportEvent;
+import uoc.ds.pr.util.Page;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static uoc.ds.pr.util.DateUtils.createLocalDate;
+
+/**
+ * Runs all the PR1 and PR2 tests against ConcurrentSportEvents4Club and, besides,
+ * checks that the club stays consistent when several threads update it at once.
+ */
+public class ConcurrentSportEvents4ClubTest extends SportEvents4ClubPR2Test {
+    private static final int THREADS = 8;
+    private static final int PLAYERS_PER_THREAD = 12;
+    private static final int WORKERS_PER_THREAD = 2;
+    private static final int ATTENDERS_PER_THREAD = 5;
+    private static final int EVENTS = 20;
+    private static final int FOLLOWINGS = 3;
+    private static final int ROUNDS = 5;
+    private static final int SEATS = 30;
+
+    private static final int PLAYERS = THREADS * PLAYERS_PER_THREAD;
+    private static final int WORKERS = THREADS * WORKERS_PER_THREAD;
+
+    private static final SportEvents4Club.Rating[] RATINGS = SportEvents4Club.Rating.values();
+
+
+    @Before
+    public void setUp() throws Exception {
+        this.sportEvents4Club = FactorySportEvents4Club.getSportEvents4ClubPR2(new ConcurrentSportEvents4Club());
+    }
+
+    private SportEvents4Club newClub() throws DSException {
+        SportEvents4Club club = new ConcurrentSportEvents4Club();
+        club.addOrganizingEntity("ORG-A", "ORG A", "description");
+        club.addOrganizingEntity("ORG-B", "ORG B", "description");
+        club.addRole("R1", "referee");
+
+        for (int i = 0; i < EVENTS; i++) {
+            club.addFile("F-" + i, "EV-" + i, (i % 2 == 0 ? "ORG-A" : "ORG-B"), "description",
+                    SportEvents4Club.Type.MEDIUM, SportEvents4Club.FLAG_ALL_OPTS, SportEvents4Club.MAX_NUM_ENROLLMENT,
+                    createLocalDate("22-11-2022"), createLocalDate("23-11-2022"));
+            club.updateFile(SportEvents4Club.Status.ENABLED, createLocalDate("01-11-2022"), "OK");
+        }
+        for (int i = 0; i < PLAYERS; i++) {
+            club.addPlayer("P-" + i, "name", "surname", createLocalDate("01-01-2000"));
+        }
+        for (int i = 0; i < WORKERS; i++) {
+            club.addWorker("W-" + i, "name", "surname", createLocalDate("01-01-1990"), "R1");
+        }
+        return club;
+    }
+
+    private static void runConcurrently(Callable<Void> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            for (Future<Void> f : futures) {
+                f.get();
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void concurrentUpdatesTest() throws Exception {
+        SportEvents4Club club = newClub();
+        int[] next = {0};
+
+        runConcurrently(() -> {
+            int t;
+            synchronized (next) {
+                t = next[0]++;
+            }
+
+            for (int e = 0; e < EVENTS; e++) {
+                String eventId = "EV-" + e;
+                for (int i = 0; i < PLAYERS_PER_THREAD; i++) {
+                    String playerId = "P-" + (t * PLAYERS_PER_THREAD + i);
+                    club.signUpEvent(playerId, eventId);
+                    club.addRating(playerId, eventId, RATINGS[(i + e) % RATINGS.length], "message");
+                }
+                for (int i = 0; i < ATTENDERS_PER_THREAD; i++) {
+                    club.addAttender("+34-" + t + "-" + i, "attender", eventId);
+                }
+                for (int i = 0; i < WORKERS_PER_THREAD; i++) {
+                    club.assignWorker("W-" + (t * WORKERS_PER_THREAD + i), eventId);
+                }
+            }
+            for (int i = 0; i < PLAYERS_PER_THREAD; i++) {
+                int p = t * PLAYERS_PER_THREAD + i;
+                for (int k = 1; k <= FOLLOWINGS; k++) {
+                    club.addFollower("P-" + ((p + k) % PLAYERS), "P-" + p);
+                }
+            }
+            return null;
+        });
+
+        for (int e = 0; e < EVENTS; e++) {
+            String eventId = "EV-" + e;
+            Assert.assertEquals(PLAYERS, club.numPlayersBySportEvent(eventId));
+            Assert.assertEquals(THREADS * ATTENDERS_PER_THREAD, club.numAttenders(eventId));
+            Assert.assertEquals(WORKERS, club.numWorkersBySportEvent(eventId));
+        }
+        for (int p = 0; p < PLAYERS; p++) {
+            String playerId = "P-" + p;
+            Assert.assertEquals(EVENTS, club.numSportEventsByPlayer(playerId));
+            Assert.assertEquals(EVENTS, club.numRatings(playerId));
+            Assert.assertEquals(FOLLOWINGS, club.numFollowers(playerId));
+            Assert.assertEquals(FOLLOWINGS, club.numFollowings(playerId));
+
+            // every followed player posted a signup and a rating for each event
+            Page<Post> page = club.getPosts(playerId, null, SportEvents4Club.MAX_TIMELINE_POSTS);
+            Assert.assertEquals(FOLLOWINGS * EVENTS * 2, page.size());
+        }
+
+        Assert.assertEquals(EVENTS, club.numSportEventsByPlayer(club.mostActivePlayer().getId()));
+        Assert.assertEquals(THREADS * ATTENDERS_PER_THREAD, club.getAttendersPercentile(0));
+
+        Iterator<OrganizingEntity> orgs = club.bestOrganizingEntities(2);
+        Assert.assertEquals(EVENTS / 2 * THREADS * ATTENDERS_PER_THREAD, orgs.next().numAttenders());
+        Assert.assertEquals(EVENTS / 2 * THREADS * ATTENDERS_PER_THREAD, orgs.next().numAttenders());
+
+        // the ranking by rating is still ordered
+        Iterator<SportEvent> it = club.bestSportEvents(EVENTS);
+        SportEvent previous = it.next();
+        int n = 1;
+        while (it.hasNext()) {
+            SportEvent sportEvent = it.next();
+            Assert.assertTrue(previous.rating() >= sportEvent.rating());
+            previous = sportEvent;
+            n++;
+        }
+        Assert.assertEquals(EVENTS, n);
+    }
+
+    @Test
+    public void noOversellTest() throws Exception {
+        SportEvents4Club club = newClub();
+        club.addFile("F-S", "EV-S", "ORG-A", "description", SportEvents4Club.Type.SMALL,
+                SportEvents4Club.FLAG_ALL_OPTS, SEATS, createLocalDate("21-11-2022"), createLocalDate("23-11-2022"));
+        club.addFile("F-T", "EV-T", "ORG-B", "description", SportEvents4Club.Type.SMALL,
+                SportEvents4Club.FLAG_ALL_OPTS, SEATS, createLocalDate("21-11-2022"), createLocalDate("23-11-2022"));
+        club.updateFile(SportEvents4Club.Status.ENABLED, createLocalDate("01-11-2022"), "OK");
+        club.updateFile(SportEvents4Club.Status.ENABLED, createLocalDate("01-11-2022"), "OK");
+
+        AtomicInteger enrolled = new AtomicInteger();
+        AtomicInteger attenders = new AtomicInteger();
+        int[] next = {0};
+
+        // all the threads compete for the enrollment of EV-S and the seats of EV-T
+        runConcurrently(() -> {
+            int t;
+            synchronized (next) {
+                t = next[0]++;
+            }
+
+            for (int i = 0; i < PLAYERS_PER_THREAD; i++) {
+                try {
+                    club.signUpEvent("P-" + (t * PLAYERS_PER_THREAD + i), "EV-S");
+                    enrolled.incrementAndGet();
+                }
+                catch (LimitExceededException e) {
+                    // substitute
+                }
+                try {
+                    club.addAttender("+34-" + t + "-" + i, "attender", "EV-T");
+                    attenders.incrementAndGet();
+                }
+                catch (LimitExceededException e) {
+                    // no seats left
+                }
+            }
+            return null;
+        });
+
+        Assert.assertEquals(SEATS, enrolled.get());
+        Assert.assertEquals(PLAYERS - SEATS, club.numSubstitutesBySportEvent("EV-S"));
+        Assert.assertEquals(SEATS, attenders.get());
+        Assert.assertEquals(SEATS, club.numAttenders("EV-T"));
+    }
+
+    @Test
+    public void concurrentCancelTest() throws Exception {
+        SportEvents4Club club = newClub();
+        club.addFile("F-S", "EV-S", "ORG-A", "description", SportEvents4Club.Type.SMALL,
+                SportEvents4Club.FLAG_ALL_OPTS, SEATS, createLocalDate("21-11-2022"), createLocalDate("23-11-2022"));
+        club.updateFile(SportEvents4Club.Status.ENABLED, createLocalDate("01-11-2022"), "OK");
+        int[] next = {0};
+
+        // half of the players leave while the others are still signing up, so the seats
+        // they free are taken by the substitutes
+        runConcurrently(() -> {
+            int t;
+            synchronized (next) {
+                t = next[0]++;
+            }
+
+            for (int i = 0; i < PLAYERS_PER_THREAD; i++) {
+                String playerId = "P-" + (t * PLAYERS_PER_THREAD + i);
+                try {
+                    club.signUpEvent(playerId, "EV-S");
+                }
+                catch (LimitExceededException e) {
+                    // substitute
+                }
+                if (i % 2 == 0) {
+                    club.cancelEnrollment(playerId, "EV-S");
+                }
+            }
+            return null;
+        });
+
+        SportEvent sportEvent = club.getSportEvent("EV-S");
+        Assert.assertEquals(PLAYERS / 2, club.numPlayersBySportEvent("EV-S"));
+        Assert.assertEquals(SEATS, sportEvent.getEnrollments().size());
+        Assert.assertEquals(PLAYERS / 2 - SEATS, club.numSubstitutesBySportEvent("EV-S"));
+        for (int p = 0; p < PLAYERS; p++) {
+            Assert.assertEquals(p % PLAYERS_PER_THREAD % 2 != 0, club.getPlayer("P-" + p).isInSportEvent("EV-S"));
+        }
+    }
+
+    @Test
+    public void concurrentReadsAndWritesTest() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            SportEvents4Club club = newClub();
+            int[] next = {0};
+
+            runConcurrently(() -> {
+                int t;
+                synchronized (next) {
+                    t = next[0]++;
+                }
+
+                // half of the threads write while the other half traverse the results
+                for (int e = 0; e < EVENTS; e++) {
+                    String eventId = "EV-" + e;
+                    if (t % 2 == 0) {
+                        for (int i = 0; i < PLAYERS_PER_THREAD; i++) {
+                            club.signUpEvent("P-" + (t * PLAYERS_PER_THREAD + i), eventId);
+                            club.addAttender("+34-" + t + "-" + i, "attender", eventId);
+                        }
+                    }
+                    else {
+                        club.getAllEvents().next();
+                        club.numPlayersBySportEvent(eventId);
+                        try {
+                            Iterator<SportEvent> it = club.bestSportEventsByAttenders(EVENTS);
+                            while (it.hasNext()) {
+                                it.next();
+                            }
+                        }
+                        catch (DSException ex) {
+                            // no attenders yet
+                        }
+                    }
+                }
+                return null;
+            });
+
+            for (int e = 0; e < EVENTS; e++) {
+                Assert.assertEquals(THREADS / 2 * PLAYERS_PER_THREAD, club.numPlayersBySportEvent("EV-" + e));
+                Assert.assertEquals(THREADS / 2 * PLAYERS_PER_THREAD, club.numAttenders("EV-" + e));
+            }
+        }
+    }
+
+    @Test
+    public void concurrentSocialTest() throws Exception {
+        SportEvents4Club club = newClub();
+        int[] next = {0};
+
+        // the players follow each other while they post, and the timelines and the rankings
+        // are read meanwhile
+        runConcurrently(() -> {
+            int t;
+            synchronized (next) {
+                t = next[0]++;
+            }
+
+            for (int e = 0; e < EVENTS; e++) {
+                String eventId = "EV-" + e;
+                for (int i = 0; i < PLAYERS_PER_THREAD; i++) {
+                    int p = t * PLAYERS_PER_THREAD + i;
+                    String playerId = "P-" + p;
+                    club.signUpEvent(playerId, eventId);
+                    club.addRating(playerId, eventId, RATINGS[(p + e) % RATINGS.length], "message");
+                    if (e < FOLLOWINGS) {
+                        club.addFollower("P-" + ((p + 1 + e * 7) % PLAYERS), playerId);
+                    }
+                    else {
+                        try {
+                            club.getPosts(playerId, null, 10);
+                            club.getPosts(playerId).next();
+                        }
+                        catch (NoPostsException ex) {
+                            // the followed players have not posted yet
+                        }
+                    }
+                }
+                club.mostActivePlayer();
+                club.bestSportEvents(3);
+                club.getSportEventRank(eventId);
+            }
+            return null;
+        });
+
+        for (int p = 0; p < PLAYERS; p++) {
+            String playerId = "P-" + p;
+            Assert.assertEquals(FOLLOWINGS, club.numFollowings(playerId));
+
+            // the timeline has every post of the followed players, once
+            int expected = 0;
+            for (Iterator<Post> it = club.getPosts(playerId); it.hasNext(); it.next()) {
+                expected++;
+            }
+            Assert.assertEquals(FOLLOWINGS * EVENTS * 2, expected);
+            Set<Post> posts = new HashSet<>();
+            Page<Post> page = club.getPosts(playerId, null, 7);
+            while (true) {
+                for (Iterator<Post> it = page.values(); it.hasNext(); ) {
+                    Assert.assertTrue(posts.add(it.next()));
+                }
+                if (!page.hasNextPage()) {
+                    break;
+                }
+                page = club.getPosts(playerId, page.nextCursor(), 7);
+            }
+            Assert.assertEquals(expected, posts.size());
+        }
+
+        // the positions in the rankings, split by stripes, agree with their order
+        Assert.assertEquals(EVENTS, club.numSportEventsByPlayer(club.mostActivePlayer().getId()));
+        Iterator<SportEvent> it = club.bestSportEvents(EVENTS);
+        SportEvent previous = null;
+        for (int rank = 1; rank <= EVENTS; rank++) {
+            SportEvent sportEvent = it.next();
+            Assert.assertEquals(rank, club.getSportEventRank(sportEvent.getEventId()));
+            Assert.assertTrue(previous == null || previous.rating() >= sportEvent.rating());
+            previous = sportEvent;
+        }
+        Assert.assertEquals(club.bestSportEvents(1).next(), club.bestSportEvent());
+    }
+}
@@ -15,8 +15,10 @@ public class FactorySportEvents4Club {
 
 
     public static SportEvents4Club getSportEvents4Club() throws Exception {
-        SportEvents4Club sportEvents4Club;
-        sportEvents4Club = new SportEvents4ClubImpl();
+        return getSportEvents4Club(new SportEvents4ClubImpl());
+    }
+
+    public static SportEvents4Club getSportEvents4Club(SportEvents4Club sportEvents4Club) throws Exception {
 
         Assert.assertThrows(PlayerNotFoundException.class, () ->
                 sportEvents4Club.mostActivePlayer());
@@ -157,7 +159,11 @@ public class FactorySportEvents4Club {
     }
 
     public static SportEvents4Club getSportEvents4ClubPR2() throws Exception {
-        SportEvents4Club sportEvents4Club = FactorySportEvents4Club.getSportEvents4Club();
+        return getSportEvents4ClubPR2(new SportEvents4ClubImpl());
+    }
+
+    public static SportEvents4Club getSportEvents4ClubPR2(SportEvents4Club sportEvents4Club) throws Exception {
+        FactorySportEvents4Club.getSportEvents4Club(sportEvents4Club);
 
         ////
         /// Roles
@@ -0,0 +1,173 @@
+package uoc.ds.pr;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import uoc.ds.pr.exceptions.LimitExceededException;
+import uoc.ds.pr.model.File;
+import uoc.ds.pr.util.OperationLog;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static uoc.ds.pr.util.DateUtils.createLocalDate;
+
+/**
+ * Runs all the tests against LoggedSportEvents4Club and checks that the club is
+ * rebuilt from its log.
+ */
+public class LoggedSportEvents4ClubTest extends SportEvents4ClubPR2TestPlus {
+    private Path path;
+    private LoggedSportEvents4Club club;
+
+
+    @Before
+    public void setUp() throws Exception {
+        path = Files.createTempFile("club", ".log");
+        Files.delete(path);
+        club = LoggedSportEvents4Club.open(path);
+        this.sportEvents4Club = FactorySportEvents4Club.getSportEvents4ClubPR2(club);
+        addFollowers();
+    }
+
+    @After
+    public void tearDown() {
+        try {
+            club.close();
+            Files.deleteIfExists(path);
+        }
+        catch (Exception e) {
+            // nothing to clean
+        }
+        this.sportEvents4Club = null;
+    }
+
+    private void update(SportEvents4Club club) throws Exception {
+        club.addRating("idPlayer1", "EV-1101", SportEvents4Club.Rating.FIVE, "Very good");
+        club.addRating("idPlayer3", "EV-1101", SportEvents4Club.Rating.FOUR, "Good");
+        club.assignWorker("DNIW1", "EV-1101");
+        club.addAttender("+34 600 000 000", "attender", "EV-1104");
+        club.addFollower("idPlayer12", "idPlayer1");
+
+        // a signup that fails still adds a substitute
+        club.addFile("F-S", "EV-S", "ORG-1", "description", SportEvents4Club.Type.SMALL,
+                SportEvents4Club.FLAG_ALL_OPTS, 1, createLocalDate("20-11-2022"), createLocalDate("21-11-2022"));
+        club.updateFiles(1, createLocalDate("01-11-2022"), "reviewed",
+                file -> (file.getFileId().equals("F-S") ? SportEvents4Club.Status.ENABLED : SportEvents4Club.Status.DISABLED));
+        club.signUpEvent("idPlayer1", "EV-S");
+        Assert.assertThrows(LimitExceededException.class, () -> club.signUpEvent("idPlayer2", "EV-S"));
+    }
+
+    @Test
+    public void recoveryTest() throws Exception {
+        update(club);
+        Assert.assertEquals(1, club.numSubstitutesBySportEvent("EV-S"));
+        String expected = describe(club);
+        club.close();
+
+        club = LoggedSportEvents4Club.open(path);
+        Assert.assertEquals(expected, describe(club));
+
+        // the log goes on after the replayed operations
+        club.addPlayer("idPlayerX", "name", "surname", createLocalDate("01-01-2000"));
+        club.close();
+        club = LoggedSportEvents4Club.open(path);
+        Assert.assertNotNull(club.getPlayer("idPlayerX"));
+        Assert.assertEquals(1, club.numSubstitutesBySportEvent("EV-S"));
+    }
+
+    @Test
+    public void reviewerFailureTest() throws Exception {
+        update(club);
+        club.addFile("F-T", "EV-T", "ORG-1", "description", SportEvents4Club.Type.SMALL,
+                SportEvents4Club.FLAG_ALL_OPTS, 10, createLocalDate("20-11-2022"), createLocalDate("21-11-2022"));
+        int pending = club.numPendingFiles();
+
+        // the reviewer fails with the second file of the batch
+        int[] calls = {0};
+        Assert.assertThrows(IllegalStateException.class, () ->
+                club.updateFiles(3, createLocalDate("02-11-2022"), "reviewed", f -> {
+                    if (calls[0]++ == 1) {
+                        throw new IllegalStateException();
+                    }
+                    return SportEvents4Club.Status.ENABLED;
+                }));
+        Assert.assertThrows(NullPointerException.class, () ->
+                club.updateFiles(1, createLocalDate("02-11-2022"), "reviewed", f -> null));
+        Assert.assertEquals(pending - 1, club.numPendingFiles());
+        String expected = describe(club);
+        club.close();
+
+        club = LoggedSportEvents4Club.open(path);
+        Assert.assertEquals(expected, describe(club));
+        Assert.assertEquals(pending - 1, club.numPendingFiles());
+    }
+
+    @Test
+    public void zeroTailTest() throws Exception {
+        club.addPlayer("idPlayerX", "name", "surname", createLocalDate("01-01-2000"));
+        club.close();
+
+        // a file system can leave a tail of zeros after a crash: it is dropped
+        Files.write(path, new byte[4096], StandardOpenOption.APPEND);
+        club = LoggedSportEvents4Club.open(path);
+        Assert.assertNotNull(club.getPlayer("idPlayerX"));
+
+        club.addPlayer("idPlayerY", "name", "surname", createLocalDate("01-01-2000"));
+        club.close();
+        club = LoggedSportEvents4Club.open(path);
+        Assert.assertNotNull(club.getPlayer("idPlayerX"));
+        Assert.assertNotNull(club.getPlayer("idPlayerY"));
+    }
+
+    @Test
+    public void runtimeFailureTest() throws Exception {
+        // a worker with an unknown role is not logged, so the log is still replayed
+        Assert.assertThrows(IllegalArgumentException.class, () ->
+                club.addWorker("DNIX", "name", "surname", createLocalDate("01-01-2000"), "R-XXXX"));
+        club.addPlayer("idPlayerX", "name", "surname", createLocalDate("01-01-2000"));
+        club.close();
+        club = LoggedSportEvents4Club.open(path);
+        Assert.assertNull(club.getWorker("DNIX"));
+        Assert.assertNotNull(club.getPlayer("idPlayerX"));
+        club.close();
+
+        // a record that cannot be applied means that the log does not match the club: open fails
+        try (OperationLog log = new OperationLog(path, 1, 0)) {
+            log.append(new OperationLog.Record().putByte(1));
+        }
+        Assert.assertThrows(RuntimeException.class, () -> LoggedSportEvents4Club.open(path));
+        Files.delete(path);
+        club = LoggedSportEvents4Club.open(path);
+    }
+
+    @Test
+    public void crashTest() throws Exception {
+        update(club);
+        club.sync();
+        String expected = describe(club);
+
+        // a copy of the log taken without closing it is what is left after a crash,
+        // with a record that was being written at the end
+        Path crashed = Files.createTempFile("crashed", ".log");
+        try {
+            Files.copy(path, crashed, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+            Files.write(crashed, new byte[] {0, 0, 0, 40, 1, 2, 3, 4, 5}, StandardOpenOption.APPEND);
+
+            try (LoggedSportEvents4Club recovered = LoggedSportEvents4Club.open(crashed, 1, 0)) {
+                Assert.assertEquals(expected, describe(recovered));
+                File file = recovered.currentFile();
+                recovered.updateFile(SportEvents4Club.Status.ENABLED, createLocalDate("01-11-2022"), "OK");
+                Assert.assertNotNull(recovered.getSportEvent(file.getEventId()));
+            }
+            try (LoggedSportEvents4Club recovered = LoggedSportEvents4Club.open(crashed, 1, 0)) {
+                Assert.assertEquals(club.numPendingFiles() - 1, recovered.numPendingFiles());
+            }
+        }
+        finally {
+            Files.deleteIfExists(crashed);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package uoc.ds.pr;
+
+import org.junit.After;
+import org.junit.Before;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Runs all the tests with the posts of the players in memory-mapped segments
+ */
+public class MappedPostsSportEvents4ClubTest extends SportEvents4ClubPR2TestPlus {
+    private Path dir;
+    private SportEvents4ClubImpl club;
+
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("posts");
+        club = new SportEvents4ClubImpl(dir);
+        this.sportEvents4Club = FactorySportEvents4Club.getSportEvents4ClubPR2(club);
+        addFollowers();
+    }
+
+    @After
+    public void tearDown() {
+        try {
+            club.close();
+            Files.deleteIfExists(dir);
+        }
+        catch (Exception e) {
+            // nothing to clean
+        }
+        this.sportEvents4Club = null;
+    }
+}
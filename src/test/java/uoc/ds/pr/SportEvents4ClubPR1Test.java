@@ -10,9 +10,13 @@ import uoc.ds.pr.exceptions.*;
 import uoc.ds.pr.model.Player;
 import uoc.ds.pr.model.Rating;
 import uoc.ds.pr.model.File;
+import uoc.ds.pr.model.FileSpec;
 import uoc.ds.pr.model.SportEvent;
 import uoc.ds.pr.util.ResourceUtil;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static uoc.ds.pr.util.DateUtils.createLocalDate;
 
 public class SportEvents4ClubPR1Test {
@@ -141,6 +145,43 @@ public class SportEvents4ClubPR1Test {
 
     }
 
+    @Test
+    public void addFilesTest() throws DSException {
+        // GIVEN:
+        initialState();
+        //
+
+        List<FileSpec> specs = new ArrayList<>();
+        specs.add(new FileSpec("XXX-001", "EV-010", "ORG-1", "description EV-010", SportEvents4Club.Type.MEDIUM,
+                SportEvents4Club.FLAG_VOLUNTEERS, 50, createLocalDate("22-11-2022"), createLocalDate("28-11-2022")));
+        specs.add(new FileSpec("XXX-002", "EV-011", "ORG-3", "description EV-011", SportEvents4Club.Type.LARGE,
+                SportEvents4Club.FLAG_VOLUNTEERS, 100, createLocalDate("25-11-2022"), createLocalDate("25-12-2022")));
+        specs.add(new FileSpec("XXX-003", "EV-012", "ORG-1", "description EV-012", SportEvents4Club.Type.MICRO,
+                SportEvents4Club.FLAG_VOLUNTEERS, 10, createLocalDate("20-11-2022"), createLocalDate("21-11-2022")));
+
+        this.sportEvents4Club.addFiles(specs);
+
+        Assert.assertEquals(4, this.sportEvents4Club.numPendingFiles());
+        Assert.assertEquals(10, this.sportEvents4Club.numFiles());
+        Assert.assertEquals("XXX-003", this.sportEvents4Club.currentFile().getFileId());
+        Assert.assertEquals("ORG-1", this.sportEvents4Club.currentFile().getOrganizingEntity().getOrganizationId());
+
+        Iterator<File> it = this.sportEvents4Club.updateFiles(4, SportEvents4Club.Status.ENABLED,
+                createLocalDate("19-11-2022"), "OK");
+        Assert.assertEquals("XXX-003", it.next().getFileId());
+        Assert.assertEquals("XXX-001", it.next().getFileId());
+        Assert.assertEquals("XXX-002", it.next().getFileId());
+        Assert.assertEquals("F-007", it.next().getFileId());
+
+        // nothing is added if an organizing entity does not exist
+        specs.add(new FileSpec("XXX-004", "EV-013", "ORG-999", "description EV-013", SportEvents4Club.Type.MICRO,
+                SportEvents4Club.FLAG_VOLUNTEERS, 10, createLocalDate("20-11-2022"), createLocalDate("21-11-2022")));
+        Assert.assertThrows(OrganizingEntityNotFoundException.class, () ->
+                this.sportEvents4Club.addFiles(specs));
+        Assert.assertEquals(0, this.sportEvents4Club.numPendingFiles());
+        Assert.assertEquals(10, this.sportEvents4Club.numFiles());
+    }
+
     @Test
     public void updateFileTest() throws DSException {
 
@@ -169,6 +210,128 @@ public class SportEvents4ClubPR1Test {
         Assert.assertEquals(0.25, this.sportEvents4Club.getRejectedFiles(),0.03);
     }
 
+    @Test
+    public void updateFilesTest() throws DSException {
+        // GIVEN:
+        initialState();
+        //
+
+        this.addFileTest();
+
+        Iterator<File> it = this.sportEvents4Club.updateFiles(2, SportEvents4Club.Status.ENABLED,
+                createLocalDate("25-11-2022"), "OK");
+        File file = it.next();
+        Assert.assertEquals("XXX-001", file.getFileId());
+        Assert.assertEquals(SportEvents4Club.Status.ENABLED, file.getStatus());
+        Assert.assertEquals("OK", file.getDescriptionStatus());
+        Assert.assertEquals("XXX-002", it.next().getFileId());
+        Assert.assertFalse(it.hasNext());
+
+        Assert.assertEquals(1, this.sportEvents4Club.numPendingFiles());
+        Assert.assertEquals(7, this.sportEvents4Club.numSportEvents());
+        Assert.assertNotNull(this.sportEvents4Club.getSportEvent("EV-010"));
+        Assert.assertNotNull(this.sportEvents4Club.getSportEvent("EV-011"));
+
+        // fewer files than requested
+        it = this.sportEvents4Club.updateFiles(5, createLocalDate("26-11-2022"), "review",
+                f -> (f.getType() == SportEvents4Club.Type.LARGE ? SportEvents4Club.Status.ENABLED : SportEvents4Club.Status.DISABLED));
+        file = it.next();
+        Assert.assertEquals("F-007", file.getFileId());
+        Assert.assertEquals(SportEvents4Club.Status.DISABLED, file.getStatus());
+        Assert.assertFalse(it.hasNext());
+
+        Assert.assertEquals(0, this.sportEvents4Club.numPendingFiles());
+        Assert.assertEquals(2, this.sportEvents4Club.numRejectedFiles());
+        Assert.assertNull(this.sportEvents4Club.getSportEvent("EV-1107"));
+
+        Assert.assertThrows(NoFilesException.class, () ->
+                this.sportEvents4Club.updateFiles(1, SportEvents4Club.Status.ENABLED, createLocalDate("27-11-2022"), "OK"));
+    }
+
+    @Test
+    public void updateFilesReviewerFailureTest() throws DSException {
+        // GIVEN:
+        initialState();
+        //
+
+        this.addFileTest();
+
+        // the reviewer fails with the second file of the batch
+        int[] calls = {0};
+        Assert.assertThrows(IllegalStateException.class, () ->
+                this.sportEvents4Club.updateFiles(3, createLocalDate("25-11-2022"), "OK", f -> {
+                    if (calls[0]++ == 1) {
+                        throw new IllegalStateException();
+                    }
+                    return SportEvents4Club.Status.ENABLED;
+                }));
+
+        Assert.assertEquals(2, this.sportEvents4Club.numPendingFiles());
+        Assert.assertEquals(9, this.sportEvents4Club.numFiles());
+        Assert.assertNotNull(this.sportEvents4Club.getSportEvent("EV-010"));
+        Assert.assertEquals("XXX-002", this.sportEvents4Club.currentFile().getFileId());
+        Assert.assertEquals(SportEvents4Club.Status.PENDING, this.sportEvents4Club.currentFile().getStatus());
+
+        // a reviewer without a decision leaves the file in the queue too
+        Assert.assertThrows(NullPointerException.class, () ->
+                this.sportEvents4Club.updateFiles(1, createLocalDate("25-11-2022"), "OK", f -> null));
+        Assert.assertEquals(2, this.sportEvents4Club.numPendingFiles());
+        Assert.assertEquals("XXX-002", this.sportEvents4Club.currentFile().getFileId());
+
+        Iterator<File> it = this.sportEvents4Club.updateFiles(2, SportEvents4Club.Status.ENABLED,
+                createLocalDate("26-11-2022"), "OK");
+        Assert.assertEquals("XXX-002", it.next().getFileId());
+        Assert.assertEquals("F-007", it.next().getFileId());
+        Assert.assertEquals(0, this.sportEvents4Club.numPendingFiles());
+        Assert.assertNull(this.sportEvents4Club.currentFile());
+    }
+
+    @Test
+    public void numFilesByStatusTest() throws DSException {
+        // GIVEN:
+        initialState();
+        //
+
+        Assert.assertEquals(5, this.sportEvents4Club.numFiles(SportEvents4Club.Status.ENABLED));
+        Assert.assertEquals(1, this.sportEvents4Club.numFiles(SportEvents4Club.Status.DISABLED));
+        Assert.assertEquals(1, this.sportEvents4Club.numFiles(SportEvents4Club.Status.PENDING));
+        Assert.assertEquals(3, this.sportEvents4Club.numFiles(SportEvents4Club.Type.SMALL));
+        Assert.assertEquals(2, this.sportEvents4Club.numFiles(SportEvents4Club.Status.ENABLED, SportEvents4Club.Type.SMALL));
+        Assert.assertEquals(1, this.sportEvents4Club.numFiles(SportEvents4Club.Status.PENDING, SportEvents4Club.Type.SMALL));
+        Assert.assertEquals(1, this.sportEvents4Club.numFiles(SportEvents4Club.Status.DISABLED, SportEvents4Club.Type.MEDIUM));
+
+        this.sportEvents4Club.updateFile(SportEvents4Club.Status.DISABLED,
+                createLocalDate("25-11-2022"), "KO X1");
+
+        Assert.assertEquals(0, this.sportEvents4Club.numPendingFiles());
+        Assert.assertEquals(2, this.sportEvents4Club.numRejectedFiles());
+        Assert.assertEquals(1, this.sportEvents4Club.numFiles(SportEvents4Club.Status.DISABLED, SportEvents4Club.Type.SMALL));
+        Assert.assertEquals(7, this.sportEvents4Club.numFiles());
+    }
+
+    @Test
+    public void reviewAsPendingTest() throws DSException {
+        // GIVEN:
+        initialState();
+        //
+
+        File file = this.sportEvents4Club.updateFile(SportEvents4Club.Status.PENDING,
+                createLocalDate("25-11-2022"), "more info");
+        Assert.assertEquals(SportEvents4Club.Status.PENDING, file.getStatus());
+
+        // the file is no longer in the queue, but it is still a pending file
+        Assert.assertNull(this.sportEvents4Club.currentFile());
+        Assert.assertEquals(0, this.sportEvents4Club.numPendingFiles());
+        Assert.assertEquals(1, this.sportEvents4Club.numFiles(SportEvents4Club.Status.PENDING));
+        Assert.assertEquals(7, this.sportEvents4Club.numFiles());
+
+        // it was not enabled, so it is rejected
+        Assert.assertEquals(2, this.sportEvents4Club.numRejectedFiles());
+        Assert.assertEquals(2.0 / 7, this.sportEvents4Club.getRejectedFiles(), 1e-9);
+        Assert.assertThrows(NoFilesException.class, () ->
+                this.sportEvents4Club.updateFile(SportEvents4Club.Status.ENABLED, createLocalDate("26-11-2022"), "OK"));
+    }
+
     @Test
     public void signUpEventTest() throws DSException {
         // GIVEN:
@@ -383,4 +546,37 @@ public class SportEvents4ClubPR1Test {
         Assert.assertEquals(SportEvents4Club.Rating.FIVE, rating.rating());
         Assert.assertEquals("idPlayer1", rating.getPlayer().getId());
     }
+
+    @Test
+    public void bestSportEventsTest() throws DSException {
+        Assert.assertThrows(SportEventNotFoundException.class, ()->
+                sportEvents4Club.bestSportEvents(3));
+
+        addRatingAndBestEventTest();
+
+        this.sportEvents4Club.addRating("idPlayer2", "EV-1104",
+                SportEvents4Club.Rating.THREE, "Regular");
+
+        Iterator<SportEvent> it = this.sportEvents4Club.bestSportEvents(2);
+        Assert.assertEquals("EV-1103", it.next().getEventId());
+        Assert.assertEquals("EV-1101", it.next().getEventId());
+        Assert.assertFalse(it.hasNext());
+
+        Assert.assertEquals(1, this.sportEvents4Club.getSportEventRank("EV-1103"));
+        Assert.assertEquals(2, this.sportEvents4Club.getSportEventRank("EV-1101"));
+        Assert.assertEquals(3, this.sportEvents4Club.getSportEventRank("EV-1104"));
+
+        Assert.assertThrows(SportEventNotFoundException.class, ()->
+                sportEvents4Club.getSportEventRank("EV-XXXX"));
+        Assert.assertThrows(NoRatingsException.class, ()->
+                sportEvents4Club.getSportEventRank("EV-1105"));
+
+        this.sportEvents4Club.addRating("idPlayer2", "EV-1104",
+                SportEvents4Club.Rating.FIVE, "Very Good!!!");
+        this.sportEvents4Club.addRating("idPlayer2", "EV-1104",
+                SportEvents4Club.Rating.FIVE, "Very Good!!!");
+
+        Assert.assertEquals(1, this.sportEvents4Club.getSportEventRank("EV-1104"));
+        Assert.assertEquals("EV-1104", this.sportEvents4Club.bestSportEvent().getEventId());
+    }
 }
\ No newline at end of file
@@ -436,6 +436,32 @@ public class SportEvents4ClubPR2Test extends SportEvents4ClubPR1Test {
         Assert.assertEquals(3, org2.numAttenders());
     }
 
+    @Test
+    public void bestOrganizingEntitiesTest() throws DSException {
+        initialState();
+
+        Iterator<OrganizingEntity> it = sportEvents4Club.bestOrganizingEntities(2);
+        Assert.assertEquals("ORG-1", it.next().getOrganizationId());
+        Assert.assertEquals("ORG-3", it.next().getOrganizationId());
+        Assert.assertFalse(it.hasNext());
+
+        sportEvents4Club.addAttender("+346528282", "Carme Lopez", "EV-1106");
+        sportEvents4Club.addAttender("+346528283", "Luïsa Lopez", "EV-1106");
+        sportEvents4Club.addAttender("+346528284", "Jan Lopez", "EV-1106");
+
+        it = sportEvents4Club.bestOrganizingEntities(3);
+        Assert.assertEquals("ORG-1", it.next().getOrganizationId());
+        Assert.assertEquals("ORG-3", it.next().getOrganizationId());
+        OrganizingEntity org8 = it.next();
+        Assert.assertEquals("ORG-8", org8.getOrganizationId());
+        Assert.assertEquals(6, org8.numAttenders());
+        Assert.assertFalse(it.hasNext());
+
+        sportEvents4Club.addOrganizingEntity("ORG-8", "ORG_ABA", "new description");
+        Assert.assertEquals(6, sportEvents4Club.getOrganizingEntity("ORG-8").numAttenders());
+        Assert.assertEquals("new description", sportEvents4Club.getOrganizingEntity("ORG-8").getDescription());
+    }
+
     @Test
     public void bestSportEventByAttenders() throws DSException {
         SportEvent sportEvent = sportEvents4Club.bestSportEventByAttenders();
@@ -443,4 +469,28 @@ public class SportEvents4ClubPR2Test extends SportEvents4ClubPR1Test {
         Assert.assertEquals("EV-1101", sportEvent.getEventId());
         Assert.assertEquals(13, sportEvent.numAttenders());
     }
+
+    @Test
+    public void bestSportEventsByAttendersTest() throws DSException {
+        initialState();
+
+        Iterator<SportEvent> it = sportEvents4Club.bestSportEventsByAttenders(3);
+        Assert.assertEquals("EV-1101", it.next().getEventId());
+        Assert.assertEquals("EV-1103", it.next().getEventId());
+        Assert.assertEquals("EV-1105", it.next().getEventId());
+        Assert.assertFalse(it.hasNext());
+
+        Assert.assertEquals(13, sportEvents4Club.getAttendersPercentile(1));
+        Assert.assertEquals(4, sportEvents4Club.getAttendersPercentile(0.5));
+        Assert.assertEquals(0, sportEvents4Club.getAttendersPercentile(0));
+
+        sportEvents4Club.addAttender("+346528282", "Carme Lopez", "EV-1106");
+        sportEvents4Club.addAttender("+346528283", "Luïsa Lopez", "EV-1106");
+
+        it = sportEvents4Club.bestSportEventsByAttenders(3);
+        Assert.assertEquals("EV-1101", it.next().getEventId());
+        Assert.assertEquals("EV-1103", it.next().getEventId());
+        Assert.assertEquals("EV-1106", it.next().getEventId());
+        Assert.assertEquals(5, sportEvents4Club.getAttendersPercentile(0.5));
+    }
 }
\ No newline at end of file
@@ -7,6 +7,19 @@ import org.junit.Before;
 import org.junit.Test;
 import uoc.ds.pr.exceptions.*;
 import uoc.ds.pr.model.*;
+import uoc.ds.pr.util.DateUtils;
+import uoc.ds.pr.util.Page;
+import uoc.ds.pr.util.RatingHistogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 public class SportEvents4ClubPR2TestPlus extends SportEvents4ClubPR2Test {
 
@@ -14,6 +27,10 @@ public class SportEvents4ClubPR2TestPlus extends SportEvents4ClubPR2Test {
     @Before
     public void setUp() throws Exception {
         this.sportEvents4Club = FactorySportEvents4Club.getSportEvents4ClubPR2();
+        addFollowers();
+    }
+
+    protected void addFollowers() throws DSException {
         sportEvents4Club.addFollower("idPlayer1", "idPlayer2");
         sportEvents4Club.addFollower("idPlayer1", "idPlayer3");
         sportEvents4Club.addFollower("idPlayer1", "idPlayer4");
@@ -262,6 +279,46 @@ public class SportEvents4ClubPR2TestPlus extends SportEvents4ClubPR2Test {
 
     }
 
+    /**
+     * followers(1): {2, 3, 4, 5}
+     * followers(2): {1, 3, 6, 7}
+     * followers(3): {1, 2, 4, 5}
+     * followers(5): {10, 11, 7}
+     */
+    @Test
+    public void recommendationTopKTest() throws DSException {
+        initialState();
+
+        Assert.assertThrows(PlayerNotFoundException.class, () ->
+                sportEvents4Club.recommendations("idPlayerXXXXX", 2));
+
+        Assert.assertThrows(NoFollowersException.class, () ->
+                sportEvents4Club.recommendations("idPlayer8", 2));
+
+        sportEvents4Club.addFollower("idPlayer5", "idPlayer7");
+
+        Iterator<Player> it =  sportEvents4Club.recommendations("idPlayer1", 2);
+        Assert.assertEquals("idPlayer7", it.next().getId());
+        Assert.assertEquals("idPlayer6", it.next().getId());
+        Assert.assertFalse(it.hasNext());
+
+        it =  sportEvents4Club.recommendations("idPlayer1", 10);
+        Assert.assertEquals("idPlayer7", it.next().getId());
+        Assert.assertEquals("idPlayer6", it.next().getId());
+        Assert.assertEquals("idPlayer10", it.next().getId());
+        Assert.assertEquals("idPlayer11", it.next().getId());
+        Assert.assertFalse(it.hasNext());
+
+        it =  sportEvents4Club.recommendations("idPlayer1");
+        Assert.assertEquals("idPlayer6", it.next().getId());
+        Assert.assertEquals("idPlayer7", it.next().getId());
+        Assert.assertEquals("idPlayer10", it.next().getId());
+        Assert.assertEquals("idPlayer11", it.next().getId());
+        Assert.assertFalse(it.hasNext());
+
+        Assert.assertFalse(sportEvents4Club.recommendations("idPlayer1", 0).hasNext());
+    }
+
     /**
      * followers(1): {2, 3, 4, 5}
      * followers(2): {1, 3, 6, 7}
@@ -310,4 +367,585 @@ public class SportEvents4ClubPR2TestPlus extends SportEvents4ClubPR2Test {
                 it.next().message());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void getPostsPageTest() throws DSException {
+        initialState();
+
+        super.addRatingAndBestEventTest();
+
+        Assert.assertThrows(PlayerNotFoundException.class, () ->
+                sportEvents4Club.getPosts("idPlayeXXXXXXX", null, 3));
+
+        Assert.assertThrows(NoPostsException.class, () ->
+                sportEvents4Club.getPosts("idPlayer12", null, 3));
+
+        Page<Post> page = sportEvents4Club.getPosts("idPlayer1", null, 3);
+        Assert.assertEquals(3, page.size());
+        Assert.assertTrue(page.hasNextPage());
+
+        int numPosts = page.size();
+        while (page.hasNextPage()) {
+            page = sportEvents4Club.getPosts("idPlayer1", page.nextCursor(), 3);
+            numPosts += page.size();
+        }
+        Assert.assertEquals(7, numPosts);
+
+        sportEvents4Club.signUpEvent("idPlayer3", "EV-1103");
+        page = sportEvents4Club.getPosts("idPlayer1", null, 1);
+        Assert.assertEquals("{'player': 'idPlayer3', 'sportEvent': 'EV-1103', 'action': 'signup'}",
+                page.values().next().message());
+        // a cursor that was not given by the query gives an empty page
+        for (String cursor : new String[] {"x", "-1", "1.5", ""}) {
+            Assert.assertTrue(sportEvents4Club.getPosts("idPlayer1", cursor, 10).isEmpty());
+        }
+    }
+
+
+    private interface PageQuery<T> {
+        Page<T> page(String cursor) throws DSException;
+    }
+
+    /**
+     * Going through all the pages gives the same elements as the whole iterator
+     */
+    private static <T> void assertPaged(Iterator<T> all, PageQuery<T> query, int limit) throws DSException {
+        Page<T> page = query.page(null);
+        Iterator<T> it = page.values();
+        while (all.hasNext()) {
+            if (!it.hasNext()) {
+                Assert.assertEquals(limit, page.size());
+                Assert.assertTrue(page.hasNextPage());
+                page = query.page(page.nextCursor());
+                it = page.values();
+            }
+            Assert.assertSame(all.next(), it.next());
+        }
+        Assert.assertFalse(it.hasNext());
+        Assert.assertFalse(page.hasNextPage());
+    }
+
+    @Test
+    public void pagedQueriesTest() throws DSException {
+        initialState();
+
+        super.addRatingAndBestEventTest();
+        sportEvents4Club.assignWorker("DNIW1", "EV-1101");
+        sportEvents4Club.assignWorker("DNIW3", "EV-1101");
+        sportEvents4Club.assignWorker("DNIW5", "EV-1101");
+
+        for (int limit = 1; limit <= 3; limit++) {
+            int n = limit;
+            assertPaged(sportEvents4Club.getAllEvents(), cursor -> sportEvents4Club.getAllEvents(cursor, n), n);
+            assertPaged(sportEvents4Club.getEventsByPlayer("idPlayer2"),
+                    cursor -> sportEvents4Club.getEventsByPlayer("idPlayer2", cursor, n), n);
+            assertPaged(sportEvents4Club.getRatingsByEvent("EV-1101"),
+                    cursor -> sportEvents4Club.getRatingsByEvent("EV-1101", cursor, n), n);
+            assertPaged(sportEvents4Club.getWorkersBySportEvent("EV-1101"),
+                    cursor -> sportEvents4Club.getWorkersBySportEvent("EV-1101", cursor, n), n);
+            assertPaged(sportEvents4Club.getAttenders("EV-1101"),
+                    cursor -> sportEvents4Club.getAttenders("EV-1101", cursor, n), n);
+        }
+
+        // the cursor of the events is the id of the last one
+        Page<SportEvent> page = sportEvents4Club.getAllEvents(null, 2);
+        Assert.assertEquals("EV-1103", page.nextCursor());
+        Assert.assertEquals("EV-1104", sportEvents4Club.getAllEvents(page.nextCursor(), 1).elementAt(0).getEventId());
+
+        Assert.assertThrows(NoSportEventsException.class, () ->
+                sportEvents4Club.getEventsByPlayer("idPlayer10", null, 10));
+        Assert.assertThrows(SportEventNotFoundException.class, () ->
+                sportEvents4Club.getRatingsByEvent("EV-XXXX", null, 10));
+        Assert.assertThrows(NoWorkersException.class, () ->
+                sportEvents4Club.getWorkersBySportEvent("EV-1104", null, 10));
+        Assert.assertThrows(NoAttendersException.class, () ->
+                sportEvents4Club.getAttenders("EV-1104", null, 10));
+    }
+
+
+    @Test
+    public void pagedCursorsTest() throws DSException {
+        initialState();
+
+        super.addRatingAndBestEventTest();
+        for (Iterator<SportEvent> events = sportEvents4Club.getAllEvents(); events.hasNext(); ) {
+            try {
+                sportEvents4Club.signUpEvent("idPlayer2", events.next().getEventId());
+            }
+            catch (LimitExceededException e) {
+                // it is a substitute
+            }
+        }
+
+        // the event that follows the first page, with a single signup, is cancelled: the next
+        // page starts with the one after it
+        List<SportEvent> events = new ArrayList<>();
+        for (Iterator<SportEvent> it = sportEvents4Club.getEventsByPlayer("idPlayer2"); it.hasNext(); ) {
+            events.add(it.next());
+        }
+        int i = 1;
+        while (events.indexOf(events.get(i)) != events.lastIndexOf(events.get(i))) {
+            i++;
+        }
+        Page<SportEvent> page = sportEvents4Club.getEventsByPlayer("idPlayer2", null, i);
+        sportEvents4Club.cancelEnrollment("idPlayer2", events.get(i).getEventId());
+        Assert.assertSame(events.get(i + 1),
+                sportEvents4Club.getEventsByPlayer("idPlayer2", page.nextCursor(), 1).elementAt(0));
+        assertPaged(sportEvents4Club.getEventsByPlayer("idPlayer2"),
+                cursor -> sportEvents4Club.getEventsByPlayer("idPlayer2", cursor, 2), 2);
+
+        // a cursor that was not given by the query gives an empty page
+        for (String cursor : new String[] {"x", "-1", "99999", "1:1", "-1:1", "1:x", "99999:1", ""}) {
+            Assert.assertTrue(sportEvents4Club.getAllEvents(cursor, 10).isEmpty());
+            Assert.assertTrue(sportEvents4Club.getEventsByPlayer("idPlayer2", cursor, 10).isEmpty());
+            Assert.assertTrue(sportEvents4Club.getRatingsByEvent("EV-1101", cursor, 10).isEmpty());
+        }
+        for (String cursor : new String[] {"x", "-1", "-1:1", "1:x", "99999:1", "0:-1", ""}) {
+            Assert.assertTrue(sportEvents4Club.getAttenders("EV-1101", cursor, 10).isEmpty());
+        }
+    }
+
+    @Test
+    public void streamsTest() throws DSException {
+        initialState();
+
+        super.addRatingAndBestEventTest();
+        SportEvents4ClubImpl club = (SportEvents4ClubImpl) sportEvents4Club;
+
+        List<SportEvent> events = club.sportEvents(true).collect(Collectors.toList());
+        assertPaged(sportEvents4Club.getAllEvents(), cursor -> {
+            Assert.assertNull(cursor);
+            return new Page<>(events.toArray(new SportEvent[0]), events.size(), null);
+        }, events.size());
+
+        int attenders = 0;
+        int ratings = 0;
+        for (SportEvent sportEvent : events) {
+            attenders += sportEvent.numAttenders();
+            ratings += sportEvent.numRatings();
+        }
+        Assert.assertEquals(attenders, club.sportEvents(true).mapToLong(e -> e.attenders(true).count()).sum());
+        Assert.assertEquals(ratings, club.sportEvents(true).mapToLong(e -> e.ratings(true).count()).sum());
+
+        SportEvent sportEvent = sportEvents4Club.getSportEvent("EV-1101");
+        Assert.assertEquals(sportEvent.rating(),
+                sportEvent.ratings(true).mapToInt(r -> r.rating().getValue()).average().orElse(0), 1e-9);
+    }
+
+
+    @Test
+    public void substitutesByLevelTest() throws DSException {
+        super.signUpEventTest();
+
+        Iterator<Enrollment> it = sportEvents4Club.getSubstitutes("EV-1104");
+        Assert.assertEquals("idPlayer6", it.next().getPlayer().getId());
+        Assert.assertEquals("idPlayer7", it.next().getPlayer().getId());
+
+        // idPlayer7 becomes PRO, and goes ahead of idPlayer6 although it arrived later
+        sportEvents4Club.addRating("idPlayer7", "EV-1104", SportEvents4Club.Rating.FOUR, "Good");
+        sportEvents4Club.addRating("idPlayer7", "EV-1104", SportEvents4Club.Rating.FOUR, "Good");
+        Assert.assertEquals(SportEvents4Club.Level.PRO, sportEvents4Club.getLevel("idPlayer7"));
+
+        it = sportEvents4Club.getSubstitutes("EV-1104");
+        Assert.assertEquals("idPlayer7", it.next().getPlayer().getId());
+        Assert.assertEquals("idPlayer6", it.next().getPlayer().getId());
+        Assert.assertFalse(it.hasNext());
+    }
+
+
+    @Test
+    public void cancelEnrollmentTest() throws Exception {
+        substitutesByLevelTest();
+
+        // idPlayer7 (PRO) takes the seat of idPlayer3, before idPlayer6
+        sportEvents4Club.cancelEnrollment("idPlayer3", "EV-1104");
+        Assert.assertEquals(6, sportEvents4Club.numPlayersBySportEvent("EV-1104"));
+        Assert.assertEquals(1, sportEvents4Club.numSubstitutesBySportEvent("EV-1104"));
+        Assert.assertFalse(sportEvents4Club.getPlayer("idPlayer3").isInSportEvent("EV-1104"));
+        Assert.assertEquals("idPlayer6", sportEvents4Club.getSubstitutes("EV-1104").next().getPlayer().getId());
+        Assert.assertThrows(PlayerNotInSportEventException.class, () ->
+                sportEvents4Club.cancelEnrollment("idPlayer3", "EV-1104"));
+
+        // idPlayer2 signed up twice: only the last signup is cancelled
+        sportEvents4Club.cancelEnrollment("idPlayer2", "EV-1104");
+        Assert.assertTrue(sportEvents4Club.getPlayer("idPlayer2").isInSportEvent("EV-1104"));
+        Assert.assertEquals(3, sportEvents4Club.numSportEventsByPlayer("idPlayer2"));
+        Assert.assertEquals(0, sportEvents4Club.numSubstitutesBySportEvent("EV-1104"));
+        Assert.assertThrows(NoSubstitutesException.class, () ->
+                sportEvents4Club.getSubstitutes("EV-1104"));
+
+        Iterator<Enrollment> it = sportEvents4Club.getSportEvent("EV-1104").getEnrollments().values();
+        for (String playerId : new String[] {"idPlayer2", "idPlayer1", "idPlayer4", "idPlayer7", "idPlayer6"}) {
+            Enrollment enrollment = it.next();
+            Assert.assertEquals(playerId, enrollment.getPlayer().getId());
+            Assert.assertFalse(enrollment.getIsSubstitute());
+        }
+        Assert.assertFalse(it.hasNext());
+
+        // a substitute leaves without promoting anyone
+        Assert.assertThrows(LimitExceededException.class, () ->
+                sportEvents4Club.signUpEvent("idPlayer8", "EV-1104"));
+        sportEvents4Club.cancelEnrollment("idPlayer8", "EV-1104");
+        Assert.assertEquals(5, sportEvents4Club.numPlayersBySportEvent("EV-1104"));
+        Assert.assertEquals(0, sportEvents4Club.numSubstitutesBySportEvent("EV-1104"));
+        Assert.assertFalse(sportEvents4Club.getPlayer("idPlayer8").isInSportEvent("EV-1104"));
+
+        // the most active player is found again once it has fewer events than another one
+        Assert.assertEquals("idPlayer2", sportEvents4Club.mostActivePlayer().getId());
+        sportEvents4Club.cancelEnrollment("idPlayer2", "EV-1104");
+        sportEvents4Club.cancelEnrollment("idPlayer2", "EV-1103");
+        Assert.assertEquals(1, sportEvents4Club.numSportEventsByPlayer("idPlayer2"));
+        Assert.assertEquals(2, sportEvents4Club.numSportEventsByPlayer(sportEvents4Club.mostActivePlayer().getId()));
+
+        Assert.assertThrows(PlayerNotFoundException.class, () ->
+                sportEvents4Club.cancelEnrollment("idPlayerXXX", "EV-1104"));
+        Assert.assertThrows(SportEventNotFoundException.class, () ->
+                sportEvents4Club.cancelEnrollment("idPlayer1", "EV-XXXX"));
+
+        Path path = Files.createTempFile("club", ".snapshot");
+        try {
+            sportEvents4Club.save(path);
+            Assert.assertEquals(describe(sportEvents4Club), describe(SportEvents4ClubImpl.load(path)));
+        }
+        finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+
+    @Test
+    public void updateFilesBatchTest() throws DSException, IOException {
+        if (sportEvents4Club.numPendingFiles() > 0) {
+            sportEvents4Club.updateFiles(sportEvents4Club.numPendingFiles(), SportEvents4Club.Status.DISABLED,
+                    DateUtils.createLocalDate("01-11-2022"), "KO");
+        }
+        int numEvents = sportEvents4Club.numSportEvents();
+        String[] eventIds = {"EV-B3", "EV-B1", "EV-B2", "EV-B1", "EV-1101"};
+        for (int i = 0; i < eventIds.length; i++) {
+            sportEvents4Club.addFile("F-B" + i, eventIds[i], "ORG-1", "batch " + i, SportEvents4Club.Type.SMALL,
+                    SportEvents4Club.FLAG_ALL_OPTS, 10, DateUtils.createLocalDate("01-12-2022"),
+                    DateUtils.createLocalDate("02-12-2022"));
+        }
+        Iterator<File> reviewed = sportEvents4Club.updateFiles(sportEvents4Club.numPendingFiles(),
+                SportEvents4Club.Status.ENABLED, DateUtils.createLocalDate("01-11-2022"), "OK");
+
+        // the last file reviewed with an id gives its sport event, also for the ones that already existed
+        Map<String, String> descriptions = new HashMap<>();
+        while (reviewed.hasNext()) {
+            File file = reviewed.next();
+            descriptions.put(file.getEventId(), file.getDescription());
+        }
+        Assert.assertEquals(numEvents + 3, sportEvents4Club.numSportEvents());
+        Assert.assertEquals(descriptions.get("EV-B1"), sportEvents4Club.getSportEvent("EV-B1").getDescription());
+        Assert.assertEquals("batch 4", sportEvents4Club.getSportEvent("EV-1101").getDescription());
+
+        List<String> ids = new ArrayList<>();
+        for (Iterator<SportEvent> it = sportEvents4Club.getAllEvents(); it.hasNext(); ) {
+            ids.add(it.next().getEventId());
+        }
+        List<String> sorted = new ArrayList<>(ids);
+        sorted.sort(null);
+        Assert.assertEquals(sorted, ids);
+        Assert.assertEquals(sportEvents4Club.numSportEvents(), ids.size());
+        Assert.assertTrue(ids.containsAll(Arrays.asList("EV-B1", "EV-B2", "EV-B3", "EV-1101")));
+
+        // the signups in the replaced sport event are kept in a snapshot
+        sportEvents4Club.signUpEvent("idPlayer1", "EV-1101");
+        sportEvents4Club.signUpEvent("idPlayer1", "EV-B1");
+        Path path = Files.createTempFile("club", ".snapshot");
+        try {
+            sportEvents4Club.save(path);
+            SportEvents4Club restored = SportEvents4ClubImpl.load(path);
+            Assert.assertEquals(sportEvents4Club.numSportEvents(), restored.numSportEvents());
+            Assert.assertEquals(sportEvents4Club.numSportEventsByPlayer("idPlayer1"), restored.numSportEventsByPlayer("idPlayer1"));
+            Assert.assertTrue(restored.getPlayer("idPlayer1").isInSportEvent(restored.getSportEvent("EV-1101")));
+            Assert.assertTrue(restored.getPlayer("idPlayer1").isInSportEvent(restored.getSportEvent("EV-B1")));
+            restored.cancelEnrollment("idPlayer1", "EV-B1");
+            Assert.assertFalse(restored.getPlayer("idPlayer1").isInSportEvent(restored.getSportEvent("EV-B1")));
+        }
+        finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    public void mostActivePlayerTest() throws DSException, IOException {
+        int events = 6;
+        for (int i = 0; i < events; i++) {
+            sportEvents4Club.addFile("F-ACT" + i, "EV-ACT" + i, "ORG-1", "league day " + i, SportEvents4Club.Type.SMALL,
+                    SportEvents4Club.FLAG_ALL_OPTS, 10, DateUtils.createLocalDate("01-12-2022"),
+                    DateUtils.createLocalDate("02-12-2022"));
+        }
+        sportEvents4Club.updateFiles(sportEvents4Club.numPendingFiles(), SportEvents4Club.Status.ENABLED,
+                DateUtils.createLocalDate("01-11-2022"), "OK");
+        sportEvents4Club.addPlayer("idActive1", "Ona", "Vila", DateUtils.createLocalDate("01-01-2000"));
+        sportEvents4Club.addPlayer("idActive2", "Pau", "Riera", DateUtils.createLocalDate("01-01-2000"));
+        for (int i = 0; i < events; i++) {
+            sportEvents4Club.signUpEvent("idActive1", "EV-ACT" + i);
+            sportEvents4Club.signUpEvent("idActive2", "EV-ACT" + i);
+        }
+
+        // on a tie the first one that has reached it stays
+        Assert.assertEquals("idActive1", sportEvents4Club.mostActivePlayer().getId());
+
+        // it is replaced as soon as another player has more sport events
+        sportEvents4Club.cancelEnrollment("idActive1", "EV-ACT0");
+        Assert.assertEquals("idActive2", sportEvents4Club.mostActivePlayer().getId());
+        sportEvents4Club.cancelEnrollment("idActive2", "EV-ACT0");
+        Assert.assertEquals("idActive2", sportEvents4Club.mostActivePlayer().getId());
+        sportEvents4Club.cancelEnrollment("idActive2", "EV-ACT1");
+        Assert.assertEquals("idActive1", sportEvents4Club.mostActivePlayer().getId());
+
+        // the ranking of the players is restored with the snapshot
+        Path path = Files.createTempFile("club", ".snapshot");
+        try {
+            sportEvents4Club.save(path);
+            SportEvents4Club restored = SportEvents4ClubImpl.load(path);
+            Assert.assertEquals("idActive1", restored.mostActivePlayer().getId());
+            restored.cancelEnrollment("idActive1", "EV-ACT1");
+            restored.cancelEnrollment("idActive1", "EV-ACT2");
+            Assert.assertEquals("idActive2", restored.mostActivePlayer().getId());
+            Assert.assertEquals(4, restored.numSportEventsByPlayer("idActive2"));
+        }
+        finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+
+    @Test
+    public void largeEventTest() throws DSException {
+        // far more players than MAX_NUM_ENROLLMENT
+        int max = 4 * SportEvents4Club.MAX_NUM_ENROLLMENT;
+        int substitutes = 100;
+        sportEvents4Club.addFile("F-BIG", "EV-BIG", "ORG-1", "marathon", SportEvents4Club.Type.XLARGE,
+                SportEvents4Club.FLAG_ALL_OPTS, max, DateUtils.createLocalDate("01-12-2022"),
+                DateUtils.createLocalDate("02-12-2022"));
+        sportEvents4Club.updateFiles(sportEvents4Club.numPendingFiles(), SportEvents4Club.Status.ENABLED,
+                DateUtils.createLocalDate("01-11-2022"), "OK");
+
+        for (int i = 0; i < max + substitutes; i++) {
+            String playerId = "idRunner" + i;
+            sportEvents4Club.addPlayer(playerId, "name", "surname", DateUtils.createLocalDate("01-01-2000"));
+            if (i < max) {
+                sportEvents4Club.signUpEvent(playerId, "EV-BIG");
+            }
+            else {
+                Assert.assertThrows(LimitExceededException.class, () ->
+                        sportEvents4Club.signUpEvent(playerId, "EV-BIG"));
+            }
+        }
+        Assert.assertEquals(max + substitutes, sportEvents4Club.numPlayersBySportEvent("EV-BIG"));
+        Assert.assertEquals(substitutes, sportEvents4Club.numSubstitutesBySportEvent("EV-BIG"));
+
+        // the first half leaves, and the substitutes take their seats in order of arrival
+        for (int i = 0; i < max / 2; i++) {
+            sportEvents4Club.cancelEnrollment("idRunner" + i, "EV-BIG");
+        }
+        Assert.assertEquals(0, sportEvents4Club.numSubstitutesBySportEvent("EV-BIG"));
+        Iterator<Enrollment> it = sportEvents4Club.getSportEvent("EV-BIG").getEnrollments().values();
+        for (int i = max / 2; i < max + substitutes; i++) {
+            Assert.assertEquals("idRunner" + i, it.next().getPlayer().getId());
+        }
+        Assert.assertFalse(it.hasNext());
+    }
+
+
+    @Test
+    public void ratingHistogramTest() throws DSException {
+        initialState();
+
+        super.addRatingAndBestEventTest();
+
+        // the statistics of the histogram match the ones of the ratings of each event
+        Iterator<SportEvent> it = sportEvents4Club.getAllEvents();
+        while (it.hasNext()) {
+            SportEvent sportEvent = it.next();
+            RatingHistogram histogram = sportEvent.getRatingHistogram();
+            Assert.assertEquals(sportEvent.numRatings(), histogram.total());
+            if (histogram.total() == 0) {
+                continue;
+            }
+
+            int[] values = new int[sportEvent.numRatings()];
+            int n = 0;
+            double sum = 0;
+            for (Iterator<Rating> ratings = sportEvent.ratings(); ratings.hasNext(); ) {
+                values[n] = ratings.next().rating().getValue();
+                sum += values[n++];
+            }
+            Arrays.sort(values);
+            double mean = sum / n;
+            double variance = 0;
+            for (int value : values) {
+                variance += (value - mean) * (value - mean);
+            }
+            Assert.assertEquals(mean, sportEvent.rating(), 1e-9);
+            Assert.assertEquals(variance / n, histogram.variance(), 1e-9);
+            Assert.assertEquals((values[(n - 1) / 2] + values[n / 2]) / 2.0, histogram.median(), 1e-9);
+            for (SportEvents4Club.Rating rating : SportEvents4Club.Rating.values()) {
+                Assert.assertTrue(histogram.count(histogram.mode()) >= histogram.count(rating));
+            }
+        }
+    }
+
+
+    @Test
+    public void saveAndLoadTest() throws Exception {
+        initialState();
+
+        super.addRatingAndBestEventTest();
+        sportEvents4Club.assignWorker("DNIW1", "EV-1101");
+        sportEvents4Club.assignWorker("DNIW3", "EV-1101");
+        sportEvents4Club.assignWorker("DNIW1", "EV-1103");
+
+        Path path = Files.createTempFile("club", ".snapshot");
+        try {
+            sportEvents4Club.save(path);
+            SportEvents4Club loaded = SportEvents4ClubImpl.load(path);
+
+            Assert.assertEquals(describe(sportEvents4Club), describe(loaded));
+
+            // the players are shared by all the structures, as in the saved club
+            Player player = loaded.getPlayer("idPlayer2");
+            Assert.assertSame(player, loaded.getSportEvent("EV-1103").ratings().next().getPlayer());
+            Assert.assertSame(player, loaded.getFollowers("idPlayer1").next());
+            Assert.assertSame(player, loaded.getPosts("idPlayer1", null, 1).values().next().getPlayer());
+
+            // and both clubs go on in the same way
+            for (SportEvents4Club club : List.of(sportEvents4Club, loaded)) {
+                club.signUpEvent("idPlayer3", "EV-1103");
+                club.addRating("idPlayer3", "EV-1103", SportEvents4Club.Rating.FIVE, "Great");
+                club.addAttender("+34 600 000 000", "attender", "EV-1104");
+                club.addFollower("idPlayer12", "idPlayer1");
+                club.updateFile(SportEvents4Club.Status.ENABLED, DateUtils.createLocalDate("01-11-2022"), "OK");
+            }
+            Assert.assertEquals(describe(sportEvents4Club), describe(loaded));
+        }
+        finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    public void loadTest() throws Exception {
+        Path path = Files.createTempFile("club", ".snapshot");
+        try {
+            Files.write(path, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+            Assert.assertThrows(IOException.class, () -> SportEvents4ClubImpl.load(path));
+
+            Files.write(path, new byte[] {0x53, 0x45, 0x34});
+            Assert.assertThrows(IOException.class, () -> SportEvents4ClubImpl.load(path));
+        }
+        finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * The result of the queries of the club, as a text that can be compared
+     */
+    protected static String describe(SportEvents4Club club) throws DSException {
+        StringBuilder sb = new StringBuilder();
+        sb.append(club.numPlayers()).append(' ').append(club.numOrganizingEntities()).append(' ')
+                .append(club.numSportEvents()).append(' ').append(club.numRoles()).append(' ')
+                .append(club.numWorkers()).append('\n');
+        for (SportEvents4Club.Status status : SportEvents4Club.Status.values()) {
+            for (SportEvents4Club.Type type : SportEvents4Club.Type.values()) {
+                sb.append(club.numFiles(status, type)).append(' ');
+            }
+        }
+        sb.append(club.numPendingFiles()).append(' ')
+                .append(club.currentFile() != null ? club.currentFile().getFileId() : null).append('\n');
+
+        Iterator<SportEvent> events = club.getAllEvents();
+        while (events.hasNext()) {
+            SportEvent sportEvent = events.next();
+            sb.append(sportEvent.getEventId()).append(' ').append(sportEvent.getFile().getFileId()).append(' ')
+                    .append(sportEvent.getOrganizingEntity().getOrganizationId()).append(' ')
+                    .append(sportEvent.rating()).append(' ').append(sportEvent.numPlayers()).append(' ')
+                    .append(sportEvent.numAttenders()).append(" ratings:");
+            for (Iterator<Rating> it = sportEvent.ratings(); it.hasNext(); ) {
+                Rating r = it.next();
+                sb.append(' ').append(r.getPlayer().getId()).append('=').append(r.rating()).append(r.getMessage());
+            }
+            sb.append(" enrollments:");
+            for (Iterator<Enrollment> it = sportEvent.getEnrollments().values(); it.hasNext(); ) {
+                sb.append(' ').append(it.next().getPlayer().getId());
+            }
+            sb.append(" substitutes:");
+            for (Iterator<Enrollment> it = sportEvent.getSubstitutes(); it.hasNext(); ) {
+                sb.append(' ').append(it.next().getPlayer().getId());
+            }
+            sb.append(" workers:");
+            for (Iterator<Worker> it = sportEvent.getWorkers(); it.hasNext(); ) {
+                sb.append(' ').append(it.next().getDni());
+            }
+            sb.append('\n');
+        }
+
+        sb.append("best:");
+        for (Iterator<SportEvent> it = club.bestSportEvents(club.numSportEvents()); it.hasNext(); ) {
+            sb.append(' ').append(it.next().getEventId());
+        }
+        sb.append("\nbest by attenders:");
+        for (Iterator<SportEvent> it = club.bestSportEventsByAttenders(club.numSportEvents()); it.hasNext(); ) {
+            sb.append(' ').append(it.next().getEventId());
+        }
+        sb.append("\nbest entities:");
+        for (Iterator<OrganizingEntity> it = club.bestOrganizingEntities(club.numOrganizingEntities()); it.hasNext(); ) {
+            OrganizingEntity o = it.next();
+            sb.append(' ').append(o.getOrganizationId()).append('=').append(o.numAttenders());
+        }
+        sb.append("\nmost active: ").append(club.mostActivePlayer().getId()).append('\n');
+
+        for (int i = 1; i <= 5; i++) {
+            String roleId = "R" + i;
+            sb.append(roleId).append(':');
+            if (club.numWorkersByRole(roleId) > 0) {
+                for (Iterator<Worker> it = club.getWorkersByRole(roleId); it.hasNext(); ) {
+                    sb.append(' ').append(it.next().getDni());
+                }
+            }
+            sb.append('\n');
+        }
+
+        for (int i = 1; i <= club.numPlayers(); i++) {
+            String playerId = "idPlayer" + i;
+            sb.append(playerId).append(' ').append(club.getLevel(playerId)).append(' ')
+                    .append(club.numRatings(playerId)).append(" events:");
+            if (club.numSportEventsByPlayer(playerId) > 0) {
+                for (Iterator<SportEvent> it = club.getEventsByPlayer(playerId); it.hasNext(); ) {
+                    sb.append(' ').append(it.next().getEventId());
+                }
+            }
+            sb.append(" followers:");
+            if (club.numFollowers(playerId) > 0) {
+                for (Iterator<Player> it = club.getFollowers(playerId); it.hasNext(); ) {
+                    sb.append(' ').append(it.next().getId());
+                }
+            }
+            sb.append(" followings:");
+            if (club.numFollowings(playerId) > 0) {
+                for (Iterator<Player> it = club.getFollowings(playerId); it.hasNext(); ) {
+                    sb.append(' ').append(it.next().getId());
+                }
+            }
+            sb.append(" posts:");
+            try {
+                Page<Post> page = club.getPosts(playerId, null, 3);
+                while (!page.isEmpty()) {
+                    for (Iterator<Post> it = page.values(); it.hasNext(); ) {
+                        sb.append(' ').append(it.next().message());
+                    }
+                    page = (page.hasNextPage() ? club.getPosts(playerId, page.nextCursor(), 3) : Page.empty());
+                }
+            }
+            catch (NoPostsException e) {
+                sb.append(" none");
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,107 @@
+package uoc.ds.pr.util;
+
+import edu.uoc.ds.traversal.Iterator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class BinaryHeapTest {
+
+    private static void assertSorted(BinaryHeap<Integer> heap, int n) {
+        Assert.assertEquals(n, heap.size());
+        int previous = Integer.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            int e = heap.poll();
+            Assert.assertTrue(previous <= e);
+            previous = e;
+        }
+        Assert.assertTrue(heap.isEmpty());
+        Assert.assertNull(heap.poll());
+        Assert.assertNull(heap.peek());
+    }
+
+    @Test
+    public void addTest() {
+        BinaryHeap<Integer> heap = new BinaryHeap<Integer>();
+        Random r = new Random(7);
+        for (int i = 0; i < 1000; i++) {
+            heap.add(r.nextInt(100));
+        }
+        assertSorted(heap, 1000);
+    }
+
+    @Test
+    public void addAllTest() {
+        BinaryHeap<Integer> heap = new BinaryHeap<Integer>();
+        heap.add(50);
+        heap.add(-1);
+        Assert.assertEquals(-1, (int) heap.peek());
+
+        Random r = new Random(11);
+        Integer[] elems = new Integer[1000];
+        for (int i = 0; i < elems.length; i++) {
+            elems[i] = r.nextInt(100);
+        }
+        // only the first 998 are added
+        elems[998] = -10;
+        elems[999] = -20;
+        heap.addAll(elems, 998);
+
+        Assert.assertEquals(-1, (int) heap.peek());
+        heap.add(-5);
+        Assert.assertEquals(-5, (int) heap.peek());
+        assertSorted(heap, 1001);
+    }
+
+    @Test
+    public void comparatorTest() {
+        BinaryHeap<String> heap = new BinaryHeap<String>((s1, s2) -> Integer.compare(s2.length(), s1.length()));
+        heap.addAll(new String[] {"a", "abc", "ab", "abcd"}, 4);
+        Assert.assertEquals("abcd", heap.poll());
+        Assert.assertEquals("abc", heap.poll());
+        Assert.assertEquals("ab", heap.poll());
+        Assert.assertEquals("a", heap.poll());
+    }
+
+    @Test
+    public void indexedTest() {
+        // the priority of each element is in prio, and its position in the heap in pos
+        int n = 200;
+        int[] prio = new int[n];
+        int[] pos = new int[n];
+        BinaryHeap<Integer> heap = new BinaryHeap<Integer>((e1, e2) -> Integer.compare(prio[e1], prio[e2]),
+                (e, i) -> pos[e] = i);
+
+        Random r = new Random(13);
+        for (int e = 0; e < n; e++) {
+            prio[e] = r.nextInt(1000);
+            heap.add(e);
+        }
+        for (int k = 0; k < 500; k++) {
+            int e = r.nextInt(n);
+            if (pos[e] >= 0) {
+                prio[e] = r.nextInt(1000);
+                heap.update(pos[e]);
+            }
+            if (k % 10 == 0) {
+                int removed = r.nextInt(n);
+                if (pos[removed] >= 0) {
+                    Assert.assertEquals(removed, (int) heap.remove(pos[removed]));
+                    Assert.assertEquals(-1, pos[removed]);
+                }
+            }
+        }
+
+        Iterator<Integer> sorted = heap.sorted();
+        int previous = Integer.MIN_VALUE;
+        while (!heap.isEmpty()) {
+            int e = heap.poll();
+            Assert.assertEquals(-1, pos[e]);
+            Assert.assertTrue(previous <= prio[e]);
+            Assert.assertEquals(prio[e], prio[sorted.next()]);
+            previous = prio[e];
+        }
+        Assert.assertFalse(sorted.hasNext());
+    }
+}
@@ -0,0 +1,225 @@
+package uoc.ds.pr.util;
+
+import edu.uoc.ds.traversal.Iterator;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class CounterRankingTest {
+
+    CounterRanking<String> r;
+
+    @Before
+    public void setUp() {
+        r = new CounterRanking<String>();
+        for (int i = 0; i < 20; i++) {
+            r.add("E" + i);
+        }
+        r.add("E0");
+        Assert.assertEquals(20, r.size());
+    }
+
+    private void assertFirst(String... expected) {
+        Iterator<String> it = r.values(expected.length);
+        for (String e : expected) {
+            Assert.assertEquals(e, it.next());
+        }
+        Assert.assertFalse(it.hasNext());
+    }
+
+    @Test
+    public void test() {
+        Assert.assertEquals(0, r.countAt(0));
+
+        Assert.assertEquals(1, r.increment("E5"));
+        Assert.assertEquals(1, r.increment("E7"));
+        Assert.assertEquals(2, r.increment("E7"));
+        Assert.assertEquals(1, r.increment("E19"));
+        assertFirst("E7", "E5", "E19");
+
+        Assert.assertEquals(0, r.position("E7"));
+        Assert.assertEquals(2, r.count("E7"));
+        Assert.assertEquals(1, r.count("E19"));
+        Assert.assertEquals(0, r.count("E0"));
+        Assert.assertEquals(-1, r.count("XXX"));
+
+        r.increment("E19");
+        r.increment("E19");
+        assertFirst("E19", "E7", "E5");
+
+        // a new element is added with the increment
+        Assert.assertEquals(1, r.increment("E20"));
+        Assert.assertEquals(21, r.size());
+        assertFirst("E19", "E7", "E5", "E20");
+
+        // the counters are always in descending order
+        for (int i = 0; i < 500; i++) {
+            r.increment("E" + ((i * 7) % 21));
+        }
+        for (int i = 1; i < r.size(); i++) {
+            Assert.assertTrue(r.countAt(i - 1) >= r.countAt(i));
+            Assert.assertEquals(i, r.position(r.elementAt(i)));
+        }
+
+        Iterator<String> it = r.values(100);
+        int n = 0;
+        while (it.hasNext()) {
+            it.next();
+            n++;
+        }
+        Assert.assertEquals(21, n);
+    }
+
+    @Test
+    public void tieOrderTest() {
+        CounterRanking<String> ties = new CounterRanking<String>();
+        ties.add("A");
+        ties.add("B");
+        ties.add("C");
+
+        // C goes to the first position of the block and A takes its place
+        ties.increment("C");
+        Assert.assertEquals("C", ties.elementAt(0));
+        Assert.assertEquals("B", ties.elementAt(1));
+        Assert.assertEquals("A", ties.elementAt(2));
+
+        // the elements that reach a counter go after those that already had it
+        ties.increment("A");
+        ties.increment("B");
+        Assert.assertEquals("C", ties.elementAt(0));
+        Assert.assertEquals("A", ties.elementAt(1));
+        Assert.assertEquals("B", ties.elementAt(2));
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(1, ties.countAt(i));
+            Assert.assertEquals(i, ties.position(ties.elementAt(i)));
+        }
+    }
+
+    @Test
+    public void decrementTest() {
+        r.increment("E3");
+        r.increment("E3");
+        r.increment("E8");
+        r.increment("E1");
+        r.increment("E1");
+        assertFirst("E3", "E1", "E8");
+
+        // E3 goes to the last position of its block, so E1 is the first one
+        Assert.assertEquals(1, r.decrement("E3"));
+        Assert.assertEquals(2, r.countAt(0));
+        assertFirst("E1", "E3", "E8");
+        Assert.assertEquals(1, r.position("E3"));
+
+        // the elements that reach a counter by a decrement go before those that already had it
+        Assert.assertEquals(1, r.decrement("E1"));
+        assertFirst("E1", "E3", "E8");
+        Assert.assertEquals(0, r.decrement("E8"));
+        Assert.assertEquals(0, r.decrement("E3"));
+        assertFirst("E1", "E3", "E8");
+        Assert.assertEquals(1, r.countAt(0));
+        Assert.assertEquals(0, r.countAt(1));
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> r.decrement("E3"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> r.decrement("XXX"));
+
+        // the counters are always in descending order
+        int[] expected = new int[20];
+        expected[1] = 1;
+        for (int i = 0; i < 1000; i++) {
+            int e = (i * 7) % 20;
+            if (i % 3 == 2 && expected[e] > 0) {
+                Assert.assertEquals(--expected[e], r.decrement("E" + e));
+            }
+            else {
+                Assert.assertEquals(++expected[e], r.increment("E" + e));
+            }
+        }
+        for (int i = 0; i < r.size(); i++) {
+            if (i > 0) {
+                Assert.assertTrue(r.countAt(i - 1) >= r.countAt(i));
+            }
+            Assert.assertEquals(i, r.position(r.elementAt(i)));
+            Assert.assertEquals(expected[Integer.parseInt(r.elementAt(i).substring(1))], r.countAt(i));
+        }
+    }
+
+    @Test
+    public void appendTest() {
+        CounterRanking<String> restored = new CounterRanking<String>();
+        r.increment("E3");
+        r.increment("E3");
+        r.increment("E8");
+        r.increment("E1");
+        for (int i = 0; i < r.size(); i++) {
+            restored.append(r.elementAt(i), r.countAt(i));
+        }
+
+        Assert.assertEquals(r.size(), restored.size());
+        for (int i = 0; i < r.size(); i++) {
+            Assert.assertEquals(r.elementAt(i), restored.elementAt(i));
+            Assert.assertEquals(i, restored.position(r.elementAt(i)));
+        }
+
+        // the blocks of counters are restored too
+        r.increment("E1");
+        restored.increment("E1");
+        r.increment("E10");
+        restored.increment("E10");
+        for (int i = 0; i < r.size(); i++) {
+            Assert.assertEquals(r.elementAt(i), restored.elementAt(i));
+            Assert.assertEquals(r.countAt(i), restored.countAt(i));
+        }
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> restored.append("E3", 0));
+        Assert.assertThrows(IllegalArgumentException.class, () -> restored.append("NEW", 1));
+    }
+
+    @Test
+    public void appendAllTest() {
+        r.increment("E3");
+        r.increment("E3");
+        r.increment("E8");
+        r.increment("E1");
+        String[] elems = new String[r.size()];
+        int[] counts = new int[r.size()];
+        for (int i = 0; i < r.size(); i++) {
+            elems[i] = r.elementAt(i);
+            counts[i] = r.countAt(i);
+        }
+
+        // the block of counter 1 is split between the two batches
+        CounterRanking<String> restored = new CounterRanking<String>();
+        restored.appendAll(elems, counts, 2);
+        restored.appendAll(Arrays.copyOfRange(elems, 2, elems.length),
+                Arrays.copyOfRange(counts, 2, counts.length), elems.length - 2);
+        Assert.assertEquals(r.size(), restored.size());
+        for (int i = 0; i < r.size(); i++) {
+            Assert.assertEquals(r.elementAt(i), restored.elementAt(i));
+            Assert.assertEquals(i, restored.position(r.elementAt(i)));
+        }
+
+        // the blocks of counters are restored too
+        for (String e : new String[] { "E1", "E10", "E8" }) {
+            r.increment(e);
+            restored.increment(e);
+        }
+        r.decrement("E3");
+        restored.decrement("E3");
+        for (int i = 0; i < r.size(); i++) {
+            Assert.assertEquals(r.elementAt(i), restored.elementAt(i));
+            Assert.assertEquals(r.countAt(i), restored.countAt(i));
+        }
+
+        // nothing changes if an element is repeated or the counters are not in order
+        Assert.assertThrows(IllegalArgumentException.class,
+                () -> restored.appendAll(new String[] { "NEW", "E3" }, new int[] { 0, 0 }, 2));
+        Assert.assertThrows(IllegalArgumentException.class,
+                () -> restored.appendAll(new String[] { "NEW", "NEW" }, new int[] { 0, 0 }, 2));
+        Assert.assertThrows(IllegalArgumentException.class,
+                () -> restored.appendAll(new String[] { "NEW" }, new int[] { 1 }, 1));
+        Assert.assertEquals(r.size(), restored.size());
+        Assert.assertFalse(restored.contains("NEW"));
+    }
+}
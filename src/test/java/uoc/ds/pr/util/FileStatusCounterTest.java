@@ -0,0 +1,67 @@
+package uoc.ds.pr.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+import uoc.ds.pr.SportEvents4Club;
+import uoc.ds.pr.model.File;
+import uoc.ds.pr.model.OrganizingEntity;
+
+import static uoc.ds.pr.util.DateUtils.createLocalDate;
+
+public class FileStatusCounterTest {
+
+    private static File newFile(String id, SportEvents4Club.Type type) {
+        OrganizingEntity org = new OrganizingEntity("ORG-1", "ORG_XXXX", "description XXXXX");
+        return new File(id, "EV-" + id, "description", type,
+                createLocalDate("22-11-2022"), createLocalDate("15-12-2022"), (byte) 0, 10, org);
+    }
+
+    private static void review(FileStatusCounter counter, File file, SportEvents4Club.Status status) {
+        SportEvents4Club.Status previous = file.getStatus();
+        file.update(status, createLocalDate("23-11-2022"), "review");
+        counter.update(file, previous);
+    }
+
+    @Test
+    public void test() {
+        FileStatusCounter counter = new FileStatusCounter();
+        Assert.assertEquals(0, counter.total());
+        Assert.assertEquals(0, counter.count(SportEvents4Club.Status.PENDING));
+
+        File f1 = newFile("F1", SportEvents4Club.Type.MICRO);
+        File f2 = newFile("F2", SportEvents4Club.Type.MICRO);
+        File f3 = newFile("F3", SportEvents4Club.Type.LARGE);
+        counter.add(f1);
+        counter.add(f2);
+        counter.add(f3);
+
+        Assert.assertEquals(3, counter.total());
+        Assert.assertEquals(3, counter.count(SportEvents4Club.Status.PENDING));
+        Assert.assertEquals(2, counter.count(SportEvents4Club.Type.MICRO));
+        Assert.assertEquals(2, counter.count(SportEvents4Club.Status.PENDING, SportEvents4Club.Type.MICRO));
+
+        review(counter, f1, SportEvents4Club.Status.ENABLED);
+        review(counter, f3, SportEvents4Club.Status.DISABLED);
+
+        Assert.assertEquals(3, counter.total());
+        Assert.assertEquals(1, counter.count(SportEvents4Club.Status.PENDING));
+        Assert.assertEquals(1, counter.count(SportEvents4Club.Status.ENABLED));
+        Assert.assertEquals(1, counter.count(SportEvents4Club.Status.DISABLED));
+        Assert.assertEquals(1, counter.count(SportEvents4Club.Status.PENDING, SportEvents4Club.Type.MICRO));
+        Assert.assertEquals(1, counter.count(SportEvents4Club.Status.ENABLED, SportEvents4Club.Type.MICRO));
+        Assert.assertEquals(1, counter.count(SportEvents4Club.Status.DISABLED, SportEvents4Club.Type.LARGE));
+        Assert.assertEquals(0, counter.count(SportEvents4Club.Status.DISABLED, SportEvents4Club.Type.MICRO));
+        Assert.assertEquals(2, counter.count(SportEvents4Club.Type.MICRO));
+
+        // the changes of a batch are counted apart and added at once
+        FileStatusCounter changes = new FileStatusCounter();
+        review(changes, f2, SportEvents4Club.Status.ENABLED);
+        Assert.assertEquals(-1, changes.count(SportEvents4Club.Status.PENDING));
+        Assert.assertEquals(0, changes.total());
+        counter.add(changes);
+        Assert.assertEquals(3, counter.total());
+        Assert.assertEquals(0, counter.count(SportEvents4Club.Status.PENDING));
+        Assert.assertEquals(2, counter.count(SportEvents4Club.Status.ENABLED, SportEvents4Club.Type.MICRO));
+        Assert.assertEquals(2, counter.count(SportEvents4Club.Type.MICRO));
+    }
+}
@@ -0,0 +1,69 @@
+package uoc.ds.pr.util;
+
+import edu.uoc.ds.traversal.Iterator;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FollowerGraphTest {
+
+    IdTable<String> ids;
+    FollowerGraph<String> g;
+
+    @Before
+    public void setUp() {
+        // the strings get their handles as they are added to the graph
+        ids = new IdTable<String>();
+        g = new FollowerGraph<String>(s -> ids.put(s, s));
+        g.addFollower("A", "B");
+        g.addFollower("A", "C");
+        g.addFollower("B", "A");
+        g.addFollower("C", "A");
+    }
+
+    private int h(String s) {
+        return ids.handle(s);
+    }
+
+    @Test
+    public void test() {
+        Assert.assertEquals(3, g.numVertices());
+        Assert.assertEquals(4, g.numEdges());
+
+        Assert.assertFalse(g.addFollower("A", "B"));
+        Assert.assertEquals(4, g.numEdges());
+
+        Assert.assertEquals(2, g.numFollowers(h("A")));
+        Assert.assertEquals(2, g.numFollowings(h("A")));
+        Assert.assertEquals(1, g.numFollowers(h("B")));
+        Assert.assertEquals(1, g.numFollowings(h("B")));
+        Assert.assertEquals(0, g.numFollowers(h("XXX")));
+
+        Assert.assertTrue(g.isFollower(h("A"), h("B")));
+        Assert.assertFalse(g.isFollower(h("B"), h("C")));
+
+        Iterator<String> it = g.followers(h("A"));
+        Assert.assertEquals("B", it.next());
+        Assert.assertEquals("C", it.next());
+        Assert.assertFalse(it.hasNext());
+
+        it = g.followings(h("A"));
+        Assert.assertEquals("B", it.next());
+        Assert.assertEquals("C", it.next());
+        Assert.assertFalse(it.hasNext());
+
+        Assert.assertFalse(g.followers(h("XXX")).hasNext());
+
+        for (int i = 0; i < 100; i++) {
+            g.addFollower("D", "F" + i);
+        }
+        Assert.assertEquals(100, g.numFollowers(h("D")));
+        Assert.assertEquals(1, g.numFollowings(h("F99")));
+
+        it = g.followers(h("D"));
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals("F" + i, it.next());
+        }
+        Assert.assertFalse(it.hasNext());
+    }
+}
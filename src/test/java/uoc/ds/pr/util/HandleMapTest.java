@@ -0,0 +1,54 @@
+package uoc.ds.pr.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class HandleMapTest {
+
+    @Test
+    public void test() {
+        HandleMap<String> map = new HandleMap<>();
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertNull(map.put(3, "C"));
+        Assert.assertNull(map.put(0, "A"));
+        Assert.assertEquals("C", map.put(3, "CC"));
+        Assert.assertEquals(2, map.size());
+
+        Assert.assertEquals("CC", map.get(3));
+        Assert.assertTrue(map.containsKey(0));
+        Assert.assertFalse(map.containsKey(1));
+        Assert.assertNull(map.get(-1));
+        Assert.assertNull(map.get(100));
+
+        Assert.assertEquals("A", map.remove(0));
+        Assert.assertNull(map.remove(0));
+        Assert.assertEquals(1, map.size());
+        Assert.assertThrows(IllegalArgumentException.class, () -> map.put(-1, "X"));
+    }
+
+    @Test
+    public void randomTest() {
+        // the keys that follow a removed one in its run are still found
+        HandleMap<Integer> map = new HandleMap<>();
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random r = new Random(11);
+        for (int i = 0; i < 20000; i++) {
+            int handle = r.nextInt(500);
+            if (r.nextInt(3) == 0) {
+                Assert.assertEquals(expected.remove(handle), map.remove(handle));
+            }
+            else {
+                Assert.assertEquals(expected.put(handle, i), map.put(handle, i));
+            }
+        }
+        Assert.assertEquals(expected.size(), map.size());
+        for (int handle = 0; handle < 500; handle++) {
+            Assert.assertEquals(expected.get(handle), map.get(handle));
+            Assert.assertEquals(expected.containsKey(handle), map.containsKey(handle));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package uoc.ds.pr.util;
+
+import edu.uoc.ds.traversal.Iterator;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class IdTableTest {
+
+    @Test
+    public void test() {
+        IdTable<Integer> table = new IdTable<>();
+        Assert.assertEquals(0, table.size());
+        Assert.assertEquals(-1, table.handle("id0"));
+        Assert.assertNull(table.get("id0"));
+
+        int n = 1000;
+        for (int i = 0; i < n; i++) {
+            Assert.assertEquals(i, table.put("id" + i, i));
+        }
+        Assert.assertEquals(n, table.size());
+
+        for (int i = 0; i < n; i++) {
+            int handle = table.handle("id" + i);
+            Assert.assertEquals(i, handle);
+            Assert.assertEquals("id" + i, table.id(handle));
+            Assert.assertEquals(i, (int) table.get(handle));
+            Assert.assertEquals(i, (int) table.get("id" + i));
+            Assert.assertTrue(table.containsKey("id" + i));
+        }
+        Assert.assertFalse(table.containsKey("id" + n));
+
+        // an identifier keeps its handle when its element is replaced
+        Assert.assertEquals(7, table.put("id7", -7));
+        Assert.assertEquals(n, table.size());
+        Assert.assertEquals(-7, (int) table.get("id7"));
+
+        Iterator<Integer> it = table.values();
+        for (int i = 0; i < n; i++) {
+            Assert.assertEquals(i == 7 ? -7 : i, (int) it.next());
+        }
+        Assert.assertFalse(it.hasNext());
+    }
+
+    @Test
+    public void collisionsTest() {
+        // "Aa" and "BB" have the same hash
+        IdTable<String> table = new IdTable<>();
+        Assert.assertEquals(0, table.put("AaAa", "first"));
+        Assert.assertEquals(1, table.put("BBBB", "second"));
+        Assert.assertEquals(2, table.put("AaBB", "third"));
+        Assert.assertEquals("first", table.get("AaAa"));
+        Assert.assertEquals("second", table.get("BBBB"));
+        Assert.assertEquals("third", table.get("AaBB"));
+        Assert.assertNull(table.get("BBAa"));
+    }
+
+    @Test
+    public void ensureCapacityTest() {
+        IdTable<Integer> table = new IdTable<>();
+        table.put("first", -1);
+        table.ensureCapacity(1000);
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertEquals(i + 1, table.put("id" + i, i));
+        }
+        Assert.assertEquals(0, table.handle("first"));
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertEquals(i, (int) table.get("id" + i));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package uoc.ds.pr.util;
+
+import edu.uoc.ds.traversal.Iterator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class IndexedQueueTest {
+
+    private static void assertSameOrder(List<String> expected, IndexedQueue<String> queue) {
+        Assert.assertEquals(expected.size(), queue.size());
+        Iterator<String> it = queue.values();
+        for (String e : expected) {
+            Assert.assertEquals(e, it.next());
+        }
+        Assert.assertFalse(it.hasNext());
+    }
+
+    @Test
+    public void addAndRemoveTest() {
+        Map<String, Integer> positions = new HashMap<>();
+        IndexedQueue<String> queue = new IndexedQueue<String>(positions::put);
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertFalse(queue.values().hasNext());
+
+        queue.add("a");
+        queue.add("b");
+        queue.add("c");
+        Assert.assertEquals(1, (int) positions.get("b"));
+
+        Assert.assertEquals("b", queue.remove(positions.get("b")));
+        Assert.assertEquals(-1, (int) positions.get("b"));
+        assertSameOrder(List.of("a", "c"), queue);
+
+        Assert.assertEquals("a", queue.remove(positions.get("a")));
+        Assert.assertEquals("c", queue.remove(positions.get("c")));
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertFalse(queue.values().hasNext());
+    }
+
+    @Test
+    public void fifoTest() {
+        // removing from the front releases the chunks without moving the elements left
+        int[] reports = {0};
+        Map<String, Integer> positions = new HashMap<>();
+        IndexedQueue<String> queue = new IndexedQueue<String>((e, i) -> {
+            positions.put(e, i);
+            reports[0]++;
+        });
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            String e = "e" + i;
+            queue.add(e);
+            expected.add(e);
+            if (i % 3 == 2) {
+                String head = expected.remove(0);
+                Assert.assertEquals(head, queue.remove(positions.get(head)));
+            }
+        }
+        // once when added and once when removed
+        Assert.assertEquals(1000 + 333, reports[0]);
+        assertSameOrder(expected, queue);
+    }
+
+    @Test
+    public void churnTest() {
+        // the positions stay right while the queue grows and is compacted
+        Map<String, Integer> positions = new HashMap<>();
+        IndexedQueue<String> queue = new IndexedQueue<String>(positions::put);
+        List<String> expected = new ArrayList<>();
+        Random r = new Random(5);
+
+        for (int i = 0; i < 10_000; i++) {
+            if (expected.isEmpty() || r.nextInt(3) > 0) {
+                String e = "e" + i;
+                queue.add(e);
+                expected.add(e);
+            }
+            else {
+                String e = expected.remove(r.nextInt(expected.size()));
+                Assert.assertEquals(e, queue.remove(positions.get(e)));
+                Assert.assertEquals(-1, (int) positions.get(e));
+            }
+        }
+        assertSameOrder(expected, queue);
+
+        while (!expected.isEmpty()) {
+            String e = expected.remove(0);
+            queue.remove(positions.get(e));
+        }
+        Assert.assertTrue(queue.isEmpty());
+    }
+}
@@ -0,0 +1,101 @@
+package uoc.ds.pr.util;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import uoc.ds.pr.SportEvents4Club;
+import uoc.ds.pr.model.File;
+import uoc.ds.pr.model.OrganizingEntity;
+import uoc.ds.pr.model.Player;
+import uoc.ds.pr.model.Post;
+import uoc.ds.pr.model.SportEvent;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static uoc.ds.pr.util.DateUtils.createLocalDate;
+
+public class MappedPostStoreTest {
+    private static final SportEvents4Club.Rating[] RATINGS = SportEvents4Club.Rating.values();
+
+    private Path dir;
+    private Player[] players;
+    private SportEvent[] sportEvents;
+    private MappedPostStore store;
+
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("posts");
+        OrganizingEntity org = new OrganizingEntity("ORG-1", "ORG_XXXX", "description XXXXX");
+        players = new Player[5];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = new Player("idPlayer" + i, "name", "surname", createLocalDate("07-01-1990"));
+        }
+        sportEvents = new SportEvent[3];
+        for (int i = 0; i < sportEvents.length; i++) {
+            sportEvents[i] = new File("F-" + i, "EV-ÀÉ€" + i, "description", SportEvents4Club.Type.MICRO,
+                    createLocalDate("22-11-2022"), createLocalDate("15-12-2022"), (byte) 0, 22, org).newSportEvent();
+        }
+
+        IdTable<Player> playerTable = new IdTable<>(Player::setHandle);
+        for (Player player : players) {
+            playerTable.put(player.getId(), player);
+        }
+        IdTable<SportEvent> sportEventTable = new IdTable<>(SportEvent::setHandle);
+        for (SportEvent sportEvent : sportEvents) {
+            sportEventTable.put(sportEvent.getEventId(), sportEvent);
+        }
+
+        // small segments, so the store rolls several times
+        store = new MappedPostStore(dir, 256, playerTable, sportEventTable);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        store.close();
+        Files.deleteIfExists(dir);
+    }
+
+    @Test
+    public void appendTest() throws Exception {
+        Post[] posts = new Post[100];
+        long[] addresses = new long[posts.length];
+        for (int i = 0; i < posts.length; i++) {
+            Player player = players[i % players.length];
+            SportEvent sportEvent = sportEvents[i % sportEvents.length];
+            posts[i] = (i % 2 == 0 ? new Post(player, sportEvent) : new Post(player, sportEvent, RATINGS[i % RATINGS.length]));
+            addresses[i] = store.append(posts[i]);
+            player.addPost(addresses[i]);
+        }
+        Assert.assertTrue(store.numSegments() > 1);
+
+        for (int i = 0; i < posts.length; i++) {
+            Post post = store.get(addresses[i]);
+            Assert.assertEquals(posts[i], post);
+            Assert.assertSame(posts[i].getPlayer(), post.getPlayer());
+            Assert.assertEquals(posts[i].message(), post.message());
+        }
+
+        edu.uoc.ds.traversal.Iterator<Post> it = store.posts(players[1]);
+        for (int i = 1; i < posts.length; i += players.length) {
+            Assert.assertEquals(posts[i], it.next());
+        }
+        Assert.assertFalse(it.hasNext());
+    }
+
+    @Test
+    public void closeTest() throws Exception {
+        store.append(new Post(players[0], sportEvents[0]));
+        try (Stream<Path> files = Files.list(dir)) {
+            Assert.assertEquals(1, files.count());
+        }
+
+        store.close();
+        try (Stream<Path> files = Files.list(dir)) {
+            Assert.assertEquals(0, files.count());
+        }
+    }
+}
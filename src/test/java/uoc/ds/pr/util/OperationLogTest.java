@@ -0,0 +1,104 @@
+package uoc.ds.pr.util;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public class OperationLogTest {
+    private Path path;
+
+
+    @Before
+    public void setUp() throws Exception {
+        path = Files.createTempFile("operations", ".log");
+        Files.delete(path);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(path);
+    }
+
+    private void append(int from, int to, int groupSize) throws Exception {
+        try (OperationLog log = new OperationLog(path, groupSize, 0)) {
+            OperationLog.Record record = new OperationLog.Record();
+            for (int i = from; i < to; i++) {
+                log.append(record.clear().putByte(i).putInt(i * 1000).putString("record " + i)
+                        .putString(i % 2 == 0 ? null : "àé".repeat(i)).putDate(LocalDate.ofEpochDay(i)));
+            }
+        }
+    }
+
+    private List<Integer> replay() throws Exception {
+        List<Integer> records = new ArrayList<>();
+        OperationLog.replay(path, r -> {
+            int i = r.getByte();
+            Assert.assertEquals(i * 1000, r.getInt());
+            Assert.assertEquals("record " + i, r.getString());
+            Assert.assertEquals(i % 2 == 0 ? null : "àé".repeat(i), r.getString());
+            Assert.assertEquals(LocalDate.ofEpochDay(i), r.getDate());
+            records.add(i);
+        });
+        return records;
+    }
+
+    @Test
+    public void test() throws Exception {
+        Assert.assertEquals(0, OperationLog.replay(path, r -> Assert.fail()));
+
+        append(0, 100, 1);
+        append(100, 120, 16);
+        List<Integer> records = replay();
+        Assert.assertEquals(120, records.size());
+        for (int i = 0; i < records.size(); i++) {
+            Assert.assertEquals(i, (int) records.get(i));
+        }
+
+        // a record bigger than the buffer of the log
+        try (OperationLog log = new OperationLog(path, 1, 0)) {
+            log.append(new OperationLog.Record().putString("x".repeat(100_000)));
+        }
+        Assert.assertEquals(121, OperationLog.replay(path, r -> { }));
+    }
+
+    @Test
+    public void tornRecordTest() throws Exception {
+        append(0, 10, 1);
+        long size = Files.size(path);
+
+        // the last record is cut
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 3);
+        }
+        Assert.assertEquals(9, replay().size());
+
+        // it is discarded when the log is opened again
+        append(9, 12, 4);
+        Assert.assertEquals(12, replay().size());
+    }
+
+    @Test
+    public void corruptRecordTest() throws Exception {
+        append(0, 10, 1);
+
+        // a byte of the payload of the 6th record changes
+        byte[] bytes = Files.readAllBytes(path);
+        int pos = 0;
+        for (int i = 0; i < 5; i++) {
+            pos += 8 + ((bytes[pos] & 0xff) << 24 | (bytes[pos + 1] & 0xff) << 16 | (bytes[pos + 2] & 0xff) << 8 | (bytes[pos + 3] & 0xff));
+        }
+        bytes[pos + 8 + 5] ^= 1;
+        Files.write(path, bytes);
+
+        Assert.assertEquals(5, replay().size());
+    }
+}
@@ -0,0 +1,157 @@
+package uoc.ds.pr.util;
+
+import edu.uoc.ds.traversal.Iterator;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class OrderStatisticTreeTest {
+    private static final int LEN = 1000;
+
+    Map<String, Integer> keys;
+    OrderStatisticTree<String> t;
+
+    @Before
+    public void setUp() {
+        keys = new HashMap<>();
+        Comparator<String> cmp = (s1, s2) -> Integer.compare(keys.get(s2), keys.get(s1));
+        t = new OrderStatisticTree<String>(cmp);
+
+        for (int i = 0; i < LEN; i++) {
+            keys.put("E" + i, i);
+            t.update("E" + i);
+        }
+    }
+
+    private void assertOrdered() {
+        Iterator<String> it = t.values(t.size());
+        int i = 0;
+        String prev = null;
+        while (it.hasNext()) {
+            String e = it.next();
+            Assert.assertEquals(i, t.position(e));
+            Assert.assertEquals(e, t.elementAt(i));
+            if (prev != null) {
+                Assert.assertTrue(keys.get(prev) >= keys.get(e));
+            }
+            prev = e;
+            i++;
+        }
+        Assert.assertEquals(t.size(), i);
+    }
+
+    @Test
+    public void test() {
+        Assert.assertEquals(LEN, t.size());
+        Assert.assertEquals("E999", t.first());
+        Assert.assertEquals(0, t.position("E999"));
+        Assert.assertEquals(LEN - 1, t.position("E0"));
+        Assert.assertEquals(-1, t.position("XXX"));
+        assertOrdered();
+
+        Iterator<String> it = t.values(3);
+        Assert.assertEquals("E999", it.next());
+        Assert.assertEquals("E998", it.next());
+        Assert.assertEquals("E997", it.next());
+        Assert.assertFalse(it.hasNext());
+
+        // increase and decrease keys
+        keys.put("E0", 5000);
+        t.update("E0");
+        keys.put("E999", -1);
+        t.update("E999");
+        Assert.assertEquals("E0", t.first());
+        Assert.assertEquals(LEN - 1, t.position("E999"));
+
+        // ties keep the order in which they reached the key
+        keys.put("E10", 5000);
+        t.update("E10");
+        Assert.assertEquals(0, t.position("E0"));
+        Assert.assertEquals(1, t.position("E10"));
+
+        Random r = new Random(7);
+        for (int i = 0; i < 5000; i++) {
+            String e = "E" + r.nextInt(LEN);
+            keys.put(e, r.nextInt(LEN));
+            t.update(e);
+        }
+        assertOrdered();
+
+        for (int i = 0; i < LEN; i += 2) {
+            Assert.assertTrue(t.delete("E" + i));
+        }
+        Assert.assertFalse(t.delete("E0"));
+        Assert.assertEquals(LEN / 2, t.size());
+        assertOrdered();
+    }
+
+    @Test
+    public void pageTest() {
+        Page<String> page = t.page(null, 3, e -> e);
+        Assert.assertEquals(3, page.size());
+        Assert.assertEquals("E997", page.elementAt(2));
+        Assert.assertEquals("E997", page.nextCursor());
+
+        // the next page starts after the element of the cursor, although others were added before it
+        keys.put("E5000", 5000);
+        t.update("E5000");
+        page = t.page(page.nextCursor(), 2, e -> e);
+        Assert.assertEquals("E996", page.elementAt(0));
+        Assert.assertEquals("E995", page.elementAt(1));
+
+        page = t.page("E1", 5, e -> e);
+        Assert.assertEquals(1, page.size());
+        Assert.assertEquals("E0", page.elementAt(0));
+        Assert.assertFalse(page.hasNextPage());
+        Assert.assertTrue(t.page("XXX", 5, e -> e).isEmpty());
+    }
+
+    @Test
+    public void countWhileTest() {
+        // the elements go from the highest key to the lowest
+        Assert.assertEquals(499, t.countWhile(e -> keys.get(e) > 500));
+        Assert.assertEquals(LEN, t.countWhile(e -> true));
+        Assert.assertEquals(0, t.countWhile(e -> keys.get(e) > LEN));
+        Assert.assertEquals(0, new OrderStatisticTree<String>(Comparator.naturalOrder()).countWhile(e -> true));
+    }
+
+    @Test
+    public void addAllTest() {
+        // a batch with keys among the existing ones and ties with them and among its elements
+        String[] batch = new String[300];
+        for (int i = 0; i < batch.length; i++) {
+            batch[i] = "N" + i;
+            keys.put(batch[i], i % 150);
+        }
+        t.addAll(batch, batch.length);
+        Assert.assertEquals(LEN + batch.length, t.size());
+        assertOrdered();
+
+        // the new elements go after the ones that had the key, in the order of the array
+        Assert.assertEquals(t.position("E3") + 1, t.position("N3"));
+        Assert.assertEquals(t.position("N3") + 1, t.position("N153"));
+
+        // the tree is still updated element by element
+        keys.put("N153", 5000);
+        t.update("N153");
+        Assert.assertEquals("N153", t.first());
+        Assert.assertTrue(t.delete("N0"));
+        assertOrdered();
+
+        // into an empty tree
+        OrderStatisticTree<String> empty = new OrderStatisticTree<String>(Comparator.comparing(keys::get));
+        empty.addAll(batch, 100);
+        Assert.assertEquals(100, empty.size());
+        for (int i = 1; i < empty.size(); i++) {
+            Assert.assertTrue(keys.get(empty.elementAt(i - 1)) <= keys.get(empty.elementAt(i)));
+            Assert.assertEquals(i, empty.position(empty.elementAt(i)));
+        }
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> t.addAll(new String[] {"E1"}, 1));
+    }
+}
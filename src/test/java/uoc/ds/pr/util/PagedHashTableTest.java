@@ -0,0 +1,66 @@
+package uoc.ds.pr.util;
+
+import edu.uoc.ds.traversal.Iterator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class PagedHashTableTest {
+
+    @Test
+    public void pagesTest() {
+        // few buckets, so they have several keys each
+        PagedHashTable<String, String> table = new PagedHashTable<String, String>(7);
+        for (int i = 0; i < 100; i++) {
+            table.put("K" + i, "V" + i);
+        }
+
+        for (int limit = 1; limit <= 13; limit += 4) {
+            Iterator<String> all = table.values();
+            Page<String> page = table.values(null, limit);
+            int n = 0;
+            while (true) {
+                for (Iterator<String> it = page.values(); it.hasNext(); n++) {
+                    Assert.assertEquals(all.next(), it.next());
+                }
+                if (!page.hasNextPage()) {
+                    break;
+                }
+                Assert.assertEquals(limit, page.size());
+                page = table.values(page.nextCursor(), limit);
+            }
+            Assert.assertFalse(all.hasNext());
+            Assert.assertEquals(100, n);
+        }
+        Assert.assertTrue(new PagedHashTable<String, String>().values(null, 10).isEmpty());
+    }
+
+    @Test
+    public void insertWhilePagingTest() {
+        PagedHashTable<String, String> table = new PagedHashTable<String, String>(7);
+        for (int i = 0; i < 50; i++) {
+            table.put("K" + i, "V" + i);
+        }
+
+        // the elements that were there before paging are all returned once
+        Set<String> seen = new HashSet<>();
+        Page<String> page = table.values(null, 4);
+        int added = 50;
+        while (true) {
+            for (Iterator<String> it = page.values(); it.hasNext(); ) {
+                Assert.assertTrue(seen.add(it.next()));
+            }
+            if (!page.hasNextPage()) {
+                break;
+            }
+            table.put("K" + added, "V" + added);
+            added++;
+            page = table.values(page.nextCursor(), 4);
+        }
+        for (int i = 0; i < 50; i++) {
+            Assert.assertTrue(seen.contains("V" + i));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package uoc.ds.pr.util;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import uoc.ds.pr.SportEvents4Club;
+import uoc.ds.pr.model.File;
+import uoc.ds.pr.model.OrganizingEntity;
+import uoc.ds.pr.model.Player;
+import uoc.ds.pr.model.Post;
+import uoc.ds.pr.model.SportEvent;
+
+import java.nio.ByteBuffer;
+
+import static uoc.ds.pr.util.DateUtils.createLocalDate;
+
+public class PostEncoderTest {
+
+    Player player;
+    SportEvent sportEvent;
+    IdTable<Player> players;
+    IdTable<SportEvent> sportEvents;
+
+    @Before
+    public void setUp() {
+        player = new Player("idPlayer1", "Maria", "Simo", createLocalDate("07-01-1934"));
+        OrganizingEntity org = new OrganizingEntity("ORG-1", "ORG_XXXX", "description XXXXX");
+        File file = new File("F-001", "EV-ÀÉ€1101", "description", SportEvents4Club.Type.MICRO,
+                createLocalDate("22-11-2022"), createLocalDate("15-12-2022"), (byte) 0, 22, org);
+        sportEvent = file.newSportEvent();
+
+        players = new IdTable<>(Player::setHandle);
+        players.put("idPlayer0", null);
+        players.put(player.getId(), player);
+        sportEvents = new IdTable<>(SportEvent::setHandle);
+        sportEvents.put(sportEvent.getEventId(), sportEvent);
+    }
+
+    @Test
+    public void handleTest() {
+        // the tables give the elements their handles
+        Assert.assertEquals(1, player.getHandle());
+        Assert.assertEquals(0, sportEvent.getHandle());
+        Assert.assertEquals(-1, new Player("idPlayerX", "name", "surname", createLocalDate("07-01-1990")).getHandle());
+    }
+
+    @Test
+    public void messageTest() {
+        Assert.assertEquals("{'player': 'idPlayer1', 'sportEvent': 'EV-ÀÉ€1101', 'action': 'signup'}",
+                new Post(player, sportEvent).message());
+        Assert.assertEquals("{'player': 'idPlayer1', 'sportEvent': 'EV-ÀÉ€1101', 'rating': 'FOUR', 'action': 'rating'}",
+                new Post(player, sportEvent, SportEvents4Club.Rating.FOUR).message());
+    }
+
+    @Test
+    public void encodeDecodeTest() {
+        Post[] posts = {new Post(player, sportEvent), new Post(player, sportEvent, SportEvents4Club.Rating.FIVE)};
+
+        // the posts are decoded at their offsets, without moving the position of the buffer
+        ByteBuffer buffer = ByteBuffer.allocate(posts.length * PostEncoder.ENCODED_SIZE);
+        for (Post post : posts) {
+            PostEncoder.encode(post, buffer, players, sportEvents);
+        }
+        Assert.assertEquals(posts.length * PostEncoder.ENCODED_SIZE, buffer.position());
+
+        for (int i = 0; i < posts.length; i++) {
+            Post decoded = PostEncoder.decode(buffer, i * PostEncoder.ENCODED_SIZE, players, sportEvents);
+            Assert.assertEquals(posts[i].getAction(), decoded.getAction());
+            Assert.assertEquals(posts[i].getRating(), decoded.getRating());
+            Assert.assertSame(player, decoded.getPlayer());
+            Assert.assertSame(sportEvent, decoded.getSportEvent());
+            Assert.assertEquals(posts[i].message(), decoded.message());
+        }
+        Assert.assertEquals(posts.length * PostEncoder.ENCODED_SIZE, buffer.position());
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(PostEncoder.ENCODED_SIZE);
+        PostEncoder.encode(posts[1], direct, players, sportEvents);
+        Assert.assertEquals(posts[1].message(), PostEncoder.decode(direct, 0, players, sportEvents).message());
+
+        // a post of a player that is not in the club cannot be encoded
+        Player unknown = new Player("idPlayerX", "name", "surname", createLocalDate("07-01-1990"));
+        Assert.assertThrows(IllegalArgumentException.class, () ->
+                PostEncoder.encode(new Post(unknown, sportEvent), ByteBuffer.allocate(PostEncoder.ENCODED_SIZE),
+                        players, sportEvents));
+    }
+}
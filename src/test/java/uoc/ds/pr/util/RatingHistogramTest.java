@@ -0,0 +1,53 @@
+package uoc.ds.pr.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+import uoc.ds.pr.SportEvents4Club;
+
+import static uoc.ds.pr.SportEvents4Club.Rating.*;
+
+public class RatingHistogramTest {
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void emptyTest() {
+        RatingHistogram histogram = new RatingHistogram();
+        Assert.assertEquals(0, histogram.total());
+        Assert.assertEquals(0, histogram.mean(), DELTA);
+        Assert.assertEquals(0, histogram.median(), DELTA);
+        Assert.assertEquals(0, histogram.variance(), DELTA);
+        Assert.assertNull(histogram.mode());
+        Assert.assertArrayEquals(new double[5], histogram.distribution(), DELTA);
+    }
+
+    @Test
+    public void test() {
+        RatingHistogram histogram = new RatingHistogram();
+        SportEvents4Club.Rating[] ratings = {FIVE, ONE, FOUR, FIVE, TWO, FOUR};
+        for (SportEvents4Club.Rating rating : ratings) {
+            histogram.add(rating);
+        }
+
+        Assert.assertEquals(6, histogram.total());
+        Assert.assertEquals(2, histogram.count(FIVE));
+        Assert.assertEquals(0, histogram.count(THREE));
+        Assert.assertEquals(21.0 / 6, histogram.mean(), DELTA);
+        // 1 2 4 4 5 5
+        Assert.assertEquals(4, histogram.median(), DELTA);
+        double mean = 21.0 / 6;
+        double variance = 0;
+        for (SportEvents4Club.Rating rating : ratings) {
+            variance += (rating.getValue() - mean) * (rating.getValue() - mean);
+        }
+        Assert.assertEquals(variance / 6, histogram.variance(), DELTA);
+        // FOUR and FIVE tie: the highest one
+        Assert.assertEquals(FIVE, histogram.mode());
+        Assert.assertArrayEquals(new double[] {1.0 / 6, 1.0 / 6, 0, 2.0 / 6, 2.0 / 6}, histogram.distribution(), DELTA);
+
+        histogram.add(ONE);
+        histogram.add(ONE);
+        // 1 1 1 2 4 4 5 5
+        Assert.assertEquals(3, histogram.median(), DELTA);
+        Assert.assertEquals(ONE, histogram.mode());
+    }
+}
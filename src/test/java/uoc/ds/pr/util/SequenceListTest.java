@@ -0,0 +1,95 @@
+package uoc.ds.pr.util;
+
+import edu.uoc.ds.traversal.Iterator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class SequenceListTest {
+
+    private static void assertSameOrder(List<String> expected, SequenceList<String> list) {
+        Assert.assertEquals(expected.size(), list.size());
+        Iterator<String> it = list.values();
+        for (String e : expected) {
+            Assert.assertEquals(e, it.next());
+        }
+        Assert.assertFalse(it.hasNext());
+    }
+
+    @Test
+    public void addAndRemoveTest() {
+        SequenceList<String> list = new SequenceList<String>();
+        Assert.assertTrue(list.isEmpty());
+        Assert.assertFalse(list.values().hasNext());
+
+        long a = list.add("a");
+        long b = list.add("b");
+        long c = list.add("c");
+
+        Assert.assertEquals("b", list.remove(b));
+        Assert.assertNull(list.remove(b));
+        assertSameOrder(List.of("a", "c"), list);
+
+        // the keys are never reused
+        long d = list.add("d");
+        Assert.assertNotEquals(b, d);
+        assertSameOrder(List.of("a", "c", "d"), list);
+
+        Assert.assertEquals("d", list.remove(d));
+        Assert.assertEquals("a", list.remove(a));
+        Assert.assertEquals("c", list.remove(c));
+        Assert.assertTrue(list.isEmpty());
+        Assert.assertFalse(list.values().hasNext());
+    }
+
+    @Test
+    public void randomTest() {
+        // the keys still find their elements after the list is compacted
+        Random random = new Random(7);
+        SequenceList<String> list = new SequenceList<String>();
+        List<String> expected = new ArrayList<>();
+        List<Long> keys = new ArrayList<>();
+
+        for (int i = 0; i < 5000; i++) {
+            if (expected.isEmpty() || random.nextInt(3) > 0) {
+                String e = "e" + i;
+                keys.add(list.add(e));
+                expected.add(e);
+            }
+            else {
+                int j = random.nextInt(expected.size());
+                Assert.assertEquals(expected.remove(j), list.remove(keys.remove(j)));
+            }
+        }
+        assertSameOrder(expected, list);
+    }
+
+    @Test
+    public void pageTest() {
+        SequenceList<String> list = new SequenceList<String>();
+        List<Long> keys = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            keys.add(list.add("e" + i));
+        }
+
+        Page<String> page = list.page(null, 4);
+        Assert.assertEquals(4, page.size());
+        Assert.assertEquals("e3", page.elementAt(3));
+
+        // the element the cursor points to, and one before it, are removed: the next page starts after them
+        list.remove(keys.get(4));
+        list.remove(keys.get(1));
+        page = list.page(page.nextCursor(), 4);
+        Assert.assertEquals(4, page.size());
+        Assert.assertEquals("e5", page.elementAt(0));
+        Assert.assertEquals("e8", page.elementAt(3));
+
+        page = list.page(page.nextCursor(), 4);
+        Assert.assertEquals(1, page.size());
+        Assert.assertEquals("e9", page.elementAt(0));
+        Assert.assertFalse(page.hasNextPage());
+    }
+}
@@ -0,0 +1,62 @@
+package uoc.ds.pr.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.EOFException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+public class SnapshotWriterTest {
+
+    @Test
+    public void test() throws Exception {
+        Path path = Files.createTempFile("snapshot", ".bin");
+        // longer than the buffer, so it is split between several writes and reads
+        String longString = "àé".repeat(SnapshotWriter.BUFFER_SIZE);
+        try {
+            try (SnapshotWriter out = new SnapshotWriter(path)) {
+                for (int i = 0; i < 20_000; i++) {
+                    out.writeInt(i);
+                    out.writeLong(-i * 1_000_000_007L);
+                    out.writeByte(i);
+                    out.writeBoolean(i % 2 == 0);
+                }
+                out.writeString("idPlayer1");
+                out.writeString(null);
+                out.writeString("");
+                out.writeString(longString);
+                out.writeDate(LocalDate.of(2022, 11, 22));
+                out.writeDate(null);
+            }
+
+            try (SnapshotReader in = new SnapshotReader(path)) {
+                check(in, longString);
+            }
+            // the values that cross the end of a window are read from the next one
+            try (SnapshotReader in = new SnapshotReader(path, 4099)) {
+                check(in, longString);
+            }
+        }
+        finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private static void check(SnapshotReader in, String longString) throws Exception {
+        for (int i = 0; i < 20_000; i++) {
+            Assert.assertEquals(i, in.readInt());
+            Assert.assertEquals(-i * 1_000_000_007L, in.readLong());
+            Assert.assertEquals((byte) i, in.readByte());
+            Assert.assertEquals(i % 2 == 0, in.readBoolean());
+        }
+        Assert.assertEquals("idPlayer1", in.readString());
+        Assert.assertNull(in.readString());
+        Assert.assertEquals("", in.readString());
+        Assert.assertEquals(longString, in.readString());
+        Assert.assertEquals(LocalDate.of(2022, 11, 22), in.readDate());
+        Assert.assertNull(in.readDate());
+        Assert.assertThrows(EOFException.class, in::readInt);
+    }
+}
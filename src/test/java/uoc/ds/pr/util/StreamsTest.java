@@ -0,0 +1,88 @@
+package uoc.ds.pr.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class StreamsTest {
+    private static final int LEN = 10_000;
+
+    private static List<Integer> expected() {
+        return IntStream.range(0, LEN).boxed().collect(Collectors.toList());
+    }
+
+    /**
+     * Splits the spliterator all the way down and checks that the parts cover it in order
+     */
+    private static void assertSplits(Spliterator<Integer> spliterator, boolean sized) {
+        List<Integer> elems = new ArrayList<>();
+        split(spliterator, elems, sized);
+        Assert.assertEquals(expected(), elems.stream().sorted().collect(Collectors.toList()));
+    }
+
+    private static void split(Spliterator<Integer> spliterator, List<Integer> elems, boolean sized) {
+        long size = spliterator.estimateSize();
+        Spliterator<Integer> prefix = spliterator.trySplit();
+        if (prefix == null) {
+            spliterator.forEachRemaining(elems::add);
+            return;
+        }
+        if (sized) {
+            Assert.assertEquals(size, prefix.estimateSize() + spliterator.estimateSize());
+        }
+        split(prefix, elems, sized);
+        split(spliterator, elems, sized);
+    }
+
+    @Test
+    public void orderedVectorTest() {
+        // the vector keeps the greatest first
+        OrderedVector<Integer> vector = new OrderedVector<Integer>(LEN, Comparator.reverseOrder());
+        for (int i = 0; i < LEN; i++) {
+            vector.update(i);
+        }
+        Assert.assertEquals(expected(), Streams.stream(vector, true).collect(Collectors.toList()));
+        assertSplits(Streams.spliterator(vector::elementAt, vector.size()), true);
+    }
+
+    @Test
+    public void orderStatisticTreeTest() {
+        OrderStatisticTree<Integer> tree = new OrderStatisticTree<Integer>(Comparator.naturalOrder());
+        for (int i = LEN - 1; i >= 0; i--) {
+            tree.update(i);
+        }
+        Assert.assertEquals(expected(), Streams.stream(tree, true).collect(Collectors.toList()));
+        Assert.assertEquals(expected(), Streams.stream(tree, false).collect(Collectors.toList()));
+        assertSplits(tree.spliterator(), true);
+
+        // a part that has started can still be split
+        Spliterator<Integer> spliterator = tree.spliterator();
+        Assert.assertTrue(spliterator.tryAdvance(e -> Assert.assertEquals(0, (int) e)));
+        Spliterator<Integer> prefix = spliterator.trySplit();
+        Assert.assertTrue(prefix.tryAdvance(e -> Assert.assertEquals(1, (int) e)));
+    }
+
+    @Test
+    public void pagedHashTableTest() {
+        PagedHashTable<String, Integer> table = new PagedHashTable<String, Integer>();
+        for (int i = 0; i < LEN; i++) {
+            table.put("K" + i, i);
+        }
+        Assert.assertEquals(expected(), Streams.stream(table, true).sorted().collect(Collectors.toList()));
+        assertSplits(table.spliterator(), false);
+        Assert.assertEquals(0, Streams.stream(new PagedHashTable<String, Integer>(), true).count());
+    }
+
+    @Test
+    public void iteratorTest() {
+        Assert.assertEquals(expected(), Streams.stream(new IteratorAdapter<>(expected())).collect(Collectors.toList()));
+        Assert.assertEquals(expected(), Streams.stream(new IteratorAdapter<>(expected()), LEN, true)
+                .collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,146 @@
+package uoc.ds.pr.util;
+
+import edu.uoc.ds.traversal.Iterator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+public class StripedCounterRankingTest {
+    private static final int STRIPES = 8;
+
+    private static List<String> values(StripedCounterRanking<String> r) {
+        List<String> elems = new ArrayList<>();
+        for (Iterator<String> it = r.values(); it.hasNext(); ) {
+            elems.add(it.next());
+        }
+        return elems;
+    }
+
+    @Test
+    public void test() {
+        for (int stripes : new int[] {1, STRIPES}) {
+            StripedCounterRanking<String> r = new StripedCounterRanking<>(new LockStripes(stripes), Function.identity());
+            Assert.assertTrue(r.isEmpty());
+            Assert.assertNull(r.first());
+
+            for (int i = 0; i < 3; i++) {
+                r.increment("A");
+                r.increment("B");
+            }
+            Assert.assertEquals(3, r.count("B"));
+            Assert.assertEquals(-1, r.count("X"));
+
+            // on a tie the first one that has reached it goes first
+            Assert.assertEquals("A", r.first());
+            Assert.assertEquals(2, r.decrement("A"));
+            Assert.assertEquals("B", r.first());
+            // and the one that goes down to it, before the ones that had it
+            r.decrement("B");
+            Assert.assertEquals("B", r.first());
+            r.decrement("B");
+            Assert.assertEquals("A", r.first());
+            Assert.assertEquals(List.of("A", "B"), values(r));
+
+            r.decrement("A");
+            r.decrement("A");
+            r.decrement("B");
+            Assert.assertEquals(0, r.count("A"));
+            Assert.assertNull(r.first());
+            Assert.assertEquals(2, r.size());
+            Assert.assertThrows(IllegalArgumentException.class, () -> r.decrement("A"));
+            Assert.assertThrows(IllegalArgumentException.class, () -> r.decrement("X"));
+        }
+    }
+
+    @Test
+    public void randomTest() {
+        // a model that sorts the elements by counter and then by the number of their last update
+        Map<String, Integer> counts = new HashMap<>();
+        Map<String, Long> ticks = new HashMap<>();
+        StripedCounterRanking<String> one = new StripedCounterRanking<>(new LockStripes(1), Function.identity());
+        StripedCounterRanking<String> striped = new StripedCounterRanking<>(new LockStripes(STRIPES), Function.identity());
+        Random r = new Random(7);
+        long tick = 0;
+
+        for (int i = 0; i < 20000; i++) {
+            String e = "E" + r.nextInt(200);
+            if (counts.getOrDefault(e, 0) > 0 && r.nextInt(3) == 0) {
+                Assert.assertEquals(counts.get(e) - 1, one.decrement(e));
+                Assert.assertEquals(counts.get(e) - 1, striped.decrement(e));
+                counts.put(e, counts.get(e) - 1);
+                ticks.put(e, -(++tick));
+            }
+            else {
+                Assert.assertEquals(counts.getOrDefault(e, 0) + 1, one.increment(e));
+                Assert.assertEquals(counts.getOrDefault(e, 0) + 1, striped.increment(e));
+                counts.put(e, counts.getOrDefault(e, 0) + 1);
+                ticks.put(e, ++tick);
+            }
+
+            if (i % 1000 == 0) {
+                List<String> expected = new ArrayList<>(counts.keySet());
+                expected.sort((a, b) -> (!counts.get(a).equals(counts.get(b)) ? counts.get(b) - counts.get(a)
+                        : Long.compare(ticks.get(a), ticks.get(b))));
+                Assert.assertEquals(expected, values(one));
+                Assert.assertEquals(expected, values(striped));
+                Assert.assertEquals(expected.get(0), striped.first());
+            }
+        }
+    }
+
+    @Test
+    public void appendAllTest() {
+        StripedCounterRanking<String> r = new StripedCounterRanking<>(new LockStripes(STRIPES), Function.identity());
+        String[] elems = {"A", "B", "C", "D", "E"};
+        r.appendAll(elems, new int[] {5, 3, 3, 1, 0}, elems.length);
+        Assert.assertEquals(List.of(elems), values(r));
+        Assert.assertEquals(3, r.count("C"));
+
+        // it goes on from the restored order
+        r.increment("C");
+        r.increment("E");
+        Assert.assertEquals(List.of("A", "C", "B", "D", "E"), values(r));
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> r.appendAll(new String[] {"A"}, new int[] {0}, 1));
+        StripedCounterRanking<String> one = new StripedCounterRanking<>(new LockStripes(1), Function.identity());
+        Assert.assertThrows(IllegalArgumentException.class, () ->
+                one.appendAll(new String[] {"A", "B"}, new int[] {1, 2}, 2));
+    }
+
+    @Test
+    public void concurrentTest() throws Exception {
+        // each thread updates its own elements, in stripes shared with the other threads
+        StripedCounterRanking<String> r = new StripedCounterRanking<>(new LockStripes(STRIPES), Function.identity());
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int thread = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    String e = "T" + thread + "-" + (i % 50);
+                    r.increment(e);
+                    if (i % 3 == 0) {
+                        r.decrement(e);
+                    }
+                    r.first();
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+
+        Assert.assertEquals(threads.length * 50, r.size());
+        int total = 0;
+        for (Iterator<String> it = r.values(); it.hasNext(); ) {
+            total += r.count(it.next());
+        }
+        Assert.assertEquals(threads.length * (10000 - 3334), total);
+    }
+}
@@ -0,0 +1,108 @@
+package uoc.ds.pr.util;
+
+import edu.uoc.ds.traversal.Iterator;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+public class StripedRankingTest {
+    private static final int STRIPES = 8;
+    private static final int LEN = 300;
+
+    Map<String, Double> keys;
+    StripedRanking<String> r;
+    // a single tree with the same elements, as the reference
+    OrderStatisticTree<String> t;
+
+    @Before
+    public void setUp() {
+        keys = new HashMap<>();
+        r = new StripedRanking<String>(new LockStripes(STRIPES), Function.identity(), keys::get);
+        t = new OrderStatisticTree<String>(Comparator.comparingDouble((String e) -> keys.get(e)).reversed());
+    }
+
+    private void update(String e, double key) {
+        keys.put(e, key);
+        r.update(e);
+        t.update(e);
+    }
+
+    private static List<String> list(Iterator<String> it) {
+        List<String> elems = new ArrayList<>();
+        while (it.hasNext()) {
+            elems.add(it.next());
+        }
+        return elems;
+    }
+
+    private void assertSameOrder() {
+        Assert.assertEquals(t.size(), r.size());
+        Assert.assertEquals(list(t.values(t.size())), list(r.values(r.size())));
+        Assert.assertEquals(list(t.values(10)), list(r.values(10)));
+        Assert.assertEquals(t.first(), r.first());
+        for (Iterator<String> it = t.values(t.size()); it.hasNext(); ) {
+            String e = it.next();
+            Assert.assertEquals(t.position(e), r.position(e));
+        }
+    }
+
+    @Test
+    public void test() {
+        Assert.assertTrue(r.isEmpty());
+        Assert.assertNull(r.first());
+        Assert.assertFalse(r.values(3).hasNext());
+
+        update("A", 2);
+        update("B", 3);
+        update("C", 2);
+        Assert.assertEquals(List.of("B", "A", "C"), list(r.values(3)));
+
+        // the elements with the same key are in the order they reached it, in any stripe
+        update("A", 2);
+        Assert.assertEquals(List.of("B", "C", "A"), list(r.values(3)));
+        Assert.assertEquals(2, r.position("A"));
+        Assert.assertEquals(-1, r.position("X"));
+        Assert.assertTrue(r.contains("C"));
+        Assert.assertFalse(r.contains("X"));
+        assertSameOrder();
+    }
+
+    @Test
+    public void randomTest() {
+        Random random = new Random(5);
+        for (int i = 0; i < 5000; i++) {
+            // few keys, so there are many ties
+            update("E" + random.nextInt(LEN), random.nextInt(10) / 2.0);
+            if (i % 500 == 0) {
+                assertSameOrder();
+            }
+        }
+        assertSameOrder();
+    }
+
+    @Test
+    public void addAllTest() {
+        update("A", 1);
+        String[] batch = new String[LEN];
+        for (int i = 0; i < batch.length; i++) {
+            batch[i] = "N" + i;
+            keys.put(batch[i], (double) (i % 7));
+        }
+        r.addAll(batch, batch.length);
+        t.addAll(batch, batch.length);
+        assertSameOrder();
+
+        // it goes on from the order of the batch
+        update("N3", 1);
+        update("A", 6);
+        assertSameOrder();
+    }
+}
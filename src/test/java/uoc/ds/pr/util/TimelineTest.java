@@ -0,0 +1,154 @@
+package uoc.ds.pr.util;
+
+import edu.uoc.ds.traversal.Iterator;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+public class TimelineTest {
+    private static final int CAPACITY = 5;
+    private static final int MAX_FAN_OUT = 2;
+
+    IdTable<String> ids;
+    FollowerGraph<String> g;
+    Timeline<String, String> t;
+
+    @Before
+    public void setUp() {
+        // the strings get their handles as they are added to the graph
+        ids = new IdTable<String>();
+        g = new FollowerGraph<String>(s -> ids.put(s, s));
+        t = new Timeline<String, String>(g, CAPACITY, MAX_FAN_OUT);
+    }
+
+    private void follow(String elem, String follower) {
+        if (g.addFollower(elem, follower)) {
+            t.follow(elem, follower);
+        }
+    }
+
+    private void assertPage(Page<String> page, String... expected) {
+        Assert.assertEquals(expected.length, page.size());
+        Iterator<String> it = page.values();
+        for (String e : expected) {
+            Assert.assertEquals(e, it.next());
+        }
+        Assert.assertFalse(it.hasNext());
+    }
+
+    @Test
+    public void fanOutOnWriteTest() {
+        t.publish("A", "a1");
+        follow("A", "X");
+        t.publish("B", "b1");
+        follow("B", "X");
+        t.publish("A", "a2");
+        t.publish("B", "b2");
+
+        Page<String> page = t.posts(ids.handle("X"), null, 3);
+        assertPage(page, "b2", "a2", "b1");
+        Assert.assertTrue(page.hasNextPage());
+
+        page = t.posts(ids.handle("X"), page.nextCursor(), 3);
+        assertPage(page, "a1");
+        Assert.assertFalse(page.hasNextPage());
+
+        Assert.assertTrue(t.posts(ids.handle("Y"), null, 3).isEmpty());
+
+        for (int i = 3; i < 10; i++) {
+            t.publish("A", "a" + i);
+        }
+        assertPage(t.posts(ids.handle("X"), null, 10), "a9", "a8", "a7", "a6", "a5");
+    }
+
+    @Test
+    public void fanOutOnReadTest() {
+        follow("A", "X");
+        t.publish("A", "a1");
+        follow("A", "Y");
+        t.publish("A", "a2");
+
+        // A has more than MAX_FAN_OUT followers: its posts are merged on read
+        follow("A", "Z");
+        t.publish("A", "a3");
+        t.publish("B", "b1");
+        follow("B", "X");
+        t.publish("A", "a4");
+
+        assertPage(t.posts(ids.handle("X"), null, 10), "a4", "b1", "a3", "a2", "a1");
+        assertPage(t.posts(ids.handle("Z"), null, 10), "a4", "a3", "a2", "a1");
+
+        Page<String> page = t.posts(ids.handle("X"), null, 2);
+        assertPage(page, "a4", "b1");
+        page = t.posts(ids.handle("X"), page.nextCursor(), 2);
+        assertPage(page, "a3", "a2");
+        page = t.posts(ids.handle("X"), page.nextCursor(), 2);
+        assertPage(page, "a1");
+        Assert.assertFalse(page.hasNextPage());
+
+        follow("A", "W");
+        assertPage(t.posts(ids.handle("W"), null, 10), "a4", "a3", "a2", "a1");
+    }
+
+    @Test
+    public void concurrentPublishTest() throws Exception {
+        // the handles are given before, so the graph is only read while the posts are published
+        int authors = 4;
+        int posts = 2000;
+        IdTable<String> names = new IdTable<String>();
+        for (String name : new String[] {"A0", "A1", "A2", "A3", "X", "Y", "Z"}) {
+            names.put(name, name);
+        }
+        FollowerGraph<String> graph = new FollowerGraph<String>(names::handle);
+        Timeline<String, String> timeline = new Timeline<String, String>(graph, authors * posts, MAX_FAN_OUT);
+        for (int a = 0; a < authors; a++) {
+            for (String follower : (a == 0 ? new String[] {"X", "Y", "Z"} : new String[] {"X"})) {
+                graph.addFollower("A" + a, follower);
+                timeline.follow("A" + a, follower);
+            }
+        }
+
+        // each thread publishes the posts of an author while it reads the timeline of X
+        Thread[] threads = new Thread[authors];
+        for (int a = 0; a < authors; a++) {
+            String author = "A" + a;
+            threads[a] = new Thread(() -> {
+                for (int i = 0; i < posts; i++) {
+                    timeline.publish(author, author + "-" + i);
+                    if (i % 100 == 0) {
+                        timeline.posts(names.handle("X"), null, 10);
+                    }
+                }
+            });
+            threads[a].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // all the posts are there once, and the ones of each author from the newest
+        Set<String> seen = new HashSet<>();
+        int[] last = new int[authors];
+        Arrays.fill(last, posts);
+        Page<String> page = timeline.posts(names.handle("X"), null, 300);
+        while (true) {
+            for (Iterator<String> it = page.values(); it.hasNext(); ) {
+                String post = it.next();
+                Assert.assertTrue(seen.add(post));
+                int a = post.charAt(1) - '0';
+                int i = Integer.parseInt(post.substring(3));
+                Assert.assertEquals(last[a] - 1, i);
+                last[a] = i;
+            }
+            if (!page.hasNextPage()) {
+                break;
+            }
+            page = timeline.posts(names.handle("X"), page.nextCursor(), 300);
+        }
+        Assert.assertEquals(authors * posts, seen.size());
+    }
+}
@@ -0,0 +1,101 @@
+package uoc.ds.pr.util;
+
+import edu.uoc.ds.traversal.Iterator;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import uoc.ds.pr.SportEvents4Club;
+import uoc.ds.pr.model.File;
+import uoc.ds.pr.model.OrganizingEntity;
+import uoc.ds.pr.model.Role;
+import uoc.ds.pr.model.SportEvent;
+import uoc.ds.pr.model.Worker;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static uoc.ds.pr.util.DateUtils.createLocalDate;
+
+public class WorkerDirectoryTest {
+
+    Map<String, Role> roles;
+    WorkerDirectory directory;
+    SportEvent ev1;
+    SportEvent ev2;
+
+    private SportEvent newSportEvent(String eventId, OrganizingEntity org) {
+        return new File("F-" + eventId, eventId, "description", SportEvents4Club.Type.MICRO,
+                createLocalDate("22-11-2022"), createLocalDate("15-12-2022"), (byte) 0, 22, org).newSportEvent();
+    }
+
+    private Worker newWorker(String dni, String name, String roleId) {
+        return new Worker(dni, name, "surname", createLocalDate("23-04-2000"), roleId);
+    }
+
+    @Before
+    public void setUp() {
+        roles = new HashMap<>();
+        roles.put("R1", new Role("R1", "referee"));
+        roles.put("R2", new Role("R2", "maintenance"));
+        directory = new WorkerDirectory(roles::get);
+
+        OrganizingEntity org = new OrganizingEntity("ORG-1", "ORG_XXXX", "description XXXXX");
+        ev1 = newSportEvent("EV-1", org);
+        ev2 = newSportEvent("EV-2", org);
+
+        Assert.assertNull(directory.put(newWorker("W1", "Rafa", "R1")));
+        Assert.assertNull(directory.put(newWorker("W2", "Anna", "R1")));
+        Assert.assertNull(directory.put(newWorker("W3", "Quim", "R2")));
+    }
+
+    @Test
+    public void unknownRoleTest() {
+        Assert.assertTrue(directory.assign(directory.getWorker("W1"), ev1));
+
+        // neither a new worker nor an update with a role that does not exist changes the directory
+        Assert.assertThrows(IllegalArgumentException.class, () -> directory.put(newWorker("W4", "Pau", "R9")));
+        Assert.assertThrows(IllegalArgumentException.class, () -> directory.put(newWorker("W1", "Rafael", "R9")));
+
+        Assert.assertEquals(3, directory.numWorkers());
+        Assert.assertNull(directory.getWorker("W4"));
+        Assert.assertEquals("Rafa", directory.getWorker("W1").getName());
+        Assert.assertEquals("Rafa", ev1.getWorkerByDni("W1").getName());
+        Assert.assertEquals(2, roles.get("R1").numWorkers());
+        Assert.assertEquals(1, roles.get("R2").numWorkers());
+    }
+
+    @Test
+    public void test() {
+        Assert.assertEquals(3, directory.numWorkers());
+        Assert.assertEquals(2, roles.get("R1").numWorkers());
+        Assert.assertEquals("Anna", directory.getWorker("W2").getName());
+        Assert.assertNull(directory.getWorker("XXX"));
+
+        Assert.assertTrue(directory.assign(directory.getWorker("W1"), ev1));
+        Assert.assertTrue(directory.assign(directory.getWorker("W1"), ev2));
+        Assert.assertTrue(directory.assign(directory.getWorker("W2"), ev1));
+        Assert.assertFalse(directory.assign(directory.getWorker("W1"), ev1));
+
+        Assert.assertEquals(2, ev1.numWorkers());
+        Assert.assertEquals(2, directory.numSportEventsByWorker("W1"));
+        Assert.assertEquals(0, directory.numSportEventsByWorker("W3"));
+
+        Iterator<SportEvent> it = directory.sportEventsByWorker("W1");
+        Assert.assertEquals("EV-1", it.next().getEventId());
+        Assert.assertEquals("EV-2", it.next().getEventId());
+        Assert.assertFalse(it.hasNext());
+
+        // update W1 changing its role: it keeps its assignments
+        Worker old = directory.put(newWorker("W1", "Rafael", "R2"));
+        Assert.assertEquals("Rafa", old.getName());
+        Assert.assertEquals(3, directory.numWorkers());
+        Assert.assertEquals(1, roles.get("R1").numWorkers());
+        Assert.assertEquals(2, roles.get("R2").numWorkers());
+        Assert.assertEquals("Rafael", ev2.getWorkerByDni("W1").getName());
+
+        Iterator<Worker> itW = ev1.getWorkers();
+        Assert.assertEquals("Rafael", itW.next().getName());
+        Assert.assertEquals("Anna", itW.next().getName());
+        Assert.assertFalse(itW.hasNext());
+    }
+}